@@ -0,0 +1,35 @@
+package jit.edu.paas.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口
+ * 用法：java -jar target/benchmarks.jar [JMH参数]，结果以JSON格式写入target/jmh-result.json，
+ * 可使用-rff指定其他文件，便于与历史结果对比
+ * @author jitwxs
+ * @since 2026/10/18 18:30
+ */
+public class BenchmarkRunner {
+    private static final String RESULT_FILE = "target/jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cmd);
+        if(!cmd.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if(!cmd.getResult().hasValue()) {
+            builder.result(RESULT_FILE);
+        }
+        if(cmd.getIncludes().isEmpty()) {
+            builder.include("jit\\.edu\\.paas\\.benchmark\\..*Benchmark");
+        }
+        new Runner(builder.build()).run();
+    }
+}
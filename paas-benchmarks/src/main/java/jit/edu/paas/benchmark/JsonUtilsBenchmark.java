@@ -0,0 +1,71 @@
+package jit.edu.paas.benchmark;
+
+import jit.edu.paas.commons.activemq.Task;
+import jit.edu.paas.commons.util.JsonUtils;
+import jit.edu.paas.domain.vo.ContainerMonitorVO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonUtils序列化与反序列化：监控数据和MQ消息
+ * @author jitwxs
+ * @since 2026/10/18 18:42
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonUtilsBenchmark {
+    private ContainerMonitorVO monitorVO;
+    private String monitorJson;
+    private Task task;
+    private String taskJson;
+
+    @Setup
+    public void setup() {
+        monitorVO = new ContainerMonitorVO();
+        monitorVO.setTimestamp(System.currentTimeMillis());
+        monitorVO.setRxBytes(50.0);
+        monitorVO.setTxBytes(10.0);
+        monitorVO.setRxPackets(40960);
+        monitorVO.setTxPackets(20480);
+        monitorVO.setCpuUtilization(10.0);
+        monitorVO.setMemoryUsage(100.0);
+        monitorVO.setMemoryLimit(2048.0);
+        monitorVO.setMemoryUtilization(4.883);
+        monitorVO.setBlockRead(10.0);
+        monitorVO.setBlockWrite(2.0);
+        monitorJson = JsonUtils.objectToJson(monitorVO);
+
+        Map<String, String> data = new HashMap<>(16);
+        data.put("uid", "5a3f6c2e9b1d4e7f8a0b1c2d3e4f5a6b");
+        data.put("data", "{\"code\":0,\"message\":\"成功\",\"data\":{\"type\":1}}");
+        task = new Task("拉取镜像", data);
+        taskJson = JsonUtils.objectToJson(task);
+    }
+
+    @Benchmark
+    public String monitorToJson() {
+        return JsonUtils.objectToJson(monitorVO);
+    }
+
+    @Benchmark
+    public ContainerMonitorVO monitorFromJson() {
+        return JsonUtils.jsonToObject(monitorJson, ContainerMonitorVO.class);
+    }
+
+    @Benchmark
+    public String taskToJson() {
+        return JsonUtils.objectToJson(task);
+    }
+
+    @Benchmark
+    public Task taskFromJson() {
+        return JsonUtils.jsonToObject(taskJson, Task.class);
+    }
+}
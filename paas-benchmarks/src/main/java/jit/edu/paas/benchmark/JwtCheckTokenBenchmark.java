@@ -0,0 +1,88 @@
+package jit.edu.paas.benchmark;
+
+import jit.edu.paas.benchmark.support.InMemoryJedisClient;
+import jit.edu.paas.commons.util.JwtUtils;
+import jit.edu.paas.commons.util.jedis.JedisBroadcaster;
+import jit.edu.paas.domain.vo.ResultVO;
+import jit.edu.paas.service.SysLoginService;
+import jit.edu.paas.service.impl.JwtServiceImpl;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtServiceImpl.checkToken，Redis使用内存实现，预置tokens个有效Token
+ * cacheTtl为0时每次校验都访问Redis，否则命中本地缓存
+ * legacyScan为按值遍历全部Token的旧实现，作为对照
+ * @author jitwxs
+ * @since 2026/10/18 18:35
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtCheckTokenBenchmark {
+    private static final String KEY = "sys_token";
+    private static final String UID_KEY = "sys_token_uid";
+
+    @Param({"100", "10000"})
+    private int tokens;
+
+    @Param({"0", "30"})
+    private int cacheTtl;
+
+    private JwtServiceImpl jwtService;
+    private InMemoryJedisClient jedisClient;
+    private String[] tokenArray;
+
+    @Setup
+    public void setup() {
+        jedisClient = new InMemoryJedisClient();
+        tokenArray = new String[tokens];
+        for(int i = 0; i < tokens; i++) {
+            String uid = UUID.randomUUID().toString().replace("-", "");
+            Map<String, Object> map = new HashMap<>(16);
+            map.put("uid", uid);
+            map.put("rid", 2);
+            map.put("timestamp", System.currentTimeMillis());
+            String token = JwtUtils.sign(map, 6 * 3600 * 1000);
+
+            jedisClient.hset(KEY, "user" + i, token);
+            jedisClient.hset(UID_KEY, uid, token);
+            tokenArray[i] = token;
+        }
+
+        jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "jedisClient", jedisClient);
+        ReflectionTestUtils.setField(jwtService, "loginService", Mockito.mock(SysLoginService.class, Mockito.withSettings().stubOnly()));
+        ReflectionTestUtils.setField(jwtService, "broadcaster", Mockito.mock(JedisBroadcaster.class, Mockito.withSettings().stubOnly()));
+        ReflectionTestUtils.setField(jwtService, "key", KEY);
+        ReflectionTestUtils.setField(jwtService, "uidKey", UID_KEY);
+        ReflectionTestUtils.setField(jwtService, "revokeChannel", "token_revoke");
+        ReflectionTestUtils.setField(jwtService, "cacheTtl", cacheTtl);
+        ReflectionTestUtils.setField(jwtService, "expireHour", 6);
+    }
+
+    @Benchmark
+    public ResultVO checkToken() {
+        return jwtService.checkToken(nextToken());
+    }
+
+    @Benchmark
+    public boolean legacyScan() {
+        String token = nextToken();
+        return JwtUtils.unSign(token) != null && jedisClient.hvals(KEY).contains(token);
+    }
+
+    private String nextToken() {
+        return tokenArray[ThreadLocalRandom.current().nextInt(tokenArray.length)];
+    }
+}
@@ -0,0 +1,43 @@
+package jit.edu.paas.benchmark;
+
+import jit.edu.paas.commons.util.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtils签名与验签，每个请求都会经过验签
+ * @author jitwxs
+ * @since 2026/10/18 18:32
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+    private Map<String, Object> claims;
+    private String token;
+
+    @Setup
+    public void setup() {
+        claims = new HashMap<>(16);
+        claims.put("uid", "5a3f6c2e9b1d4e7f8a0b1c2d3e4f5a6b");
+        claims.put("rid", 2);
+        claims.put("timestamp", System.currentTimeMillis());
+        token = JwtUtils.sign(claims, 6 * 3600 * 1000);
+    }
+
+    @Benchmark
+    public String sign() {
+        return JwtUtils.sign(claims, 6 * 3600 * 1000);
+    }
+
+    @Benchmark
+    public Map unSign() {
+        return JwtUtils.unSign(token);
+    }
+}
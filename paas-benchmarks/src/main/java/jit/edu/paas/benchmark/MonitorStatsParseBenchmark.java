@@ -0,0 +1,56 @@
+package jit.edu.paas.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotify.docker.client.ObjectMapperProvider;
+import com.spotify.docker.client.messages.ContainerStats;
+import jit.edu.paas.commons.convert.ContainerMonitorVOConvert;
+import jit.edu.paas.domain.vo.ContainerMonitorVO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MonitorServiceImpl.getCurrentInfo的解析部分：Docker stats JSON --> ContainerStats --> ContainerMonitorVO
+ * @author jitwxs
+ * @since 2026/10/18 18:40
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonitorStatsParseBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getContext(ContainerStats.class);
+    private final ContainerMonitorVOConvert monitorVOConvert = new ContainerMonitorVOConvert();
+
+    private String json;
+    private ContainerStats stats;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = MonitorStatsParseBenchmark.class.getResourceAsStream("/container-stats.json")) {
+            json = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+        stats = objectMapper.readValue(json, ContainerStats.class);
+    }
+
+    @Benchmark
+    public ContainerStats parse() throws IOException {
+        return objectMapper.readValue(json, ContainerStats.class);
+    }
+
+    @Benchmark
+    public ContainerMonitorVO convert() {
+        return monitorVOConvert.convert(stats);
+    }
+
+    @Benchmark
+    public ContainerMonitorVO parseAndConvert() throws IOException {
+        return monitorVOConvert.convert(objectMapper.readValue(json, ContainerStats.class));
+    }
+}
@@ -0,0 +1,125 @@
+package jit.edu.paas.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.ObjectMapperProvider;
+import com.spotify.docker.client.messages.ContainerConfig;
+import com.spotify.docker.client.messages.Image;
+import com.spotify.docker.client.messages.ImageInfo;
+import jit.edu.paas.benchmark.support.InMemoryJedisClient;
+import jit.edu.paas.commons.cache.TwoLevelCacheManager;
+import jit.edu.paas.commons.util.jedis.JedisBroadcaster;
+import jit.edu.paas.domain.entity.SysImage;
+import jit.edu.paas.domain.vo.ResultVO;
+import jit.edu.paas.mapper.SysImageMapper;
+import jit.edu.paas.service.impl.SysImageServiceImpl;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SysImageServiceImpl.sync的比对开销
+ * 数据库与本地各有images个镜像，其中1%为本地新增、1%为数据库中已失效，数据库和Docker使用桩实现
+ * @author jitwxs
+ * @since 2026/10/18 18:50
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SysImageSyncBenchmark {
+    private static final String KEY = "local_image";
+    private static final int INSPECT_PARALLEL = 8;
+
+    @Param({"1000", "10000"})
+    private int images;
+
+    private SysImageServiceImpl imageService;
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapperProvider().getContext(Image.class);
+        int diff = Math.max(1, images / 100);
+
+        // 本地镜像：[diff, images + diff)，数据库：[0, images)
+        List<Image> localImages = new ArrayList<>(images);
+        for(int i = diff; i < images + diff; i++) {
+            Map<String, Object> map = new HashMap<>(16);
+            map.put("Id", String.format("sha256:%064x", i));
+            map.put("ParentId", "");
+            map.put("Created", "1539856831");
+            map.put("RepoTags", Collections.singletonList(repoTag(i)));
+            map.put("Size", 109_000_000L);
+            map.put("VirtualSize", 109_000_000L);
+            localImages.add(objectMapper.convertValue(map, Image.class));
+        }
+
+        List<SysImage> dbImages = new ArrayList<>(images);
+        for(int i = 0; i < images; i++) {
+            SysImage sysImage = new SysImage();
+            sysImage.setId("image-" + i);
+            sysImage.setImageId(String.format("%064x", i));
+            sysImage.setFullName(repoTag(i));
+            dbImages.add(sysImage);
+        }
+
+        SysImageMapper imageMapper = Mockito.mock(SysImageMapper.class, Mockito.withSettings().stubOnly());
+        Mockito.when(imageMapper.listIdAndFullName()).thenReturn(dbImages);
+
+        ContainerConfig config = Mockito.mock(ContainerConfig.class, Mockito.withSettings().stubOnly());
+        Mockito.when(config.cmd()).thenReturn(ImmutableList.of("nginx", "-g", "daemon off;"));
+        ImageInfo info = Mockito.mock(ImageInfo.class, Mockito.withSettings().stubOnly());
+        Mockito.when(info.containerConfig()).thenReturn(config);
+
+        DockerClient dockerClient = Mockito.mock(DockerClient.class, Mockito.withSettings().stubOnly());
+        Mockito.when(dockerClient.listImages(ArgumentMatchers.<DockerClient.ListImagesParam>any())).thenReturn(localImages);
+        Mockito.when(dockerClient.inspectImage(ArgumentMatchers.anyString())).thenReturn(info);
+
+        imageService = new SysImageServiceImpl();
+        ReflectionTestUtils.setField(imageService, "imageMapper", imageMapper);
+        ReflectionTestUtils.setField(imageService, "dockerClient", dockerClient);
+        ReflectionTestUtils.setField(imageService, "cacheManager", cacheManager(new InMemoryJedisClient()));
+        ReflectionTestUtils.setField(imageService, "key", KEY);
+        imageService.init();
+        ReflectionTestUtils.setField(imageService, "inspectParallel", INSPECT_PARALLEL);
+        executor = Executors.newFixedThreadPool(INSPECT_PARALLEL);
+        ReflectionTestUtils.setField(imageService, "taskExecutor", executor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public ResultVO sync() {
+        return imageService.sync();
+    }
+
+    private static TwoLevelCacheManager cacheManager(InMemoryJedisClient jedisClient) {
+        JedisBroadcaster broadcaster = new JedisBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "jedisClient", jedisClient);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager();
+        ReflectionTestUtils.setField(cacheManager, "jedisClient", jedisClient);
+        ReflectionTestUtils.setField(cacheManager, "broadcaster", broadcaster);
+        ReflectionTestUtils.setField(cacheManager, "evictChannel", "cache_evict");
+        ReflectionTestUtils.setField(cacheManager, "maxWeight", 4194304L);
+        ReflectionTestUtils.setField(cacheManager, "ttl", 300L);
+        ReflectionTestUtils.setField(cacheManager, "absentTtl", 30L);
+        return cacheManager;
+    }
+
+    private static String repoTag(int i) {
+        return "repo" + (i % 50) + "/image" + i + ":latest";
+    }
+}
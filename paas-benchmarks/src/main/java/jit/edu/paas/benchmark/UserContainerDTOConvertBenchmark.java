@@ -0,0 +1,78 @@
+package jit.edu.paas.benchmark;
+
+import com.baomidou.mybatisplus.plugins.Page;
+import jit.edu.paas.commons.convert.UserContainerDTOConvert;
+import jit.edu.paas.commons.docker.ContainerStateCache;
+import jit.edu.paas.domain.dto.UserContainerDTO;
+import jit.edu.paas.domain.dto.UserProjectDTO;
+import jit.edu.paas.domain.entity.UserContainer;
+import jit.edu.paas.service.UserProjectService;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserContainerDTOConvert分页转换，项目的批量查询使用桩实现，只衡量转换本身的开销
+ * @author jitwxs
+ * @since 2026/10/18 18:45
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserContainerDTOConvertBenchmark {
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private UserContainerDTOConvert dtoConvert;
+    private Page<UserContainer> page;
+
+    @Setup
+    public void setup() {
+        Map<String, UserProjectDTO> projectMap = new HashMap<>(16);
+        for(int i = 0; i < 5; i++) {
+            UserProjectDTO project = new UserProjectDTO();
+            project.setId("project-" + i);
+            project.setName("demo-project");
+            project.setUserId("user-1");
+            project.setUsername("jitwxs");
+            projectMap.put(project.getId(), project);
+        }
+        UserProjectService projectService = Mockito.mock(UserProjectService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(projectService.getByIds(ArgumentMatchers.anyCollection())).thenReturn(projectMap);
+
+
+        dtoConvert = new UserContainerDTOConvert();
+        ReflectionTestUtils.setField(dtoConvert, "projectService", projectService);
+        ReflectionTestUtils.setField(dtoConvert, "stateCache", new ContainerStateCache());
+        ReflectionTestUtils.setField(dtoConvert, "serverIp", "192.168.100.100");
+
+        List<UserContainer> records = new ArrayList<>(pageSize);
+        for(int i = 0; i < pageSize; i++) {
+            UserContainer container = new UserContainer();
+            container.setId("container-" + i);
+            container.setProjectId("project-" + (i % 5));
+            container.setUserId("user-1");
+            container.setName("demo-" + i);
+            container.setImage("nginx:latest");
+            container.setPort("{\"80/tcp\":\"32768\"}");
+            container.setStatus(i % 4);
+            container.setCreateDate(new Date());
+            records.add(container);
+        }
+        page = new Page<>(1, pageSize);
+        page.setRecords(records);
+        page.setTotal(pageSize);
+    }
+
+    @Benchmark
+    public Page<UserContainerDTO> convertPage() {
+        return dtoConvert.convert(page);
+    }
+}
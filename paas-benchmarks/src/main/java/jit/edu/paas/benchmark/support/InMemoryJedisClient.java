@@ -0,0 +1,287 @@
+package jit.edu.paas.benchmark.support;
+
+import jit.edu.paas.commons.util.jedis.JedisClient;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * 基于内存的JedisClient，用于基准测试中替代Redis
+ * 不支持过期、发布订阅和Pipeline
+ * @author jitwxs
+ * @since 2026/10/18 18:55
+ */
+public class InMemoryJedisClient implements JedisClient {
+    private final Map<String, String> strings = new ConcurrentHashMap<>(16);
+    private final Map<String, Map<String, String>> hashes = new ConcurrentHashMap<>(16);
+    private final Map<String, Set<String>> sets = new ConcurrentHashMap<>(16);
+    private final Map<String, ZSet> zsets = new ConcurrentHashMap<>(16);
+
+    @Override
+    public String set(String key, String value) {
+        strings.put(key, value);
+        return "OK";
+    }
+
+    @Override
+    public String get(String key) {
+        return strings.get(key);
+    }
+
+    @Override
+    public Boolean exists(String key) {
+        return strings.containsKey(key) || hashes.containsKey(key) || sets.containsKey(key) || zsets.containsKey(key);
+    }
+
+    @Override
+    public Long del(String key) {
+        boolean removed = strings.remove(key) != null | hashes.remove(key) != null
+                | sets.remove(key) != null | zsets.remove(key) != null;
+        return removed ? 1L : 0L;
+    }
+
+    @Override
+    public Long expire(String key, int seconds) {
+        return exists(key) ? 1L : 0L;
+    }
+
+    @Override
+    public Long ttl(String key) {
+        return exists(key) ? -1L : -2L;
+    }
+
+    @Override
+    public Long incr(String key) {
+        return Long.valueOf(strings.merge(key, "1", (a, b) -> String.valueOf(Long.parseLong(a) + 1)));
+    }
+
+    @Override
+    public Long hset(String key, String field, String value) {
+        return hash(key).put(field, value) == null ? 1L : 0L;
+    }
+
+    @Override
+    public String hget(String key, String field) {
+        Map<String, String> hash = hashes.get(key);
+        return hash == null ? null : hash.get(field);
+    }
+
+    @Override
+    public List<String> hmget(String key, String... field) {
+        Map<String, String> hash = hashes.get(key);
+        List<String> result = new ArrayList<>(field.length);
+        for(String f : field) {
+            result.add(hash == null ? null : hash.get(f));
+        }
+        return result;
+    }
+
+    @Override
+    public String hmset(String key, Map<String, String> hash) {
+        hash(key).putAll(hash);
+        return "OK";
+    }
+
+    @Override
+    public Long hdel(String key, String... field) {
+        Map<String, String> hash = hashes.get(key);
+        if(hash == null) {
+            return 0L;
+        }
+        long count = 0;
+        for(String f : field) {
+            if(hash.remove(f) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Boolean hexists(String key, String field) {
+        Map<String, String> hash = hashes.get(key);
+        return hash != null && hash.containsKey(field);
+    }
+
+    @Override
+    public Set<String> hkeys(String key) {
+        Map<String, String> hash = hashes.get(key);
+        return hash == null ? new HashSet<>() : new HashSet<>(hash.keySet());
+    }
+
+    @Override
+    public List<String> hvals(String key) {
+        Map<String, String> hash = hashes.get(key);
+        return hash == null ? new ArrayList<>() : new ArrayList<>(hash.values());
+    }
+
+    @Override
+    public Long sadd(String key, String... members) {
+        Set<String> set = sets.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+        long count = 0;
+        for(String member : members) {
+            if(set.add(member)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Set<String> smembers(String key) {
+        Set<String> set = sets.get(key);
+        return set == null ? new HashSet<>() : new HashSet<>(set);
+    }
+
+    @Override
+    public Boolean sismember(String key, String member) {
+        Set<String> set = sets.get(key);
+        return set != null && set.contains(member);
+    }
+
+    @Override
+    public Long srem(String key, String... members) {
+        Set<String> set = sets.get(key);
+        if(set == null) {
+            return 0L;
+        }
+        long count = 0;
+        for(String member : members) {
+            if(set.remove(member)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Long scard(String key) {
+        Set<String> set = sets.get(key);
+        return set == null ? 0L : set.size();
+    }
+
+    @Override
+    public String srandmember(String key) {
+        Set<String> set = sets.get(key);
+        return set == null || set.isEmpty() ? null : set.iterator().next();
+    }
+
+    @Override
+    public Long zadd(String key, Double score, String member) {
+        return zsets.computeIfAbsent(key, k -> new ZSet()).add(score, member) ? 1L : 0L;
+    }
+
+    @Override
+    public Set<String> zrange(String key, long start, long end) {
+        ZSet zset = zsets.get(key);
+        if(zset == null) {
+            return new LinkedHashSet<>();
+        }
+        List<String> members = zset.members();
+        int size = members.size();
+        int from = (int) (start < 0 ? Math.max(size + start, 0) : start);
+        int to = (int) (end < 0 ? size + end : Math.min(end, size - 1));
+        return from > to ? new LinkedHashSet<>() : new LinkedHashSet<>(members.subList(from, to + 1));
+    }
+
+    @Override
+    public Set<String> zrangeByScore(String key, double min, double max) {
+        ZSet zset = zsets.get(key);
+        return zset == null ? new LinkedHashSet<>() : zset.rangeByScore(min, max);
+    }
+
+    @Override
+    public Long zrem(String key, String... members) {
+        ZSet zset = zsets.get(key);
+        if(zset == null) {
+            return 0L;
+        }
+        long count = 0;
+        for(String member : members) {
+            if(zset.remove(member)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Long zremrangeByRank(String key, long start, long end) {
+        Set<String> members = zrange(key, start, end);
+        return zrem(key, members.toArray(new String[0]));
+    }
+
+    @Override
+    public Long zremrangeByScore(String key, double min, double max) {
+        Set<String> members = zrangeByScore(key, min, max);
+        return zrem(key, members.toArray(new String[0]));
+    }
+
+    @Override
+    public Long publish(String channel, String message) {
+        return 0L;
+    }
+
+    @Override
+    public void subscribe(JedisPubSub jedisPubSub, String... channels) {
+        throw new UnsupportedOperationException("InMemoryJedisClient不支持订阅");
+    }
+
+    @Override
+    public void pipelined(Collection<String> keys, BiConsumer<Pipeline, String> command) {
+        throw new UnsupportedOperationException("InMemoryJedisClient不支持Pipeline");
+    }
+
+    private Map<String, String> hash(String key) {
+        return hashes.computeIfAbsent(key, k -> new ConcurrentHashMap<>(16));
+    }
+
+    /**
+     * 有序集合，按分数、成员排序
+     */
+    private static class ZSet {
+        private final Map<String, Double> scores = new HashMap<>(16);
+        private final ConcurrentSkipListMap<Double, TreeSet<String>> index = new ConcurrentSkipListMap<>();
+
+        private synchronized boolean add(double score, String member) {
+            Double old = scores.put(member, score);
+            if(old != null) {
+                TreeSet<String> members = index.get(old);
+                members.remove(member);
+                if(members.isEmpty()) {
+                    index.remove(old);
+                }
+            }
+            index.computeIfAbsent(score, k -> new TreeSet<>()).add(member);
+            return old == null;
+        }
+
+        private synchronized boolean remove(String member) {
+            Double old = scores.remove(member);
+            if(old == null) {
+                return false;
+            }
+            TreeSet<String> members = index.get(old);
+            members.remove(member);
+            if(members.isEmpty()) {
+                index.remove(old);
+            }
+            return true;
+        }
+
+        private synchronized List<String> members() {
+            return index.values().stream().flatMap(Collection::stream).collect(Collectors.toList());
+        }
+
+        private synchronized Set<String> rangeByScore(double min, double max) {
+            Set<String> result = new LinkedHashSet<>();
+            index.subMap(min, true, max, true).values().forEach(result::addAll);
+            return result;
+        }
+    }
+}
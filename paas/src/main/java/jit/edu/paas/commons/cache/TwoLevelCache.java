@@ -0,0 +1,389 @@
+package jit.edu.paas.commons.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import jit.edu.paas.commons.util.HttpClientUtils;
+import jit.edu.paas.commons.util.JsonUtils;
+import jit.edu.paas.commons.util.StringUtils;
+import jit.edu.paas.commons.util.jedis.JedisClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 二级缓存：本地缓存 + Redis hash
+ * 读取顺序为本地缓存、Redis、数据库，数据库中不存在的记录默认不缓存
+ * 本地缓存按JSON长度限制容量，超出后按最近最少使用淘汰；保存JSON而不是对象，调用方修改返回的对象不会影响缓存
+ * 失效时删除Redis字段和本地缓存，并广播通知其他节点；在事务中失效时，提交后再失效一次，避免其他线程在提交前读到旧数据并重新缓存
+ * 本地未命中时，同一字段同时只有一个线程读取Redis和数据库，其他线程等待并共用其结果
+ * 开启后，数据库中不存在的记录在本地短时缓存，期间直接返回null，失效时一并删除
+ * @author jitwxs
+ * @since 2026/10/18 23:30
+ */
+@Slf4j
+public class TwoLevelCache {
+    private final TwoLevelCacheManager manager;
+    private final JedisClient jedisClient;
+    private final String key;
+
+    /**
+     * 字段 --> JSON
+     */
+    private final Cache<String, String> local;
+
+    /**
+     * 不存在的字段，未开启时为null
+     */
+    private final Cache<String, Boolean> absent;
+
+    /**
+     * 字段 --> 正在进行的加载，结果为JSON，记录不存在时为null
+     */
+    private final Map<String, CompletableFuture<String>> loading = new ConcurrentHashMap<>(16);
+
+    /**
+     * 每次失效加1，加载期间发生过失效的结果不放入本地缓存
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final AtomicLong localHitCount = new AtomicLong();
+    private final AtomicLong redisHitCount = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+    private final AtomicLong evictCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong absentHitCount = new AtomicLong();
+
+    TwoLevelCache(TwoLevelCacheManager manager, JedisClient jedisClient, String key, long maxWeight, long ttl,
+                  long absentTtl) {
+        this.manager = manager;
+        this.jedisClient = jedisClient;
+        this.key = key;
+        this.local = CacheBuilder.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String field, String json) -> field.length() + json.length())
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.absent = absentTtl <= 0 ? null : CacheBuilder.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(absentTtl, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 是否在本地缓存不存在的记录
+     */
+    public boolean isCacheAbsent() {
+        return absent != null;
+    }
+
+    /**
+     * 读取对象
+     * @param field Redis hash中的字段
+     * @param loader 缓存未命中时从数据库加载，返回null时只在开启后短时缓存于本地
+     * @author jitwxs
+     * @since 2026/10/18 23:35
+     */
+    public <T> T get(String field, Class<T> type, Supplier<T> loader) {
+        return get(field, json -> JsonUtils.jsonToObject(json, type), loader);
+    }
+
+    /**
+     * 读取对象列表
+     * @author jitwxs
+     * @since 2026/10/18 23:35
+     */
+    public <T> List<T> getList(String field, Class<T> type, Supplier<List<T>> loader) {
+        return get(field, json -> JsonUtils.jsonToList(json, type), loader);
+    }
+
+    private <T> T get(String field, Function<String, T> parser, Supplier<T> loader) {
+        // 1、本地缓存
+        String json = local.getIfPresent(field);
+        if (json != null) {
+            T value = parser.apply(json);
+            if (value != null) {
+                localHitCount.incrementAndGet();
+                return value;
+            }
+            local.invalidate(field);
+        }
+
+        if (absent != null && absent.getIfPresent(field) != null) {
+            absentHitCount.incrementAndGet();
+            return null;
+        }
+
+        // 同一字段已在加载时等待其结果，每个调用方各自解析，互不影响
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> running = loading.putIfAbsent(field, flight);
+        if (running != null) {
+            coalescedCount.incrementAndGet();
+            try {
+                json = running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+            return json == null ? null : parser.apply(json);
+        }
+
+        try {
+            return load(field, parser, loader, flight);
+        } catch (RuntimeException | Error e) {
+            // 等待的调用方抛出同样的异常
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(field, flight);
+        }
+    }
+
+    /**
+     * 依次读取Redis和数据库，完成flight
+     */
+    private <T> T load(String field, Function<String, T> parser, Supplier<T> loader, CompletableFuture<String> flight) {
+        // 2、Redis
+        long current = version.get();
+        String json;
+        try {
+            json = jedisClient.hget(key, field);
+        } catch (Exception e) {
+            log.error("缓存读取异常，错误位置：{}，key：{}，field：{}", "TwoLevelCache.get()", key, field);
+            json = null;
+        }
+        if (StringUtils.isNotBlank(json)) {
+            T value = parser.apply(json);
+            if (value != null) {
+                redisHitCount.incrementAndGet();
+                putLocal(field, json, current);
+                flight.complete(json);
+                return value;
+            }
+        }
+
+        // 3、数据库
+        long start = System.nanoTime();
+        T value = loader.get();
+        loadCount.incrementAndGet();
+        loadNanos.addAndGet(System.nanoTime() - start);
+        if (value == null) {
+            if (absent != null && version.get() == current) {
+                absent.put(field, Boolean.TRUE);
+                if (version.get() != current) {
+                    absent.invalidate(field);
+                }
+            }
+            flight.complete(null);
+            return null;
+        }
+
+        json = JsonUtils.objectToJson(value);
+        if (json != null) {
+            try {
+                jedisClient.hset(key, field, json);
+            } catch (Exception e) {
+                log.error("缓存存储异常，错误位置：{}，key：{}，field：{}", "TwoLevelCache.get()", key, field);
+            }
+            putLocal(field, json, current);
+        }
+        flight.complete(json);
+        return value;
+    }
+
+    /**
+     * 批量读取对象
+     * 本地缓存未命中的一次hmget读取Redis，Redis也未命中的交给loader一次加载，加载结果一次hmset写回
+     * @param prefix 字段前缀，字段为prefix + id
+     * @param loader 参数为未命中的ID，返回ID --> 对象，不存在的ID不放入结果
+     * @return ID --> 对象，不存在的ID不在结果中
+     * @author jitwxs
+     * @since 2026/10/18 23:55
+     */
+    public <T> Map<String, T> getAll(String prefix, Collection<String> ids, Class<T> type,
+                                     Function<List<String>, Map<String, T>> loader) {
+        Map<String, T> result = new HashMap<>(16);
+        // 1、本地缓存
+        List<String> remain = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            if (StringUtils.isBlank(id)) {
+                continue;
+            }
+            String json = local.getIfPresent(prefix + id);
+            T value = json == null ? null : JsonUtils.jsonToObject(json, type);
+            if (value != null) {
+                localHitCount.incrementAndGet();
+                result.put(id, value);
+            } else {
+                remain.add(id);
+            }
+        }
+        if (remain.isEmpty()) {
+            return result;
+        }
+
+        // 2、Redis
+        long current = version.get();
+        String[] fields = new String[remain.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = prefix + remain.get(i);
+        }
+        List<String> jsons = null;
+        try {
+            jsons = jedisClient.hmget(key, fields);
+        } catch (Exception e) {
+            log.error("缓存读取异常，错误位置：{}，key：{}，错误栈：{}",
+                    "TwoLevelCache.getAll()", key, HttpClientUtils.getStackTraceAsString(e));
+        }
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < fields.length; i++) {
+            String json = jsons == null ? null : jsons.get(i);
+            T value = StringUtils.isNotBlank(json) ? JsonUtils.jsonToObject(json, type) : null;
+            if (value != null) {
+                redisHitCount.incrementAndGet();
+                putLocal(fields[i], json, current);
+                result.put(remain.get(i), value);
+            } else {
+                missing.add(remain.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        // 3、数据库
+        long start = System.nanoTime();
+        Map<String, T> loaded = loader.apply(missing);
+        loadCount.incrementAndGet();
+        loadNanos.addAndGet(System.nanoTime() - start);
+
+        Map<String, String> hash = new HashMap<>(loaded.size() * 4 / 3 + 1);
+        for (Map.Entry<String, T> entry : loaded.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            result.put(entry.getKey(), entry.getValue());
+            String json = JsonUtils.objectToJson(entry.getValue());
+            if (json != null) {
+                hash.put(prefix + entry.getKey(), json);
+                putLocal(prefix + entry.getKey(), json, current);
+            }
+        }
+        if (!hash.isEmpty()) {
+            try {
+                jedisClient.hmset(key, hash);
+            } catch (Exception e) {
+                log.error("缓存存储异常，错误位置：{}，key：{}，错误栈：{}",
+                        "TwoLevelCache.getAll()", key, HttpClientUtils.getStackTraceAsString(e));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 失效缓存，空字段忽略；Redis字段一次请求删除
+     * @author jitwxs
+     * @since 2026/10/18 23:36
+     */
+    public void evict(String... fields) {
+        evict(Arrays.asList(fields));
+    }
+
+    /**
+     * 批量失效缓存，空字段忽略；Redis字段一次请求删除
+     * @author jitwxs
+     * @since 2026/10/18 23:36
+     */
+    public void evict(Collection<String> fields) {
+        Set<String> set = new LinkedHashSet<>();
+        for (String field : fields) {
+            if (StringUtils.isNotBlank(field)) {
+                set.add(field);
+            }
+        }
+        if (set.isEmpty()) {
+            return;
+        }
+
+        doEvict(set);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 提交前其他线程读到的仍是旧数据（包括“不存在”），提交后再次失效
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    doEvict(set);
+                }
+            });
+        }
+    }
+
+    private void doEvict(Set<String> set) {
+        evictLocal(set);
+        try {
+            jedisClient.hdel(key, set.toArray(new String[0]));
+        } catch (Exception e) {
+            log.error("缓存删除异常，错误位置：{}，key：{}，错误栈：{}",
+                    "TwoLevelCache.evict()", key, HttpClientUtils.getStackTraceAsString(e));
+        }
+        manager.publishEvict(key, set);
+    }
+
+    /**
+     * 只失效本节点的本地缓存
+     */
+    void evictLocal(Collection<String> fields) {
+        version.incrementAndGet();
+        local.invalidateAll(fields);
+        if (absent != null) {
+            absent.invalidateAll(fields);
+        }
+        evictCount.addAndGet(fields.size());
+    }
+
+    /**
+     * 加载期间未发生失效时放入本地缓存
+     * 检查与放入之间可能发生失效，放入后再次检查，版本变化时删除刚放入的值
+     */
+    private void putLocal(String field, String json, long expectVersion) {
+        if (version.get() == expectVersion) {
+            local.put(field, json);
+            if (version.get() != expectVersion) {
+                local.invalidate(field);
+            }
+        }
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Long> getMetrics() {
+        long loads = loadCount.get();
+        CacheStats stats = local.stats();
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("localHit", localHitCount.get());
+        map.put("redisHit", redisHitCount.get());
+        map.put("load", loads);
+        map.put("loadAvgMicros", loads == 0 ? 0 : loadNanos.get() / loads / 1000);
+        map.put("evict", evictCount.get());
+        map.put("localSize", local.size());
+        map.put("localEviction", stats.evictionCount());
+        map.put("coalesced", coalescedCount.get());
+        map.put("absentHit", absentHitCount.get());
+        map.put("absentSize", absent == null ? 0 : absent.size());
+        return map;
+    }
+}
@@ -0,0 +1,131 @@
+package jit.edu.paas.commons.cache;
+
+import jit.edu.paas.commons.util.JsonUtils;
+import jit.edu.paas.commons.util.RandomUtils;
+import jit.edu.paas.commons.util.jedis.JedisBroadcaster;
+import jit.edu.paas.commons.util.jedis.JedisClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 二级缓存管理
+ * 创建和登记各业务的二级缓存，通过Redis广播在节点间传递缓存失效，汇总各缓存的统计信息
+ * @author jitwxs
+ * @since 2026/10/18 23:30
+ */
+@Slf4j
+@Component
+public class TwoLevelCacheManager {
+    @Autowired
+    private JedisClient jedisClient;
+    @Autowired
+    private JedisBroadcaster broadcaster;
+
+    @Value("${redis.cache-evict.channel}")
+    private String evictChannel;
+
+    /**
+     * 每个缓存本地最多保存的JSON字符数
+     */
+    @Value("${cache.local.max-weight}")
+    private Long maxWeight;
+
+    /**
+     * 本地缓存有效期（单位：秒）
+     */
+    @Value("${cache.local.ttl}")
+    private Long ttl;
+
+    /**
+     * 不存在的记录在本地缓存的有效期（单位：秒）
+     */
+    @Value("${cache.local.absent-ttl}")
+    private Long absentTtl;
+
+    /**
+     * 本节点标识，忽略自己发出的失效广播
+     */
+    private final String nodeId = RandomUtils.uuid();
+
+    /**
+     * Redis key --> 缓存
+     */
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>(16);
+
+    @PostConstruct
+    public void init() {
+        broadcaster.addListener(evictChannel, this::onEvict);
+    }
+
+    /**
+     * 获取Redis key对应的二级缓存，不存在时创建
+     * @param key Redis中hash的key
+     * @author jitwxs
+     * @since 2026/10/18 23:32
+     */
+    public TwoLevelCache getCache(String key) {
+        return getCache(key, false);
+    }
+
+    /**
+     * 获取Redis key对应的二级缓存，不存在时创建
+     * @param key Redis中hash的key
+     * @param cacheAbsent 是否在本地短时缓存不存在的记录，开启后新增记录时必须失效对应字段
+     * @throws IllegalStateException 该key的缓存已按不同的cacheAbsent创建
+     * @author jitwxs
+     * @since 2026/10/19 01:05
+     */
+    public TwoLevelCache getCache(String key, boolean cacheAbsent) {
+        TwoLevelCache cache = caches.computeIfAbsent(key, k -> new TwoLevelCache(this, jedisClient, k, maxWeight, ttl,
+                cacheAbsent ? absentTtl : 0));
+        // absent-ttl为0时不缓存不存在的记录
+        if (cache.isCacheAbsent() != (cacheAbsent && absentTtl > 0)) {
+            throw new IllegalStateException("二级缓存" + key + "已按cacheAbsent=" + cache.isCacheAbsent() + "创建");
+        }
+        return cache;
+    }
+
+    /**
+     * 获取所有缓存的统计信息
+     */
+    public Map<String, Map<String, Long>> getMetrics() {
+        Map<String, Map<String, Long>> map = new TreeMap<>();
+        for (TwoLevelCache cache : caches.values()) {
+            map.put(cache.getKey(), cache.getMetrics());
+        }
+        return map;
+    }
+
+    /**
+     * 通知其他节点失效本地缓存
+     */
+    void publishEvict(String key, Collection<String> fields) {
+        Map<String, Object> message = new HashMap<>(16);
+        message.put("node", nodeId);
+        message.put("key", key);
+        message.put("fields", fields);
+        broadcaster.publish(evictChannel, JsonUtils.mapToJson(message));
+    }
+
+    private void onEvict(String json) {
+        Map<String, Object> message = JsonUtils.jsonToMap(json);
+        if (message == null || nodeId.equals(message.get("node"))) {
+            return;
+        }
+        TwoLevelCache cache = caches.get((String) message.get("key"));
+        Object fields = message.get("fields");
+        if (cache != null && fields instanceof Collection) {
+            List<String> list = new ArrayList<>();
+            for (Object field : (Collection<?>) fields) {
+                list.add(String.valueOf(field));
+            }
+            cache.evictLocal(list);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package jit.edu.paas.commons.component;
+
+import jit.edu.paas.commons.util.HttpClientUtils;
+import jit.edu.paas.commons.util.JsonUtils;
+import jit.edu.paas.commons.util.jedis.JedisClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户最后登录信息写缓冲
+ * 认证时只写入内存，同一用户在一个刷新周期内的多次写入合并为一次
+ * 定时批量（HMSET）写入Redis，刷新间隔由last-login.flush-interval配置
+ * @author jitwxs
+ * @since 2026/10/18 14:05
+ */
+@Slf4j
+@Component
+public class LastLoginBuffer {
+    @Autowired
+    private JedisClient jedisClient;
+
+    @Value("${redis.last-login.key}")
+    private String key;
+
+    /**
+     * 单次HMSET最多写入的字段数
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 待写入数据，用户ID --> 最后登录信息
+     */
+    private final ConcurrentHashMap<String, LoginInfo> buffer = new ConcurrentHashMap<>(16);
+
+    /**
+     * 记录次数
+     */
+    private final AtomicLong recordCount = new AtomicLong();
+    /**
+     * 被合并（未单独写入Redis）的次数
+     */
+    private final AtomicLong coalescedCount = new AtomicLong();
+    /**
+     * 写入Redis的字段数
+     */
+    private final AtomicLong flushedCount = new AtomicLong();
+    /**
+     * 写入Redis的批次数
+     */
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * 记录最后登录信息，不做任何网络IO
+     * @author jitwxs
+     * @since 2026/10/18 14:08
+     */
+    public void record(String uid, String ip) {
+        recordCount.incrementAndGet();
+        if(buffer.put(uid, new LoginInfo(ip, System.currentTimeMillis())) != null) {
+            coalescedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 读取尚未写入Redis的最后登录信息
+     * @return 不存在返回null
+     * @author jitwxs
+     * @since 2026/10/18 14:10
+     */
+    public String getPending(String uid) {
+        LoginInfo info = buffer.get(uid);
+        return info == null ? null : info.toJson();
+    }
+
+    /**
+     * 将缓冲数据批量写入Redis
+     * @author jitwxs
+     * @since 2026/10/18 14:12
+     */
+    @Scheduled(initialDelay = 5000, fixedDelayString = "${last-login.flush-interval}")
+    public void flush() {
+        if(buffer.isEmpty()) {
+            return;
+        }
+
+        Map<String, LoginInfo> batch = new HashMap<>(16);
+        Iterator<String> iterator = buffer.keySet().iterator();
+        while (iterator.hasNext()) {
+            String uid = iterator.next();
+            LoginInfo info = buffer.remove(uid);
+            if(info != null) {
+                batch.put(uid, info);
+            }
+            if(batch.size() >= BATCH_SIZE || !iterator.hasNext()) {
+                write(batch);
+                batch = new HashMap<>(16);
+            }
+        }
+
+        log.debug("最后登录信息刷新完成，累计记录：{}，合并：{}，写入：{}，批次：{}",
+                recordCount.get(), coalescedCount.get(), flushedCount.get(), batchCount.get());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * 获取统计信息
+     * @author jitwxs
+     * @since 2026/10/18 14:15
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("record", recordCount.get());
+        map.put("coalesced", coalescedCount.get());
+        map.put("flushed", flushedCount.get());
+        map.put("batch", batchCount.get());
+        map.put("pending", (long) buffer.size());
+        return map;
+    }
+
+    private void write(Map<String, LoginInfo> batch) {
+        if(batch.isEmpty()) {
+            return;
+        }
+        Map<String, String> hash = new HashMap<>(batch.size() * 2);
+        for(Map.Entry<String, LoginInfo> entry : batch.entrySet()) {
+            hash.put(entry.getKey(), entry.getValue().toJson());
+        }
+
+        try {
+            jedisClient.hmset(key, hash);
+            flushedCount.addAndGet(hash.size());
+            batchCount.incrementAndGet();
+        } catch (Exception e) {
+            log.error("缓存存储异常，错误位置：{}，错误栈：{}", "LastLoginBuffer.write()", HttpClientUtils.getStackTraceAsString(e));
+            // 写回缓冲，若期间已有更新的记录则以新记录为准
+            for(Map.Entry<String, LoginInfo> entry : batch.entrySet()) {
+                buffer.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static class LoginInfo {
+        private final String ip;
+        private final long timestamp;
+
+        private LoginInfo(String ip, long timestamp) {
+            this.ip = ip;
+            this.timestamp = timestamp;
+        }
+
+        private String toJson() {
+            Map<String, String> data = new HashMap<>(4);
+            data.put("ip", ip);
+            data.put("timestamp", timestamp + "");
+            return JsonUtils.mapToJson(data);
+        }
+    }
+}
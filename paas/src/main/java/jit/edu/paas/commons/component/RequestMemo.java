@@ -0,0 +1,131 @@
+package jit.edu.paas.commons.component;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 请求级查询记忆
+ * 在一次HTTP请求或一个异步任务内，同一命名空间、同一键的查询只执行一次，之后直接返回第一次的结果
+ * 记忆绑定当前线程，只在open()与Scope.close()之间生效；未打开时直接执行查询，行为与不使用时一致
+ * 结果为null或查询抛出异常时不记忆；数据被修改后，修改方需调用evict()
+ * @author jitwxs
+ * @since 2026/10/19 00:20
+ */
+@Slf4j
+@Component
+public class RequestMemo {
+    /**
+     * 嵌套打开时返回，关闭时不做任何事，由最外层负责清理
+     */
+    private static final Scope NESTED = () -> { };
+
+    /**
+     * 命名空间:键 --> 查询结果
+     */
+    private final ThreadLocal<Map<String, Object>> context = new ThreadLocal<>();
+    /**
+     * 当前作用域内去重的次数
+     */
+    private final ThreadLocal<int[]> scopeHits = new ThreadLocal<>();
+
+    private final AtomicLong scopeCount = new AtomicLong();
+    private final AtomicLong lookupCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong evictCount = new AtomicLong();
+
+    /**
+     * 打开记忆作用域，已打开时返回的作用域关闭后不影响外层
+     * @author jitwxs
+     * @since 2026/10/19 00:21
+     */
+    public Scope open() {
+        if (context.get() != null) {
+            return NESTED;
+        }
+        context.set(new HashMap<>(16));
+        scopeHits.set(new int[1]);
+        scopeCount.incrementAndGet();
+        return () -> {
+            int hits = scopeHits.get()[0];
+            context.remove();
+            scopeHits.remove();
+            if (hits > 0) {
+                log.debug("请求级记忆去重{}次", hits);
+            }
+        };
+    }
+
+    /**
+     * 读取记忆结果，未命中时执行查询并记忆
+     * @param namespace 命名空间，区分不同类型的查询
+     * @param key 查询键
+     * @param loader 查询，返回null时不记忆，抛出的异常原样抛给调用方
+     * @author jitwxs
+     * @since 2026/10/19 00:22
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> T get(String namespace, String key, Loader<T, E> loader) throws E {
+        Map<String, Object> map = context.get();
+        if (map == null) {
+            return loader.load();
+        }
+        lookupCount.incrementAndGet();
+        String field = namespace + ":" + key;
+        Object value = map.get(field);
+        if (value != null) {
+            hitCount.incrementAndGet();
+            scopeHits.get()[0]++;
+            return (T) value;
+        }
+
+        T result = loader.load();
+        if (result != null) {
+            map.put(field, result);
+        }
+        return result;
+    }
+
+    /**
+     * 删除当前作用域内的记忆结果，未打开作用域时忽略
+     * @author jitwxs
+     * @since 2026/10/19 00:23
+     */
+    public void evict(String namespace, String key) {
+        Map<String, Object> map = context.get();
+        if (map != null && map.remove(namespace + ":" + key) != null) {
+            evictCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("scope", scopeCount.get());
+        map.put("lookup", lookupCount.get());
+        map.put("hit", hitCount.get());
+        map.put("evict", evictCount.get());
+        return map;
+    }
+
+    /**
+     * 查询，允许抛出受检异常（如Docker API的异常）
+     */
+    @FunctionalInterface
+    public interface Loader<T, E extends Exception> {
+        T load() throws E;
+    }
+
+    /**
+     * 记忆作用域，关闭时清空当前线程的记忆
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,140 @@
+package jit.edu.paas.commons.convert;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.spotify.docker.client.messages.ContainerStats;
+import com.spotify.docker.client.messages.CpuStats;
+import com.spotify.docker.client.messages.NetworkStats;
+import jit.edu.paas.commons.util.NumberUtils;
+import jit.edu.paas.domain.vo.ContainerMonitorVO;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * ContainerStats --> ContainerMonitorVO
+ * @author jitwxs
+ * @since 2026/10/18 17:00
+ */
+@Component
+public class ContainerMonitorVOConvert {
+
+    public ContainerMonitorVO convert(ContainerStats stats) {
+        return convert(stats, null);
+    }
+
+    /**
+     * 转换监控数据
+     * @param onlineCpus Docker返回的cpu_stats.online_cpus，ContainerStats中没有该字段，由调用方从原始数据读取；为空时按percpu_usage计算CPU数
+     * @author jitwxs
+     * @since 2026/10/19 09:20
+     */
+    public ContainerMonitorVO convert(ContainerStats stats, Integer onlineCpus) {
+        if(stats == null) {
+            return null;
+        }
+        ContainerMonitorVO monitorVo = new ContainerMonitorVO();
+
+        monitorVo.setTimestamp(stats.read().getTime());
+
+        // 1、设置网络相关
+        double rxBytes = 0, txBytes = 0;
+        int rxPackets = 0, txPackets = 0;
+        try {
+            ImmutableMap<String, NetworkStats> networks = stats.networks();
+            if(networks != null) {
+                for (Map.Entry<String, NetworkStats> entry : networks.entrySet()) {
+                    NetworkStats networkStats = entry.getValue();
+                    rxBytes += networkStats.rxBytes();
+                    txBytes += networkStats.txBytes();
+                    rxPackets += networkStats.rxPackets();
+                    txPackets += networkStats.txPackets();
+                }
+            }
+        } catch (Exception e) {}
+
+        // bps --> Mbps，保留三位小数
+        monitorVo.setRxBytes(NumberUtils.decimal3Bit(rxBytes / 1048576));
+        monitorVo.setTxBytes(NumberUtils.decimal3Bit(txBytes / 1048576));
+        monitorVo.setRxPackets(rxPackets);
+        monitorVo.setTxPackets(txPackets);
+
+        // 2、设置CPU利用率
+        monitorVo.setCpuUtilization(NumberUtils.decimal3Bit(cpuUtilization(stats, onlineCpus)));
+
+        // 3、设置内存相关
+        double memoryUsage = 0, memoryLimit = 0, memoryUtilization = 0;
+        try {
+            memoryUsage = stats.memoryStats().stats().activeAnon();
+            memoryLimit = stats.memoryStats().limit();
+            memoryUtilization = memoryUsage / memoryLimit * 100;
+        } catch (Exception e) {}
+        // bit --> Mb，保留三位小数
+        monitorVo.setMemoryUsage(NumberUtils.decimal3Bit(memoryUsage / 1048576));
+        monitorVo.setMemoryLimit(NumberUtils.decimal3Bit(memoryLimit / 1048576));
+        monitorVo.setMemoryUtilization(NumberUtils.decimal3Bit(memoryUtilization));
+
+        // 4、IO相关
+        double blockRead = 0, blockWrite = 0;
+        try {
+            ImmutableList<Object> recursive = stats.blockIoStats().ioServiceBytesRecursive();
+            if(recursive != null) {
+                for(Object obj : recursive) {
+                    Map<String, Object> map = (Map<String, Object>) obj;
+
+                    String op = (String) map.get("op");
+                    switch (op) {
+                        case "Read":
+                            blockRead += ((Number) map.get("value")).doubleValue();
+                            break;
+                        case "Write":
+                            blockWrite += ((Number) map.get("value")).doubleValue();
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+        } catch (Exception e) {}
+
+        // B -> MB，保留三位小数
+        monitorVo.setBlockRead(NumberUtils.decimal3Bit(blockRead / 1048576));
+        monitorVo.setBlockWrite(NumberUtils.decimal3Bit(blockWrite / 1048576));
+
+        return monitorVo;
+    }
+
+    /**
+     * CPU利用率，与docker stats一致：
+     * (容器CPU时间增量 / 系统CPU时间增量) * CPU核数 * 100
+     * 增量取cpu_stats与precpu_stats之差，缺少precpu_stats时返回0
+     * @author jitwxs
+     * @since 2026/10/18 17:05
+     */
+    private double cpuUtilization(ContainerStats stats, Integer onlineCpus) {
+        try {
+            CpuStats cpu = stats.cpuStats();
+            CpuStats preCpu = stats.precpuStats();
+            if(cpu == null || preCpu == null || preCpu.systemCpuUsage() == null) {
+                return 0;
+            }
+            double cpuDelta = cpu.cpuUsage().totalUsage() - preCpu.cpuUsage().totalUsage();
+            double systemDelta = cpu.systemCpuUsage() - preCpu.systemCpuUsage();
+            if(cpuDelta <= 0 || systemDelta <= 0) {
+                return 0;
+            }
+
+            // cgroup v2下没有percpu_usage，优先使用online_cpus
+            int cpuNum;
+            if(onlineCpus != null && onlineCpus > 0) {
+                cpuNum = onlineCpus;
+            } else {
+                ImmutableList<Long> perCpu = cpu.cpuUsage().percpuUsage();
+                cpuNum = perCpu == null || perCpu.isEmpty() ? 1 : perCpu.size();
+            }
+            return cpuDelta / systemDelta * cpuNum * 100;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -1,18 +1,19 @@
 package jit.edu.paas.commons.convert;
 
 import com.baomidou.mybatisplus.plugins.Page;
+import jit.edu.paas.commons.docker.ContainerStateCache;
 import jit.edu.paas.commons.util.StringUtils;
 import jit.edu.paas.domain.dto.UserContainerDTO;
+import jit.edu.paas.domain.dto.UserProjectDTO;
 import jit.edu.paas.domain.entity.UserContainer;
 import jit.edu.paas.domain.enums.ContainerStatusEnum;
-import jit.edu.paas.service.SysLoginService;
 import jit.edu.paas.service.UserProjectService;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -25,7 +26,7 @@ public class UserContainerDTOConvert {
     @Autowired
     private UserProjectService projectService;
     @Autowired
-    private SysLoginService sysLoginService;
+    private ContainerStateCache stateCache;
     @Value("${docker.server.address}")
     private String serverIp;
 
@@ -33,29 +34,51 @@ public class UserContainerDTOConvert {
         if(container == null) {
             return null;
         }
-        UserContainerDTO dto = new UserContainerDTO();
-        BeanUtils.copyProperties(container, dto);
+        return convert(Collections.singletonList(container)).get(0);
+    }
+
+    /**
+     * 批量转换
+     * 先收集所有项目ID批量查询一次，再在内存中组装；用户名由项目查询关联得到
+     * @author jitwxs
+     * @since 2026/10/19 00:05
+     */
+    public List<UserContainerDTO> convert(List<UserContainer> containers) {
+        Set<String> projectIds = containers.stream()
+                .filter(Objects::nonNull)
+                .map(UserContainer::getProjectId)
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toSet());
+        Map<String, UserProjectDTO> projectMap = projectService.getByIds(projectIds);
 
-        String projectId = container.getProjectId();
-        if(StringUtils.isNotBlank(projectId)) {
-            String projectName = projectService.getProjectName(projectId);
-            dto.setProjectName(projectName);
+        List<UserContainerDTO> list = new ArrayList<>(containers.size());
+        for(UserContainer container : containers) {
+            list.add(convert(container, projectMap));
         }
+        return list;
+    }
 
-        Integer status = container.getStatus();
-        if(status != null) {
-            dto.setStatusName(ContainerStatusEnum.getMessage(status));
+    private UserContainerDTO convert(UserContainer container, Map<String, UserProjectDTO> projectMap) {
+        if(container == null) {
+            return null;
         }
+        UserContainerDTO dto = new UserContainerDTO();
+        BeanUtils.copyProperties(container, dto);
 
-        String userId = projectService.getUserId(container.getProjectId());
-        if(StringUtils.isNotBlank(projectId)) {
-            String username= sysLoginService.getById(userId).getUsername();
-            dto.setUsername(username);
+        UserProjectDTO project = projectMap.get(container.getProjectId());
+        if(project != null) {
+            dto.setProjectName(project.getName());
+            dto.setUsername(project.getUsername());
         }
 
-        if(StringUtils.isNotBlank(projectId)) {
-            String projectName = projectService.getProjectName(projectId);
-            dto.setProjectName(projectName);
+        // 尚未写回数据库的状态以内存为准
+        ContainerStatusEnum pending = stateCache.getPending(container.getId());
+        if(pending != null) {
+            dto.setStatus(pending.getCode());
+        }
+        Integer status = dto.getStatus();
+        if(status != null) {
+            dto.setStatusName(ContainerStatusEnum.getMessage(status));
         }
 
         dto.setIp(serverIp);
@@ -63,10 +86,6 @@ public class UserContainerDTOConvert {
         return dto;
     }
 
-    public List<UserContainerDTO> convert(List<UserContainer> containers) {
-        return containers.stream().map(this::convert).collect(Collectors.toList());
-    }
-
     public Page<UserContainerDTO> convert(Page<UserContainer> page) {
         List<UserContainer> containers = page.getRecords();
         List<UserContainerDTO> containerDTOS = convert(containers);
@@ -2,6 +2,7 @@ package jit.edu.paas.commons.convert;
 
 import com.baomidou.mybatisplus.plugins.Page;
 import jit.edu.paas.commons.util.StringUtils;
+import jit.edu.paas.domain.dto.UserProjectDTO;
 import jit.edu.paas.domain.dto.UserServiceDTO;
 import jit.edu.paas.domain.entity.UserService;
 import jit.edu.paas.service.UserProjectService;
@@ -10,7 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -30,14 +31,40 @@ public class UserServiceDTOConvert {
         if(userService == null) {
             return null;
         }
+        return convert(Collections.singletonList(userService)).get(0);
+    }
+
+    /**
+     * 批量转换，所有项目批量查询一次
+     * @author jitwxs
+     * @since 2026/10/19 00:05
+     */
+    public List<UserServiceDTO> convert(List<UserService> userServices) {
+        Set<String> projectIds = userServices.stream()
+                .filter(Objects::nonNull)
+                .map(UserService::getProjectId)
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toSet());
+        Map<String, UserProjectDTO> projectMap = projectService.getByIds(projectIds);
+
+        List<UserServiceDTO> list = new ArrayList<>(userServices.size());
+        for(UserService userService : userServices) {
+            list.add(convert(userService, projectMap));
+        }
+        return list;
+    }
+
+    private UserServiceDTO convert(UserService userService, Map<String, UserProjectDTO> projectMap) {
+        if(userService == null) {
+            return null;
+        }
 
         UserServiceDTO dto = new UserServiceDTO();
         BeanUtils.copyProperties(userService, dto);
 
-        String projectId = userService.getProjectId();
-        if(StringUtils.isNotBlank(projectId)) {
-            String projectName = projectService.getProjectName(projectId);
-            dto.setProjectName(projectName);
+        UserProjectDTO project = projectMap.get(userService.getProjectId());
+        if(project != null) {
+            dto.setProjectName(project.getName());
         }
 
         dto.setIp(serverIp);
@@ -45,10 +72,6 @@ public class UserServiceDTOConvert {
         return dto;
     }
 
-    public List<UserServiceDTO> convert(List<UserService> userServices) {
-        return userServices.stream().map(this::convert).collect(Collectors.toList());
-    }
-
     public Page<UserServiceDTO> convert(Page<UserService> page) {
         List<UserService> userServices = page.getRecords();
         List<UserServiceDTO> userServiceDTOS = convert(userServices);
@@ -0,0 +1,270 @@
+package jit.edu.paas.commons.docker;
+
+import jit.edu.paas.commons.util.HttpClientUtils;
+import jit.edu.paas.commons.websocket.MonitorPushHub;
+import jit.edu.paas.domain.entity.UserContainer;
+import jit.edu.paas.domain.enums.ContainerStatusEnum;
+import jit.edu.paas.domain.vo.ContainerMonitorVO;
+import jit.edu.paas.service.MonitorService;
+import jit.edu.paas.service.UserContainerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 容器监控采集器
+ * （1）优先读取ContainerStatsStreamer中的最新数据，没有时stats请求分发到monitorExecutor线程池并行执行
+ * （2）上一次采集仍未完成的容器本次跳过
+ * （3）等待本轮采集至多monitor.collector.timeout毫秒，将已完成的数据一次批量写入Redis
+ *     超时未完成的数据在下一轮写入
+ * （4）实时数据推送给通过WebSocket订阅的客户端，写入原始采样；24小时数据写入5分钟聚合，7日数据写入1小时聚合，周期结束后写入
+ *     同一容器同时最多一个采集任务，因此每个容器的采样按时间有序到达
+ * @author jitwxs
+ * @since 2026/10/18 15:05
+ */
+@Slf4j
+@Component
+public class ContainerMonitorCollector {
+    @Autowired
+    private UserContainerService containerService;
+    @Autowired
+    private MonitorService monitorService;
+    @Autowired
+    private ContainerStatsStreamer statsStreamer;
+    @Autowired
+    private MonitorPushHub monitorPushHub;
+    @Autowired
+    @Qualifier("monitorExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    /**
+     * 单轮等待采集完成的最长时间（单位：ms）
+     */
+    @Value("${monitor.collector.timeout}")
+    private long timeout;
+
+    /**
+     * 采集周期（单位：ms），与MonitorSchedule一致
+     */
+    private static final long TICK_INTERVAL = 5000;
+
+    /**
+     * 24小时监控聚合周期：5分钟
+     */
+    private static final long DAY_PERIOD = 5 * 60 * 1000;
+
+    /**
+     * 7日监控聚合周期：1小时
+     */
+    private static final long WEEK_PERIOD = 60 * 60 * 1000;
+
+    /**
+     * 采集中的容器
+     */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 已采集未写入的数据
+     */
+    private final ConcurrentLinkedQueue<Sample> ready = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 容器ID --> 当前周期的聚合，仅在采集线程中访问
+     */
+    private final Map<String, MonitorRollup> dayRollups = new HashMap<>(16);
+    private final Map<String, MonitorRollup> weekRollups = new HashMap<>(16);
+
+    private final AtomicLong tickCount = new AtomicLong();
+    private final AtomicLong collectCount = new AtomicLong();
+    private final AtomicLong skipCount = new AtomicLong();
+    private final AtomicLong failCount = new AtomicLong();
+    private volatile long lastDuration;
+    private volatile long lastLateness;
+    private volatile long maxDuration;
+    private volatile long maxLateness;
+
+    /**
+     * 执行一轮采集
+     * @author jitwxs
+     * @since 2026/10/18 15:10
+     */
+    public void collect() {
+        long start = System.currentTimeMillis();
+        long lateness = start % TICK_INTERVAL;
+
+        List<UserContainer> containers = containerService.listByStatus(ContainerStatusEnum.RUNNING);
+        // 维护数据流连接，有最新数据的容器采集时直接读取内存
+        statsStreamer.track(containers.stream().map(UserContainer::getId).collect(Collectors.toList()));
+        CountDownLatch latch = new CountDownLatch(containers.size());
+        for(UserContainer container : containers) {
+            String containerId = container.getId();
+            if(!inFlight.add(containerId)) {
+                skipCount.incrementAndGet();
+                latch.countDown();
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        ContainerMonitorVO info = monitorService.getCurrentInfo(containerId);
+                        if(info != null) {
+                            ready.add(new Sample(containerId, info));
+                            collectCount.incrementAndGet();
+                        } else {
+                            failCount.incrementAndGet();
+                        }
+                    } finally {
+                        inFlight.remove(containerId);
+                        latch.countDown();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                inFlight.remove(containerId);
+                skipCount.incrementAndGet();
+                latch.countDown();
+            }
+        }
+
+        try {
+            latch.await(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        write(System.currentTimeMillis());
+
+        long duration = System.currentTimeMillis() - start;
+        tickCount.incrementAndGet();
+        lastDuration = duration;
+        lastLateness = lateness;
+        maxDuration = Math.max(maxDuration, duration);
+        maxLateness = Math.max(maxLateness, lateness);
+        if(duration + lateness > TICK_INTERVAL) {
+            log.warn("容器监控采集超时，容器数：{}，耗时：{}ms，延迟：{}ms", containers.size(), duration, lateness);
+        }
+    }
+
+    /**
+     * 获取统计信息
+     * @author jitwxs
+     * @since 2026/10/18 15:15
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("tick", tickCount.get());
+        map.put("collect", collectCount.get());
+        map.put("skip", skipCount.get());
+        map.put("fail", failCount.get());
+        map.put("inFlight", (long) inFlight.size());
+        map.put("lastDuration", lastDuration);
+        map.put("lastLateness", lastLateness);
+        map.put("maxDuration", maxDuration);
+        map.put("maxLateness", maxLateness);
+        map.put("statsConnection", (long) statsStreamer.getConnectionNum());
+        return map;
+    }
+
+    private void write(long now) {
+        Map<String, ContainerMonitorVO> actualMap = new HashMap<>(16);
+        Map<String, ContainerMonitorVO> dayMap = new HashMap<>(16);
+        Map<String, ContainerMonitorVO> weekMap = new HashMap<>(16);
+        Sample sample;
+        while ((sample = ready.poll()) != null) {
+            actualMap.put(sample.containerId, sample.info);
+            roll(dayRollups, dayMap, DAY_PERIOD, sample);
+            roll(weekRollups, weekMap, WEEK_PERIOD, sample);
+        }
+        // 推送给订阅的客户端
+        if(!actualMap.isEmpty() && monitorPushHub.hasSubscriber()) {
+            monitorPushHub.publish(actualMap);
+        }
+        // 已停止采集的容器，周期结束后不会再有新采样，直接写入
+        sweep(dayRollups, dayMap, now);
+        sweep(weekRollups, weekMap, now);
+
+        Map<Integer, Map<String, ContainerMonitorVO>> typeInfoMap = new HashMap<>(4);
+        // 实时监控，粒度：5s
+        if(!actualMap.isEmpty()) {
+            typeInfoMap.put(1, actualMap);
+        }
+        // 24小时监控，粒度：5分钟
+        if(!dayMap.isEmpty()) {
+            typeInfoMap.put(2, dayMap);
+        }
+        // 7日监控，粒度：1小时
+        if(!weekMap.isEmpty()) {
+            typeInfoMap.put(3, weekMap);
+        }
+        if(typeInfoMap.isEmpty()) {
+            return;
+        }
+
+        try {
+            monitorService.batchSetMonitorInfo(typeInfoMap);
+        } catch (Exception e) {
+            log.error("写入监控数据出现异常，错误位置：{}，错误栈：{}",
+                    "ContainerMonitorCollector.write()", HttpClientUtils.getStackTraceAsString(e));
+        }
+    }
+
+    /**
+     * 将采样加入聚合，采样进入新周期时输出上一周期的聚合
+     */
+    private void roll(Map<String, MonitorRollup> rollups, Map<String, ContainerMonitorVO> output, long period, Sample sample) {
+        long timestamp = sample.info.getTimestamp();
+        MonitorRollup rollup = rollups.get(sample.containerId);
+        if(rollup != null && !rollup.contains(timestamp)) {
+            if(timestamp < rollup.getBucketStart()) {
+                // 时间回退的采样直接丢弃
+                return;
+            }
+            output.put(sample.containerId, rollup.toVO());
+            rollup = null;
+        }
+        if(rollup == null) {
+            rollup = new MonitorRollup(period, timestamp);
+            rollups.put(sample.containerId, rollup);
+        }
+        rollup.add(sample.info);
+    }
+
+    /**
+     * 输出超过两个采集周期仍未收到新采样的聚合
+     */
+    private void sweep(Map<String, MonitorRollup> rollups, Map<String, ContainerMonitorVO> output, long now) {
+        Iterator<Map.Entry<String, MonitorRollup>> iterator = rollups.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, MonitorRollup> entry = iterator.next();
+            if(entry.getValue().getBucketEnd() + 2 * TICK_INTERVAL <= now) {
+                output.putIfAbsent(entry.getKey(), entry.getValue().toVO());
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Sample {
+        private final String containerId;
+        private final ContainerMonitorVO info;
+
+        private Sample(String containerId, ContainerMonitorVO info) {
+            this.containerId = containerId;
+            this.info = info;
+        }
+    }
+}
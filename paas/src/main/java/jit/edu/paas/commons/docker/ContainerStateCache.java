@@ -0,0 +1,284 @@
+package jit.edu.paas.commons.docker;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.ContainerNotFoundException;
+import com.spotify.docker.client.exceptions.DockerTimeoutException;
+import com.spotify.docker.client.messages.ContainerState;
+import jit.edu.paas.commons.util.HttpClientUtils;
+import jit.edu.paas.domain.entity.UserContainer;
+import jit.edu.paas.domain.enums.ContainerStatusEnum;
+import jit.edu.paas.mapper.UserContainerMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 容器状态内存缓存
+ * 读取状态时优先使用内存中的状态，由Docker事件和inspect结果更新，超过有效期后重新inspect
+ * 状态变化不同步写数据库，放入写回队列，同一容器在一个刷新周期内的多次变化合并为一次，定时批量写入
+ * 启动时以数据库中的状态作为已过期的初始状态，首次inspect结果与数据库一致时不写回
+ * 容器删除仍由调用方同步删除记录
+ * @author jitwxs
+ * @since 2026/10/19 00:40
+ */
+@Slf4j
+@Component
+public class ContainerStateCache {
+    @Autowired
+    private DockerClient dockerClient;
+    @Autowired
+    private UserContainerMapper userContainerMapper;
+
+    /**
+     * 状态有效期（单位：ms）
+     */
+    @Value("${container.state.ttl}")
+    private Long ttl;
+
+    /**
+     * 单条SQL最多更新的记录数
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 容器ID --> 状态
+     */
+    private final Map<String, State> states = new ConcurrentHashMap<>(16);
+
+    /**
+     * 待写回数据库的状态，容器ID --> 状态
+     */
+    private final Map<String, ContainerStatusEnum> pending = new ConcurrentHashMap<>(16);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong inspectCount = new AtomicLong();
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * 以数据库中的状态初始化内存状态，初始状态已过期，读取时仍会inspect，只用于判断是否需要写回
+     * @author jitwxs
+     * @since 2026/10/19 16:30
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            for(UserContainer container : userContainerMapper.listIdAndStatus(null)) {
+                ContainerStatusEnum statusEnum = container.getStatus() == null ? null : ContainerStatusEnum.getByCode(container.getStatus());
+                if(statusEnum != null) {
+                    states.putIfAbsent(container.getId(), new State(statusEnum, 0));
+                }
+            }
+        } catch (Exception e) {
+            log.error("初始化容器状态出现异常，错误位置：{}，错误栈：{}",
+                    "ContainerStateCache.init()", HttpClientUtils.getStackTraceAsString(e));
+        }
+    }
+
+    /**
+     * 读取容器状态，内存中没有或已过期时inspect
+     * @return 容器不存在返回REMOVE，Docker异常返回null
+     * @author jitwxs
+     * @since 2026/10/19 00:42
+     */
+    public ContainerStatusEnum getStatus(String containerId) {
+        State state = states.get(containerId);
+        if(state != null && state.expireAt > System.currentTimeMillis()) {
+            hitCount.incrementAndGet();
+            return state.status;
+        }
+        return refresh(containerId);
+    }
+
+    /**
+     * inspect容器并更新内存状态，用于容器操作之后
+     * @return 容器不存在返回REMOVE，Docker异常返回null
+     * @author jitwxs
+     * @since 2026/10/19 00:43
+     */
+    public ContainerStatusEnum refresh(String containerId) {
+        inspectCount.incrementAndGet();
+        ContainerStatusEnum statusEnum;
+        try {
+            ContainerState state = dockerClient.inspectContainer(containerId).state();
+            if(state.running()) {
+                statusEnum = state.paused() ? ContainerStatusEnum.PAUSE : ContainerStatusEnum.RUNNING;
+            } else {
+                statusEnum = ContainerStatusEnum.STOP;
+            }
+        } catch (ContainerNotFoundException e) {
+            statusEnum = ContainerStatusEnum.REMOVE;
+        } catch (DockerTimeoutException te) {
+            log.error("获取容器状态超时，异常位置：{}，容器ID：{}",
+                    "ContainerStateCache.refresh()", containerId);
+            return null;
+        } catch (Exception e) {
+            log.error("获取容器状态出现异常，异常位置：{}，错误栈：{}",
+                    "ContainerStateCache.refresh()", HttpClientUtils.getStackTraceAsString(e));
+            return null;
+        }
+
+        update(containerId, statusEnum);
+        return statusEnum;
+    }
+
+    /**
+     * 更新内存状态，状态变化时放入写回队列；REMOVE不写回，由调用方删除记录
+     * @author jitwxs
+     * @since 2026/10/19 00:44
+     */
+    public void update(String containerId, ContainerStatusEnum statusEnum) {
+        State old = states.put(containerId, new State(statusEnum, System.currentTimeMillis() + ttl));
+        if(statusEnum == ContainerStatusEnum.REMOVE) {
+            pending.remove(containerId);
+            return;
+        }
+        if(old == null || old.status != statusEnum) {
+            queuedCount.incrementAndGet();
+            if(pending.put(containerId, statusEnum) != null) {
+                coalescedCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 批量更新内存状态，不写回，用于状态已直接写入数据库的对账
+     * 同时丢弃这些容器待写回的状态，避免旧状态覆盖对账结果
+     * @author jitwxs
+     * @since 2026/10/19 00:45
+     */
+    public void putAll(Map<String, ContainerStatusEnum> map) {
+        long expireAt = System.currentTimeMillis() + ttl;
+        for(Map.Entry<String, ContainerStatusEnum> entry : map.entrySet()) {
+            states.put(entry.getKey(), new State(entry.getValue(), expireAt));
+            pending.remove(entry.getKey());
+        }
+    }
+
+    /**
+     * 只保留仍存在的容器，移除其他容器的内存状态和待写回的状态，用于对账
+     * @param containerIds Docker中所有容器的ID
+     * @return 移除的容器数
+     * @author jitwxs
+     * @since 2026/10/19 16:32
+     */
+    public int retainAll(Set<String> containerIds) {
+        int count = 0;
+        Iterator<String> iterator = states.keySet().iterator();
+        while (iterator.hasNext()) {
+            String containerId = iterator.next();
+            if(!containerIds.contains(containerId)) {
+                iterator.remove();
+                count++;
+            }
+        }
+        pending.keySet().retainAll(containerIds);
+        return count;
+    }
+
+    /**
+     * 读取尚未写回数据库的状态
+     * @return 不存在返回null
+     * @author jitwxs
+     * @since 2026/10/19 00:46
+     */
+    public ContainerStatusEnum getPending(String containerId) {
+        return pending.get(containerId);
+    }
+
+    /**
+     * 将写回队列批量写入数据库，并清理已删除容器的过期状态
+     * 其他容器的过期状态保留，重新inspect后状态未变化时不必写回
+     * @author jitwxs
+     * @since 2026/10/19 00:47
+     */
+    @Scheduled(initialDelay = 5000, fixedDelayString = "${container.state.flush-interval}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        states.values().removeIf(state -> state.status == ContainerStatusEnum.REMOVE && state.expireAt <= now);
+        if(pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, ContainerStatusEnum> batch = new HashMap<>(16);
+        Iterator<String> iterator = pending.keySet().iterator();
+        while (iterator.hasNext()) {
+            String containerId = iterator.next();
+            ContainerStatusEnum statusEnum = pending.remove(containerId);
+            if(statusEnum != null) {
+                batch.put(containerId, statusEnum);
+            }
+            if(batch.size() >= BATCH_SIZE || !iterator.hasNext()) {
+                write(batch);
+                batch = new HashMap<>(16);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("size", (long) states.size());
+        map.put("hit", hitCount.get());
+        map.put("inspect", inspectCount.get());
+        map.put("queued", queuedCount.get());
+        map.put("coalesced", coalescedCount.get());
+        map.put("flushed", flushedCount.get());
+        map.put("batch", batchCount.get());
+        map.put("pending", (long) pending.size());
+        return map;
+    }
+
+    private void write(Map<String, ContainerStatusEnum> batch) {
+        if(batch.isEmpty()) {
+            return;
+        }
+        List<UserContainer> list = new ArrayList<>(batch.size());
+        for(Map.Entry<String, ContainerStatusEnum> entry : batch.entrySet()) {
+            UserContainer container = new UserContainer();
+            container.setId(entry.getKey());
+            container.setStatus(entry.getValue().getCode());
+            list.add(container);
+        }
+
+        try {
+            userContainerMapper.batchUpdateStatus(list);
+            flushedCount.addAndGet(list.size());
+            batchCount.incrementAndGet();
+        } catch (Exception e) {
+            log.error("批量写回容器状态出现异常，错误位置：{}，错误栈：{}",
+                    "ContainerStateCache.write()", HttpClientUtils.getStackTraceAsString(e));
+            // 放回队列，若期间已有新的状态则以新状态为准
+            for(Map.Entry<String, ContainerStatusEnum> entry : batch.entrySet()) {
+                pending.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static class State {
+        private final ContainerStatusEnum status;
+        private final long expireAt;
+
+        private State(ContainerStatusEnum status, long expireAt) {
+            this.status = status;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package jit.edu.paas.commons.docker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotify.docker.client.ObjectMapperProvider;
+import com.spotify.docker.client.messages.ContainerStats;
+import jit.edu.paas.commons.convert.ContainerMonitorVOConvert;
+import jit.edu.paas.commons.util.HttpClientUtils;
+import jit.edu.paas.domain.vo.ContainerMonitorVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 容器监控数据流
+ * 为每个运行中的容器保持一个 /containers/{id}/stats?stream=true 长连接，
+ * 所有连接由monitor.stats.io-threads个NIO线程多路复用，内存中只保存每个容器的最新数据
+ * 读取最新数据不会阻塞在Docker守护进程上
+ * @author jitwxs
+ * @since 2026/10/18 17:10
+ */
+@Slf4j
+@Component
+public class ContainerStatsStreamer {
+    @Autowired
+    private ContainerMonitorVOConvert monitorVOConvert;
+
+    @Value("${docker.server.address}")
+    private String serverAddress;
+    @Value("${docker.server.port}")
+    private Integer serverPort;
+    @Value("${monitor.stats.io-threads}")
+    private int ioThreads;
+
+    /**
+     * 最新数据超过该时间未更新视为无效（单位：ms）
+     */
+    @Value("${monitor.stats.stale-timeout}")
+    private long staleTimeout;
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getContext(ContainerStats.class);
+
+    /**
+     * 容器ID --> 连接
+     */
+    private final Map<String, StatsConnection> connections = new ConcurrentHashMap<>(16);
+
+    /**
+     * 容器ID --> 最新数据
+     */
+    private final Map<String, ContainerMonitorVO> latest = new ConcurrentHashMap<>(16);
+
+    private IoLoop[] loops;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException {
+        running = true;
+        loops = new IoLoop[Math.max(1, ioThreads)];
+        for(int i = 0; i < loops.length; i++) {
+            loops[i] = new IoLoop();
+            Thread thread = new Thread(loops[i], "stats-io-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for(IoLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+    }
+
+    /**
+     * 同步需要采集的容器：为新容器建立连接，关闭已不在列表中的连接，重建已断开的连接
+     * @author jitwxs
+     * @since 2026/10/18 17:15
+     */
+    public void track(Collection<String> containerIds) {
+        Set<String> idSet = new HashSet<>(containerIds);
+        for(String containerId : connections.keySet()) {
+            if(!idSet.contains(containerId)) {
+                untrack(containerId);
+            }
+        }
+        long now = System.currentTimeMillis();
+        for(String containerId : idSet) {
+            StatsConnection connection = connections.get(containerId);
+            if(connection == null || connection.closed) {
+                open(containerId);
+            } else if(now - connection.lastReceiveTime > staleTimeout) {
+                // 长时间无数据，重建连接
+                connection.loop.submit(connection::close);
+                open(containerId);
+            }
+        }
+    }
+
+    /**
+     * 停止采集容器
+     * @author jitwxs
+     * @since 2026/10/18 17:16
+     */
+    public void untrack(String containerId) {
+        StatsConnection connection = connections.remove(containerId);
+        latest.remove(containerId);
+        if(connection != null) {
+            connection.loop.submit(connection::close);
+        }
+    }
+
+    /**
+     * 读取容器最新数据
+     * @return 无数据或数据已过期返回null
+     * @author jitwxs
+     * @since 2026/10/18 17:18
+     */
+    public ContainerMonitorVO getLatest(String containerId) {
+        ContainerMonitorVO info = latest.get(containerId);
+        StatsConnection connection = connections.get(containerId);
+        if(info == null || connection == null || System.currentTimeMillis() - connection.lastReceiveTime > staleTimeout) {
+            return null;
+        }
+        return info;
+    }
+
+    /**
+     * 当前连接数
+     */
+    public int getConnectionNum() {
+        return connections.size();
+    }
+
+    private void open(String containerId) {
+        IoLoop loop = loops[Math.abs(containerId.hashCode() % loops.length)];
+        StatsConnection connection = new StatsConnection(containerId, loop);
+        connections.put(containerId, connection);
+        loop.submit(connection::connect);
+    }
+
+    private void onStats(String containerId, byte[] json) {
+        try {
+            JsonNode node = objectMapper.readTree(json);
+            ContainerStats stats = objectMapper.treeToValue(node, ContainerStats.class);
+            JsonNode onlineCpus = node.path("cpu_stats").path("online_cpus");
+            ContainerMonitorVO info = monitorVOConvert.convert(stats, onlineCpus.isNumber() ? onlineCpus.intValue() : null);
+            if(info != null) {
+                latest.put(containerId, info);
+            }
+        } catch (Exception e) {
+            log.error("解析容器监控数据出现异常，错误位置：{}，容器ID：{}，错误栈：{}",
+                    "ContainerStatsStreamer.onStats()", containerId, HttpClientUtils.getStackTraceAsString(e));
+        }
+    }
+
+    /**
+     * NIO线程
+     */
+    private class IoLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        private IoLoop() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        private void submit(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select(1000);
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+
+                    Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                    while (iterator.hasNext()) {
+                        SelectionKey key = iterator.next();
+                        iterator.remove();
+                        StatsConnection connection = (StatsConnection) key.attachment();
+                        try {
+                            if(!key.isValid()) {
+                                connection.close();
+                            } else if(key.isConnectable()) {
+                                connection.finishConnect();
+                            } else if(key.isWritable()) {
+                                connection.write();
+                            } else if(key.isReadable()) {
+                                connection.read();
+                            }
+                        } catch (Exception e) {
+                            log.error("容器监控数据流异常，错误位置：{}，容器ID：{}，错误信息：{}",
+                                    "ContainerStatsStreamer.IoLoop.run()", connection.containerId, e.getMessage());
+                            connection.close();
+                        }
+                    }
+                } catch (Exception e) {
+                    log.error("容器监控数据流异常，错误位置：{}，错误栈：{}",
+                            "ContainerStatsStreamer.IoLoop.run()", HttpClientUtils.getStackTraceAsString(e));
+                }
+            }
+
+            for(SelectionKey key : selector.keys()) {
+                ((StatsConnection) key.attachment()).close();
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    /**
+     * 单个容器的stats连接，仅在所属IoLoop线程中访问
+     * 解析HTTP响应头和chunked响应体，响应体中每行一个JSON
+     */
+    private class StatsConnection {
+        private static final int HEADER = 0, CHUNK_SIZE = 1, CHUNK_DATA = 2, CHUNK_END = 3, RAW = 4;
+
+        private final String containerId;
+        private final IoLoop loop;
+        private SocketChannel channel;
+        private ByteBuffer writeBuffer;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(16 * 1024);
+
+        /**
+         * 尚未解析的原始数据
+         */
+        private byte[] pending = new byte[16 * 1024];
+        private int pendingLen;
+        /**
+         * 当前未完成的一行JSON
+         */
+        private byte[] line = new byte[8 * 1024];
+        private int lineLen;
+
+        private int state = HEADER;
+        private int chunkRemaining;
+
+        private volatile boolean closed;
+        private volatile long lastReceiveTime = System.currentTimeMillis();
+
+        private StatsConnection(String containerId, IoLoop loop) {
+            this.containerId = containerId;
+            this.loop = loop;
+        }
+
+        private void connect() {
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.connect(new InetSocketAddress(serverAddress, serverPort));
+                channel.register(loop.selector, SelectionKey.OP_CONNECT, this);
+
+                String request = "GET /containers/" + containerId + "/stats?stream=true HTTP/1.1\r\n"
+                        + "Host: " + serverAddress + "\r\n"
+                        + "Accept: application/json\r\n\r\n";
+                writeBuffer = ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII));
+            } catch (IOException e) {
+                log.error("建立容器监控数据流失败，错误位置：{}，容器ID：{}",
+                        "ContainerStatsStreamer.StatsConnection.connect()", containerId);
+                close();
+            }
+        }
+
+        private void finishConnect() throws IOException {
+            if(channel.finishConnect()) {
+                channel.keyFor(loop.selector).interestOps(SelectionKey.OP_WRITE);
+            }
+        }
+
+        private void write() throws IOException {
+            channel.write(writeBuffer);
+            if(!writeBuffer.hasRemaining()) {
+                channel.keyFor(loop.selector).interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void read() throws IOException {
+            readBuffer.clear();
+            int n = channel.read(readBuffer);
+            if(n < 0) {
+                close();
+                return;
+            }
+            readBuffer.flip();
+            appendPending(readBuffer);
+            parse();
+        }
+
+        private void appendPending(ByteBuffer buffer) {
+            int n = buffer.remaining();
+            if(pendingLen + n > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLen + n));
+            }
+            buffer.get(pending, pendingLen, n);
+            pendingLen += n;
+        }
+
+        private void parse() throws IOException {
+            int pos = 0;
+            boolean progress = true;
+            while (progress && pos < pendingLen) {
+                progress = false;
+                switch (state) {
+                    case HEADER: {
+                        int end = indexOf(pending, pos, pendingLen, "\r\n\r\n");
+                        if(end < 0) {
+                            break;
+                        }
+                        String header = new String(pending, pos, end - pos, StandardCharsets.US_ASCII);
+                        if(!header.startsWith("HTTP/1.1 200") && !header.startsWith("HTTP/1.0 200")) {
+                            throw new IOException("响应异常：" + header.split("\r\n")[0]);
+                        }
+                        state = header.toLowerCase().contains("transfer-encoding: chunked") ? CHUNK_SIZE : RAW;
+                        pos = end + 4;
+                        progress = true;
+                        break;
+                    }
+                    case CHUNK_SIZE: {
+                        int end = indexOf(pending, pos, pendingLen, "\r\n");
+                        if(end < 0) {
+                            break;
+                        }
+                        String size = new String(pending, pos, end - pos, StandardCharsets.US_ASCII).trim();
+                        int ext = size.indexOf(';');
+                        chunkRemaining = Integer.parseInt(ext < 0 ? size : size.substring(0, ext), 16);
+                        if(chunkRemaining == 0) {
+                            // 容器已停止，响应结束
+                            close();
+                            return;
+                        }
+                        state = CHUNK_DATA;
+                        pos = end + 2;
+                        progress = true;
+                        break;
+                    }
+                    case CHUNK_DATA: {
+                        int n = Math.min(chunkRemaining, pendingLen - pos);
+                        appendBody(pending, pos, n);
+                        chunkRemaining -= n;
+                        pos += n;
+                        if(chunkRemaining == 0) {
+                            state = CHUNK_END;
+                        }
+                        progress = n > 0;
+                        break;
+                    }
+                    case CHUNK_END: {
+                        if(pendingLen - pos < 2) {
+                            break;
+                        }
+                        pos += 2;
+                        state = CHUNK_SIZE;
+                        progress = true;
+                        break;
+                    }
+                    default: {
+                        appendBody(pending, pos, pendingLen - pos);
+                        pos = pendingLen;
+                        progress = true;
+                        break;
+                    }
+                }
+            }
+
+            // 移除已解析的数据
+            System.arraycopy(pending, pos, pending, 0, pendingLen - pos);
+            pendingLen -= pos;
+        }
+
+        /**
+         * 追加响应体，遇到换行时完成一条JSON
+         */
+        private void appendBody(byte[] data, int offset, int len) {
+            for(int i = offset; i < offset + len; i++) {
+                byte b = data[i];
+                if(b == '\n') {
+                    if(lineLen > 0) {
+                        lastReceiveTime = System.currentTimeMillis();
+                        onStats(containerId, Arrays.copyOf(line, lineLen));
+                        lineLen = 0;
+                    }
+                    continue;
+                }
+                if(lineLen == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[lineLen++] = b;
+            }
+        }
+
+        private void close() {
+            if(closed) {
+                return;
+            }
+            closed = true;
+            if(channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private static int indexOf(byte[] data, int from, int to, String target) {
+        byte[] bytes = target.getBytes(StandardCharsets.US_ASCII);
+        outer:
+        for(int i = from; i <= to - bytes.length; i++) {
+            for(int j = 0; j < bytes.length; j++) {
+                if(data[i + j] != bytes[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,146 @@
+package jit.edu.paas.commons.docker;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.messages.Container;
+import jit.edu.paas.commons.util.CollectionUtils;
+import jit.edu.paas.commons.util.HttpClientUtils;
+import jit.edu.paas.commons.util.StringUtils;
+import jit.edu.paas.commons.util.jedis.JedisClient;
+import jit.edu.paas.domain.entity.UserContainer;
+import jit.edu.paas.domain.enums.ContainerStatusEnum;
+import jit.edu.paas.mapper.UserContainerMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 容器状态对账
+ * （1）一次查询读取数据库中容器ID和状态
+ * （2）一次listContainers读取Docker中所有容器状态
+ *     先读数据库再读Docker，两次读取之间新建的容器不在数据库结果中，不会被误判为已删除
+ * （3）内存中比对，得出需要更新和删除的容器
+ * （4）批量UPDATE ... CASE更新状态，批量DELETE ... IN删除记录
+ * @author jitwxs
+ * @since 2026/10/18 11:10
+ */
+@Slf4j
+@Component
+public class ContainerStatusReconciler {
+    @Autowired
+    private DockerClient dockerClient;
+    @Autowired
+    private UserContainerMapper userContainerMapper;
+    @Autowired
+    private JedisClient jedisClient;
+    @Autowired
+    private ContainerStateCache stateCache;
+
+    @Value("${redis.container-name.key}")
+    private String key;
+
+    /**
+     * 单条SQL最多处理的记录数
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 执行对账
+     * @param userId 用户ID，为空时对账所有
+     * @return success：参与对账数；error：失败数；update：更新数；delete：删除数；
+     *         listTime、selectTime、diffTime、applyTime：各阶段耗时（单位：ms）
+     * @author jitwxs
+     * @since 2026/10/18 11:12
+     */
+    public Map<String, Integer> reconcile(String userId) {
+        Map<String, Integer> result = new HashMap<>(16);
+        long start = System.currentTimeMillis();
+
+        // 1、读取数据库中容器ID和状态
+        List<UserContainer> dbContainers = userContainerMapper.listIdAndStatus(StringUtils.isBlank(userId) ? null : userId);
+        long selectEnd = System.currentTimeMillis();
+
+        // 2、读取Docker中所有容器状态
+        Map<String, ContainerStatusEnum> dockerMap = new HashMap<>(16);
+        try {
+            List<Container> containers = dockerClient.listContainers(DockerClient.ListContainersParam.allContainers());
+            for(Container container : containers) {
+                dockerMap.put(container.id(), ContainerStatusEnum.getByDockerState(container.state()));
+            }
+        } catch (Exception e) {
+            log.error("读取容器列表出现异常，异常位置：{}，错误栈：{}",
+                    "ContainerStatusReconciler.reconcile()", HttpClientUtils.getStackTraceAsString(e));
+            result.put("success", 0);
+            result.put("error", 1);
+            return result;
+        }
+        // 对账结果直接写库，内存状态同步刷新，Docker中已不存在的容器从内存中移除
+        stateCache.putAll(dockerMap);
+        stateCache.retainAll(dockerMap.keySet());
+        long listEnd = System.currentTimeMillis();
+
+        // 3、内存中比对
+        List<UserContainer> updateList = new ArrayList<>();
+        List<String> deleteList = new ArrayList<>();
+        for(UserContainer container : dbContainers) {
+            // Docker中不存在，说明容器已被删除
+            ContainerStatusEnum statusEnum = dockerMap.getOrDefault(container.getId(), ContainerStatusEnum.REMOVE);
+            if(statusEnum == ContainerStatusEnum.REMOVE) {
+                deleteList.add(container.getId());
+            } else if(container.getStatus() == null || statusEnum.getCode() != container.getStatus()) {
+                UserContainer update = new UserContainer();
+                update.setId(container.getId());
+                update.setStatus(statusEnum.getCode());
+                updateList.add(update);
+            }
+        }
+        long diffEnd = System.currentTimeMillis();
+
+        // 4、批量写入
+        int errorCount = 0;
+        for(List<UserContainer> batch : CollectionUtils.partition(updateList, BATCH_SIZE)) {
+            try {
+                userContainerMapper.batchUpdateStatus(batch);
+            } catch (Exception e) {
+                log.error("批量更新容器状态出现异常，异常位置：{}，错误栈：{}",
+                        "ContainerStatusReconciler.reconcile()", HttpClientUtils.getStackTraceAsString(e));
+                errorCount += batch.size();
+            }
+        }
+        for(List<String> batch : CollectionUtils.partition(deleteList, BATCH_SIZE)) {
+            try {
+                userContainerMapper.deleteBatchIds(batch);
+                cleanCache(batch);
+            } catch (Exception e) {
+                log.error("批量删除容器出现异常，异常位置：{}，错误栈：{}",
+                        "ContainerStatusReconciler.reconcile()", HttpClientUtils.getStackTraceAsString(e));
+                errorCount += batch.size();
+            }
+        }
+        long applyEnd = System.currentTimeMillis();
+
+        result.put("success", dbContainers.size() - errorCount);
+        result.put("error", errorCount);
+        result.put("update", updateList.size());
+        result.put("delete", deleteList.size());
+        result.put("selectTime", (int) (selectEnd - start));
+        result.put("listTime", (int) (listEnd - selectEnd));
+        result.put("diffTime", (int) (diffEnd - listEnd));
+        result.put("applyTime", (int) (applyEnd - diffEnd));
+
+        log.info("容器状态对账完成，Docker容器数：{}，数据库容器数：{}，更新：{}，删除：{}，失败：{}，耗时：select {}ms，list {}ms，diff {}ms，apply {}ms",
+                dockerMap.size(), dbContainers.size(), updateList.size(), deleteList.size(), errorCount,
+                selectEnd - start, listEnd - selectEnd, diffEnd - listEnd, applyEnd - diffEnd);
+        return result;
+    }
+
+    private void cleanCache(List<String> ids) {
+        try {
+            jedisClient.hdel(key, ids.toArray(new String[0]));
+        } catch (Exception e) {
+            log.error("删除缓存出现异常，异常位置：{}", "ContainerStatusReconciler.cleanCache()");
+        }
+    }
+}
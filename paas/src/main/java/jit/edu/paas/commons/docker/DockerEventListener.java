@@ -0,0 +1,200 @@
+package jit.edu.paas.commons.docker;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.EventStream;
+import com.spotify.docker.client.messages.Event;
+import jit.edu.paas.commons.util.HttpClientUtils;
+import jit.edu.paas.domain.enums.ContainerStatusEnum;
+import jit.edu.paas.service.SysImageService;
+import jit.edu.paas.service.UserContainerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+
+/**
+ * Docker事件监听
+ * 长连接订阅Docker /events 事件流，根据容器事件增量更新容器状态，根据镜像事件增量同步镜像
+ * 断线后从最后一次事件的时间点重新订阅，保证事件不丢失
+ * @author jitwxs
+ * @since 2026/10/18 10:30
+ */
+@Slf4j
+@Component
+public class DockerEventListener implements Runnable {
+    @Autowired
+    private DockerClient dockerClient;
+    @Autowired
+    private UserContainerService containerService;
+    @Autowired
+    private SysImageService sysImageService;
+
+    /**
+     * 断线重连间隔（单位：ms）
+     */
+    @Value("${docker.events.reconnect-interval}")
+    private long reconnectInterval;
+
+    /**
+     * 容器事件 --> 容器状态
+     */
+    private static final Map<String, ContainerStatusEnum> CONTAINER_ACTIONS = new HashMap<>(16);
+
+    static {
+        CONTAINER_ACTIONS.put("start", ContainerStatusEnum.RUNNING);
+        CONTAINER_ACTIONS.put("restart", ContainerStatusEnum.RUNNING);
+        CONTAINER_ACTIONS.put("unpause", ContainerStatusEnum.RUNNING);
+        CONTAINER_ACTIONS.put("pause", ContainerStatusEnum.PAUSE);
+        CONTAINER_ACTIONS.put("die", ContainerStatusEnum.STOP);
+        CONTAINER_ACTIONS.put("stop", ContainerStatusEnum.STOP);
+        CONTAINER_ACTIONS.put("destroy", ContainerStatusEnum.REMOVE);
+    }
+
+    /**
+     * 需要同步的镜像事件
+     */
+    private static final Set<String> IMAGE_ACTIONS = new HashSet<>(Arrays.asList(
+            "pull", "tag", "untag", "delete", "import", "load"));
+
+    private volatile boolean running;
+
+    private volatile EventStream eventStream;
+
+    private Thread thread;
+
+    /**
+     * 最后一次事件的时间（单位：s），重连时从该时间点开始订阅
+     */
+    private volatile long lastEventTime;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = new Thread(this, "docker-event-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        closeStream();
+        if(thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                listen();
+            } catch (Exception e) {
+                if(running) {
+                    log.error("Docker事件流中断，错误位置：{}，错误栈：{}",
+                            "DockerEventListener.run()", HttpClientUtils.getStackTraceAsString(e));
+                }
+            }
+
+            if(!running) {
+                return;
+            }
+            try {
+                Thread.sleep(reconnectInterval);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 订阅事件流，阻塞直到连接断开
+     * @author jitwxs
+     * @since 2026/10/18 10:36
+     */
+    private void listen() throws Exception {
+        List<DockerClient.EventsParam> params = new ArrayList<>();
+        params.add(DockerClient.EventsParam.type(Event.Type.CONTAINER));
+        params.add(DockerClient.EventsParam.type(Event.Type.IMAGE));
+        for(String action : CONTAINER_ACTIONS.keySet()) {
+            params.add(DockerClient.EventsParam.event(action));
+        }
+        for(String action : IMAGE_ACTIONS) {
+            params.add(DockerClient.EventsParam.event(action));
+        }
+        if(lastEventTime > 0) {
+            params.add(DockerClient.EventsParam.since(lastEventTime));
+        }
+
+        eventStream = dockerClient.events(params.toArray(new DockerClient.EventsParam[0]));
+        log.info("Docker事件流订阅成功，起始时间：{}", lastEventTime);
+        try {
+            while (running && eventStream.hasNext()) {
+                Event event = eventStream.next();
+                if(event.time() != null) {
+                    lastEventTime = event.time().getTime() / 1000;
+                }
+                if(event.type() == Event.Type.IMAGE) {
+                    handleImageEvent(event);
+                } else {
+                    handleContainerEvent(event);
+                }
+            }
+        } finally {
+            closeStream();
+        }
+    }
+
+    /**
+     * 处理容器事件
+     * @author jitwxs
+     * @since 2026/10/18 10:40
+     */
+    private void handleContainerEvent(Event event) {
+        if(event.type() != Event.Type.CONTAINER || event.actor() == null) {
+            return;
+        }
+        ContainerStatusEnum statusEnum = CONTAINER_ACTIONS.get(event.action());
+        if(statusEnum == null) {
+            return;
+        }
+
+        String containerId = event.actor().id();
+        try {
+            containerService.updateStatus(containerId, statusEnum);
+        } catch (Exception e) {
+            log.error("处理容器事件出现异常，错误位置：{}，容器ID：{}，事件：{}，错误栈：{}",
+                    "DockerEventListener.handleContainerEvent()", containerId, event.action(),
+                    HttpClientUtils.getStackTraceAsString(e));
+        }
+    }
+
+    /**
+     * 处理镜像事件
+     * @author jitwxs
+     * @since 2026/10/18 22:30
+     */
+    private void handleImageEvent(Event event) {
+        if(event.actor() == null || !IMAGE_ACTIONS.contains(event.action())) {
+            return;
+        }
+        Map<String, String> attributes = event.actor().attributes();
+        String name = attributes == null ? null : attributes.get("name");
+        sysImageService.syncImageEvent(event.action(), event.actor().id(), name);
+    }
+
+    private void closeStream() {
+        EventStream stream = eventStream;
+        if(stream != null) {
+            try {
+                stream.close();
+            } catch (Exception e) {
+                log.error("关闭Docker事件流出现异常，错误位置：{}", "DockerEventListener.closeStream()");
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package jit.edu.paas.commons.docker;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.ProgressHandler;
+import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.exceptions.ImagePullFailedException;
+import com.spotify.docker.client.messages.ProgressDetail;
+import com.spotify.docker.client.messages.ProgressMessage;
+import jit.edu.paas.commons.util.HttpClientUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 镜像拉取管理
+ * 拉取在独立的有界线程池中执行，不占用容器操作所用的taskExecutor
+ * 同一镜像的并发拉取请求合并为一次拉取，所有请求方共享进度和结果
+ * 按层汇总Docker返回的拉取进度，按时间间隔节流后推送给请求方
+ * @author jitwxs
+ * @since 2026/10/18 22:40
+ */
+@Slf4j
+@Component
+public class ImagePullManager {
+    @Autowired
+    private DockerClient dockerClient;
+    @Autowired
+    @Qualifier("pullExecutor")
+    private Executor pullExecutor;
+
+    /**
+     * 进度推送间隔（单位：ms）
+     */
+    @Value("${image.pull.progress-interval}")
+    private Long progressInterval;
+
+    /**
+     * 镜像完整名 --> 进行中的拉取
+     */
+    private final Map<String, PullJob> jobs = new ConcurrentHashMap<>(16);
+
+    private final AtomicLong pullCount = new AtomicLong();
+    private final AtomicLong shareCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    /**
+     * 拉取镜像，同一镜像正在拉取时加入该次拉取
+     * @param fullName 镜像完整名，包含Tag
+     * @param listener 进度回调，在拉取线程中调用
+     * @return 拉取结束后完成，失败时为异常完成；线程池已满时立即异常完成
+     * @author jitwxs
+     * @since 2026/10/18 22:42
+     */
+    public CompletableFuture<Void> pull(String fullName, Consumer<Map<String, Object>> listener) {
+        PullJob created = new PullJob(fullName);
+        created.listeners.add(listener);
+        PullJob job = jobs.putIfAbsent(fullName, created);
+        if (job != null) {
+            shareCount.incrementAndGet();
+            job.listeners.add(listener);
+            return job.future;
+        }
+
+        pullCount.incrementAndGet();
+        try {
+            pullExecutor.execute(created);
+        } catch (RejectedExecutionException e) {
+            log.error("镜像拉取任务过多，错误位置：{}，镜像名：{}", "ImagePullManager.pull()", fullName);
+            jobs.remove(fullName, created);
+            errorCount.incrementAndGet();
+            created.future.completeExceptionally(e);
+        }
+        return created.future;
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("active", (long) jobs.size());
+        map.put("pull", pullCount.get());
+        map.put("share", shareCount.get());
+        map.put("error", errorCount.get());
+        return map;
+    }
+
+    /**
+     * 一次镜像拉取，progress只由拉取线程调用
+     */
+    private class PullJob implements Runnable, ProgressHandler {
+        private final String fullName;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final List<Consumer<Map<String, Object>>> listeners = new CopyOnWriteArrayList<>();
+
+        /**
+         * 层ID --> [已下载字节, 总字节, 是否完成]
+         */
+        private final Map<String, long[]> layers = new LinkedHashMap<>(16);
+        private long lastPublish;
+
+        private PullJob(String fullName) {
+            this.fullName = fullName;
+        }
+
+        @Override
+        public void run() {
+            try {
+                dockerClient.pull(fullName, this);
+                publish(true);
+                jobs.remove(fullName, this);
+                future.complete(null);
+            } catch (Throwable e) {
+                log.error("拉取镜像失败，错误位置：{}，镜像名：{}，错误栈：{}",
+                        "ImagePullManager.PullJob.run()", fullName, HttpClientUtils.getStackTraceAsString(e));
+                errorCount.incrementAndGet();
+                jobs.remove(fullName, this);
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void progress(ProgressMessage message) throws DockerException {
+            if (message.error() != null) {
+                throw new ImagePullFailedException(fullName, message.error());
+            }
+            String id = message.id();
+            String status = message.status();
+            if (id == null || status == null || id.equals(fullName) || id.equals(tagOf(fullName))) {
+                return;
+            }
+
+            long[] layer = layers.computeIfAbsent(id, k -> new long[3]);
+            ProgressDetail detail = message.progressDetail();
+            if (status.startsWith("Downloading") && detail != null && detail.total() != null && detail.total() > 0) {
+                layer[1] = detail.total();
+                layer[0] = detail.current() == null ? 0 : detail.current();
+            } else if ("Download complete".equals(status) || "Pull complete".equals(status)
+                    || "Already exists".equals(status)) {
+                layer[0] = layer[1];
+                layer[2] = 1;
+            }
+            publish(false);
+        }
+
+        /**
+         * 汇总各层进度推送给请求方
+         * @param force 为true时不受推送间隔限制
+         */
+        private void publish(boolean force) {
+            long now = System.currentTimeMillis();
+            if (!force && now - lastPublish < progressInterval) {
+                return;
+            }
+            lastPublish = now;
+
+            long current = 0, total = 0, completed = 0;
+            for (long[] layer : layers.values()) {
+                current += layer[0];
+                total += layer[1];
+                completed += layer[2];
+            }
+            Map<String, Object> progress = new HashMap<>(16);
+            progress.put("fullName", fullName);
+            progress.put("layers", layers.size());
+            progress.put("completed", completed);
+            progress.put("current", current);
+            progress.put("total", total);
+            progress.put("finished", force);
+            for (Consumer<Map<String, Object>> listener : listeners) {
+                try {
+                    listener.accept(progress);
+                } catch (Exception e) {
+                    log.error("推送镜像拉取进度失败，错误位置：{}，镜像名：{}，错误原因：{}",
+                            "ImagePullManager.PullJob.publish()", fullName, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static String tagOf(String fullName) {
+        int index = fullName.lastIndexOf(':');
+        return index < 0 ? "latest" : fullName.substring(index + 1);
+    }
+}
@@ -0,0 +1,67 @@
+package jit.edu.paas.commons.docker;
+
+import java.util.Arrays;
+
+/**
+ * 监控数据块，保存同一容器一个时间桶内的连续记录，使用MonitorCodec编码后作为ZSET的一个成员
+ * 非线程安全
+ * @author jitwxs
+ * @since 2026/10/18 16:20
+ */
+public class MonitorBlock {
+    private final long period;
+    private final long bucketStart;
+
+    private long[] timestamps = new long[16];
+    private double[][] rows = new double[16][];
+    private int size;
+
+    /**
+     * @param period 时间桶长度（单位：ms）
+     * @param timestamp 时间桶内任一时间戳
+     */
+    public MonitorBlock(long period, long timestamp) {
+        this.period = period;
+        this.bucketStart = timestamp - timestamp % period;
+    }
+
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getBucketEnd() {
+        return bucketStart + period;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    public double[] getRow(int index) {
+        return rows[index];
+    }
+
+    /**
+     * 追加一行，时间戳不大于最后一行的记录将被忽略
+     */
+    public void add(long timestamp, double[] row) {
+        if(size > 0 && timestamp <= timestamps[size - 1]) {
+            return;
+        }
+        if(size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        timestamps[size] = timestamp;
+        rows[size] = row;
+        size++;
+    }
+
+    public String encode() {
+        return MonitorCodec.encode(timestamps, rows, size);
+    }
+}
@@ -0,0 +1,213 @@
+package jit.edu.paas.commons.docker;
+
+import jit.edu.paas.commons.util.NumberUtils;
+import jit.edu.paas.domain.vo.ContainerMonitorRollupVO;
+import jit.edu.paas.domain.vo.ContainerMonitorVO;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * 监控数据编解码
+ * 一个数据块包含同一容器若干条连续记录，按列存储，格式：
+ * 版本(1B) | 列数(1B) | 行数(varint) | 基准时间戳(varint)
+ * | 各行时间戳与前一行的差值(zigzag varint)
+ * | 按列依次存储各行数值×1000与前一行的差值(zigzag varint)
+ * 监控数值均保留三位小数，相邻采样变化小，每个数值通常只占1~2字节
+ * 编码结果使用Base64存入Redis，旧版JSON格式以“{”开头，可据此区分
+ * @author jitwxs
+ * @since 2026/10/18 16:10
+ */
+public class MonitorCodec {
+    private static final byte VERSION = 1;
+
+    private static final double SCALE = 1000;
+
+    /**
+     * 原始采样的指标名，顺序即列顺序
+     */
+    public static final String[] METRICS = {
+            "rxBytes", "txBytes", "rxPackets", "txPackets", "cpuUtilization",
+            "memoryUsage", "memoryLimit", "memoryUtilization", "blockRead", "blockWrite"
+    };
+
+    /**
+     * 聚合数据的列名：采样数，各指标平均值、最小值、最大值、最后值
+     */
+    public static final String[] ROLLUP_COLUMNS = new String[1 + METRICS.length * 4];
+
+    static {
+        ROLLUP_COLUMNS[0] = "count";
+        for(int i = 0; i < METRICS.length; i++) {
+            ROLLUP_COLUMNS[1 + i] = METRICS[i];
+            ROLLUP_COLUMNS[1 + METRICS.length + i] = METRICS[i] + "Min";
+            ROLLUP_COLUMNS[1 + METRICS.length * 2 + i] = METRICS[i] + "Max";
+            ROLLUP_COLUMNS[1 + METRICS.length * 3 + i] = METRICS[i] + "Last";
+        }
+    }
+
+    /**
+     * 判断是否为旧版JSON格式
+     */
+    public static boolean isLegacy(String member) {
+        return member.startsWith("{");
+    }
+
+    /**
+     * 编码
+     * @param timestamps 各行时间戳
+     * @param rows 各行数值，每行列数相同
+     * @param size 行数
+     */
+    public static String encode(long[] timestamps, double[][] rows, int size) {
+        int columns = size == 0 ? 0 : rows[0].length;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + size * (columns + 2) * 2);
+        out.write(VERSION);
+        out.write(columns);
+        writeVarLong(out, size);
+        long base = size == 0 ? 0 : timestamps[0];
+        writeVarLong(out, base);
+
+        long prev = base;
+        for(int r = 0; r < size; r++) {
+            writeVarLong(out, zigzag(timestamps[r] - prev));
+            prev = timestamps[r];
+        }
+        for(int c = 0; c < columns; c++) {
+            long prevValue = 0;
+            for(int r = 0; r < size; r++) {
+                long value = Math.round(rows[r][c] * SCALE);
+                writeVarLong(out, zigzag(value - prevValue));
+                prevValue = value;
+            }
+        }
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    /**
+     * 解码
+     * @return 数据块，bucketStart取第一行时间戳
+     */
+    public static MonitorBlock decode(String member, long period) {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(member));
+        byte version = buffer.get();
+        if(version != VERSION) {
+            throw new IllegalArgumentException("不支持的监控数据版本：" + version);
+        }
+        int columns = buffer.get() & 0xFF;
+        int size = (int) readVarLong(buffer);
+        long base = readVarLong(buffer);
+
+        long[] timestamps = new long[size];
+        double[][] rows = new double[size][columns];
+        long prev = base;
+        for(int r = 0; r < size; r++) {
+            prev += unzigzag(readVarLong(buffer));
+            timestamps[r] = prev;
+        }
+        for(int c = 0; c < columns; c++) {
+            long prevValue = 0;
+            for(int r = 0; r < size; r++) {
+                prevValue += unzigzag(readVarLong(buffer));
+                rows[r][c] = prevValue / SCALE;
+            }
+        }
+
+        MonitorBlock block = new MonitorBlock(period, base);
+        for(int r = 0; r < size; r++) {
+            block.add(timestamps[r], rows[r]);
+        }
+        return block;
+    }
+
+    /**
+     * 原始采样 --> 行
+     */
+    public static double[] toRow(ContainerMonitorVO info) {
+        return new double[]{
+                info.getRxBytes(), info.getTxBytes(), info.getRxPackets(), info.getTxPackets(),
+                info.getCpuUtilization(), info.getMemoryUsage(), info.getMemoryLimit(), info.getMemoryUtilization(),
+                info.getBlockRead(), info.getBlockWrite()
+        };
+    }
+
+    /**
+     * 聚合数据 --> 行；非聚合数据视为只有一次采样的聚合
+     */
+    public static double[] toRollupRow(ContainerMonitorVO info) {
+        double[] avg = toRow(info);
+        double[] min = avg, max = avg, last = avg;
+        double count = 1;
+        if(info instanceof ContainerMonitorRollupVO && ((ContainerMonitorRollupVO) info).getMin() != null) {
+            ContainerMonitorRollupVO rollup = (ContainerMonitorRollupVO) info;
+            count = rollup.getCount();
+            min = toRow(rollup.getMin());
+            max = toRow(rollup.getMax());
+            last = rollup.getLast() == null ? avg : toRow(rollup.getLast());
+        }
+
+        int n = METRICS.length;
+        double[] row = new double[ROLLUP_COLUMNS.length];
+        row[0] = count;
+        System.arraycopy(avg, 0, row, 1, n);
+        System.arraycopy(min, 0, row, 1 + n, n);
+        System.arraycopy(max, 0, row, 1 + n * 2, n);
+        System.arraycopy(last, 0, row, 1 + n * 3, n);
+        return row;
+    }
+
+    /**
+     * 行 --> 原始采样
+     */
+    public static ContainerMonitorVO fromRow(double[] values, long timestamp) {
+        ContainerMonitorVO vo = new ContainerMonitorVO();
+        fillRow(vo, values);
+        vo.setTimestamp(timestamp);
+        return vo;
+    }
+
+    /**
+     * 使用行数据填充VO，数值保留三位小数
+     */
+    public static void fillRow(ContainerMonitorVO vo, double[] values) {
+        vo.setRxBytes(NumberUtils.decimal3Bit(values[0]));
+        vo.setTxBytes(NumberUtils.decimal3Bit(values[1]));
+        vo.setRxPackets((int) Math.round(values[2]));
+        vo.setTxPackets((int) Math.round(values[3]));
+        vo.setCpuUtilization(NumberUtils.decimal3Bit(values[4]));
+        vo.setMemoryUsage(NumberUtils.decimal3Bit(values[5]));
+        vo.setMemoryLimit(NumberUtils.decimal3Bit(values[6]));
+        vo.setMemoryUtilization(NumberUtils.decimal3Bit(values[7]));
+        vo.setBlockRead(NumberUtils.decimal3Bit(values[8]));
+        vo.setBlockWrite(NumberUtils.decimal3Bit(values[9]));
+    }
+
+    private static long zigzag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private static long unzigzag(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+}
@@ -0,0 +1,81 @@
+package jit.edu.paas.commons.docker;
+
+import jit.edu.paas.domain.vo.ContainerMonitorRollupVO;
+import jit.edu.paas.domain.vo.ContainerMonitorVO;
+
+/**
+ * 单个容器在一个周期内的监控数据聚合，计算各指标的最小、最大、平均和最后值
+ * 非线程安全
+ * @author jitwxs
+ * @since 2026/10/18 15:45
+ */
+public class MonitorRollup {
+    private static final int METRIC_NUM = MonitorCodec.METRICS.length;
+
+    private final long period;
+    private final long bucketStart;
+
+    private int count;
+    private final double[] min = new double[METRIC_NUM];
+    private final double[] max = new double[METRIC_NUM];
+    private final double[] sum = new double[METRIC_NUM];
+    private ContainerMonitorVO last;
+
+    /**
+     * @param period 聚合周期（单位：ms）
+     * @param timestamp 周期内任一时间戳
+     */
+    public MonitorRollup(long period, long timestamp) {
+        this.period = period;
+        this.bucketStart = timestamp - timestamp % period;
+    }
+
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getBucketEnd() {
+        return bucketStart + period;
+    }
+
+    /**
+     * 时间戳是否属于该周期
+     */
+    public boolean contains(long timestamp) {
+        return timestamp >= bucketStart && timestamp < getBucketEnd();
+    }
+
+    public void add(ContainerMonitorVO info) {
+        double[] values = MonitorCodec.toRow(info);
+        for(int i = 0; i < METRIC_NUM; i++) {
+            if(count == 0) {
+                min[i] = max[i] = values[i];
+            } else {
+                min[i] = Math.min(min[i], values[i]);
+                max[i] = Math.max(max[i], values[i]);
+            }
+            sum[i] += values[i];
+        }
+        if(last == null || info.getTimestamp() >= last.getTimestamp()) {
+            last = info;
+        }
+        count++;
+    }
+
+    public ContainerMonitorRollupVO toVO() {
+        double[] avg = new double[METRIC_NUM];
+        for(int i = 0; i < METRIC_NUM; i++) {
+            avg[i] = count == 0 ? 0 : sum[i] / count;
+        }
+
+        ContainerMonitorRollupVO vo = new ContainerMonitorRollupVO();
+        MonitorCodec.fillRow(vo, avg);
+        vo.setTimestamp(bucketStart);
+        vo.setPeriod(period);
+        vo.setCount(count);
+        vo.setMin(MonitorCodec.fromRow(min, bucketStart));
+        vo.setMax(MonitorCodec.fromRow(max, bucketStart));
+        vo.setLast(last);
+        return vo;
+    }
+}
@@ -23,24 +23,26 @@ public class DataSyncSchedule {
 
     /**
      * 同步容器状态
-     * 启动后延迟1s执行，每15分钟执行一次
+     * 容器状态由Docker事件增量更新，此处仅作兜底对账
+     * 启动后延迟1s执行，每6小时执行一次
      * @author jitwxs
      * @since 2018/7/9 11:08
      */
-    @Scheduled(initialDelay=1000, fixedRate=900_000)
+    @Scheduled(initialDelay=1000, fixedRate=21_600_000)
     public void syncContainerStatus() {
         containerService.syncStatus(null);
     }
 
     /**
      * 同步系统镜像
+     * 镜像由Docker事件增量同步，此处仅作兜底对账，本地镜像列表未变化时跳过
      * 启动后延迟1s执行，每15分钟执行一次
      * @author jitwxs
      * @since 2018/7/9 11:08
      */
     @Scheduled(initialDelay=1000, fixedRate=900_000)
     public void syncSystemImage() {
-        sysImageService.sync();
+        sysImageService.reconcile();
     }
 
     /**
@@ -0,0 +1,247 @@
+package jit.edu.paas.commons.socket;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 分块上传的断点记录，由服务端保存在目标文件旁
+ * 数据先写入预分配的“目标文件.part”，断点记录保存在“目标文件.manifest”，格式：
+ * 魔数(int) | 文件大小(long) | 分块大小(int) | 分块数(int) | 各分块SHA-256(32B×分块数，全0表示未接收)
+ * 上传完成后.part重命名为目标文件，并删除.manifest；长时间未访问的记录由ChunkUploadHandler清理，连同.part一起删除
+ * @author jitwxs
+ * @since 2026/10/18 19:30
+ */
+public class ChunkManifest {
+    private static final int MAGIC = 0x50414153;
+    private static final int HEADER_LENGTH = 4 + 8 + 4 + 4;
+    public static final int DIGEST_LENGTH = 32;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 分块大小下限，避免以极小的分块制造大量断点记录
+     */
+    public static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * 分块大小上限
+     */
+    public static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * 分块数上限，断点记录最多占用 MAX_CHUNK_COUNT×32B
+     */
+    public static final int MAX_CHUNK_COUNT = 65536;
+
+    /**
+     * 文件大小上限
+     */
+    public static final long MAX_LENGTH = 64L * 1024 * 1024 * 1024;
+
+    private final Path target;
+    private final Path partPath;
+    private final Path manifestPath;
+    private final long length;
+    private final int chunkSize;
+    private final int chunkCount;
+
+    /**
+     * 已接收分块的摘要，未接收为null
+     */
+    private final byte[][] digests;
+
+    /**
+     * 最后访问时间
+     */
+    private volatile long touchTime = System.currentTimeMillis();
+
+    private ChunkManifest(Path target, long length, int chunkSize, byte[][] digests) {
+        this.target = target;
+        this.partPath = target.resolveSibling(target.getFileName() + ".part");
+        this.manifestPath = target.resolveSibling(target.getFileName() + ".manifest");
+        this.length = length;
+        this.chunkSize = chunkSize;
+        this.chunkCount = digests.length;
+        this.digests = digests;
+    }
+
+    /**
+     * 打开断点记录，已有记录与本次上传的文件大小、分块大小一致时继续使用，否则重新开始
+     * @param target 目标文件
+     */
+    public static ChunkManifest open(Path target, long length, int chunkSize) throws IOException {
+        if (length > MAX_LENGTH || chunkCount(length, chunkSize) > MAX_CHUNK_COUNT) {
+            throw new IOException("分块参数错误");
+        }
+        ChunkManifest manifest = new ChunkManifest(target, length, chunkSize, new byte[chunkCount(length, chunkSize)][]);
+        if (manifest.load()) {
+            return manifest;
+        }
+        Arrays.fill(manifest.digests, null);
+
+        try (RandomAccessFile file = new RandomAccessFile(manifest.partPath.toFile(), "rw")) {
+            file.setLength(length);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(manifest.manifestPath)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(length);
+            out.writeInt(chunkSize);
+            out.writeInt(manifest.chunkCount);
+            out.write(new byte[manifest.chunkCount * DIGEST_LENGTH]);
+        }
+        return manifest;
+    }
+
+    /**
+     * 计算分块数
+     * @throws IllegalArgumentException 参数为负数
+     * @throws ArithmeticException 分块数超出int范围
+     */
+    public static int chunkCount(long length, int chunkSize) {
+        if (length < 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("分块参数错误");
+        }
+        return Math.toIntExact(length / chunkSize + (length % chunkSize == 0 ? 0 : 1));
+    }
+
+    /**
+     * 校验客户端提交的文件大小和分块大小是否在允许范围内
+     * @author jitwxs
+     * @since 2026/10/19 14:10
+     */
+    public static boolean isAcceptable(long length, int chunkSize) {
+        return length >= 0 && length <= MAX_LENGTH && chunkSize >= MIN_CHUNK_SIZE && chunkSize <= MAX_CHUNK_SIZE
+                && chunkCount(length, chunkSize) <= MAX_CHUNK_COUNT;
+    }
+
+    public boolean matches(long length, int chunkSize) {
+        return this.length == length && this.chunkSize == chunkSize && Files.exists(manifestPath);
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * 分块长度，最后一块可能不足chunkSize
+     */
+    public int chunkLength(int index) {
+        return (int) Math.min(chunkSize, length - (long) index * chunkSize);
+    }
+
+    /**
+     * 获取需要重新发送的分块：未接收或摘要与客户端不一致
+     * @param expected 客户端各分块摘要
+     */
+    public synchronized List<Integer> missing(byte[][] expected) {
+        touchTime = System.currentTimeMillis();
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < chunkCount; i++) {
+            if (digests[i] == null || !Arrays.equals(digests[i], expected[i])) {
+                list.add(i);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 从输入流读取分块并按偏移写入.part，边写边计算摘要
+     * 无论摘要是否一致都会读完分块数据，保证连接上的后续命令不会错位；摘要一致且数据落盘后再更新断点记录
+     * @param in 分块数据，读取chunkLength(index)字节
+     * @param digest 客户端声明的SHA-256
+     * @return 摘要不一致返回false，该分块仍视为未接收
+     * @author jitwxs
+     * @since 2026/10/19 14:30
+     */
+    public boolean write(int index, InputStream in, byte[] digest) throws IOException {
+        touchTime = System.currentTimeMillis();
+        MessageDigest sha256 = ChunkUploadHandler.sha256();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.WRITE)) {
+            long position = (long) index * chunkSize;
+            int remaining = chunkLength(index);
+            while (remaining > 0) {
+                int n = in.read(buffer, 0, Math.min(buffer.length, remaining));
+                if (n == -1) {
+                    throw new EOFException();
+                }
+                sha256.update(buffer, 0, n);
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, n);
+                while (data.hasRemaining()) {
+                    position += channel.write(data, position);
+                }
+                remaining -= n;
+            }
+            if (!Arrays.equals(digest, sha256.digest())) {
+                return false;
+            }
+            channel.force(false);
+        }
+        synchronized (this) {
+            try (FileChannel channel = FileChannel.open(manifestPath, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(digest), HEADER_LENGTH + (long) index * DIGEST_LENGTH);
+            }
+            digests[index] = digest;
+        }
+        return true;
+    }
+
+    /**
+     * 所有分块接收完成后重命名为目标文件
+     * @return 存在未接收的分块返回false
+     */
+    public synchronized boolean complete() throws IOException {
+        for (byte[] digest : digests) {
+            if (digest == null) {
+                return false;
+            }
+        }
+        Files.move(partPath, target, StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(manifestPath);
+        return true;
+    }
+
+    public long getTouchTime() {
+        return touchTime;
+    }
+
+    /**
+     * 放弃上传，删除.part和.manifest
+     */
+    public synchronized void discard() throws IOException {
+        Files.deleteIfExists(partPath);
+        Files.deleteIfExists(manifestPath);
+    }
+
+    /**
+     * 读取已有的断点记录
+     * @return 记录不存在或与本次上传不一致返回false
+     */
+    private boolean load() throws IOException {
+        if (!Files.exists(manifestPath) || !Files.exists(partPath) || Files.size(partPath) != length) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestPath)))) {
+            if (in.readInt() != MAGIC || in.readLong() != length || in.readInt() != chunkSize || in.readInt() != chunkCount) {
+                return false;
+            }
+            byte[] empty = new byte[DIGEST_LENGTH];
+            for (int i = 0; i < chunkCount; i++) {
+                byte[] digest = new byte[DIGEST_LENGTH];
+                in.readFully(digest);
+                digests[i] = Arrays.equals(digest, empty) ? null : digest;
+            }
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+}
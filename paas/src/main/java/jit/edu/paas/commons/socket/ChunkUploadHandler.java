@@ -0,0 +1,194 @@
+package jit.edu.paas.commons.socket;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分块上传服务端处理
+ * 一个连接上可以连续发送多条命令，每条命令以FileTransferServer.CHUNK_PROTOCOL开头，服务端对每条命令回复1字节状态码：
+ * （1）STATUS：上传ID(UTF) | 保存路径(UTF) | 文件名(UTF) | 文件大小(long) | 分块大小(int) | 分块数(int) | 各分块SHA-256
+ *      回复：状态码 | 缺失分块数(int) | 缺失分块序号(int)...
+ * （2）CHUNK：上传ID(UTF) | 分块序号(int) | 分块长度(int) | SHA-256(32B) | 分块数据
+ * （3）COMPLETE：上传ID(UTF)
+ * 同一目标文件的多个连接共享一份断点记录，分块按偏移写入，可以并行接收
+ * 超过有效期未访问的上传视为放弃，由expire()删除记录和已接收的数据
+ * @author jitwxs
+ * @since 2026/10/18 19:40
+ */
+@Slf4j
+public class ChunkUploadHandler {
+    public static final byte CMD_STATUS = 1;
+    public static final byte CMD_CHUNK = 2;
+    public static final byte CMD_COMPLETE = 3;
+
+    /**
+     * 上传ID --> 断点记录
+     */
+    private final Map<String, ChunkManifest> uploads = new ConcurrentHashMap<>(16);
+
+    /**
+     * 目标文件 --> 断点记录
+     */
+    private final Map<Path, ChunkManifest> manifests = new ConcurrentHashMap<>(16);
+
+    /**
+     * 处理连接上的命令，直到客户端关闭连接
+     */
+    public void handle(DataInputStream in, DataOutputStream out) throws IOException {
+        do {
+            byte cmd = in.readByte();
+            switch (cmd) {
+                case CMD_STATUS:
+                    status(in, out);
+                    break;
+                case CMD_CHUNK:
+                    chunk(in, out);
+                    break;
+                case CMD_COMPLETE:
+                    complete(in, out);
+                    break;
+                default:
+                    throw new IOException("未知的分块上传命令：" + cmd);
+            }
+            out.flush();
+        } while (nextCommand(in));
+    }
+
+    private boolean nextCommand(DataInputStream in) throws IOException {
+        int head = in.read();
+        if (head == -1) {
+            return false;
+        }
+        if (((head << 8) | in.readUnsignedByte()) != FileTransferServer.CHUNK_PROTOCOL) {
+            throw new IOException("分块上传协议错误");
+        }
+        return true;
+    }
+
+    private void status(DataInputStream in, DataOutputStream out) throws IOException {
+        String uploadId = in.readUTF();
+        String srcPath = in.readUTF();
+        String fileName = Paths.get(in.readUTF()).getFileName().toString();
+        long length = in.readLong();
+        int chunkSize = in.readInt();
+        int chunkCount = in.readInt();
+        if (!ChunkManifest.isAcceptable(length, chunkSize) || chunkCount != ChunkManifest.chunkCount(length, chunkSize)) {
+            throw new IOException("分块参数错误");
+        }
+        byte[][] expected = new byte[chunkCount][ChunkManifest.DIGEST_LENGTH];
+        for (byte[] digest : expected) {
+            in.readFully(digest);
+        }
+
+        File directory = new File(srcPath);
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        Path target = new File(directory, fileName).toPath().toAbsolutePath();
+        ChunkManifest manifest;
+        try {
+            manifest = manifests.compute(target, (k, old) -> {
+                if (old != null && old.matches(length, chunkSize)) {
+                    return old;
+                }
+                try {
+                    return ChunkManifest.open(k, length, chunkSize);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        uploads.put(uploadId, manifest);
+
+        List<Integer> missing = manifest.missing(expected);
+        out.writeByte(FileTransferServer.STATUS_OK);
+        out.writeInt(missing.size());
+        for (Integer index : missing) {
+            out.writeInt(index);
+        }
+        log.info("开始分块上传 [File Name：{}] [Size：{}] [Missing：{}/{}]",
+                fileName, FileTransferServer.getFormatFileSize(length), missing.size(), chunkCount);
+    }
+
+    private void chunk(DataInputStream in, DataOutputStream out) throws IOException {
+        String uploadId = in.readUTF();
+        int index = in.readInt();
+        int length = in.readInt();
+        byte[] digest = new byte[ChunkManifest.DIGEST_LENGTH];
+        in.readFully(digest);
+
+        ChunkManifest manifest = uploads.get(uploadId);
+        if (manifest == null || index < 0 || index >= manifest.getChunkCount() || length != manifest.chunkLength(index)) {
+            throw new IOException("分块不存在：" + uploadId + "#" + index);
+        }
+
+        // 分块经固定大小的缓冲区写入.part，摘要校验通过后才标记为已接收
+        if (!manifest.write(index, in, digest)) {
+            out.writeByte(FileTransferServer.STATUS_CHECKSUM);
+            return;
+        }
+        out.writeByte(FileTransferServer.STATUS_OK);
+    }
+
+    private void complete(DataInputStream in, DataOutputStream out) throws IOException {
+        String uploadId = in.readUTF();
+        ChunkManifest manifest = uploads.get(uploadId);
+        if (manifest == null || !manifest.complete()) {
+            out.writeByte(FileTransferServer.STATUS_ERROR);
+            return;
+        }
+        uploads.values().removeIf(m -> m == manifest);
+        manifests.values().removeIf(m -> m == manifest);
+        out.writeByte(FileTransferServer.STATUS_OK);
+    }
+
+    /**
+     * 清理超过有效期未访问的上传，删除断点记录和.part文件
+     * @param ttl 有效期（单位：ms）
+     * @return 清理的上传数
+     * @author jitwxs
+     * @since 2026/10/19 10:40
+     */
+    public int expire(long ttl) {
+        long deadline = System.currentTimeMillis() - ttl;
+        int count = 0;
+        for (Map.Entry<Path, ChunkManifest> entry : manifests.entrySet()) {
+            ChunkManifest manifest = entry.getValue();
+            if (manifest.getTouchTime() >= deadline || !manifests.remove(entry.getKey(), manifest)) {
+                continue;
+            }
+            uploads.values().removeIf(m -> m == manifest);
+            try {
+                manifest.discard();
+            } catch (IOException e) {
+                log.error("删除过期的分块上传出现异常，错误位置：{}，文件：{}", "ChunkUploadHandler.expire()", entry.getKey());
+            }
+            count++;
+        }
+        return count;
+    }
+
+    public static byte[] sha256(byte[] data, int length) {
+        MessageDigest digest = sha256();
+        digest.update(data, 0, length);
+        return digest.digest();
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
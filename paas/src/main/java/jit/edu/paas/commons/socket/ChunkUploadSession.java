@@ -0,0 +1,41 @@
+package jit.edu.paas.commons.socket;
+
+import lombok.Getter;
+
+/**
+ * 浏览器分块上传任务，由Web节点保存，用于校验后续分块请求并转发到文件服务端
+ * @author jitwxs
+ * @since 2026/10/19 11:10
+ */
+@Getter
+public class ChunkUploadSession {
+    private final String uploadId;
+    private final String userId;
+    private final String volumeId;
+    private final String serverAddress;
+    private final String srcPath;
+    private final String fileName;
+    private final long length;
+    private final int chunkSize;
+    /**
+     * 各分块SHA-256
+     */
+    private final byte[][] digests;
+
+    public ChunkUploadSession(String uploadId, String userId, String volumeId, String serverAddress, String srcPath,
+                              String fileName, long length, int chunkSize, byte[][] digests) {
+        this.uploadId = uploadId;
+        this.userId = userId;
+        this.volumeId = volumeId;
+        this.serverAddress = serverAddress;
+        this.srcPath = srcPath;
+        this.fileName = fileName;
+        this.length = length;
+        this.chunkSize = chunkSize;
+        this.digests = digests;
+    }
+
+    public int chunkLength(int index) {
+        return (int) Math.min(chunkSize, length - (long) index * chunkSize);
+    }
+}
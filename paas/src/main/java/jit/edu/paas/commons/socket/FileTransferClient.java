@@ -1,135 +1,335 @@
 package jit.edu.paas.commons.socket;
 
-import lombok.Cleanup;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.*;
 
 /**
  * 文件传输Client端<br>
+ * 文件内容通过FileChannel.transferTo直接从磁盘发送到Socket，不经过用户态缓冲区
+ * 大文件使用分块上传：每块带SHA-256校验，多个连接并行发送，中断后再次上传同一文件只发送缺失的分块
  * @author hf
  * @date 2018/07/10
  */
-public class FileTransferClient extends Socket {
+@Slf4j
+public class FileTransferClient {
     /**
-     * 服务端IP
+     * 单次transferTo的最大字节数
      */
-    private static String SERVER_IP = "192.168.100.213";
+    private static final long CHUNK_SIZE = 8 * 1024 * 1024;
 
     /**
-     * 服务端端口
+     * 等待服务端确认超时时间（单位：ms）
      */
-    private static final int SERVER_PORT = 8899;
+    private static final int ACK_TIMEOUT = 60000;
 
-    private Socket client;
+    /**
+     * 分块校验失败的重试次数
+     */
+    private static final int MAX_RETRY = 3;
+
+    private final InetSocketAddress address;
+
+    private SocketChannel client;
 
     /**
      * 与服务器建立连接
      */
-    public FileTransferClient() throws IOException {
-        super(SERVER_IP, SERVER_PORT);
-        this.client = this;
+    public FileTransferClient(String serverIp, Integer port) throws IOException {
+        this.address = new InetSocketAddress(serverIp, port);
+        this.client = connect();
 
-        System.out.println("Client["+client.getLocalPort()+"] 成功连接服务端");
+        log.info("Client[{}] 成功连接服务端", client.socket().getLocalPort());
     }
 
-    public FileTransferClient(String serverIp, Integer port) throws IOException {
-        super(serverIp, port);
-        this.client = this;
-
-        System.out.println("Client["+client.getLocalPort()+"] 成功连接服务端");
+    private SocketChannel connect() throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.socket().setSoTimeout(ACK_TIMEOUT);
+        return channel;
     }
 
-    private void sendFile(String sourcePath, String srcPath) throws IOException {
-        File file = new File(sourcePath);
-        if (file.exists()) {
-            @Cleanup FileInputStream fis = new FileInputStream(file);
-            @Cleanup DataOutputStream dos = new DataOutputStream(client.getOutputStream());
+    /**
+     * 发送文件
+     * @param file 本地文件
+     * @param srcPath 保存路径
+     * @param fileName 保存文件名
+     * @return 耗时（单位：ms）
+     * @author jitwxs
+     * @since 2026/10/18 19:10
+     */
+    private long sendFile(Path file, String srcPath, String fileName) throws IOException {
+        long startTime = System.currentTimeMillis();
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = fileChannel.size();
 
             // 发送文件名、文件大小、保存路径
-            dos.writeUTF(file.getName());
-            dos.flush();
-            dos.writeLong(file.length());
-            dos.flush();
+            ByteArrayOutputStream header = new ByteArrayOutputStream(256);
+            DataOutputStream dos = new DataOutputStream(header);
+            dos.writeUTF(fileName);
+            dos.writeLong(length);
             dos.writeUTF(srcPath);
-            dos.flush();
+            ByteBuffer buffer = ByteBuffer.wrap(header.toByteArray());
+            while (buffer.hasRemaining()) {
+                client.write(buffer);
+            }
 
             // 开始传输文件
-            System.out.println("======== 开始传输文件 ========");
-            byte[] bytes = new byte[1024];
-            int len;
-            long progress = 0;
-            while ((len = fis.read(bytes, 0, bytes.length)) != -1) {
-                dos.write(bytes, 0, len);
-                dos.flush();
-                progress += len;
-
-//                System.out.println("| "+100 * progress / file.length()+"% |");
+            long position = 0;
+            while (position < length) {
+                position += fileChannel.transferTo(position, Math.min(CHUNK_SIZE, length - position), client);
             }
-            System.out.println("======== 文件传输成功 ========");
-        } else {
-            System.out.println("======== 文件不存在 ========");
+            client.shutdownOutput();
+
+            // 等待服务端确认
+            checkStatus(client.socket().getInputStream().read());
+
+            long elapsed = System.currentTimeMillis() - startTime;
+            log.info("文件传输成功 [File Name：{}] [Size：{}] [Time：{}ms] [Speed：{}/s]", fileName,
+                    FileTransferServer.getFormatFileSize(length), elapsed,
+                    FileTransferServer.getFormatFileSize(FileTransferServer.speed(length, elapsed)));
+            return elapsed;
         }
     }
 
     /**
-     * 发送文件
-     * @param fis 输入流
+     * 文件传输
+     * 先将上传文件转存为临时文件（Servlet容器会直接移动已落盘的上传文件），再从临时文件发送
      * @param srcPath 保存路径
-     * @param fileName 保存文件名
-     * @param length 文件大小
+     * @param file MultipartFile对象
      * @author jitwxs
-     * @since 2018/7/11 14:18
+     * @since 2018/7/11 14:10
+     * @return 耗时（单位：ms）
      */
-    private void sendFile(InputStream fis, String srcPath, String fileName, long length) throws IOException {
-        @Cleanup DataOutputStream dos = new DataOutputStream(client.getOutputStream());
-
-        // 发送文件名、文件大小、保存路径
-        dos.writeUTF(fileName);
-        dos.flush();
-        dos.writeLong(length);
-        dos.flush();
-        dos.writeUTF(srcPath);
-        dos.flush();
-
-        // 开始传输文件
-        System.out.println("======== 开始传输文件 ========");
-        byte[] bytes = new byte[1024];
-        int len;
-        long progress = 0;
-        while ((len = fis.read(bytes, 0, bytes.length)) != -1) {
-            dos.write(bytes, 0, len);
-            dos.flush();
-            progress += len;
-
-//            System.out.println("| "+100 * progress / length+"% |");
+    public long sendFile(String srcPath, MultipartFile file) throws IOException {
+        // 文件名
+        String fileName = file.getOriginalFilename();
+
+        Path tmpFile = Files.createTempFile("volume-upload-", ".tmp");
+        try {
+            file.transferTo(tmpFile.toFile());
+            return sendFile(tmpFile, srcPath, fileName);
+        } finally {
+            Files.deleteIfExists(tmpFile);
         }
-        System.out.println("======== 文件传输成功 ========");
     }
 
     /**
-     * 文件传输
+     * 分块上传文件
      * @param srcPath 保存路径
      * @param file MultipartFile对象
+     * @param chunkSize 分块大小（单位：字节）
+     * @param parallel 并行连接数
+     * @return 耗时（单位：ms）
      * @author jitwxs
-     * @since 2018/7/11 14:10
-     * @return -1：参数错误；其他：耗时
+     * @since 2026/10/18 19:50
      */
-    public int sendFile(String srcPath, MultipartFile file) throws IOException {
-        // 文件传输
+    public long sendFileChunked(String srcPath, MultipartFile file, int chunkSize, int parallel) throws IOException {
+        String fileName = file.getOriginalFilename();
+
+        Path tmpFile = Files.createTempFile("volume-upload-", ".tmp");
+        try {
+            file.transferTo(tmpFile.toFile());
+            return sendChunks(tmpFile, srcPath, fileName, chunkSize, parallel);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    private long sendChunks(Path file, String srcPath, String fileName, int chunkSize, int parallel) throws IOException {
         long startTime = System.currentTimeMillis();
+        String uploadId = UUID.randomUUID().toString();
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = fileChannel.size();
+            int chunkCount = ChunkManifest.chunkCount(length, chunkSize);
+            byte[][] digests = new byte[chunkCount][];
+            for (int i = 0; i < chunkCount; i++) {
+                digests[i] = digest(fileChannel, (long) i * chunkSize, chunkLength(length, chunkSize, i));
+            }
 
-        String fileNames = file.getOriginalFilename();
-        // 文件名
-        fileNames = new String(fileNames.getBytes("UTF-8"));
-        // 文件大小
-        Long fileSize = file.getSize();
-        sendFile(file.getInputStream(), srcPath, fileNames, fileSize);
+            // 1、查询服务端缺失的分块
+            List<Integer> missingList = status(uploadId, srcPath, fileName, length, chunkSize, digests);
+            int missingCount = missingList.size();
+            Queue<Integer> missing = new ConcurrentLinkedQueue<>(missingList);
+            long sendBytes = 0;
+            for (Integer index : missingList) {
+                sendBytes += chunkLength(length, chunkSize, index);
+            }
+            // 控制连接在发送分块期间空闲，服务端会超时关闭，完成命令使用新连接
+            closeClient();
+
+            // 2、并行发送缺失的分块
+            int workerNum = Math.min(parallel, missingCount);
+            if (workerNum > 0) {
+                ExecutorService executor = Executors.newFixedThreadPool(workerNum);
+                try {
+                    List<Future<?>> futures = new ArrayList<>(workerNum);
+                    for (int i = 0; i < workerNum; i++) {
+                        futures.add(executor.submit(() -> {
+                            sendChunks(fileChannel, uploadId, missing, digests, length, chunkSize);
+                            return null;
+                        }));
+                    }
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("分块上传被中断");
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
 
-        long endTime = System.currentTimeMillis();
+            // 3、通知服务端合并
+            client = connect();
+            complete(uploadId);
 
-        return (int)(endTime - startTime) / 1000;
+            long elapsed = System.currentTimeMillis() - startTime;
+            log.info("分块上传成功 [File Name：{}] [Size：{}] [Chunks：{}/{}] [Time：{}ms] [Speed：{}/s]", fileName,
+                    FileTransferServer.getFormatFileSize(length), missingCount, chunkCount, elapsed,
+                    FileTransferServer.getFormatFileSize(FileTransferServer.speed(sendBytes, elapsed)));
+            return elapsed;
+        }
+    }
+
+    /**
+     * 查询服务端缺失的分块，服务端据此创建或恢复断点记录
+     * @param uploadId 上传ID，后续发送分块和完成时使用
+     * @param digests 各分块SHA-256
+     * @return 缺失的分块序号
+     * @author jitwxs
+     * @since 2026/10/19 11:00
+     */
+    public List<Integer> status(String uploadId, String srcPath, String fileName, long length, int chunkSize,
+                                byte[][] digests) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.socket().getOutputStream()));
+        DataInputStream in = new DataInputStream(client.socket().getInputStream());
+        out.writeShort(FileTransferServer.CHUNK_PROTOCOL);
+        out.writeByte(ChunkUploadHandler.CMD_STATUS);
+        out.writeUTF(uploadId);
+        out.writeUTF(srcPath);
+        out.writeUTF(fileName);
+        out.writeLong(length);
+        out.writeInt(chunkSize);
+        out.writeInt(digests.length);
+        for (byte[] digest : digests) {
+            out.write(digest);
+        }
+        out.flush();
+        checkStatus(in.readByte());
+        int missingCount = in.readInt();
+        List<Integer> missing = new ArrayList<>(missingCount);
+        for (int i = 0; i < missingCount; i++) {
+            missing.add(in.readInt());
+        }
+        return missing;
+    }
+
+    /**
+     * 发送一个分块
+     * @return 服务端校验失败返回false
+     * @author jitwxs
+     * @since 2026/10/19 11:02
+     */
+    public boolean sendChunk(String uploadId, int index, byte[] data, byte[] digest) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.socket().getOutputStream()));
+        out.writeShort(FileTransferServer.CHUNK_PROTOCOL);
+        out.writeByte(ChunkUploadHandler.CMD_CHUNK);
+        out.writeUTF(uploadId);
+        out.writeInt(index);
+        out.writeInt(data.length);
+        out.write(digest);
+        out.write(data);
+        out.flush();
+        int status = client.socket().getInputStream().read();
+        if (status == FileTransferServer.STATUS_CHECKSUM) {
+            return false;
+        }
+        checkStatus(status);
+        return true;
+    }
+
+    /**
+     * 通知服务端合并分块
+     * @author jitwxs
+     * @since 2026/10/19 11:04
+     */
+    public void complete(String uploadId) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.socket().getOutputStream()));
+        out.writeShort(FileTransferServer.CHUNK_PROTOCOL);
+        out.writeByte(ChunkUploadHandler.CMD_COMPLETE);
+        out.writeUTF(uploadId);
+        out.flush();
+        checkStatus(client.socket().getInputStream().read());
+    }
+
+    /**
+     * 使用一个连接依次发送队列中的分块
+     */
+    private void sendChunks(FileChannel fileChannel, String uploadId, Queue<Integer> missing,
+                            byte[][] digests, long length, int chunkSize) throws IOException {
+        try (SocketChannel channel = connect()) {
+            InputStream in = channel.socket().getInputStream();
+            Integer index;
+            while ((index = missing.poll()) != null) {
+                int chunkLength = chunkLength(length, chunkSize, index);
+                int status = FileTransferServer.STATUS_CHECKSUM;
+                for (int retry = 0; retry < MAX_RETRY && status == FileTransferServer.STATUS_CHECKSUM; retry++) {
+                    ByteArrayOutputStream header = new ByteArrayOutputStream(64);
+                    DataOutputStream dos = new DataOutputStream(header);
+                    dos.writeShort(FileTransferServer.CHUNK_PROTOCOL);
+                    dos.writeByte(ChunkUploadHandler.CMD_CHUNK);
+                    dos.writeUTF(uploadId);
+                    dos.writeInt(index);
+                    dos.writeInt(chunkLength);
+                    dos.write(digests[index]);
+                    ByteBuffer buffer = ByteBuffer.wrap(header.toByteArray());
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+
+                    long position = (long) index * chunkSize;
+                    long end = position + chunkLength;
+                    while (position < end) {
+                        position += fileChannel.transferTo(position, end - position, channel);
+                    }
+                    status = in.read();
+                }
+                checkStatus(status);
+            }
+        }
+    }
+
+    private static int chunkLength(long length, int chunkSize, int index) {
+        return (int) Math.min(chunkSize, length - (long) index * chunkSize);
+    }
+
+    private static byte[] digest(FileChannel fileChannel, long position, int length) throws IOException {
+        MessageDigest digest = ChunkUploadHandler.sha256();
+        digest.update(fileChannel.map(FileChannel.MapMode.READ_ONLY, position, length));
+        return digest.digest();
+    }
+
+    private static void checkStatus(int status) throws IOException {
+        if (status != FileTransferServer.STATUS_OK) {
+            throw new IOException("服务端接收文件失败，状态码：" + status);
+        }
     }
 
     public void closeClient() throws IOException {
@@ -137,15 +337,4 @@ public class FileTransferClient extends Socket {
             client.close();
         }
     }
-
-//    public static void main(String[] args) {
-//        try {
-//            // 启动客户端连接
-//            FileTransferClient client = new FileTransferClient();
-//            // 传输文件
-//            client.sendFile("E:\\啊哈！算法.pdf", "/home/wxs");
-//        } catch (Exception e) {
-//            e.printStackTrace();
-//        }
-//    }
-}
\ No newline at end of file
+}
@@ -1,25 +1,74 @@
 package jit.edu.paas.commons.socket;
 
-import java.io.DataInputStream;
-import java.io.File;
-import java.io.FileOutputStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
 import java.math.RoundingMode;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 文件传输Server端<br>
  * 该程序放在服务器上运行
+ * 协议：文件名(UTF) | 文件大小(long) | 保存路径(UTF) | 文件内容，接收完成后回复1字节状态码
+ * 以CHUNK_PROTOCOL开头的连接使用分块上传协议，见ChunkUploadHandler
+ * Selector线程只负责accept，连接交给有界线程池处理；所有读取都经过socket的InputStream，遵循读取超时，客户端中途停止发送不会一直占用工作线程
  * @author hf
  * @date 2018/07/10
  */
-public class FileTransferServer extends ServerSocket {
+@Slf4j
+public class FileTransferServer {
     /**
      * 服务端端口
      */
     private static final int SERVER_PORT = 8899;
 
+    /**
+     * 默认工作线程数
+     */
+    private static final int DEFAULT_WORKERS = 16;
+
+    /**
+     * 等待处理的连接数上限，超出后拒绝连接
+     */
+    private static final int MAX_PENDING = 64;
+
+    /**
+     * 接收文件内容的缓冲区大小
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 读取超时时间（单位：ms）
+     */
+    private static final int READ_TIMEOUT = 30000;
+
+    /**
+     * 分块上传超过该时间未访问视为放弃（单位：ms）
+     */
+    private static final long UPLOAD_EXPIRE = 24 * 60 * 60 * 1000L;
+
+    /**
+     * 清理放弃的分块上传的间隔（单位：ms）
+     */
+    private static final long EXPIRE_INTERVAL = 10 * 60 * 1000L;
+
+    /**
+     * 分块上传协议标识，占用原协议文件名长度的位置，正常文件名不会达到该长度
+     */
+    public static final int CHUNK_PROTOCOL = 0xFFFF;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ERROR = 1;
+    public static final byte STATUS_CHECKSUM = 2;
+
     private static DecimalFormat df;
 
     static {
@@ -30,90 +79,200 @@ public class FileTransferServer extends ServerSocket {
         df.setMaximumFractionDigits(1);
     }
 
-    public FileTransferServer() throws Exception {
-        super(SERVER_PORT);
+    private final int port;
+    private final ExecutorService workers;
+    private final ChunkUploadHandler chunkHandler = new ChunkUploadHandler();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "file-transfer-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FileTransferServer() {
+        this(SERVER_PORT, DEFAULT_WORKERS);
+    }
+
+    public FileTransferServer(int port, int workerNum) {
+        this.port = port;
+        AtomicInteger index = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerNum, workerNum, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING),
+                r -> new Thread(r, "file-transfer-" + index.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
     }
 
     /**
-     * 使用线程处理每个客户端传输的文件
+     * 接收连接，交给工作线程处理
      */
-    public void load() throws Exception {
-        while (true) {
-            // server尝试接收其他Socket的连接请求，server的accept方法是阻塞式的
-            Socket socket = this.accept();
-            /**
-             * 我们的服务端处理客户端的连接请求是同步进行的， 每次接收到来自客户端的连接请求后，
-             * 都要先跟当前的客户端通信完之后才能再处理下一个连接请求。 这在并发比较多的情况下会严重影响程序的性能，
-             * 为此，我们可以把它改为如下这种异步处理与客户端通信的方式
-             */
-            // 每接收到一个Socket就建立一个新的线程来处理它
-            new Thread(new Task(socket)).start();
+    public void load() throws IOException {
+        try (Selector selector = Selector.open();
+             ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port), MAX_PENDING);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            log.info("文件传输服务启动，端口：{}", port);
+            sweeper.scheduleWithFixedDelay(this::expireUploads, EXPIRE_INTERVAL, EXPIRE_INTERVAL, TimeUnit.MILLISECONDS);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                selector.select();
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+                    if (key.isAcceptable()) {
+                        accept(server);
+                    }
+                }
+            }
+        } finally {
+            sweeper.shutdownNow();
+            workers.shutdown();
         }
     }
 
     /**
-     * 处理客户端传输过来的文件线程类
+     * 清理放弃的分块上传
      */
-    class Task implements Runnable {
+    private void expireUploads() {
+        try {
+            int count = chunkHandler.expire(UPLOAD_EXPIRE);
+            if (count > 0) {
+                log.info("清理过期的分块上传：{}个", count);
+            }
+        } catch (Exception e) {
+            log.error("清理分块上传出现异常，错误位置：{}，错误信息：{}", "FileTransferServer.expireUploads()", e.getMessage());
+        }
+    }
 
-        private Socket socket;
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            try {
+                channel.configureBlocking(true);
+                channel.socket().setSoTimeout(READ_TIMEOUT);
+                workers.execute(new Task(channel));
+            } catch (RejectedExecutionException e) {
+                log.error("文件传输连接过多，拒绝连接：{}", channel.socket().getRemoteSocketAddress());
+                closeQuietly(channel);
+            }
+        }
+    }
 
-        private DataInputStream dis;
+    /**
+     * 处理客户端传输过来的文件
+     */
+    class Task implements Runnable {
 
-        private FileOutputStream fos;
+        private final SocketChannel channel;
 
-        public Task(Socket socket) {
-            this.socket = socket;
+        public Task(SocketChannel channel) {
+            this.channel = channel;
         }
 
         @Override
         public void run() {
+            // 为null时表示已回复，无需再发送状态码
+            Byte status = STATUS_ERROR;
             try {
-                dis = new DataInputStream(socket.getInputStream());
-
-                // 取出文件名、长度和保存路径
-                String fileName = dis.readUTF();
-                long fileLength = dis.readLong();
-                String srcPath = dis.readUTF();
-                File directory = new File(srcPath);
-                if (!directory.exists()) {
-                    directory.mkdir();
+                // socket的InputStream会遵循读取超时
+                DataInputStream dis = new DataInputStream(channel.socket().getInputStream());
+                int head = dis.readUnsignedShort();
+                if (head == CHUNK_PROTOCOL) {
+                    chunkHandler.handle(dis, new DataOutputStream(new BufferedOutputStream(channel.socket().getOutputStream())));
+                    status = null;
+                } else {
+                    status = receive(dis, head);
                 }
-                File file = new File(directory.getAbsolutePath() + File.separatorChar + fileName);
-                fos = new FileOutputStream(file);
-
-                // 开始接收文件
-                byte[] bytes = new byte[1024];
-                int len;
-                while ((len = dis.read(bytes, 0, bytes.length)) != -1) {
-                    fos.write(bytes, 0, len);
-                    fos.flush();
-                }
-                System.out.println("======== 文件接收成功 [File Name：" + fileName + "] [Size：" + getFormatFileSize(fileLength) + "] ========");
             } catch (Exception e) {
-                e.printStackTrace();
+                log.error("文件接收失败，错误位置：{}，错误信息：{}", "FileTransferServer.Task.run()", e.getMessage());
             } finally {
-                try {
-                    if (fos != null) {
-                        fos.close();
+                if (status != null) {
+                    try {
+                        channel.write(ByteBuffer.wrap(new byte[]{status}));
+                    } catch (IOException ignored) {
+                        // 旧版客户端发送完成后直接关闭连接，不读取状态码
+                    }
+                }
+                closeQuietly(channel);
+            }
+        }
+
+        /**
+         * 接收整个文件
+         * @param utfLength 已读取的文件名长度
+         */
+        private byte receive(DataInputStream dis, int utfLength) throws IOException {
+            // 取出文件名、长度和保存路径
+            String fileName = Paths.get(readUTF(dis, utfLength)).getFileName().toString();
+            long fileLength = dis.readLong();
+            String srcPath = dis.readUTF();
+            File directory = new File(srcPath);
+            if (!directory.exists()) {
+                directory.mkdirs();
+            }
+            File file = new File(directory, fileName);
+
+            // 开始接收文件
+            long startTime = System.currentTimeMillis();
+            long position = 0;
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            try (FileChannel fileChannel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                // transferFrom读取阻塞的SocketChannel时不受SO_TIMEOUT限制，改为从InputStream读取
+                while (position < fileLength) {
+                    int count = dis.read(buffer, 0, (int) Math.min(buffer.length, fileLength - position));
+                    if (count == -1) {
+                        break;
                     }
-                    if (dis != null) {
-                        dis.close();
+                    ByteBuffer data = ByteBuffer.wrap(buffer, 0, count);
+                    while (data.hasRemaining()) {
+                        fileChannel.write(data);
                     }
-                    socket.close();
-                } catch (Exception e) {
+                    position += count;
                 }
+            } catch (IOException e) {
+                // 读取超时或连接中断，删除不完整的文件
+                file.delete();
+                throw e;
             }
+            long elapsed = System.currentTimeMillis() - startTime;
+
+            if (position < fileLength) {
+                log.error("文件接收不完整 [File Name：{}] [Received：{}/{}]", fileName, position, fileLength);
+                file.delete();
+                return STATUS_ERROR;
+            }
+            log.info("文件接收成功 [File Name：{}] [Size：{}] [Time：{}ms] [Speed：{}/s]",
+                    fileName, getFormatFileSize(fileLength), elapsed, getFormatFileSize(speed(fileLength, elapsed)));
+            return STATUS_OK;
         }
     }
 
+    /**
+     * 读取长度已被读出的UTF字符串
+     */
+    private static String readUTF(DataInputStream dis, int utfLength) throws IOException {
+        byte[] bytes = new byte[utfLength + 2];
+        bytes[0] = (byte) (utfLength >>> 8);
+        bytes[1] = (byte) utfLength;
+        dis.readFully(bytes, 2, utfLength);
+        return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+    }
+
+    /**
+     * 每秒传输字节数
+     */
+    public static long speed(long length, long elapsed) {
+        return elapsed <= 0 ? length : length * 1000 / elapsed;
+    }
+
     /**
      * 格式化文件大小
      *
      * @param length
      * @return
      */
-    private String getFormatFileSize(long length) {
+    public static String getFormatFileSize(long length) {
         double size = ((double) length) / (1 << 30);
         if (size >= 1) {
             return df.format(size) + "GB";
@@ -129,13 +288,24 @@ public class FileTransferServer extends ServerSocket {
         return length + "B";
     }
 
+    private static void closeQuietly(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 启动参数：[端口] [工作线程数]
+     */
     public static void main(String[] args) {
         try {
+            int port = args.length > 0 ? Integer.parseInt(args[0]) : SERVER_PORT;
+            int workerNum = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WORKERS;
             // 启动服务端
-            FileTransferServer server = new FileTransferServer();
-            server.load();
+            new FileTransferServer(port, workerNum).load();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
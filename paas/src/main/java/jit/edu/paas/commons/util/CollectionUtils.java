@@ -1,11 +1,18 @@
 package jit.edu.paas.commons.util;
 
+import lombok.extern.slf4j.Slf4j;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * @author jitwxs
  * @since 2018/6/27 14:40
  */
+@Slf4j
 public class CollectionUtils {
 
     /**
@@ -140,4 +147,53 @@ public class CollectionUtils {
         }
         return labels;
     }
+
+    /**
+     * 按固定大小切分列表，用于分批写入数据库；返回的子列表是原列表的视图
+     * @author jitwxs
+     * @since 2026/10/19 15:40
+     */
+    public static <T> List<List<T>> partition(List<T> list, int size) {
+        List<List<T>> res = new ArrayList<>();
+        for(int i = 0; i < list.size(); i += size) {
+            res.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return res;
+    }
+
+    /**
+     * 并行处理集合中的元素，并发数不超过parallel，全部处理完成后返回
+     * 当前线程也参与处理，线程池繁忙时不会因等待排队的任务而阻塞
+     * 单个元素处理抛出的异常只记录日志，不影响其他元素
+     * @author jitwxs
+     * @since 2026/10/18 23:10
+     */
+    public static <T> void parallelForEach(Collection<T> items, int parallel, Executor executor, Consumer<T> consumer)
+            throws InterruptedException {
+        if(items == null || items.isEmpty()) {
+            return;
+        }
+        Queue<T> queue = new ConcurrentLinkedQueue<>(items);
+        CountDownLatch latch = new CountDownLatch(items.size());
+        Runnable worker = () -> {
+            T item;
+            while((item = queue.poll()) != null) {
+                try {
+                    consumer.accept(item);
+                } catch (Exception e) {
+                    log.error("并行任务执行失败，错误位置：{}，错误栈：{}",
+                            "CollectionUtils.parallelForEach()", HttpClientUtils.getStackTraceAsString(e));
+                } finally {
+                    latch.countDown();
+                }
+            }
+        };
+
+        int workerNum = Math.min(parallel, items.size());
+        for(int i = 1; i < workerNum; i++) {
+            executor.execute(worker);
+        }
+        worker.run();
+        latch.await();
+    }
 }
@@ -2,6 +2,7 @@ package jit.edu.paas.commons.util;
 
 import org.apache.http.Header;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -17,42 +18,85 @@ import java.util.stream.Collectors;
 public class DockerRegistryApiUtils {
     private static int HTTP_OK = 200;
     private static String HTTP_PREFIX = "http://";
+    /**
+     * 分页查询时每页数量
+     */
+    private static int PAGE_SIZE = 1000;
+
     /**
      * 列出镜像库
+     * 按Link响应头翻页，直到取完所有镜像库
      * @author jitwxs
      * @since 2018/7/5 14:27
      */
     public static List<String> listRepositories(String registryUrl) throws Exception {
-        String url = getUrl(registryUrl, HTTP_PREFIX) + "/v2/_catalog";
-
-        Map<String, Object> map = HttpClientUtils.sendGetRequest(url, null, null);
-        Integer code = (Integer)map.get("code");
-        if(HTTP_OK != code) {
-            throw new Exception("获取数据失败");
-        } else {
-            // {"repositories":["hello-world"]}
-            Map<String, Object> datas = JsonUtils.jsonToMap((String)map.get("body"));
-            return (List<String>) datas.get("repositories");
-        }
+        // {"repositories":["hello-world"]}
+        return listPaged(getUrl(registryUrl, HTTP_PREFIX), "/v2/_catalog?n=" + PAGE_SIZE, "repositories");
     }
 
     /**
      * 列出镜像所有tag
+     * 按Link响应头翻页，直到取完所有tag
      * @author jitwxs
      * @since 2018/7/5 22:45
      */
     public static List<String> listTags(String registryUrl, String name) throws Exception {
-        String url = getUrl(registryUrl, HTTP_PREFIX) + "/v2/" + name + "/tags/list";
+        // {"name":"hello-world","tags":["latest"]}
+        return listPaged(getUrl(registryUrl, HTTP_PREFIX), "/v2/" + name + "/tags/list?n=" + PAGE_SIZE, "tags");
+    }
 
-        Map<String, Object> map = HttpClientUtils.sendGetRequest(url, null, null);
-        Integer code = (Integer)map.get("code");
-        if(HTTP_OK != code) {
-            throw new Exception("获取数据失败");
-        } else {
-            // {"name":"hello-world","tags":["latest"]}
+    /**
+     * 分页读取列表
+     * Registry单页返回数量有上限，存在下一页时响应头带有 Link: </v2/_catalog?last=xxx&n=100>; rel="next"
+     * @param baseUrl 仓储地址
+     * @param path 第一页的请求路径
+     * @param field 响应体中列表的字段名
+     * @author jitwxs
+     * @since 2026/10/18 23:05
+     */
+    private static List<String> listPaged(String baseUrl, String path, String field) throws Exception {
+        List<String> result = new ArrayList<>();
+        while(path != null) {
+            Map<String, Object> map = HttpClientUtils.sendGetRequest(baseUrl + path, null, null);
+            Integer code = (Integer)map.get("code");
+            if(HTTP_OK != code) {
+                throw new Exception("获取数据失败");
+            }
             Map<String, Object> datas = JsonUtils.jsonToMap((String)map.get("body"));
-            return (List<String>) datas.get("tags");
+            Object values = datas == null ? null : datas.get(field);
+            if(values instanceof List) {
+                for(Object value : (List<?>) values) {
+                    if(value instanceof String) {
+                        result.add((String) value);
+                    }
+                }
+            }
+            path = nextPath((Header[]) map.get("headers"));
         }
+        return result;
+    }
+
+    /**
+     * 从Link响应头中取出下一页的路径，没有下一页返回null
+     */
+    private static String nextPath(Header[] headers) {
+        if(headers == null) {
+            return null;
+        }
+        for(Header header : headers) {
+            String value = header.getValue();
+            if(!"Link".equalsIgnoreCase(header.getName()) || value == null || !value.contains("rel=\"next\"")) {
+                continue;
+            }
+            int start = value.indexOf('<'), end = value.indexOf('>');
+            if(start >= 0 && end > start) {
+                String link = value.substring(start + 1, end);
+                // 规范中为相对路径，兼容返回完整地址的实现
+                int index = link.indexOf("/v2/");
+                return index > 0 ? link.substring(index) : link;
+            }
+        }
+        return null;
     }
 
     /**
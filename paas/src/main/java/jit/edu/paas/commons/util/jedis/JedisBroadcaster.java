@@ -0,0 +1,139 @@
+package jit.edu.paas.commons.util.jedis;
+
+import jit.edu.paas.commons.util.HttpClientUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.JedisPubSub;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 基于Redis发布订阅的集群广播
+ * 用于通知所有节点失效本地缓存等场景
+ * 监听器需在应用启动完成前注册（如在@PostConstruct中），启动完成后统一订阅
+ * @author jitwxs
+ * @since 2026/10/18 13:20
+ */
+@Slf4j
+@Component
+public class JedisBroadcaster {
+    @Autowired
+    private JedisClient jedisClient;
+
+    /**
+     * 断线重连间隔（单位：ms）
+     */
+    private static final long RECONNECT_INTERVAL = 5000;
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>(16);
+
+    private volatile boolean running;
+
+    private volatile JedisPubSub pubSub;
+
+    private Thread thread;
+
+    /**
+     * 注册频道监听器
+     * @author jitwxs
+     * @since 2026/10/18 13:22
+     */
+    public void addListener(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * 广播消息，发送失败仅记录日志
+     * @author jitwxs
+     * @since 2026/10/18 13:23
+     */
+    public void publish(String channel, String message) {
+        try {
+            jedisClient.publish(channel, message);
+        } catch (Exception e) {
+            log.error("广播消息出现异常，错误位置：{}，频道：{}，错误栈：{}",
+                    "JedisBroadcaster.publish()", channel, HttpClientUtils.getStackTraceAsString(e));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if(listeners.isEmpty()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::subscribeLoop, "jedis-broadcaster");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        JedisPubSub sub = pubSub;
+        if(sub != null && sub.isSubscribed()) {
+            try {
+                sub.unsubscribe();
+            } catch (Exception e) {
+                log.error("取消订阅出现异常，错误位置：{}", "JedisBroadcaster.stop()");
+            }
+        }
+        if(thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void subscribeLoop() {
+        String[] channels = listeners.keySet().toArray(new String[0]);
+        while (running) {
+            pubSub = new JedisPubSub() {
+                @Override
+                public void onMessage(String channel, String message) {
+                    dispatch(channel, message);
+                }
+            };
+            try {
+                log.info("订阅Redis频道：{}", (Object) channels);
+                // 阻塞直到取消订阅或连接断开
+                jedisClient.subscribe(pubSub, channels);
+            } catch (Exception e) {
+                if(running) {
+                    log.error("Redis订阅中断，错误位置：{}，错误栈：{}",
+                            "JedisBroadcaster.subscribeLoop()", HttpClientUtils.getStackTraceAsString(e));
+                }
+            }
+
+            if(!running) {
+                return;
+            }
+            try {
+                Thread.sleep(RECONNECT_INTERVAL);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void dispatch(String channel, String message) {
+        List<Consumer<String>> list = listeners.get(channel);
+        if(list == null) {
+            return;
+        }
+        for(Consumer<String> listener : list) {
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                log.error("处理广播消息出现异常，错误位置：{}，频道：{}，错误栈：{}",
+                        "JedisBroadcaster.dispatch()", channel, HttpClientUtils.getStackTraceAsString(e));
+            }
+        }
+    }
+}
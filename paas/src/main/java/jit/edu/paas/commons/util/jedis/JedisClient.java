@@ -1,7 +1,13 @@
 package jit.edu.paas.commons.util.jedis;
 
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * Jedis客户端接口
@@ -41,6 +47,16 @@ public interface JedisClient {
      */
     String hget(String key, String field);
 
+    /**
+     * 批量获取hash类型，结果与field一一对应，不存在的为null
+     */
+    List<String> hmget(String key, String... field);
+
+    /**
+     * 批量设置hash类型
+     */
+    String hmset(String key, Map<String, String> hash);
+
     /**
      * 删除hash类型中field
      */
@@ -120,4 +136,21 @@ public interface JedisClient {
      * 按照score范围删除成员
      */
     Long zremrangeByScore(String key, double min, double max);
+
+    /**
+     * 发布消息到频道
+     */
+    Long publish(String channel, String message);
+
+    /**
+     * 订阅频道，该方法阻塞直到取消订阅或连接断开
+     */
+    void subscribe(JedisPubSub jedisPubSub, String... channels);
+
+    /**
+     * 批量执行命令，同一节点上的key共用一个pipeline，每个节点一次往返
+     * @param keys 涉及的key，每个key执行一次command
+     * @param command 参数为所在节点的pipeline和key，命令只能操作该key
+     */
+    void pipelined(Collection<String> keys, BiConsumer<Pipeline, String> command);
 }
\ No newline at end of file
@@ -1,9 +1,15 @@
 package jit.edu.paas.commons.util.jedis;
 
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.util.JedisClusterCRC16;
 
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  * Jedis集群实现
@@ -62,6 +68,16 @@ public class JedisClientCluster implements JedisClient {
         return jedisCluster.hget(key, field);
     }
 
+    @Override
+    public List<String> hmget(String key, String... field) {
+        return jedisCluster.hmget(key, field);
+    }
+
+    @Override
+    public String hmset(String key, Map<String, String> hash) {
+        return jedisCluster.hmset(key, hash);
+    }
+
     @Override
     public Long hdel(String key, String... field) {
         return jedisCluster.hdel(key, field);
@@ -146,4 +162,70 @@ public class JedisClientCluster implements JedisClient {
     public Long del(String key) {
         return jedisCluster.del(key);
     }
+
+    @Override
+    public Long publish(String channel, String message) {
+        return jedisCluster.publish(channel, message);
+    }
+
+    @Override
+    public void subscribe(JedisPubSub jedisPubSub, String... channels) {
+        jedisCluster.subscribe(jedisPubSub, channels);
+    }
+
+    @Override
+    public void pipelined(Collection<String> keys, BiConsumer<Pipeline, String> command) {
+        if(keys.isEmpty()) {
+            return;
+        }
+        if(!(jedisCluster instanceof PipelineJedisCluster)) {
+            throw new JedisException("当前JedisCluster不支持pipeline，请使用PipelineJedisCluster");
+        }
+        PipelineJedisCluster cluster = (PipelineJedisCluster) jedisCluster;
+
+        // 1、按槽分组
+        Map<Integer, List<String>> slotMap = new HashMap<>(16);
+        for(String key : keys) {
+            slotMap.computeIfAbsent(JedisClusterCRC16.getSlot(key), k -> new ArrayList<>()).add(key);
+        }
+
+        // 2、同一节点的槽合并到一个连接上
+        Map<String, Jedis> nodeMap = new HashMap<>(16);
+        Map<String, List<String>> nodeKeyMap = new HashMap<>(16);
+        try {
+            for(Map.Entry<Integer, List<String>> entry : slotMap.entrySet()) {
+                Jedis jedis = cluster.getConnectionFromSlot(entry.getKey());
+                String node = jedis.getClient().getHost() + ":" + jedis.getClient().getPort();
+                if(nodeMap.containsKey(node)) {
+                    jedis.close();
+                } else {
+                    nodeMap.put(node, jedis);
+                }
+                nodeKeyMap.computeIfAbsent(node, k -> new ArrayList<>()).addAll(entry.getValue());
+            }
+
+            // 3、每个节点一次pipeline
+            boolean moved = false;
+            for(Map.Entry<String, Jedis> entry : nodeMap.entrySet()) {
+                Pipeline pipeline = entry.getValue().pipelined();
+                for(String key : nodeKeyMap.get(entry.getKey())) {
+                    command.accept(pipeline, key);
+                }
+                for(Object response : pipeline.syncAndReturnAll()) {
+                    if(response instanceof JedisMovedDataException) {
+                        moved = true;
+                    }
+                }
+            }
+            if(moved) {
+                // 集群正在迁移槽，刷新槽信息后由调用方决定是否重试
+                cluster.renewSlotCache();
+                throw new JedisMovedDataException("pipeline执行期间槽已迁移", null, 0);
+            }
+        } finally {
+            for(Jedis jedis : nodeMap.values()) {
+                jedis.close();
+            }
+        }
+    }
 }
@@ -2,9 +2,14 @@ package jit.edu.paas.commons.util.jedis;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * Jedis单机实现
@@ -87,6 +92,22 @@ public class JedisClientPool implements JedisClient {
         return result;
     }
 
+    @Override
+    public List<String> hmget(String key, String... field) {
+        Jedis jedis = jedisPool.getResource();
+        List<String> result = jedis.hmget(key, field);
+        jedis.close();
+        return result;
+    }
+
+    @Override
+    public String hmset(String key, Map<String, String> hash) {
+        Jedis jedis = jedisPool.getResource();
+        String result = jedis.hmset(key, hash);
+        jedis.close();
+        return result;
+    }
+
     @Override
     public Long hdel(String key, String... field) {
         Jedis jedis = jedisPool.getResource();
@@ -222,4 +243,39 @@ public class JedisClientPool implements JedisClient {
         jedis.close();
         return result;
     }
+
+    @Override
+    public Long publish(String channel, String message) {
+        Jedis jedis = jedisPool.getResource();
+        Long result = jedis.publish(channel, message);
+        jedis.close();
+        return result;
+    }
+
+    @Override
+    public void subscribe(JedisPubSub jedisPubSub, String... channels) {
+        Jedis jedis = jedisPool.getResource();
+        try {
+            jedis.subscribe(jedisPubSub, channels);
+        } finally {
+            jedis.close();
+        }
+    }
+
+    @Override
+    public void pipelined(Collection<String> keys, BiConsumer<Pipeline, String> command) {
+        if(keys.isEmpty()) {
+            return;
+        }
+        Jedis jedis = jedisPool.getResource();
+        try {
+            Pipeline pipeline = jedis.pipelined();
+            for(String key : keys) {
+                command.accept(pipeline, key);
+            }
+            pipeline.sync();
+        } finally {
+            jedis.close();
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package jit.edu.paas.commons.util.jedis;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisSlotBasedConnectionHandler;
+
+import java.util.Set;
+
+/**
+ * 支持按槽获取连接的JedisCluster，用于按节点批量执行pipeline
+ * @author jitwxs
+ * @since 2026/10/18 14:40
+ */
+public class PipelineJedisCluster extends JedisCluster {
+
+    public PipelineJedisCluster(Set<HostAndPort> nodes) {
+        super(nodes);
+    }
+
+    /**
+     * 获取槽所在节点的连接，使用后需调用close()归还
+     */
+    public Jedis getConnectionFromSlot(int slot) {
+        return ((JedisSlotBasedConnectionHandler) connectionHandler).getConnectionFromSlot(slot);
+    }
+
+    /**
+     * 重新加载槽与节点的对应关系
+     */
+    public void renewSlotCache() {
+        connectionHandler.renewSlotCache();
+    }
+}
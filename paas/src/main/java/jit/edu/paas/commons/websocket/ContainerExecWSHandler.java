@@ -3,29 +3,33 @@ package jit.edu.paas.commons.websocket;
 import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.messages.ExecCreation;
 import jit.edu.paas.commons.util.DockerHelper;
-import jit.edu.paas.commons.util.JsonUtils;
+import jit.edu.paas.commons.util.HttpClientUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.Socket;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * 连接容器，并进行操作
+ * Docker连接的读写由ExecGateway的事件循环完成，终端输出以二进制帧（UTF-8）发送
  *
  * @author jitwxs
  * @since 2018/7/1 14:09
  */
+@Slf4j
 @Component
 public class ContainerExecWSHandler extends TextWebSocketHandler {
-    private Map<String, ExecSession> execSessionMap = new HashMap<>();
+    @Autowired
+    private ExecGateway execGateway;
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
@@ -36,14 +40,19 @@ public class ContainerExecWSHandler extends TextWebSocketHandler {
         String width = session.getAttributes().get("width").toString();
         String height = session.getAttributes().get("height").toString();
 
-        //创建Bash
-        String execId = createExec(ip, port, containerId);
-        //连接bash
-        Socket socket = connectExec(ip, port, execId);
-        //获得输出
-        getExecMessage(session, ip, containerId, socket);
-        //修改tty大小
-        resizeTty(ip, port, width, height, execId);
+        try {
+            //创建Bash
+            String execId = createExec(ip, port, containerId);
+            //连接bash，exec启动后修改tty大小（旧版本Docker不能修改未启动的exec）
+            execGateway.open(session, ip, Integer.parseInt(port), containerId, execId,
+                    Integer.parseInt(width), Integer.parseInt(height))
+                    .thenRunAsync(() -> resizeTty(ip, port, width, height, containerId, execId), taskExecutor);
+        } catch (Exception e) {
+            log.error("连接容器终端失败，错误位置：{}，容器ID：{}，错误栈：{}",
+                    "ContainerExecWSHandler.afterConnectionEstablished()", containerId, HttpClientUtils.getStackTraceAsString(e));
+            execGateway.close(session.getId());
+            session.close(CloseStatus.SERVER_ERROR);
+        }
     }
 
     /**
@@ -66,94 +75,34 @@ public class ContainerExecWSHandler extends TextWebSocketHandler {
     }
 
     /**
-     * 连接Bash
-     *
-     * @param ip     宿主机ip地址
-     * @param port   宿主机Remote端口
-     * @param execId 命令id
-     * @return Socket连接对象
-     * @author jitwxs
-     * @since 2018/7/1 14:12
-     */
-    private Socket connectExec(String ip, String port, String execId) throws IOException {
-        Socket socket = new Socket(ip, 2375);
-        socket.setKeepAlive(true);
-
-        OutputStream out = socket.getOutputStream();
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("POST /exec/" + execId + "/start HTTP/1.1\r\n");
-        sb.append("Host: " + ip + ":" + port + "\r\n");
-        sb.append("User-Agent: Docker-Client\r\n");
-        sb.append("Content-Type: application/json\r\n");
-        sb.append("Connection: Upgrade\r\n");
-
-        Map<String, Object> map = new HashMap<>(16);
-        map.put("Detach", false);
-        map.put("Tty", true);
-        String json = JsonUtils.mapToJson(map);
-
-        sb.append("Content-Length: " + json.length() + "\r\n");
-        sb.append("Upgrade: tcp\r\n");
-        sb.append("\r\n");
-        sb.append(json);
-
-        out.write(sb.toString().getBytes("UTF-8"));
-        out.flush();
-
-        return socket;
-    }
-
-    /**
-     * 获得输出
-     *
-     * @param session     websocket session
-     * @param ip          宿主机ip地址
-     * @param containerId 容器id
-     * @param socket      命令连接socket
-     */
-    private void getExecMessage(WebSocketSession session, String ip, String containerId, Socket socket) throws IOException {
-        InputStream inputStream = socket.getInputStream();
-        byte[] bytes = new byte[1024];
-        StringBuffer returnMsg = new StringBuffer();
-        while (true) {
-            int n = inputStream.read(bytes);
-            String msg = new String(bytes, 0, n);
-            returnMsg.append(msg);
-            bytes = new byte[10240];
-            if (returnMsg.indexOf("\r\n\r\n") != -1) {
-                session.sendMessage(new TextMessage(returnMsg.substring(returnMsg.indexOf("\r\n\r\n") + 4, returnMsg.length())));
-                break;
-            }
-        }
-        OutPutThread outPutThread = new OutPutThread(inputStream, session);
-        outPutThread.start();
-        execSessionMap.put(containerId, new ExecSession(ip, containerId, socket, outPutThread));
-    }
-
-    /**
-     * 修改tty大小
+     * 修改tty大小，失败时保留终端，使用默认大小
      * @author jitwxs
      * @since 2018/7/1 14:21
      */
-    private void resizeTty(String ip, String port, String width, String height, String execId) throws Exception {
-        DockerHelper.execute(ip, port, docker -> {
-            docker.execResizeTty(execId, Integer.parseInt(height), Integer.parseInt(width));
-        });
+    private void resizeTty(String ip, String port, String width, String height, String containerId, String execId) {
+        try {
+            DockerHelper.execute(ip, port, docker -> {
+                docker.execResizeTty(execId, Integer.parseInt(height), Integer.parseInt(width));
+            });
+        } catch (Exception e) {
+            log.error("修改终端大小失败，错误位置：{}，容器ID：{}，错误栈：{}",
+                    "ContainerExecWSHandler.resizeTty()", containerId, HttpClientUtils.getStackTraceAsString(e));
+        }
     }
 
     /**
-     * webSocket关闭后关闭线程
+     * webSocket关闭后关闭Docker连接
      * @author jitwxs
      * @since 2018/7/1 14:22
      */
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-        String containerId = session.getAttributes().get("containerId").toString();
-        ExecSession execSession = execSessionMap.get(containerId);
-        if (execSession != null) {
-            execSession.getOutPutThread().interrupt();
-        }
+        execGateway.close(session.getId());
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        execGateway.close(session.getId());
     }
 
     /**
@@ -163,10 +112,6 @@ public class ContainerExecWSHandler extends TextWebSocketHandler {
      */
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
-        String containerId = session.getAttributes().get("containerId").toString();
-        ExecSession execSession = execSessionMap.get(containerId);
-        OutputStream out = execSession.getSocket().getOutputStream();
-        out.write(message.asBytes());
-        out.flush();
+        execGateway.write(session.getId(), message.getPayload());
     }
 }
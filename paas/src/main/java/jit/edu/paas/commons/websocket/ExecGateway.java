@@ -0,0 +1,385 @@
+package jit.edu.paas.commons.websocket;
+
+import jit.edu.paas.commons.util.HttpClientUtils;
+import jit.edu.paas.commons.util.JsonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 容器终端网关
+ * 少量事件循环线程通过NIO服务所有终端会话，会话按WebSocket会话ID区分
+ * 每个事件循环复用一个直接缓冲区读取Docker输出，按时间窗口或帧大小合并，按完整UTF-8字符切分后以二进制帧发送
+ * 会话未发送完的数据超过高水位时暂停读取该会话的Docker输出，避免大量输出压垮服务端和浏览器
+ * 会话的输入输出由TerminalRecorder录像
+ * @author jitwxs
+ * @since 2026/10/18 20:40
+ */
+@Slf4j
+@Component
+public class ExecGateway {
+    @Autowired
+    private TerminalRecorder terminalRecorder;
+
+    @Value("${exec.gateway.threads}")
+    private Integer threads;
+
+    /**
+     * 读缓冲区大小（单位：字节）
+     */
+    @Value("${exec.gateway.buffer-size}")
+    private Integer bufferSize;
+
+    /**
+     * 单帧最大字节数
+     */
+    @Value("${exec.gateway.frame-size}")
+    private Integer frameSize;
+
+    /**
+     * 输出合并时间窗口（单位：ms）
+     */
+    @Value("${exec.gateway.flush-interval}")
+    private Long flushInterval;
+
+    /**
+     * 单个会话未发送数据的高水位（单位：字节）
+     */
+    @Value("${exec.gateway.high-water-mark}")
+    private Long highWaterMark;
+
+    /**
+     * WebSocket会话ID --> 终端会话
+     */
+    private final Map<String, ExecSession> sessions = new ConcurrentHashMap<>(16);
+
+    private EventLoop[] loops;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @PostConstruct
+    public void init() throws IOException {
+        loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            loops[i] = new EventLoop(ByteBuffer.allocateDirect(bufferSize));
+            Thread thread = new Thread(loops[i], "exec-gateway-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (String id : sessions.keySet()) {
+            close(id);
+        }
+        for (EventLoop loop : loops) {
+            loop.running = false;
+            loop.selector.wakeup();
+        }
+    }
+
+    /**
+     * 连接Docker exec，连接建立后开始双向转发
+     * 连接和升级请求由事件循环异步完成，返回时exec尚未启动
+     * @param session WebSocket会话
+     * @param ip 宿主机ip地址
+     * @param port 宿主机Remote端口
+     * @param execId 命令ID
+     * @param width 终端宽度
+     * @param height 终端高度
+     * @return 收到升级响应、exec启动后完成，连接失败或会话关闭时异常完成
+     * @author jitwxs
+     * @since 2026/10/18 20:45
+     */
+    public CompletableFuture<Void> open(WebSocketSession session, String ip, int port, String containerId, String execId,
+                     int width, int height) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.connect(new InetSocketAddress(ip, port));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        ExecSession execSession = new ExecSession(session, containerId, channel, frameSize, highWaterMark);
+        execSession.input.add(ByteBuffer.wrap(upgradeRequest(ip, port, execId)));
+        execSession.recording = terminalRecorder.start(containerId, session.getId(), width, height);
+        sessions.put(execSession.getId(), execSession);
+
+        EventLoop loop = loops[Math.abs(next.getAndIncrement() % loops.length)];
+        execSession.loop = loop;
+        loop.execute(() -> loop.register(execSession));
+        return execSession.upgraded;
+    }
+
+    /**
+     * 发送用户输入
+     */
+    public void write(String sessionId, String text) {
+        ExecSession execSession = sessions.get(sessionId);
+        if (execSession == null) {
+            return;
+        }
+        execSession.write(text);
+        execSession.loop.execute(() -> execSession.loop.interestWrite(execSession));
+    }
+
+    /**
+     * 关闭终端会话，可重复调用
+     */
+    public void close(String sessionId) {
+        ExecSession execSession = sessions.remove(sessionId);
+        if (execSession != null) {
+            execSession.loop.execute(execSession::closeChannel);
+        }
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Long> getMetrics() {
+        long pending = 0, paused = 0;
+        for (ExecSession execSession : sessions.values()) {
+            pending += execSession.getPendingBytes();
+            if (execSession.paused) {
+                paused++;
+            }
+        }
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("session", (long) sessions.size());
+        map.put("pendingBytes", pending);
+        map.put("paused", paused);
+        return map;
+    }
+
+    private byte[] upgradeRequest(String ip, int port, String execId) {
+        Map<String, Object> map = new HashMap<>(16);
+        map.put("Detach", false);
+        map.put("Tty", true);
+        String json = JsonUtils.mapToJson(map);
+
+        String request = "POST /exec/" + execId + "/start HTTP/1.1\r\n" +
+                "Host: " + ip + ":" + port + "\r\n" +
+                "User-Agent: Docker-Client\r\n" +
+                "Content-Type: application/json\r\n" +
+                "Connection: Upgrade\r\n" +
+                "Upgrade: tcp\r\n" +
+                "Content-Length: " + json.getBytes(StandardCharsets.UTF_8).length + "\r\n" +
+                "\r\n" +
+                json;
+        return request.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 终端会话结束，关闭Docker连接和WebSocket连接
+     */
+    private void terminate(ExecSession execSession, CloseStatus status) {
+        sessions.remove(execSession.getId(), execSession);
+        execSession.closeChannel();
+        execSession.close(status);
+    }
+
+    /**
+     * 事件循环
+     */
+    class EventLoop implements Runnable {
+        private final Selector selector;
+        private final ByteBuffer readBuffer;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 帧缓冲区不为空的会话
+         */
+        private final Set<ExecSession> buffered = new LinkedHashSet<>();
+        private volatile boolean running = true;
+
+        private EventLoop(ByteBuffer readBuffer) throws IOException {
+            this.selector = Selector.open();
+            this.readBuffer = readBuffer;
+        }
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        private void register(ExecSession execSession) {
+            try {
+                execSession.key = execSession.getChannel().register(selector, SelectionKey.OP_CONNECT, execSession);
+            } catch (IOException e) {
+                terminate(execSession, CloseStatus.SERVER_ERROR);
+            }
+        }
+
+        /**
+         * 浏览器消费跟上后恢复读取
+         */
+        void resume(ExecSession execSession) {
+            SelectionKey key = execSession.key;
+            if (execSession.paused && execSession.getPendingBytes() <= highWaterMark / 2 && key != null && key.isValid()) {
+                execSession.paused = false;
+                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            }
+        }
+
+        private void interestWrite(ExecSession execSession) {
+            SelectionKey key = execSession.key;
+            if (key != null && key.isValid() && execSession.getChannel().isConnected()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    long timeout = nextTimeout();
+                    if (timeout > 0) {
+                        selector.select(timeout);
+                    } else if (timeout == 0) {
+                        selector.selectNow();
+                    } else {
+                        selector.select();
+                    }
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+
+                    Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                    while (iterator.hasNext()) {
+                        SelectionKey key = iterator.next();
+                        iterator.remove();
+                        handle(key, (ExecSession) key.attachment());
+                    }
+                    flushExpired();
+                } catch (Exception e) {
+                    log.error("终端事件循环异常，错误位置：{}，错误栈：{}",
+                            "ExecGateway.EventLoop.run()", HttpClientUtils.getStackTraceAsString(e));
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void handle(SelectionKey key, ExecSession execSession) {
+            try {
+                if (!key.isValid()) {
+                    return;
+                }
+                if (key.isConnectable()) {
+                    execSession.getChannel().finishConnect();
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                if (key.isWritable()) {
+                    flush(key, execSession);
+                }
+                if (key.isValid() && key.isReadable()) {
+                    readBuffer.clear();
+                    int n = execSession.getChannel().read(readBuffer);
+                    if (n == -1) {
+                        // 连接关闭，例如用户输入exit，发送完剩余输出后关闭WebSocket
+                        buffered.remove(execSession);
+                        sessions.remove(execSession.getId(), execSession);
+                        // 先把剩余输出入队（同时写入录像），再关闭连接结束录像
+                        execSession.closeAfterDrain(CloseStatus.NORMAL);
+                        execSession.closeChannel();
+                        return;
+                    }
+                    readBuffer.flip();
+                    if (!execSession.onRead(readBuffer, TimeUnit.MILLISECONDS.toNanos(flushInterval))) {
+                        log.error("终端连接失败，错误位置：{}，容器ID：{}", "ExecGateway.EventLoop.handle()", execSession.getContainerId());
+                        terminate(execSession, CloseStatus.SERVER_ERROR);
+                        return;
+                    }
+                    if (execSession.deadline != 0) {
+                        buffered.add(execSession);
+                    } else {
+                        buffered.remove(execSession);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("终端会话异常，错误位置：{}，容器ID：{}，错误原因：{}",
+                        "ExecGateway.EventLoop.handle()", execSession.getContainerId(), e.getMessage());
+                buffered.remove(execSession);
+                terminate(execSession, CloseStatus.SERVER_ERROR);
+            }
+        }
+
+        /**
+         * 距最近一个帧缓冲区到期的毫秒数，没有待发送的缓冲区时返回-1
+         */
+        private long nextTimeout() {
+            if (buffered.isEmpty()) {
+                return -1;
+            }
+            long now = System.nanoTime();
+            long min = Long.MAX_VALUE;
+            for (ExecSession execSession : buffered) {
+                min = Math.min(min, execSession.deadline - now);
+            }
+            return min <= 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(min));
+        }
+
+        private void flushExpired() {
+            if (buffered.isEmpty()) {
+                return;
+            }
+            long now = System.nanoTime();
+            Iterator<ExecSession> iterator = buffered.iterator();
+            while (iterator.hasNext()) {
+                ExecSession execSession = iterator.next();
+                if (!execSession.getChannel().isOpen()) {
+                    iterator.remove();
+                } else if (execSession.deadline - now <= 0) {
+                    execSession.flush();
+                    if (execSession.deadline == 0) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+
+        private void flush(SelectionKey key, ExecSession execSession) throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = execSession.input.peek()) != null) {
+                execSession.getChannel().write(buffer);
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                execSession.input.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            // 清除写关注后可能有新的输入入队，再检查一次
+            if (!execSession.input.isEmpty()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+}
@@ -1,23 +1,320 @@
 package jit.edu.paas.commons.websocket;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.WebSocketSession;
 
-import java.net.Socket;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * WebSocket Session实体
- * 用户区分不同的连接
+ * 终端会话，一个WebSocket连接对应一个Docker exec连接
+ * Docker输出先合并到帧缓冲区，缓冲区写满或超过合并时间窗口后作为一帧发送
+ * 帧异步发送，同时只有一帧在发送；未发送完的数据超过高水位时暂停读取Docker，降到一半以下后恢复
+ * 帧缓冲区和连接状态只由所属的事件循环线程访问
+ * 开启录像时，发送的输出帧和用户输入同时交给TerminalRecording异步落盘
  * @author jitwxs
  * @since 2018/7/1 14:22
  */
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
 public class ExecSession {
-    private String ip;
-    private String containerId;
-    private Socket socket;
-    private OutPutThread outPutThread;
+    /**
+     * 响应头最大长度
+     */
+    private static final int MAX_HEADER_LENGTH = 8192;
+
+    private final String id;
+    private final String containerId;
+    private final WebSocketSession webSocketSession;
+    private final Session nativeSession;
+    private final SocketChannel channel;
+
+    /**
+     * 待写入Docker的数据，第一条为HTTP升级请求
+     */
+    final Queue<ByteBuffer> input = new ConcurrentLinkedQueue<>();
+
+    ExecGateway.EventLoop loop;
+    SelectionKey key;
+
+    /**
+     * 终端录像，未开启录像时为null
+     */
+    TerminalRecording recording;
+
+    /**
+     * 收到升级响应、exec启动后完成；连接失败或关闭时异常完成
+     */
+    final CompletableFuture<Void> upgraded = new CompletableFuture<>();
+
+    /**
+     * 升级请求的响应头，收到完整响应头前不为null
+     */
+    private StringBuilder header = new StringBuilder();
+
+    /**
+     * 帧缓冲区
+     */
+    private byte[] frame;
+    private int frameLength;
+
+    /**
+     * 帧缓冲区的发送期限（System.nanoTime），为0表示缓冲区为空
+     */
+    long deadline;
+
+    private final long highWaterMark;
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    volatile boolean paused;
+
+    /**
+     * 发送完剩余数据后关闭WebSocket，为null表示不关闭
+     */
+    private volatile CloseStatus closeStatus;
+
+    ExecSession(WebSocketSession webSocketSession, String containerId, SocketChannel channel, int frameSize, long highWaterMark) {
+        this.id = webSocketSession.getId();
+        this.containerId = containerId;
+        this.webSocketSession = webSocketSession;
+        // 非标准WebSocket实现时为null，退回同步发送
+        this.nativeSession = webSocketSession instanceof NativeWebSocketSession
+                ? ((NativeWebSocketSession) webSocketSession).getNativeSession(Session.class) : null;
+        this.channel = channel;
+        this.frame = new byte[frameSize];
+        this.highWaterMark = highWaterMark;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getContainerId() {
+        return containerId;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    long getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    /**
+     * 处理Docker的输出，buffer由事件循环复用，方法返回后不能再引用
+     * @param window 合并时间窗口（单位：ns）
+     * @return 连接应被关闭时返回false
+     */
+    boolean onRead(ByteBuffer buffer, long window) {
+        if (header != null && !readHeader(buffer)) {
+            return false;
+        }
+        while (buffer.hasRemaining()) {
+            int length = Math.min(buffer.remaining(), frame.length - frameLength);
+            buffer.get(frame, frameLength, length);
+            frameLength += length;
+            if (frameLength == frame.length) {
+                flush();
+            }
+        }
+        if (frameLength > 0 && deadline == 0) {
+            deadline = System.nanoTime() + window;
+        }
+        return true;
+    }
+
+    private boolean readHeader(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            header.append((char) (buffer.get() & 0xFF));
+            int length = header.length();
+            if (length >= 4 && header.charAt(length - 4) == '\r' && header.charAt(length - 3) == '\n'
+                    && header.charAt(length - 2) == '\r' && header.charAt(length - 1) == '\n') {
+                // HTTP/1.1 101 UPGRADED
+                String statusLine = header.substring(0, header.indexOf("\r\n"));
+                header = null;
+                if (statusLine.contains(" 101 ") || statusLine.contains(" 200 ")) {
+                    upgraded.complete(null);
+                    return true;
+                }
+                return false;
+            } else if (length > MAX_HEADER_LENGTH) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 发送帧缓冲区中完整的UTF-8字符，末尾不完整的字符留在缓冲区
+     */
+    void flush() {
+        int complete = completeLength(frame, frameLength);
+        if (complete == 0 && frameLength < frame.length) {
+            // 只有不完整的字符，等待下次读取
+            deadline = 0;
+            return;
+        }
+        if (complete == 0) {
+            // 缓冲区已满仍无完整字符，说明是非法数据，原样发送
+            complete = frameLength;
+        }
+
+        byte[] next = new byte[frame.length];
+        int tail = frameLength - complete;
+        System.arraycopy(frame, complete, next, 0, tail);
+        enqueue(ByteBuffer.wrap(frame, 0, complete));
+        frame = next;
+        frameLength = tail;
+        deadline = 0;
+    }
+
+    /**
+     * 计算以完整UTF-8字符结尾的长度；非法字节原样发送，由终端替换显示
+     */
+    static int completeLength(byte[] bytes, int length) {
+        for (int i = length - 1; i >= 0 && i >= length - 3; i--) {
+            int b = bytes[i] & 0xFF;
+            if ((b & 0xC0) == 0x80) {
+                // 后续字节，继续向前查找首字节
+                continue;
+            }
+            int expected = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+            return length - i >= expected ? length : i;
+        }
+        return length;
+    }
+
+    private void enqueue(ByteBuffer data) {
+        if (recording != null) {
+            // 异步发送会移动position，入队前记录
+            recording.output(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        }
+        outbound.add(data);
+        if (pendingBytes.addAndGet(data.remaining()) >= highWaterMark && !paused) {
+            // 浏览器消费跟不上，暂停读取Docker输出
+            paused = true;
+            if (key != null && key.isValid()) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            }
+        }
+        trySend();
+    }
+
+    /**
+     * 发送下一帧，同一会话同时只有一帧在发送
+     */
+    private void trySend() {
+        while (!outbound.isEmpty()) {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            ByteBuffer data = outbound.poll();
+            if (data == null) {
+                sending.set(false);
+                continue;
+            }
+            int length = data.remaining();
+            if (nativeSession != null) {
+                try {
+                    nativeSession.getAsyncRemote().sendBinary(data, result -> onSent(length, result.isOK()));
+                } catch (Exception e) {
+                    onSent(length, false);
+                }
+                return;
+            }
+            boolean ok = true;
+            try {
+                webSocketSession.sendMessage(new BinaryMessage(data));
+            } catch (IOException e) {
+                ok = false;
+            }
+            pendingBytes.addAndGet(-length);
+            sending.set(false);
+            if (!ok) {
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            }
+        }
+        closeIfDrained();
+        resumeIfDrained();
+    }
+
+    private void onSent(int length, boolean ok) {
+        pendingBytes.addAndGet(-length);
+        sending.set(false);
+        if (!ok) {
+            outbound.clear();
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return;
+        }
+        trySend();
+    }
+
+    private void resumeIfDrained() {
+        if (paused && pendingBytes.get() <= highWaterMark / 2 && loop != null) {
+            loop.execute(() -> loop.resume(this));
+        }
+    }
+
+    private void closeIfDrained() {
+        if (closeStatus != null && outbound.isEmpty() && !sending.get()) {
+            close(closeStatus);
+        }
+    }
+
+    /**
+     * Docker连接结束，发送完剩余输出后关闭WebSocket
+     */
+    void closeAfterDrain(CloseStatus status) {
+        if (frameLength > 0) {
+            enqueue(ByteBuffer.wrap(frame, 0, frameLength));
+            frameLength = 0;
+        }
+        closeStatus = status;
+        closeIfDrained();
+    }
+
+    void close(CloseStatus status) {
+        try {
+            if (webSocketSession.isOpen()) {
+                webSocketSession.close(status);
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 发送用户输入
+     */
+    void write(String text) {
+        input.add(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        if (recording != null) {
+            recording.input(text);
+        }
+    }
+
+    void closeChannel() {
+        upgraded.completeExceptionally(new IOException("终端连接已关闭"));
+        if (recording != null) {
+            recording.stop();
+        }
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
 }
@@ -0,0 +1,280 @@
+package jit.edu.paas.commons.websocket;
+
+import jit.edu.paas.commons.util.HttpClientUtils;
+import jit.edu.paas.commons.util.JsonUtils;
+import jit.edu.paas.commons.util.ResultVOUtils;
+import jit.edu.paas.domain.enums.WebSocketTypeEnum;
+import jit.edu.paas.domain.vo.ContainerMonitorVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 容器实时监控推送
+ * 客户端通过/ws/{userId}订阅容器，每轮采集完成后推送本轮新数据，同一会话的多个容器合并为一条消息
+ * 每个会话同时只有一条消息在发送，发送期间到达的数据只保留每个容器最新的一条，慢客户端会丢弃中间数据
+ * 同一会话的异步发送不能与其他发送并发，因此WebSocketServer的普通消息也经由此处按序发送
+ * 普通消息队列超过上限时视为客户端停滞，关闭该会话
+ * @author jitwxs
+ * @since 2026/10/18 17:40
+ */
+@Slf4j
+@Component
+public class MonitorPushHub {
+    /**
+     * 单个会话未发送普通消息的上限（单位：条）
+     */
+    @Value("${monitor.push.max-queued}")
+    private int maxQueued;
+
+    /**
+     * 容器ID --> 订阅的会话ID
+     */
+    private final Map<String, Set<String>> subscribers = new ConcurrentHashMap<>(16);
+
+    /**
+     * 会话ID --> 会话状态
+     */
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>(16);
+
+    private final AtomicLong sendCount = new AtomicLong();
+    private final AtomicLong dropCount = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    /**
+     * 注册会话
+     * @author jitwxs
+     * @since 2026/10/18 17:41
+     */
+    public void addSession(Session session) {
+        sessions.putIfAbsent(session.getId(), new SessionState(session));
+    }
+
+    /**
+     * 按序发送普通消息
+     * @return 会话不存在或队列已满返回false，队列已满时关闭会话
+     * @author jitwxs
+     * @since 2026/10/18 17:41
+     */
+    public boolean send(String sessionId, String message) {
+        SessionState state = sessions.get(sessionId);
+        if(state == null) {
+            return false;
+        }
+        if(state.queued.incrementAndGet() > maxQueued) {
+            state.queued.decrementAndGet();
+            overflow(state);
+            return false;
+        }
+        state.messages.add(message);
+        trySend(state);
+        return true;
+    }
+
+    /**
+     * 订阅容器
+     * @author jitwxs
+     * @since 2026/10/18 17:42
+     */
+    public void subscribe(Session session, String containerId) {
+        SessionState state = sessions.computeIfAbsent(session.getId(), k -> new SessionState(session));
+        state.containers.add(containerId);
+        subscribers.computeIfAbsent(containerId, k -> ConcurrentHashMap.newKeySet()).add(session.getId());
+    }
+
+    /**
+     * 取消订阅容器
+     * @author jitwxs
+     * @since 2026/10/18 17:43
+     */
+    public void unsubscribe(String sessionId, String containerId) {
+        SessionState state = sessions.get(sessionId);
+        if(state != null) {
+            state.containers.remove(containerId);
+            state.pending.remove(containerId);
+        }
+        removeSubscriber(containerId, sessionId);
+    }
+
+    /**
+     * 会话关闭时取消所有订阅
+     * @author jitwxs
+     * @since 2026/10/18 17:44
+     */
+    public void removeSession(String sessionId) {
+        SessionState state = sessions.remove(sessionId);
+        if(state == null) {
+            return;
+        }
+        for(String containerId : state.containers) {
+            removeSubscriber(containerId, sessionId);
+        }
+    }
+
+    /**
+     * 是否有客户端订阅
+     */
+    public boolean hasSubscriber() {
+        return !subscribers.isEmpty();
+    }
+
+    /**
+     * 推送一轮采集的数据
+     * @param infoMap 容器ID --> 监控数据
+     * @author jitwxs
+     * @since 2026/10/18 17:46
+     */
+    public void publish(Map<String, ContainerMonitorVO> infoMap) {
+        Map<String, SessionState> touched = new HashMap<>(16);
+        for(Map.Entry<String, ContainerMonitorVO> entry : infoMap.entrySet()) {
+            Set<String> sessionIds = subscribers.get(entry.getKey());
+            if(sessionIds == null) {
+                continue;
+            }
+            for(String sessionId : sessionIds) {
+                SessionState state = sessions.get(sessionId);
+                if(state == null) {
+                    continue;
+                }
+                if(state.pending.put(entry.getKey(), entry.getValue()) != null) {
+                    dropCount.incrementAndGet();
+                }
+                touched.put(sessionId, state);
+            }
+        }
+        for(SessionState state : touched.values()) {
+            trySend(state);
+        }
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("session", (long) sessions.size());
+        map.put("container", (long) subscribers.size());
+        map.put("send", sendCount.get());
+        map.put("drop", dropCount.get());
+        map.put("overflow", overflowCount.get());
+        return map;
+    }
+
+    /**
+     * 会话空闲时发送下一条消息：优先发送普通消息，其次合并发送所有待发送的监控数据
+     * 发送完成回调若在当前线程内同步执行，由本循环继续发送，不在回调中递归调用
+     */
+    private void trySend(SessionState state) {
+        while (state.hasPending()) {
+            if(!state.sending.compareAndSet(false, true)) {
+                return;
+            }
+            String message = nextMessage(state);
+            if(message != null && state.session.isOpen()) {
+                // 回调与当前线程谁先将其置为false，谁就不负责继续发送
+                AtomicBoolean inline = new AtomicBoolean(true);
+                try {
+                    state.session.getAsyncRemote().sendText(message, result -> {
+                        if(!result.isOK()) {
+                            log.error("WebSocket消息发送失败，错误位置：{}，会话ID：{}", "MonitorPushHub.trySend()", state.session.getId());
+                        }
+                        sendCount.incrementAndGet();
+                        state.sending.set(false);
+                        if(!inline.compareAndSet(true, false)) {
+                            trySend(state);
+                        }
+                    });
+                    if(inline.compareAndSet(true, false)) {
+                        return;
+                    }
+                    continue;
+                } catch (Exception e) {
+                    log.error("WebSocket消息发送失败，错误位置：{}，会话ID：{}", "MonitorPushHub.trySend()", state.session.getId());
+                }
+            }
+            state.sending.set(false);
+            if(!state.session.isOpen()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 客户端停滞，丢弃会话并关闭连接
+     */
+    private void overflow(SessionState state) {
+        if(sessions.remove(state.session.getId(), state)) {
+            overflowCount.incrementAndGet();
+            for(String containerId : state.containers) {
+                removeSubscriber(containerId, state.session.getId());
+            }
+            log.info("WebSocket未发送消息超过{}条，关闭会话：{}", maxQueued, state.session.getId());
+            try {
+                state.session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "消息积压"));
+            } catch (IOException e) {
+                log.error("关闭WebSocket会话出现异常，错误位置：{}，错误栈：{}", "MonitorPushHub.overflow()", HttpClientUtils.getStackTraceAsString(e));
+            }
+        }
+    }
+
+    private String nextMessage(SessionState state) {
+        String message = state.messages.poll();
+        if(message != null) {
+            state.queued.decrementAndGet();
+            return message;
+        }
+
+        Map<String, ContainerMonitorVO> samples = new HashMap<>(16);
+        for(String containerId : state.pending.keySet()) {
+            ContainerMonitorVO info = state.pending.remove(containerId);
+            if(info != null) {
+                samples.put(containerId, info);
+            }
+        }
+        if(samples.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Object> data = new HashMap<>(16);
+        data.put("type", WebSocketTypeEnum.MONITOR.getCode());
+        data.put("samples", samples);
+        return JsonUtils.objectToJson(ResultVOUtils.success(data));
+    }
+
+    private void removeSubscriber(String containerId, String sessionId) {
+        subscribers.computeIfPresent(containerId, (k, set) -> {
+            set.remove(sessionId);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static class SessionState {
+        private final Session session;
+        private final Set<String> containers = ConcurrentHashMap.newKeySet();
+        private final Map<String, ContainerMonitorVO> pending = new ConcurrentHashMap<>(16);
+        private final Queue<String> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private SessionState(Session session) {
+            this.session = session;
+        }
+
+        private boolean hasPending() {
+            return !messages.isEmpty() || !pending.isEmpty();
+        }
+    }
+}
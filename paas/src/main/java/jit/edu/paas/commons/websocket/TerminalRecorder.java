@@ -0,0 +1,468 @@
+package jit.edu.paas.commons.websocket;
+
+import jit.edu.paas.commons.util.HttpClientUtils;
+import jit.edu.paas.commons.util.JsonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 容器终端录像
+ * 终端线程只把输入输出事件放入有界队列，由单个写线程编码、压缩并追加到文件，录像不增加终端的延迟；队列满时丢弃事件
+ * 每个会话一个录像文件和一个索引文件，索引按块记录时间范围和文件偏移，回放时二分查找起始块，无需从头解压
+ * 录像包含用户的全部输入（包括输入的密码），默认关闭；超过保留天数或总大小上限的录像由clean()定时删除
+ * @author jitwxs
+ * @since 2026/10/18 21:30
+ */
+@Slf4j
+@Component
+public class TerminalRecorder {
+    private static final Pattern ID_PATTERN = Pattern.compile("[0-9A-Za-z_-]+");
+
+    @Value("${terminal.record.enable}")
+    private Boolean enable;
+
+    @Value("${terminal.record.path}")
+    private String path;
+
+    @Value("${terminal.record.queue-capacity}")
+    private Integer queueCapacity;
+
+    /**
+     * 单块最大原始字节数
+     */
+    @Value("${terminal.record.block-size}")
+    private Integer blockSize;
+
+    /**
+     * 单块最长合并时间（单位：ms）
+     */
+    @Value("${terminal.record.block-interval}")
+    private Long blockInterval;
+
+    /**
+     * 录像保留天数
+     */
+    @Value("${terminal.record.retention-days}")
+    private Integer retentionDays;
+
+    /**
+     * 录像总大小上限（单位：字节）
+     */
+    @Value("${terminal.record.max-size}")
+    private Long maxSize;
+
+    private BlockingQueue<TerminalRecording.Event> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong recordCount = new AtomicLong();
+    private final AtomicLong eventCount = new AtomicLong();
+    private final AtomicLong dropCount = new AtomicLong();
+    private final AtomicLong blockCount = new AtomicLong();
+    private final AtomicLong cleanCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (!enable) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "terminal-recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (writer != null) {
+            running = false;
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * 开始录像
+     * @param sessionId WebSocket会话ID
+     * @return 未开启录像时返回null
+     * @author jitwxs
+     * @since 2026/10/18 21:32
+     */
+    public TerminalRecording start(String containerId, String sessionId, int width, int height) {
+        if (!running || !ID_PATTERN.matcher(containerId).matches()) {
+            return null;
+        }
+        String id = System.currentTimeMillis() + "-" + sessionId.replaceAll("[^0-9A-Za-z_-]", "");
+        recordCount.incrementAndGet();
+        return new TerminalRecording(this, id, containerId, width, height);
+    }
+
+    /**
+     * 事件入队，不阻塞调用线程
+     */
+    boolean offer(TerminalRecording.Event event) {
+        if (queue.offer(event)) {
+            eventCount.incrementAndGet();
+            return true;
+        }
+        dropCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 获取容器的录像列表
+     * @return 按开始时间倒序
+     * @author jitwxs
+     * @since 2026/10/18 21:34
+     */
+    public List<Map<String, Object>> listRecord(String containerId) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        if (!ID_PATTERN.matcher(containerId).matches()) {
+            return list;
+        }
+        File[] files = new File(path, containerId).listFiles((dir, name) -> name.endsWith(TerminalRecording.INDEX_SUFFIX));
+        if (files == null) {
+            return list;
+        }
+        for (File file : files) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                Map<String, Object> header = readHeader(raf);
+                long headerLength = raf.getFilePointer();
+                long count = (raf.length() - headerLength) / TerminalRecording.INDEX_ENTRY_LENGTH;
+                long duration = 0;
+                if (count > 0) {
+                    // 最后一块的结束时间
+                    raf.seek(headerLength + (count - 1) * TerminalRecording.INDEX_ENTRY_LENGTH + 8);
+                    duration = raf.readLong();
+                }
+                String name = file.getName();
+                header.put("id", name.substring(0, name.length() - TerminalRecording.INDEX_SUFFIX.length()));
+                header.put("duration", duration);
+                header.put("blocks", count);
+                list.add(header);
+            } catch (IOException e) {
+                log.error("读取终端录像索引失败，错误位置：{}，文件：{}，错误原因：{}",
+                        "TerminalRecorder.listRecord()", file.getAbsolutePath(), e.getMessage());
+            }
+        }
+        list.sort((a, b) -> Long.compare(((Number) b.getOrDefault("timestamp", 0)).longValue(),
+                ((Number) a.getOrDefault("timestamp", 0)).longValue()));
+        return list;
+    }
+
+    /**
+     * 从指定时间或游标开始读取录像事件
+     * 通过索引定位包含起始时间的块，只解压该块及之后的块
+     * 同一毫秒可能有多个事件，分段读取时应使用返回的cursor继续，使用时间继续会重复返回同一毫秒内已返回的事件
+     * @param from 起始时间，相对录像开始（单位：ms），cursor不为空时忽略
+     * @param cursor 上一段返回的cursor，格式为“块序号:行号”，为空时从from开始
+     * @param limit 最多返回的事件数
+     * @return 录像不存在返回null；next为下一个事件的时间，cursor为下一个事件的位置，读完时均为null
+     * @author jitwxs
+     * @since 2026/10/18 21:36
+     */
+    public Map<String, Object> replay(String containerId, String recordId, long from, String cursor, int limit) throws IOException {
+        if (!ID_PATTERN.matcher(containerId).matches() || !ID_PATTERN.matcher(recordId).matches()) {
+            return null;
+        }
+        File dir = new File(path, containerId);
+        File indexFile = new File(dir, recordId + TerminalRecording.INDEX_SUFFIX);
+        File dataFile = new File(dir, recordId + TerminalRecording.DATA_SUFFIX);
+        if (!indexFile.exists() || !dataFile.exists()) {
+            return null;
+        }
+
+        Map<String, Object> header;
+        long[] entries;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            header = readHeader(in);
+            entries = readEntries(in);
+        }
+        int count = entries.length / 5;
+
+        int low, skip;
+        if (cursor != null) {
+            // 游标位置之前的事件均已返回，不再按时间过滤
+            String[] position = cursor.split(":");
+            low = Integer.parseInt(position[0]);
+            skip = Integer.parseInt(position[1]);
+            from = 0;
+        } else {
+            // 二分查找第一个结束时间不早于from的块
+            low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (entries[mid * 5 + 1] < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            skip = 0;
+        }
+
+        List<List<Object>> events = new ArrayList<>();
+        Long next = null;
+        String nextCursor = null;
+        Inflater inflater = new Inflater();
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile, "r")) {
+            for (int i = low; i < count && next == null; i++) {
+                byte[] compressed = new byte[(int) entries[i * 5 + 3]];
+                raf.seek(entries[i * 5 + 2]);
+                raf.readFully(compressed);
+                byte[] raw = new byte[(int) entries[i * 5 + 4]];
+                inflater.reset();
+                inflater.setInput(compressed);
+                try {
+                    inflater.inflate(raw);
+                } catch (DataFormatException e) {
+                    throw new IOException("录像数据损坏：" + recordId, e);
+                }
+
+                BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(raw), StandardCharsets.UTF_8));
+                String line;
+                int lineNo = -1;
+                while ((line = reader.readLine()) != null) {
+                    lineNo++;
+                    if (i == low && lineNo < skip) {
+                        continue;
+                    }
+                    List<Object> event = JsonUtils.jsonToList(line, Object.class);
+                    if (event == null || event.size() < 3) {
+                        continue;
+                    }
+                    long time = Math.round(((Number) event.get(0)).doubleValue() * 1000);
+                    if (time < from) {
+                        continue;
+                    }
+                    if (events.size() >= limit) {
+                        next = time;
+                        nextCursor = i + ":" + lineNo;
+                        break;
+                    }
+                    events.add(event);
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+
+        Map<String, Object> map = new HashMap<>(16);
+        map.put("header", header);
+        map.put("duration", count > 0 ? entries[(count - 1) * 5 + 1] : 0);
+        map.put("events", events);
+        map.put("next", next);
+        map.put("cursor", nextCursor);
+        return map;
+    }
+
+    /**
+     * 清理录像：删除超过保留天数的录像，总大小仍超过上限时从最早的录像开始删除
+     * @author jitwxs
+     * @since 2026/10/19 15:10
+     */
+    @Scheduled(initialDelay = 60000, fixedDelayString = "${terminal.record.clean-interval}")
+    public void clean() {
+        if (!enable) {
+            return;
+        }
+        try {
+            int count = clean(System.currentTimeMillis());
+            if (count > 0) {
+                log.info("清理终端录像：{}个", count);
+            }
+        } catch (Exception e) {
+            log.error("清理终端录像出现异常，错误位置：{}，错误栈：{}",
+                    "TerminalRecorder.clean()", HttpClientUtils.getStackTraceAsString(e));
+        }
+    }
+
+    /**
+     * 按修改时间清理录像，录像文件和索引文件一起删除
+     * @param now 当前时间（单位：ms）
+     * @return 删除的录像数
+     */
+    int clean(long now) {
+        File[] dirs = new File(path).listFiles(File::isDirectory);
+        if (dirs == null) {
+            return 0;
+        }
+        // 所有录像的索引文件，按最后修改时间升序
+        List<File> indexes = new ArrayList<>();
+        long total = 0;
+        for (File dir : dirs) {
+            File[] files = dir.listFiles((d, name) -> name.endsWith(TerminalRecording.INDEX_SUFFIX));
+            if (files == null) {
+                continue;
+            }
+            for (File index : files) {
+                indexes.add(index);
+                total += index.length() + dataFile(index).length();
+            }
+        }
+        indexes.sort(Comparator.comparingLong(TerminalRecorder::lastModified));
+
+        long deadline = now - TimeUnit.DAYS.toMillis(retentionDays);
+        int count = 0;
+        for (File index : indexes) {
+            if (lastModified(index) >= deadline && total <= maxSize) {
+                break;
+            }
+            File data = dataFile(index);
+            total -= index.length() + data.length();
+            data.delete();
+            index.delete();
+            count++;
+        }
+        for (File dir : dirs) {
+            // 只删除空目录
+            dir.delete();
+        }
+        cleanCount.addAndGet(count);
+        return count;
+    }
+
+    private static File dataFile(File index) {
+        String name = index.getName();
+        return new File(index.getParentFile(),
+                name.substring(0, name.length() - TerminalRecording.INDEX_SUFFIX.length()) + TerminalRecording.DATA_SUFFIX);
+    }
+
+    private static long lastModified(File index) {
+        return Math.max(index.lastModified(), dataFile(index).lastModified());
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("record", recordCount.get());
+        map.put("event", eventCount.get());
+        map.put("drop", dropCount.get());
+        map.put("block", blockCount.get());
+        map.put("clean", cleanCount.get());
+        map.put("queue", queue == null ? 0L : queue.size());
+        return map;
+    }
+
+    /**
+     * 写线程：编码事件、按大小或时间写块，会话结束后关闭文件
+     */
+    private void writeLoop() {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        File directory = new File(path);
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(blockInterval);
+        Set<TerminalRecording> active = new LinkedHashSet<>();
+        try {
+            while (running || !queue.isEmpty()) {
+                TerminalRecording.Event event;
+                try {
+                    event = queue.poll(blockInterval, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (event != null) {
+                    handle(event, directory, deflater, active);
+                }
+
+                long now = System.nanoTime();
+                Iterator<TerminalRecording> iterator = active.iterator();
+                while (iterator.hasNext()) {
+                    TerminalRecording recording = iterator.next();
+                    try {
+                        if (recording.isStopLost()) {
+                            // 结束事件因队列已满被丢弃
+                            recording.finish(deflater);
+                        } else {
+                            blockCount.addAndGet(recording.flushIfExpired(now, intervalNanos, deflater));
+                        }
+                    } catch (IOException e) {
+                        fail(recording, deflater, e);
+                    }
+                    if (recording.isFinished()) {
+                        iterator.remove();
+                    }
+                }
+            }
+        } finally {
+            for (TerminalRecording recording : active) {
+                try {
+                    recording.finish(deflater);
+                } catch (IOException e) {
+                    fail(recording, deflater, e);
+                }
+            }
+            deflater.end();
+        }
+    }
+
+    private void handle(TerminalRecording.Event event, File directory, Deflater deflater, Set<TerminalRecording> active) {
+        TerminalRecording recording = event.recording;
+        try {
+            if (event.type == TerminalRecording.Event.STOP) {
+                recording.finish(deflater);
+                active.remove(recording);
+            } else if (!recording.isFinished()) {
+                active.add(recording);
+                blockCount.addAndGet(recording.append(event, directory, blockSize, deflater));
+            }
+        } catch (IOException e) {
+            fail(recording, deflater, e);
+            active.remove(recording);
+        }
+    }
+
+    private void fail(TerminalRecording recording, Deflater deflater, IOException e) {
+        log.error("写入终端录像失败，错误位置：{}，录像ID：{}，错误栈：{}",
+                "TerminalRecorder.writeLoop()", recording.getId(), HttpClientUtils.getStackTraceAsString(e));
+        try {
+            recording.finish(deflater);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static Map<String, Object> readHeader(DataInput in) throws IOException {
+        if (in.readInt() != TerminalRecording.INDEX_MAGIC) {
+            throw new IOException("录像索引格式错误");
+        }
+        Map<String, Object> header = JsonUtils.jsonToMap(in.readUTF());
+        return header == null ? new HashMap<>(16) : header;
+    }
+
+    /**
+     * 读取索引记录，每条记录依次为起始时间、结束时间、块偏移、压缩长度、原始长度
+     */
+    private static long[] readEntries(DataInputStream in) throws IOException {
+        List<long[]> list = new ArrayList<>();
+        try {
+            while (true) {
+                list.add(new long[]{in.readLong(), in.readLong(), in.readLong(), in.readInt(), in.readInt()});
+            }
+        } catch (EOFException ignored) {
+            // 读到文件末尾，最后一条不完整的记录直接忽略
+        }
+        long[] entries = new long[list.size() * 5];
+        for (int i = 0; i < list.size(); i++) {
+            System.arraycopy(list.get(i), 0, entries, i * 5, 5);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,241 @@
+package jit.edu.paas.commons.websocket;
+
+import jit.edu.paas.commons.util.JsonUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+
+/**
+ * 一次终端会话的录像
+ * input/output/stop由终端线程调用，只把事件放入TerminalRecorder的队列；文件读写只由写线程进行
+ * 事件按asciicast v2格式编码为一行：[秒数, "i"|"o", 数据]，多行合并为一块后压缩追加到录像文件
+ * 每写入一块就在索引文件追加一条记录：起始时间(long) | 结束时间(long) | 块偏移(long) | 压缩长度(int) | 原始长度(int)
+ * @author jitwxs
+ * @since 2026/10/18 21:30
+ */
+public class TerminalRecording {
+    static final int INDEX_MAGIC = 0x50415243;
+    static final int INDEX_ENTRY_LENGTH = 8 + 8 + 8 + 4 + 4;
+    static final String DATA_SUFFIX = ".rec";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private final TerminalRecorder recorder;
+    private final String id;
+    private final String containerId;
+    private final int width;
+    private final int height;
+    private final long startMillis;
+    private final long startNanos;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    /**
+     * 结束事件因队列已满未能入队，由写线程巡检时关闭
+     */
+    private volatile boolean stopLost;
+
+    // ---- 以下字段只由写线程访问 ----
+    private OutputStream data;
+    private DataOutputStream index;
+    private long offset;
+    private boolean finished;
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(8192);
+    private long blockStart = -1;
+    private long blockEnd;
+    private long blockCreated;
+
+    TerminalRecording(TerminalRecorder recorder, String id, String containerId, int width, int height) {
+        this.recorder = recorder;
+        this.id = id;
+        this.containerId = containerId;
+        this.width = width;
+        this.height = height;
+        this.startMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 记录用户输入
+     */
+    public void input(String text) {
+        if (!stopped.get()) {
+            recorder.offer(new Event(this, Event.INPUT, System.nanoTime(), text, null, 0, 0));
+        }
+    }
+
+    /**
+     * 记录终端输出，调用方之后不能再修改bytes中的这段数据
+     */
+    public void output(byte[] bytes, int off, int len) {
+        if (!stopped.get() && len > 0) {
+            recorder.offer(new Event(this, Event.OUTPUT, System.nanoTime(), null, bytes, off, len));
+        }
+    }
+
+    /**
+     * 结束录像，可重复调用
+     */
+    public void stop() {
+        if (stopped.compareAndSet(false, true)) {
+            if (!recorder.offer(new Event(this, Event.STOP, System.nanoTime(), null, null, 0, 0))) {
+                stopLost = true;
+            }
+        }
+    }
+
+    boolean isStopLost() {
+        return stopLost;
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * 追加一条事件到当前块，块达到大小上限时写入文件
+     * @return 写入的块数
+     */
+    int append(Event event, File directory, int blockSize, Deflater deflater) throws IOException {
+        if (finished) {
+            return 0;
+        }
+        if (data == null) {
+            open(directory);
+        }
+        long elapsed = event.time - startNanos;
+        String text = event.text != null ? event.text : new String(event.bytes, event.offset, event.length, StandardCharsets.UTF_8);
+        // 精确到微秒
+        double seconds = Math.round(elapsed / 1000d) / 1e6;
+        byte[] line = (JsonUtils.objectToJson(Arrays.asList(seconds, String.valueOf(event.type), text)) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+
+        long millis = elapsed / 1000000;
+        if (blockStart < 0) {
+            blockStart = millis;
+            blockCreated = event.time;
+        }
+        blockEnd = millis;
+        block.write(line, 0, line.length);
+        return block.size() >= blockSize ? writeBlock(deflater) : 0;
+    }
+
+    /**
+     * 当前块超过合并时间时写入文件
+     * @return 写入的块数
+     */
+    int flushIfExpired(long now, long intervalNanos, Deflater deflater) throws IOException {
+        if (block.size() > 0 && now - blockCreated >= intervalNanos) {
+            return writeBlock(deflater);
+        }
+        return 0;
+    }
+
+    /**
+     * 写入剩余数据并关闭文件
+     */
+    void finish(Deflater deflater) throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            if (block.size() > 0) {
+                writeBlock(deflater);
+            }
+        } finally {
+            closeQuietly(data);
+            closeQuietly(index);
+        }
+    }
+
+    private void open(File directory) throws IOException {
+        File dir = new File(directory, containerId);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("创建录像目录失败：" + dir.getAbsolutePath());
+        }
+        data = new FileOutputStream(new File(dir, id + DATA_SUFFIX), true);
+        index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(dir, id + INDEX_SUFFIX), true)));
+
+        Map<String, Object> header = new HashMap<>(16);
+        header.put("version", 2);
+        header.put("width", width);
+        header.put("height", height);
+        header.put("timestamp", startMillis / 1000);
+        header.put("containerId", containerId);
+        index.writeInt(INDEX_MAGIC);
+        index.writeUTF(JsonUtils.mapToJson(header));
+        index.flush();
+    }
+
+    private int writeBlock(Deflater deflater) throws IOException {
+        byte[] raw = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            compressed.write(buffer, 0, n);
+        }
+
+        // 先写数据再写索引，索引中的块一定完整
+        compressed.writeTo(data);
+        data.flush();
+        index.writeLong(blockStart);
+        index.writeLong(blockEnd);
+        index.writeLong(offset);
+        index.writeInt(compressed.size());
+        index.writeInt(raw.length);
+        index.flush();
+
+        offset += compressed.size();
+        block.reset();
+        blockStart = -1;
+        return 1;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 录像事件
+     */
+    static class Event {
+        static final char INPUT = 'i';
+        static final char OUTPUT = 'o';
+        static final char STOP = 's';
+
+        final TerminalRecording recording;
+        final char type;
+        final long time;
+        final String text;
+        final byte[] bytes;
+        final int offset;
+        final int length;
+
+        Event(TerminalRecording recording, char type, long time, String text, byte[] bytes, int offset, int length) {
+            this.recording = recording;
+            this.type = type;
+            this.time = time;
+            this.text = text;
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package jit.edu.paas.commons.websocket;
+
+import jit.edu.paas.commons.util.SpringBeanFactoryUtils;
+import jit.edu.paas.domain.enums.ResultEnum;
+import jit.edu.paas.domain.vo.ResultVO;
+import jit.edu.paas.service.JwtService;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.websocket.HandshakeResponse;
+import javax.websocket.server.HandshakeRequest;
+import javax.websocket.server.ServerEndpointConfig;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebSocket握手认证
+ * /ws/**不经过JWT过滤器，握手时校验Token（请求参数token或Authorization请求头），通过后将用户ID放入会话属性uid
+ * 未通过时不放入uid，由端点在连接建立后关闭连接
+ * @author jitwxs
+ * @since 2026/10/19 10:10
+ */
+public class WebSocketAuthConfigurator extends ServerEndpointConfig.Configurator {
+    public static final String UID = "uid";
+
+    @Override
+    public void modifyHandshake(ServerEndpointConfig sec, HandshakeRequest request, HandshakeResponse response) {
+        sec.getUserProperties().remove(UID);
+
+        String token = getToken(request);
+        if(StringUtils.isBlank(token)) {
+            return;
+        }
+        JwtService jwtService = SpringBeanFactoryUtils.getBean(JwtService.class);
+        ResultVO resultVO = jwtService.checkToken(token);
+        if(ResultEnum.OK.getCode() != resultVO.getCode()) {
+            return;
+        }
+        String uid = (String) ((Map) resultVO.getData()).get(UID);
+        if(StringUtils.isNotBlank(uid)) {
+            sec.getUserProperties().put(UID, uid);
+        }
+    }
+
+    private String getToken(HandshakeRequest request) {
+        List<String> params = request.getParameterMap().get("token");
+        if(params != null && !params.isEmpty()) {
+            return params.get(0);
+        }
+        List<String> headers = request.getHeaders().get("Authorization");
+        if(headers != null && !headers.isEmpty()) {
+            return headers.get(0);
+        }
+        return null;
+    }
+}
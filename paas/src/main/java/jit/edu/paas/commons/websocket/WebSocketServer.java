@@ -1,9 +1,15 @@
 package jit.edu.paas.commons.websocket;
 
+import jit.edu.paas.commons.util.HttpClientUtils;
 import jit.edu.paas.commons.util.JsonUtils;
+import jit.edu.paas.commons.util.ResultVOUtils;
 import jit.edu.paas.commons.util.SpringBeanFactoryUtils;
 import jit.edu.paas.commons.util.StringUtils;
 import jit.edu.paas.commons.util.jedis.JedisClient;
+import jit.edu.paas.domain.enums.ResultEnum;
+import jit.edu.paas.domain.enums.WebSocketTypeEnum;
+import jit.edu.paas.domain.vo.ResultVO;
+import jit.edu.paas.service.UserContainerService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.time.FastDateFormat;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,15 +25,21 @@ import java.util.Map;
 
 /**
  * WebSocket服务器
+ * 客户端发送{"action":"subscribe","containerId":"xxx"}订阅容器实时监控，"unsubscribe"取消订阅，其他消息视为心跳
+ * 连接时需携带Token，由WebSocketAuthConfigurator在握手时校验，Token中的用户ID与路径中的不一致时关闭连接
  * @author jitwxs
  * @since 2018/7/9 16:08
  */
-@ServerEndpoint(value = "/ws/{userId}")
+@ServerEndpoint(value = "/ws/{userId}", configurator = WebSocketAuthConfigurator.class)
 @Component
 @Slf4j
 public class WebSocketServer {
     @Autowired
     private JedisClient jedisClient;
+    @Autowired
+    private MonitorPushHub monitorPushHub;
+    @Autowired
+    private UserContainerService containerService;
 
     private static HashMap<String, Session> webSocketSet = new HashMap<>();
 
@@ -37,6 +49,11 @@ public class WebSocketServer {
 
     private Session session;
 
+    /**
+     * 握手时认证的用户ID
+     */
+    private String uid;
+
     FastDateFormat format = FastDateFormat.getInstance("yyyy-MM-dd HH:mm:ss");
 
     /**
@@ -47,9 +64,27 @@ public class WebSocketServer {
         if (jedisClient == null) {
             jedisClient = SpringBeanFactoryUtils.getBean(JedisClient.class);
         }
+        if (monitorPushHub == null) {
+            monitorPushHub = SpringBeanFactoryUtils.getBean(MonitorPushHub.class);
+        }
+        if (containerService == null) {
+            containerService = SpringBeanFactoryUtils.getBean(UserContainerService.class);
+        }
 
         this.session = session;
+        String uid = (String) session.getUserProperties().get(WebSocketAuthConfigurator.UID);
+        if (uid == null || !uid.equals(userId)) {
+            log.info("WebSocket认证失败，用户ID：{}", userId);
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY, "未认证"));
+            } catch (IOException e) {
+                log.error("关闭WebSocket连接异常，错误位置：{}，错误栈：{}", "WebSocketServer.onOpen()", HttpClientUtils.getStackTraceAsString(e));
+            }
+            return;
+        }
+        this.uid = uid;
         webSocketSet.put(session.getId(), session);
+        monitorPushHub.addSession(session);
         String field = ID_PREFIX + userId;
         try {
             String res = jedisClient.hget(key, field);
@@ -73,9 +108,13 @@ public class WebSocketServer {
      * 连接关闭调用的方法
      */
     @OnClose
-    public void onClose(@PathParam("userId") String userId) {
+    public void onClose() {
+        if (this.uid == null) {
+            return;
+        }
         webSocketSet.remove(this.session.getId());
-        String field = ID_PREFIX + userId;
+        monitorPushHub.removeSession(this.session.getId());
+        String field = ID_PREFIX + this.uid;
         try {
             String res = jedisClient.hget(key, field);
             if (StringUtils.isNotBlank(res)) {
@@ -98,26 +137,54 @@ public class WebSocketServer {
 
     @OnMessage
     public void onMessage(String message) {
+        if (this.uid == null) {
+            return;
+        }
 //        log.info("{}({})：{}",this.session.getId(), format.format(new Date()), message);
         try {
-            Map<String, String> map = new HashMap<>(16);
-            map.put("info", "heart");
-            sendMessage(JsonUtils.objectToJson(map), this.session.getId());
+            Map<String, String> request = message.startsWith("{") ? JsonUtils.jsonToMap(message) : null;
+            String action = request == null ? null : request.get("action");
+            if ("subscribe".equals(action)) {
+                subscribe(this.uid, request.get("containerId"));
+            } else if ("unsubscribe".equals(action)) {
+                monitorPushHub.unsubscribe(this.session.getId(), request.get("containerId"));
+            } else {
+                Map<String, String> map = new HashMap<>(16);
+                map.put("info", "heart");
+                sendMessage(JsonUtils.objectToJson(map), this.session.getId());
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * 订阅容器实时监控
+     * @author jitwxs
+     * @since 2026/10/18 17:55
+     */
+    private void subscribe(String userId, String containerId) throws IOException {
+        ResultVO resultVO = StringUtils.isBlank(containerId) ?
+                ResultVOUtils.error(ResultEnum.PARAM_ERROR) : containerService.checkPermission(userId, containerId);
+        if (resultVO.getCode() == ResultEnum.OK.getCode()) {
+            monitorPushHub.subscribe(this.session, containerId);
+        }
+
+        Map<String, Object> data = new HashMap<>(16);
+        data.put("type", WebSocketTypeEnum.MONITOR.getCode());
+        data.put("containerId", containerId);
+        resultVO.setData(data);
+        sendMessage(JsonUtils.objectToJson(resultVO), this.session.getId());
+    }
+
     /**
      * 发送消息
      * @author jitwxs
      * @since 2018/7/9 16:55
      */
     public void sendMessage(String message, String sessionId) throws IOException {
-        Session session = webSocketSet.get(sessionId);
-        if(session != null) {
-            session.getBasicRemote().sendText(message);
-        } else {
+        // 与监控推送共用发送队列，避免同一会话并发发送
+        if(!monitorPushHub.send(sessionId, message)) {
             throw new IOException("WebSocket连接中断");
         }
     }
@@ -2,6 +2,7 @@ package jit.edu.paas.config;
 
 import jit.edu.paas.commons.util.jedis.JedisClientCluster;
 import jit.edu.paas.commons.util.jedis.JedisClientPool;
+import jit.edu.paas.commons.util.jedis.PipelineJedisCluster;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -88,6 +89,6 @@ public class JedisConfig {
         set.add(new HostAndPort(cluster05Host, cluster05Port));
         set.add(new HostAndPort(cluster06Host, cluster06Port));
 
-        return new JedisCluster(set);
+        return new PipelineJedisCluster(set);
     }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package jit.edu.paas.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.Executor;
@@ -30,4 +32,58 @@ public class TaskPoolConfig {
 
         return executor;
     }
+
+    /**
+     * 监控采集线程池，队列满时拒绝，由采集器跳过该容器
+     * @author jitwxs
+     * @since 2026/10/18 14:50
+     */
+    @Bean("monitorExecutor")
+    public ThreadPoolTaskExecutor monitorExecutor(@Value("${monitor.collector.threads}") int threads,
+                                                  @Value("${monitor.collector.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("monitorExecutor-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+
+        return executor;
+    }
+
+    /**
+     * 镜像拉取线程池，与容器操作的taskExecutor隔离，队列满时拒绝
+     * @author jitwxs
+     * @since 2026/10/18 22:45
+     */
+    @Bean("pullExecutor")
+    public ThreadPoolTaskExecutor pullExecutor(@Value("${image.pull.threads}") int threads,
+                                               @Value("${image.pull.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("pullExecutor-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+
+        return executor;
+    }
+
+    /**
+     * 镜像流式导入线程池，不排队，没有空闲线程时拒绝
+     * 导入线程读取请求线程写入的管道，排队等待会使请求线程阻塞在写满的管道上
+     * @author jitwxs
+     * @since 2026/10/19 16:05
+     */
+    @Bean("importExecutor")
+    public ThreadPoolTaskExecutor importExecutor(@Value("${image.import.threads}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("importExecutor-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+
+        return executor;
+    }
 }
@@ -2,6 +2,7 @@ package jit.edu.paas.config;
 
 import jit.edu.paas.commons.websocket.ContainerExecHandshakeInterceptor;
 import jit.edu.paas.commons.websocket.ContainerExecWSHandler;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,13 +25,11 @@ public class WebSocketConfig implements WebSocketConfigurer {
         return new ServerEndpointExporter();
     }
 
-    @Bean
-    public ContainerExecWSHandler containerExecWSHandler() {
-        return new ContainerExecWSHandler();
-    }
+    @Autowired
+    private ContainerExecWSHandler containerExecWSHandler;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(containerExecWSHandler(), "/ws/container/exec").addInterceptors(new ContainerExecHandshakeInterceptor()).setAllowedOrigins("*");
+        registry.addHandler(containerExecWSHandler, "/ws/container/exec").addInterceptors(new ContainerExecHandshakeInterceptor()).setAllowedOrigins("*");
     }
 }
\ No newline at end of file
@@ -4,8 +4,10 @@ import com.baomidou.mybatisplus.mapper.EntityWrapper;
 import com.baomidou.mybatisplus.plugins.Page;
 import jit.edu.paas.commons.convert.UserContainerDTOConvert;
 import jit.edu.paas.commons.util.CollectionUtils;
+import jit.edu.paas.commons.util.HttpClientUtils;
 import jit.edu.paas.commons.util.ResultVOUtils;
 import jit.edu.paas.commons.util.StringUtils;
+import jit.edu.paas.commons.websocket.TerminalRecorder;
 import jit.edu.paas.domain.dto.UserContainerDTO;
 import jit.edu.paas.domain.entity.UserContainer;
 import jit.edu.paas.domain.enums.ContainerOpEnum;
@@ -23,6 +25,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -53,6 +56,8 @@ public class ContainerController {
     private String serverPort;
     @Autowired
     private UserContainerDTOConvert dtoConvert;
+    @Autowired
+    private TerminalRecorder terminalRecorder;
 
     /**
      * 获取容器
@@ -443,6 +448,63 @@ public class ContainerController {
         return ResultVOUtils.success(map);
     }
 
+    /**
+     * 获取容器终端录像列表
+     *
+     * @param containerId 容器ID
+     * @author jitwxs
+     * @since 2026/10/18 21:40
+     */
+    @GetMapping("/terminal/record/{containerId}")
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_SYSTEM')")
+    public ResultVO listTerminalRecord(@RequestAttribute String uid, @PathVariable String containerId) {
+        // 鉴权
+        ResultVO resultVO = containerService.checkPermission(uid, containerId);
+        if (ResultEnum.OK.getCode() != resultVO.getCode()) {
+            return resultVO;
+        }
+        return ResultVOUtils.success(terminalRecorder.listRecord(containerId));
+    }
+
+    /**
+     * 回放容器终端录像
+     * 从指定时间开始分段读取，返回的cursor作为下一段的cursor
+     *
+     * @param from 起始时间，相对录像开始【单位：ms】
+     * @param cursor 上一段返回的cursor，不为空时忽略from
+     * @param limit 最多返回的事件数
+     * @author jitwxs
+     * @since 2026/10/18 21:42
+     */
+    @GetMapping("/terminal/record/{containerId}/{recordId}")
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_SYSTEM')")
+    public ResultVO replayTerminalRecord(@RequestAttribute String uid, @PathVariable String containerId,
+                                        @PathVariable String recordId,
+                                        @RequestParam(defaultValue = "0") Long from,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "1000") Integer limit) {
+        if (from < 0 || limit <= 0 || limit > 10000 || (cursor != null && !cursor.matches("\\d{1,9}:\\d{1,9}"))) {
+            return ResultVOUtils.error(ResultEnum.PARAM_ERROR);
+        }
+        // 鉴权
+        ResultVO resultVO = containerService.checkPermission(uid, containerId);
+        if (ResultEnum.OK.getCode() != resultVO.getCode()) {
+            return resultVO;
+        }
+
+        try {
+            Map<String, Object> data = terminalRecorder.replay(containerId, recordId, from, cursor, limit);
+            if (data == null) {
+                return ResultVOUtils.error(ResultEnum.TERMINAL_RECORD_NOT_FOUND);
+            }
+            return ResultVOUtils.success(data);
+        } catch (IOException e) {
+            log.error("读取终端录像失败，错误位置：{}，录像ID：{}，错误栈：{}",
+                    "ContainerController.replayTerminalRecord()", recordId, HttpClientUtils.getStackTraceAsString(e));
+            return ResultVOUtils.error(ResultEnum.OTHER_ERROR);
+        }
+    }
+
     /**
      * 同步容器状态
      * 普通用户同步本人容器，系统管理员同步所有容器
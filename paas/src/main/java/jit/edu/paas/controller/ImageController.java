@@ -231,16 +231,65 @@ public class ImageController {
         if(StringUtils.isBlank(imageName) || file == null) {
             return ResultVOUtils.error(ResultEnum.PARAM_ERROR);
         }
+        // 判断文件后缀
+        if(!file.getOriginalFilename().endsWith(".tar.gz")) {
+            return ResultVOUtils.error(ResultEnum.IMAGE_UPLOAD_ERROR_BY_SUFFIX);
+        }
+        ResultVO resultVO = checkImportName(imageName, tag, uid);
+        if(ResultEnum.OK.getCode() != resultVO.getCode()) {
+            return resultVO;
+        }
+
+        // 上传文件在请求结束后会被清理，需要在请求内读取完毕
+        try {
+            InputStream stream = file.getInputStream();
+            return imageService.importImageStream(stream, file.getSize(), (String) resultVO.getData(), uid, request);
+        } catch (IOException e) {
+            return ResultVOUtils.error(ResultEnum.IMPORT_ERROR);
+        }
+    }
+
+    /**
+     * 流式导入镜像【WebSocket】
+     * 请求体即镜像文件（tar.gz），不受上传文件大小限制，边上传边导入
+     * @param imageName 镜像名，不能包含大写字符
+     * @param tag 镜像标签，默认为latest
+     * @author jitwxs
+     * @since 2026/10/18 20:20
+     */
+    @PostMapping(value = "/import/stream", consumes = {"application/octet-stream", "application/gzip", "application/x-gzip"})
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_SYSTEM')")
+    public ResultVO importImageStream(@RequestParam String imageName, @RequestParam(defaultValue = "latest") String tag,
+                                      @RequestAttribute String uid, HttpServletRequest request) {
+        ResultVO resultVO = checkImportName(imageName, tag, uid);
+        if(ResultEnum.OK.getCode() != resultVO.getCode()) {
+            return resultVO;
+        }
+
+        try {
+            InputStream stream = request.getInputStream();
+            return imageService.importImageStream(stream, request.getContentLengthLong(), (String) resultVO.getData(), uid, request);
+        } catch (IOException e) {
+            return ResultVOUtils.error(ResultEnum.IMPORT_ERROR);
+        }
+    }
+
+    /**
+     * 校验导入的镜像名
+     * @return 成功时data为镜像完整名
+     * @author jitwxs
+     * @since 2026/10/18 20:20
+     */
+    private ResultVO checkImportName(String imageName, String tag, String uid) {
+        if(StringUtils.isBlank(imageName)) {
+            return ResultVOUtils.error(ResultEnum.PARAM_ERROR);
+        }
         // 判断镜像名是否有大写字符
         for(int i=0; i<imageName.length(); i++) {
             if(Character.isUpperCase(imageName.charAt(i))){
                 return ResultVOUtils.error(ResultEnum.IMAGE_NAME_CONTAIN_UPPER);
             }
         }
-        // 判断文件后缀
-        if(!file.getOriginalFilename().endsWith(".tar.gz")) {
-            return ResultVOUtils.error(ResultEnum.IMAGE_UPLOAD_ERROR_BY_SUFFIX);
-        }
 
         // 拼接完整名：repo/userId/imageName:tag
         String fullName = "local/" + uid + "/" + imageName + ":" + tag;
@@ -248,14 +297,7 @@ public class ImageController {
         if(imageService.getByFullName(fullName) != null) {
             return ResultVOUtils.error(ResultEnum.IMPORT_ERROR_BY_NAME);
         }
-
-        try {
-            InputStream stream = file.getInputStream();
-            imageService.importImageTask(stream, fullName, uid, request);
-            return ResultVOUtils.success("开始导入镜像");
-        } catch (IOException e) {
-            return ResultVOUtils.error(ResultEnum.IMPORT_ERROR_BY_NAME);
-        }
+        return ResultVOUtils.success(fullName);
     }
 
     /**
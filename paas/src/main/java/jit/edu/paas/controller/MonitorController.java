@@ -1,7 +1,16 @@
 package jit.edu.paas.controller;
 
 import com.baomidou.mybatisplus.plugins.Page;
+import jit.edu.paas.commons.cache.TwoLevelCacheManager;
+import jit.edu.paas.commons.component.LastLoginBuffer;
+import jit.edu.paas.commons.component.RequestMemo;
+import jit.edu.paas.commons.docker.ContainerMonitorCollector;
+import jit.edu.paas.commons.docker.ContainerStateCache;
+import jit.edu.paas.commons.docker.ImagePullManager;
 import jit.edu.paas.commons.util.ResultVOUtils;
+import jit.edu.paas.commons.websocket.ExecGateway;
+import jit.edu.paas.commons.websocket.MonitorPushHub;
+import jit.edu.paas.commons.websocket.TerminalRecorder;
 import jit.edu.paas.domain.dto.SysLogDTO;
 import jit.edu.paas.domain.enums.ResultEnum;
 import jit.edu.paas.domain.select.SysLogSelect;
@@ -28,6 +37,24 @@ public class MonitorController {
     private UserContainerService containerService;
     @Autowired
     private MonitorService monitorService;
+    @Autowired
+    private LastLoginBuffer lastLoginBuffer;
+    @Autowired
+    private ContainerMonitorCollector monitorCollector;
+    @Autowired
+    private MonitorPushHub monitorPushHub;
+    @Autowired
+    private ExecGateway execGateway;
+    @Autowired
+    private TerminalRecorder terminalRecorder;
+    @Autowired
+    private ImagePullManager imagePullManager;
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+    @Autowired
+    private RequestMemo requestMemo;
+    @Autowired
+    private ContainerStateCache stateCache;
 
     @Value("${docker.server.address}")
     private String serverAddress;
@@ -116,6 +143,105 @@ public class MonitorController {
         return monitorService.getUserDockerInfo(userId);
     }
 
+    /**
+     * 读取最后登录信息写缓冲统计
+     * @author jitwxs
+     * @since 2026/10/18 14:20
+     */
+    @GetMapping("/last-login/metrics")
+    @PreAuthorize("hasRole('ROLE_SYSTEM')")
+    public ResultVO getLastLoginMetrics() {
+        return ResultVOUtils.success(lastLoginBuffer.getMetrics());
+    }
+
+    /**
+     * 读取监控采集统计，包括每轮耗时和延迟
+     * @author jitwxs
+     * @since 2026/10/18 15:20
+     */
+    @GetMapping("/collector/metrics")
+    @PreAuthorize("hasRole('ROLE_SYSTEM')")
+    public ResultVO getCollectorMetrics() {
+        return ResultVOUtils.success(monitorCollector.getMetrics());
+    }
+
+    /**
+     * 读取实时监控推送统计
+     * @author jitwxs
+     * @since 2026/10/18 18:00
+     */
+    @GetMapping("/push/metrics")
+    @PreAuthorize("hasRole('ROLE_SYSTEM')")
+    public ResultVO getPushMetrics() {
+        return ResultVOUtils.success(monitorPushHub.getMetrics());
+    }
+
+    /**
+     * 读取容器终端统计，包括待发送数据量和暂停读取的会话数
+     * @author jitwxs
+     * @since 2026/10/18 21:10
+     */
+    @GetMapping("/exec/metrics")
+    @PreAuthorize("hasRole('ROLE_SYSTEM')")
+    public ResultVO getExecMetrics() {
+        return ResultVOUtils.success(execGateway.getMetrics());
+    }
+
+    /**
+     * 读取容器终端录像统计，包括队列长度和丢弃的事件数
+     * @author jitwxs
+     * @since 2026/10/18 21:45
+     */
+    @GetMapping("/terminal-record/metrics")
+    @PreAuthorize("hasRole('ROLE_SYSTEM')")
+    public ResultVO getTerminalRecordMetrics() {
+        return ResultVOUtils.success(terminalRecorder.getMetrics());
+    }
+
+    /**
+     * 读取镜像拉取统计，包括进行中和被合并的拉取数
+     * @author jitwxs
+     * @since 2026/10/18 22:55
+     */
+    @GetMapping("/image-pull/metrics")
+    @PreAuthorize("hasRole('ROLE_SYSTEM')")
+    public ResultVO getImagePullMetrics() {
+        return ResultVOUtils.success(imagePullManager.getMetrics());
+    }
+
+    /**
+     * 读取二级缓存统计，包括各缓存的本地命中、Redis命中、加载耗时、合并的并发加载和不存在记录的命中
+     * @author jitwxs
+     * @since 2026/10/18 23:45
+     */
+    @GetMapping("/cache/metrics")
+    @PreAuthorize("hasRole('ROLE_SYSTEM')")
+    public ResultVO getCacheMetrics() {
+        return ResultVOUtils.success(cacheManager.getMetrics());
+    }
+
+    /**
+     * 读取请求级记忆统计，hit为被去重的查询次数
+     * @author jitwxs
+     * @since 2026/10/19 00:30
+     */
+    @GetMapping("/memo/metrics")
+    @PreAuthorize("hasRole('ROLE_SYSTEM')")
+    public ResultVO getMemoMetrics() {
+        return ResultVOUtils.success(requestMemo.getMetrics());
+    }
+
+    /**
+     * 读取容器状态缓存统计，包括命中、inspect次数和写回情况
+     * @author jitwxs
+     * @since 2026/10/19 00:50
+     */
+    @GetMapping("/container-state/metrics")
+    @PreAuthorize("hasRole('ROLE_SYSTEM')")
+    public ResultVO getContainerStateMetrics() {
+        return ResultVOUtils.success(stateCache.getMetrics());
+    }
+
     /**
      * 获取系统日志
      * @author jitwxs
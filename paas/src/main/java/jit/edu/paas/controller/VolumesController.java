@@ -3,7 +3,14 @@ package jit.edu.paas.controller;
 import com.baomidou.mybatisplus.plugins.Page;
 import jit.edu.paas.commons.activemq.MQProducer;
 import jit.edu.paas.commons.activemq.Task;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.BaseEncoding;
+import jit.edu.paas.commons.socket.ChunkManifest;
+import jit.edu.paas.commons.socket.ChunkUploadHandler;
+import jit.edu.paas.commons.socket.ChunkUploadSession;
 import jit.edu.paas.commons.socket.FileTransferClient;
+import jit.edu.paas.commons.socket.FileTransferServer;
 import jit.edu.paas.commons.util.HttpClientUtils;
 import jit.edu.paas.commons.util.JsonUtils;
 import jit.edu.paas.commons.util.ResultVOUtils;
@@ -14,7 +21,6 @@ import jit.edu.paas.domain.enums.VolumeTypeEnum;
 import jit.edu.paas.domain.enums.WebSocketTypeEnum;
 import jit.edu.paas.domain.vo.ResultVO;
 import jit.edu.paas.domain.vo.SysVolumeVO;
-import jit.edu.paas.exception.CustomException;
 import jit.edu.paas.service.SysVolumeService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.activemq.command.ActiveMQQueue;
@@ -25,14 +31,18 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.support.StandardMultipartHttpServletRequest;
 
+import javax.annotation.PostConstruct;
 import javax.jms.Destination;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.net.ConnectException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 数据卷Controller
+ * 浏览器分块上传：/upload/init提交各分块SHA-256获取上传ID和缺失分块，/upload/chunk逐块上传，/upload/complete合并；
+ * 中断后重新init同一文件即可得到仍缺失的分块，分块由Web节点校验后转发到文件服务端
  * @author jitwxs
  * @since 2018/7/4 17:05
  */
@@ -47,11 +57,28 @@ public class VolumesController {
 
     @Value("${file.socket.port}")
     private Integer socketPort;
+    @Value("${file.upload.chunk-size}")
+    private Integer chunkSize;
+    @Value("${file.upload.parallel}")
+    private Integer parallel;
     @Value("${docker.server.address}")
     private String dockerServerAddress;
     @Value("${docker.swarm.manager.address}")
     private String dockerSwarmAddress;
+    @Value("${file.upload.expire}")
+    private Long uploadExpire;
 
+    /**
+     * 上传ID --> 浏览器分块上传任务
+     */
+    private Cache<String, ChunkUploadSession> uploadSessions;
+
+    @PostConstruct
+    public void init() {
+        uploadSessions = CacheBuilder.newBuilder()
+                .expireAfterAccess(uploadExpire, TimeUnit.SECONDS)
+                .build();
+    }
 
     /**
      * 列出某一容器/服务所有数据卷
@@ -172,24 +199,207 @@ public class VolumesController {
         }
     }
 
-    private void uploadVolumeTask(MultipartFile file, SysVolume volume, FileTransferClient transferClient, String userId) {
-        int successCount = 0, errorCount = 0,times = 0;
+    /**
+     * 开始或恢复分块上传
+     * @param id 数据卷ID
+     * @param fileName 文件名
+     * @param length 文件大小（单位：字节）
+     * @param digests 按file.upload.chunk-size分块后各分块的SHA-256（十六进制）
+     * @return 上传ID、分块大小和缺失的分块序号
+     * @author jitwxs
+     * @since 2026/10/19 11:20
+     */
+    @PostMapping("/upload/init")
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_SYSTEM')")
+    public ResultVO initUpload(@RequestAttribute String uid, String id, String fileName, Long length,
+                               @RequestParam(required = false) List<String> digests) {
+        // 1、校验参数
+        if (StringUtils.isBlank(id) || StringUtils.isBlank(fileName) || length == null || digests == null
+                || !ChunkManifest.isAcceptable(length, chunkSize)
+                || digests.size() != ChunkManifest.chunkCount(length, chunkSize)) {
+            return ResultVOUtils.error(ResultEnum.PARAM_ERROR);
+        }
+        byte[][] digestBytes = new byte[digests.size()][];
         try {
-            int i = transferClient.sendFile(volume.getSource(), file);
-            if(i == -1) {
-                throw new CustomException(ResultEnum.UPLOAD_ERROR);
+            for (int i = 0; i < digestBytes.length; i++) {
+                digestBytes[i] = BaseEncoding.base16().lowerCase().decode(digests.get(i).toLowerCase());
+                if (digestBytes[i].length != ChunkManifest.DIGEST_LENGTH) {
+                    return ResultVOUtils.error(ResultEnum.PARAM_ERROR);
+                }
             }
-            transferClient.closeClient();
+        } catch (IllegalArgumentException e) {
+            return ResultVOUtils.error(ResultEnum.PARAM_ERROR);
+        }
+
+        // 2、鉴权
+        SysVolume volume = sysVolumeService.getById(id);
+        ResultVO resultVO = sysVolumeService.checkPermission(uid, volume);
+        if (ResultEnum.OK.getCode() != resultVO.getCode()) {
+            return resultVO;
+        }
+        String serverAddress = getServerAddress(volume);
+        if (serverAddress == null) {
+            return ResultVOUtils.error(ResultEnum.OTHER_ERROR.getCode(), "数据卷类型错误");
+        }
+
+        // 3、查询文件服务端缺失的分块
+        ChunkUploadSession session = new ChunkUploadSession(UUID.randomUUID().toString(), uid, id, serverAddress,
+                volume.getSource(), fileName, length, chunkSize, digestBytes);
+        resultVO = missingChunks(session);
+        if (ResultEnum.OK.getCode() == resultVO.getCode()) {
+            uploadSessions.put(session.getUploadId(), session);
+        }
+        return resultVO;
+    }
+
+    /**
+     * 查询分块上传缺失的分块
+     * @author jitwxs
+     * @since 2026/10/19 11:22
+     */
+    @GetMapping("/upload/{uploadId}")
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_SYSTEM')")
+    public ResultVO getUpload(@RequestAttribute String uid, @PathVariable String uploadId) {
+        ChunkUploadSession session = uploadSessions.getIfPresent(uploadId);
+        if (session == null || !session.getUserId().equals(uid)) {
+            return ResultVOUtils.error(ResultEnum.VOLUME_UPLOAD_NOT_EXIST);
+        }
+        return missingChunks(session);
+    }
+
+    /**
+     * 上传一个分块，请求体为分块数据
+     * @param index 分块序号
+     * @author jitwxs
+     * @since 2026/10/19 11:24
+     */
+    @PutMapping("/upload/{uploadId}/chunk/{index}")
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_SYSTEM')")
+    public ResultVO uploadChunk(@RequestAttribute String uid, @PathVariable String uploadId, @PathVariable Integer index,
+                                @RequestBody byte[] data) {
+        ChunkUploadSession session = uploadSessions.getIfPresent(uploadId);
+        if (session == null || !session.getUserId().equals(uid)) {
+            return ResultVOUtils.error(ResultEnum.VOLUME_UPLOAD_NOT_EXIST);
+        }
+        if (index < 0 || index >= session.getDigests().length || data.length != session.chunkLength(index)) {
+            return ResultVOUtils.error(ResultEnum.PARAM_ERROR);
+        }
+        // 先在Web节点校验，避免将损坏的分块转发到文件服务端
+        byte[] digest = session.getDigests()[index];
+        if (!Arrays.equals(digest, ChunkUploadHandler.sha256(data, data.length))) {
+            return ResultVOUtils.error(ResultEnum.VOLUME_CHUNK_CHECKSUM_ERROR);
+        }
+
+        FileTransferClient transferClient = null;
+        try {
+            transferClient = new FileTransferClient(session.getServerAddress(), socketPort);
+            if (!transferClient.sendChunk(uploadId, index, data, digest)) {
+                return ResultVOUtils.error(ResultEnum.VOLUME_CHUNK_CHECKSUM_ERROR);
+            }
+            return ResultVOUtils.success();
+        } catch (IOException e) {
+            // 文件服务端已清理该上传时同样失败，需重新init
+            log.error("上传分块出现错误，错误位置：{}，错误栈：{}",
+                    "VolumesController.uploadChunk()", HttpClientUtils.getStackTraceAsString(e));
+            return ResultVOUtils.error(ResultEnum.VOLUME_UPLOAD_ERROR);
+        } finally {
+            closeQuietly(transferClient);
+        }
+    }
+
+    /**
+     * 完成分块上传，所有分块均已上传时合并为目标文件
+     * @author jitwxs
+     * @since 2026/10/19 11:26
+     */
+    @PostMapping("/upload/{uploadId}/complete")
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_SYSTEM')")
+    public ResultVO completeUpload(@RequestAttribute String uid, @PathVariable String uploadId) {
+        ChunkUploadSession session = uploadSessions.getIfPresent(uploadId);
+        if (session == null || !session.getUserId().equals(uid)) {
+            return ResultVOUtils.error(ResultEnum.VOLUME_UPLOAD_NOT_EXIST);
+        }
+
+        FileTransferClient transferClient = null;
+        try {
+            transferClient = new FileTransferClient(session.getServerAddress(), socketPort);
+            transferClient.complete(uploadId);
+        } catch (IOException e) {
+            log.error("合并分块出现错误，错误位置：{}，错误栈：{}",
+                    "VolumesController.completeUpload()", HttpClientUtils.getStackTraceAsString(e));
+            return ResultVOUtils.error(ResultEnum.VOLUME_UPLOAD_ERROR);
+        } finally {
+            closeQuietly(transferClient);
+        }
+        uploadSessions.invalidate(uploadId);
+
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("size", session.getLength());
+        return ResultVOUtils.success("文件上传成功", map);
+    }
+
+    private ResultVO missingChunks(ChunkUploadSession session) {
+        FileTransferClient transferClient = null;
+        try {
+            transferClient = new FileTransferClient(session.getServerAddress(), socketPort);
+            List<Integer> missing = transferClient.status(session.getUploadId(), session.getSrcPath(),
+                    session.getFileName(), session.getLength(), session.getChunkSize(), session.getDigests());
+
+            Map<String, Object> map = new HashMap<>(16);
+            map.put("uploadId", session.getUploadId());
+            map.put("chunkSize", session.getChunkSize());
+            map.put("missing", missing);
+            return ResultVOUtils.success(map);
+        } catch (ConnectException connectException) {
+            log.error("Socket连接建立失败，错误位置：{}", "VolumesController.missingChunks()");
+            return ResultVOUtils.error(ResultEnum.CONNECTION_REFUSED);
+        } catch (IOException e) {
+            log.error("查询缺失分块出现错误，错误位置：{}，错误栈：{}",
+                    "VolumesController.missingChunks()", HttpClientUtils.getStackTraceAsString(e));
+            return ResultVOUtils.error(ResultEnum.VOLUME_UPLOAD_ERROR);
+        } finally {
+            closeQuietly(transferClient);
+        }
+    }
+
+    private String getServerAddress(SysVolume volume) {
+        if (volume.getType() == VolumeTypeEnum.CONTAINER.getCode()) {
+            return dockerServerAddress;
+        } else if (volume.getType() == VolumeTypeEnum.SERVICE.getCode()) {
+            return dockerSwarmAddress;
+        }
+        return null;
+    }
+
+    private void closeQuietly(FileTransferClient transferClient) {
+        if (transferClient != null) {
+            try {
+                transferClient.closeClient();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void uploadVolumeTask(MultipartFile file, SysVolume volume, FileTransferClient transferClient, String userId) {
+        long times;
+        try {
+            times = transferClient.sendFileChunked(volume.getSource(), file, chunkSize, parallel);
         } catch (Exception e) {
             log.error("上传数据卷出现错误，错误位置：{}，错误栈：{}",
                     "VolumesController.uploadToVolumes()", HttpClientUtils.getStackTraceAsString(e));
             sendMQ(userId, volume.getId(), ResultVOUtils.error(ResultEnum.VOLUME_UPLOAD_ERROR));
+            return;
+        } finally {
+            try {
+                transferClient.closeClient();
+            } catch (IOException ignored) {
+            }
         }
 
-        Map<String, Integer> map = new HashMap<>(16);
-        map.put("success", successCount);
-        map.put("error", errorCount);
+        Map<String, Long> map = new HashMap<>(16);
+        map.put("size", file.getSize());
         map.put("times", times);
+        map.put("speed", FileTransferServer.speed(file.getSize(), times));
         sendMQ(userId, volume.getId(), ResultVOUtils.success("文件上传成功", map));
     }
 
@@ -205,6 +415,9 @@ public class VolumesController {
         Map<String, Object> data = new HashMap<>(16);
         data.put("type", WebSocketTypeEnum.VOLUME.getCode());
         data.put("volumeId", volumeId);
+        if(resultVO.getData() != null) {
+            data.put("result", resultVO.getData());
+        }
         resultVO.setData(data);
 
         Map<String,String> map = new HashMap<>(16);
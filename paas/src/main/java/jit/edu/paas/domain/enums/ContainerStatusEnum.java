@@ -30,4 +30,42 @@ public enum ContainerStatusEnum {
         }
         return null;
     }
+
+    /**
+     * 根据状态码获取状态
+     * @return 不存在返回null
+     * @author jitwxs
+     * @since 2026/10/19 16:30
+     */
+    public static ContainerStatusEnum getByCode(int code) {
+        for (ContainerStatusEnum enums : ContainerStatusEnum.values()) {
+            if (enums.getCode() == code) {
+                return enums;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据Docker容器State获取状态
+     * @param state Docker返回的状态，如：running、paused、exited
+     * @author jitwxs
+     * @since 2026/10/18 10:12
+     */
+    public static ContainerStatusEnum getByDockerState(String state) {
+        if(state == null) {
+            return STOP;
+        }
+        switch (state) {
+            case "running":
+            case "restarting":
+                return RUNNING;
+            case "paused":
+                return PAUSE;
+            case "removing":
+                return REMOVE;
+            default:
+                return STOP;
+        }
+    }
 }
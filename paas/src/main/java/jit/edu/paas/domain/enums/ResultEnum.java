@@ -59,6 +59,7 @@ public enum ResultEnum {
     IMAGE_UPLOAD_ERROR_BY_SUFFIX("镜像文件后缀名错误，只能为tar.gz文件",55),
     IMAGE_NAME_AND_TAG_EXIST("镜像名和tag已存在",56),
     IMAGE_COMMIT_ERROR("打包镜像错误",57),
+    TERMINAL_RECORD_NOT_FOUND("终端录像不存在",58),
     CREATE_CONTAINER_ERROR("容器创建错误",59),
     INPUT_PORT_ERROR("输入端口错误，请检查端口是否合法、是否可用，暴露端口是否均设置",60),
     CONTAINER_NOT_FOUND("容器不存在",61),
@@ -76,6 +77,8 @@ public enum ResultEnum {
     VOLUME_NOT_SUPPORT_VIEW("该数据卷不支持查看",73),
     VOLUME_INFO_ERROR("数据卷信息错误",74),
     VOLUME_OBJ_NOT_EXIST("数据卷目标对象不存在",75),
+    VOLUME_UPLOAD_NOT_EXIST("上传任务不存在或已过期",76),
+    VOLUME_CHUNK_CHECKSUM_ERROR("分块校验失败",77),
     NETWORK_NAME_EXIST("网络名已存在",80),
     NETWORK_NAME_ILLEGAL("网络名不合法，只能为字母或数字",81),
     NETWORK_HOST_EXIST("Host网络已存在，只允许存在一个",82),
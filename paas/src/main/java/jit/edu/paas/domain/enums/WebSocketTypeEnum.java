@@ -14,7 +14,8 @@ public enum WebSocketTypeEnum {
     HUB_IMAGE("Hub镜像操作", 2),
     SERVICE("服务操作", 3),
     NOTICE("通知操作", 4),
-    VOLUME("数据卷操作", 5);
+    VOLUME("数据卷操作", 5),
+    MONITOR("监控数据", 6);
 
     private String message;
     private int code;
@@ -0,0 +1,39 @@
+package jit.edu.paas.domain.vo;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 容器监控聚合VO
+ * 父类字段为周期内平均值，timestamp为周期起始时间
+ * @author jitwxs
+ * @since 2026/10/18 15:40
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ContainerMonitorRollupVO extends ContainerMonitorVO {
+    /**
+     * 聚合周期（单位：ms）
+     */
+    private long period;
+
+    /**
+     * 周期内采样数
+     */
+    private int count;
+
+    /**
+     * 周期内最小值
+     */
+    private ContainerMonitorVO min;
+
+    /**
+     * 周期内最大值
+     */
+    private ContainerMonitorVO max;
+
+    /**
+     * 周期内最后一次采样
+     */
+    private ContainerMonitorVO last;
+}
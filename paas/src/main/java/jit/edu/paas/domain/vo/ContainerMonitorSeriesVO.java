@@ -0,0 +1,29 @@
+package jit.edu.paas.domain.vo;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 容器监控时间序列VO，按列返回
+ * @author jitwxs
+ * @since 2026/10/18 16:30
+ */
+@Data
+public class ContainerMonitorSeriesVO {
+    /**
+     * 数据粒度（单位：ms），实时数据为0
+     */
+    private long period;
+
+    /**
+     * 时间戳，升序
+     */
+    private long[] timestamp;
+
+    /**
+     * 指标名 --> 与timestamp一一对应的值
+     * 聚合数据中，无后缀的指标为平均值，后缀Min、Max、Last分别为最小值、最大值、最后值，count为采样数
+     */
+    private Map<String, double[]> metrics;
+}
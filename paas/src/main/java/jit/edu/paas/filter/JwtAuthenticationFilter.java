@@ -1,9 +1,8 @@
 package jit.edu.paas.filter;
 
+import jit.edu.paas.commons.component.LastLoginBuffer;
 import jit.edu.paas.commons.util.HttpClientUtils;
-import jit.edu.paas.commons.util.JsonUtils;
 import jit.edu.paas.commons.util.SpringBeanFactoryUtils;
-import jit.edu.paas.commons.util.jedis.JedisClient;
 import jit.edu.paas.domain.enums.ResultEnum;
 import jit.edu.paas.domain.enums.RoleEnum;
 import jit.edu.paas.domain.vo.ResultVO;
@@ -27,7 +26,6 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -77,7 +75,6 @@ public class JwtAuthenticationFilter extends BasicAuthenticationFilter {
         if (token == null) {
             return null;
         }
-        JedisClient jedisClient = SpringBeanFactoryUtils.getBean(JedisClient.class);
         JwtService jwtService = SpringBeanFactoryUtils.getBean(JwtService.class);
         // 校验token
         ResultVO resultVO = jwtService.checkToken(token);
@@ -93,18 +90,9 @@ public class JwtAuthenticationFilter extends BasicAuthenticationFilter {
             // 将用户id放入request中
             request.setAttribute("uid", uid);
 
-            // 保存最后登录时间和IP
-            try {
-                String ip = HttpClientUtils.getRemoteAddr(request);
-                String timestamp = System.currentTimeMillis() + "";
-                Map<String, String> data = new HashMap<>(16);
-                data.put("ip", ip);
-                data.put("timestamp", timestamp);
-                jedisClient.hset("last_login", uid, JsonUtils.mapToJson(data));
-            } catch (Exception e) {
-                log.error("缓存存储异常，错误位置：{}", "JwtAuthenticationFilter.UsernamePasswordAuthenticationToken()");
-                e.printStackTrace();
-            }
+            // 保存最后登录时间和IP，由LastLoginBuffer定时批量写入Redis
+            LastLoginBuffer lastLoginBuffer = SpringBeanFactoryUtils.getBean(LastLoginBuffer.class);
+            lastLoginBuffer.record(uid, HttpClientUtils.getRemoteAddr(request));
 
             // 设置角色
             authorities.add(new SimpleGrantedAuthority(RoleEnum.getMessage(rid)));
@@ -0,0 +1,38 @@
+package jit.edu.paas.filter;
+
+import jit.edu.paas.commons.component.RequestMemo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 请求级记忆过滤器
+ * 在所有过滤器之前为每个请求打开记忆作用域，请求结束时清空
+ * @author jitwxs
+ * @since 2026/10/19 00:25
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMemoFilter extends OncePerRequestFilter {
+    @Autowired
+    private RequestMemo requestMemo;
+
+    /**
+     * scope只用于在请求结束时关闭作用域，块内不引用
+     */
+    @SuppressWarnings("try")
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try (RequestMemo.Scope scope = requestMemo.open()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
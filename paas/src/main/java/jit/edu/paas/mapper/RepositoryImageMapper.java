@@ -4,6 +4,7 @@ package jit.edu.paas.mapper;
 import com.baomidou.mybatisplus.mapper.BaseMapper;
 import jit.edu.paas.domain.entity.RepositoryImage;
 import jit.edu.paas.domain.vo.HubImageVO;
+import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
 
@@ -22,4 +23,18 @@ public interface RepositoryImageMapper extends BaseMapper<RepositoryImage> {
      * @since 2018/7/5 21:08
      */
     List<HubImageVO> listHubImageVO();
+
+    /**
+     * 获取所有仓储镜像的ID、完整名和名称
+     * @author jitwxs
+     * @since 2026/10/18 23:15
+     */
+    List<RepositoryImage> listIdAndFullName();
+
+    /**
+     * 批量插入仓储镜像，ID需预先生成
+     * @author jitwxs
+     * @since 2026/10/18 23:15
+     */
+    int batchInsert(@Param("list") List<RepositoryImage> list);
 }
@@ -38,4 +38,18 @@ public interface SysImageMapper extends BaseMapper<SysImage> {
      * @since 2018/7/12 14:35
      */
     List<SysImage> listSelfImage(@Param("userId") String userId, Pagination page);
+
+    /**
+     * 获取所有镜像的ID和完整名
+     * @author jitwxs
+     * @since 2026/10/18 22:00
+     */
+    List<SysImage> listIdAndFullName();
+
+    /**
+     * 批量插入镜像，ID需预先生成
+     * @author jitwxs
+     * @since 2026/10/18 22:00
+     */
+    Integer batchInsert(@Param("list") List<SysImage> list);
 }
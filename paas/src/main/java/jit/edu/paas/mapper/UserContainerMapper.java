@@ -45,4 +45,29 @@ public interface UserContainerMapper extends BaseMapper<UserContainer> {
      * @since 2018/7/12 14:47
      */
     Integer cleanProjectId(String projectId);
+
+    /**
+     * 更新容器状态，仅当状态发生变化时更新
+     * @return 影响行数
+     * @author jitwxs
+     * @since 2026/10/18 10:20
+     */
+    Integer updateStatus(@Param("id") String id, @Param("status") Integer status);
+
+    /**
+     * 获取容器ID和状态，用于状态对账
+     * @param userId 用户ID，为空时获取所有
+     * @author jitwxs
+     * @since 2026/10/18 11:05
+     */
+    List<UserContainer> listIdAndStatus(@Param("userId") String userId);
+
+    /**
+     * 批量更新容器状态
+     * @param list 容器列表，仅需id和status
+     * @return 影响行数
+     * @author jitwxs
+     * @since 2026/10/18 11:05
+     */
+    Integer batchUpdateStatus(@Param("list") List<UserContainer> list);
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import jit.edu.paas.domain.entity.UserProject;
 import jit.edu.paas.domain.select.UserProjectSelect;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -24,6 +25,14 @@ public interface UserProjectMapper extends BaseMapper<UserProject> {
      * @since 2018/7/11 18:22
      */
     UserProjectDTO getById(String id);
+
+    /**
+     * 根据ID批量查找
+     * @author jitwxs
+     * @since 2026/10/18 23:58
+     */
+    List<UserProjectDTO> listByIds(@Param("ids") Collection<String> ids);
+
     /**
      * 查询列表
      * @author jitwxs
@@ -3,6 +3,8 @@ package jit.edu.paas.service;
 import jit.edu.paas.domain.vo.ContainerMonitorVO;
 import jit.edu.paas.domain.vo.ResultVO;
 
+import java.util.Map;
+
 /**
  * 监控Service
  * @author jitwxs
@@ -24,6 +26,14 @@ public interface MonitorService {
      */
     boolean setMonitorInfo(String containerId, Integer type);
 
+    /**
+     * 批量设置监控信息，所有写入按Redis节点合并为pipeline
+     * @param typeInfoMap 类型 --> (容器ID --> 监控信息)，类型同setMonitorInfo
+     * @author jitwxs
+     * @since 2026/10/18 15:00
+     */
+    void batchSetMonitorInfo(Map<Integer, Map<String, ContainerMonitorVO>> typeInfoMap);
+
     /**
      * 获取容器实时监控信息
      * @author jitwxs
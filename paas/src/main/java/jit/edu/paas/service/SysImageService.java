@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.plugins.Page;
 import com.baomidou.mybatisplus.service.IService;
 import jit.edu.paas.domain.dto.SysImageDTO;
 import jit.edu.paas.domain.entity.SysImage;
+import jit.edu.paas.domain.entity.SysLog;
 import jit.edu.paas.domain.vo.ResultVO;
 
 import javax.servlet.http.HttpServletRequest;
@@ -63,6 +64,23 @@ public interface SysImageService extends IService<SysImage> {
      */
     ResultVO sync();
 
+    /**
+     * 对账本地镜像，本地镜像列表未变化时跳过
+     * @author jitwxs
+     * @since 2026/10/18 22:20
+     */
+    ResultVO reconcile();
+
+    /**
+     * 根据Docker镜像事件增量同步
+     * @param action 事件类型：pull、tag、untag、delete、import、load
+     * @param actorId 事件主体，镜像ID或镜像名
+     * @param name 事件属性中的镜像名，可能为空
+     * @author jitwxs
+     * @since 2026/10/18 22:25
+     */
+    void syncImageEvent(String action, String actorId, String name);
+
     /**
      * 删除镜像
      * @author hf
@@ -74,6 +92,7 @@ public interface SysImageService extends IService<SysImage> {
     ResultVO pullImageCheck(String name, String userId);
     /**
      * 从DockerHub上拉取镜像任务
+     * 由ImagePullManager在拉取线程池中执行，同一镜像的并发请求合并为一次拉取，拉取进度通过WebSocket推送
      * @author jitwxs
      * @since 2018/7/13 16:26
      */
@@ -119,10 +138,23 @@ public interface SysImageService extends IService<SysImage> {
      * 导入镜像
      * @param stream 文件流对象
      * @param fullName 镜像完整名
+     * @param sysLog 请求线程中由SysLogService.buildLog()创建的日志，导入结束后保存
      * @author jitwxs
      * @since 2018/7/13 17:22
      */
-    void importImageTask(InputStream stream, String fullName, String uid, HttpServletRequest request);
+    void importImageTask(InputStream stream, String fullName, String uid, SysLog sysLog);
+
+    /**
+     * 流式导入镜像
+     * 在当前线程读取文件流，经有界管道交给导入线程，不在本地缓存完整文件；上传进度和导入结果通过WebSocket推送
+     * 导入线程由独立的importExecutor提供，没有空闲线程时直接返回错误，不排队等待
+     * @param stream 文件流对象，方法返回时已读取完毕
+     * @param length 文件大小，未知时为-1
+     * @param fullName 镜像完整名
+     * @author jitwxs
+     * @since 2026/10/18 20:10
+     */
+    ResultVO importImageStream(InputStream stream, long length, String fullName, String uid, HttpServletRequest request);
 
     /**
      * 清理缓存
@@ -22,6 +22,22 @@ public interface SysLogService extends IService<SysLog> {
 
     void saveLog(HttpServletRequest request, SysLogTypeEnum enums, Exception ex);
 
+    /**
+     * 从请求中读取日志字段，不保存
+     * 用于请求结束后才能保存日志的异步任务，需在请求线程中调用
+     * @author jitwxs
+     * @since 2026/10/19 16:00
+     */
+    SysLog buildLog(HttpServletRequest request, SysLogTypeEnum enums);
+
+    /**
+     * 保存由buildLog()创建的日志
+     * @param ex 异常，为null时表示成功
+     * @author jitwxs
+     * @since 2026/10/19 16:00
+     */
+    void saveLog(SysLog sysLog, Exception ex);
+
     /**
      * 获取系统日志列表
      * @author jitwxs
@@ -156,6 +156,14 @@ public interface UserContainerService extends IService<UserContainer> {
      */
     ResultVO changeStatus(String containerId);
 
+    /**
+     * 更新容器状态
+     * 用于Docker事件和状态同步，不再重复查询Docker；状态异步写回数据库，状态为REMOVE时同步删除记录
+     * @author jitwxs
+     * @since 2026/10/18 10:25
+     */
+    void updateStatus(String containerId, ContainerStatusEnum statusEnum);
+
     /**
      * 修改容器所属项目
      * @author jitwxs
@@ -8,6 +8,9 @@ import jit.edu.paas.domain.select.UserProjectSelect;
 import jit.edu.paas.domain.vo.ProjectLogVO;
 import jit.edu.paas.domain.vo.ResultVO;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * <p>
  *  服务类
@@ -31,6 +34,14 @@ public interface UserProjectService extends IService<UserProject> {
      */
     String getUserId(String projectId);
 
+    /**
+     * 根据ID批量获取项目
+     * @return 项目ID --> 项目，不存在的项目不在结果中
+     * @author jitwxs
+     * @since 2026/10/18 23:58
+     */
+    Map<String, UserProjectDTO> getByIds(Collection<String> ids);
+
     /**
      * 根据ID获取项目信息
      * @param userId 用户ID
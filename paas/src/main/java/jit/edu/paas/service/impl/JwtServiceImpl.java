@@ -3,6 +3,8 @@ package jit.edu.paas.service.impl;
 import jit.edu.paas.commons.util.HttpClientUtils;
 import jit.edu.paas.commons.util.JwtUtils;
 import jit.edu.paas.commons.util.ResultVOUtils;
+import jit.edu.paas.commons.util.StringUtils;
+import jit.edu.paas.commons.util.jedis.JedisBroadcaster;
 import jit.edu.paas.commons.util.jedis.JedisClient;
 import jit.edu.paas.domain.entity.SysLogin;
 import jit.edu.paas.domain.enums.ResultEnum;
@@ -16,13 +18,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JWT 服务
+ * Token在Redis中存两份：
+ * （1）redis.token.key：用户名 --> token，供管理员查看和删除
+ * （2）redis.token-uid.key：用户ID --> token，供校验时O(1)查找
+ * 校验通过的token在本地缓存token.cache.ttl秒，token变更时通过Redis广播失效所有节点的本地缓存
+ * 签名有效但已失效的token同样在本地缓存token.cache.ttl秒，重放失效token不会每次访问Redis和数据库
  * @author jitwxs
  * @since 2018/6/27 16:36
  */
@@ -33,9 +41,21 @@ public class JwtServiceImpl implements JwtService {
     private SysLoginService loginService;
     @Autowired
     private JedisClient jedisClient;
+    @Autowired
+    private JedisBroadcaster broadcaster;
 
     @Value("${redis.token.key}")
     private String key;
+    @Value("${redis.token-uid.key}")
+    private String uidKey;
+    @Value("${redis.token-revoke.channel}")
+    private String revokeChannel;
+
+    /**
+     * 本地缓存有效时间（单位：秒）
+     */
+    @Value("${token.cache.ttl}")
+    private Integer cacheTtl;
 
     /**
      * JWT有效时间（单位：小时）
@@ -43,6 +63,26 @@ public class JwtServiceImpl implements JwtService {
     @Value("${token.expire}")
     private Integer expireHour;
 
+    /**
+     * 本地缓存，用户ID --> 校验通过的token
+     */
+    private final Map<String, CachedToken> tokenCache = new ConcurrentHashMap<>(16);
+
+    /**
+     * 本地缓存，被拒绝的token --> 缓存过期时间；token不会重新生效，无需随广播失效
+     */
+    private final Map<String, Long> rejectedCache = new ConcurrentHashMap<>(16);
+
+    /**
+     * 被拒绝token的本地缓存超过该数量时清理已过期的记录
+     */
+    private static final int REJECTED_CLEAN_SIZE = 10000;
+
+    @PostConstruct
+    public void init() {
+        broadcaster.addListener(revokeChannel, tokenCache::remove);
+    }
+
     /**
      * 生成token
      * 确保一个用户只有一个token有效，强依赖Redis
@@ -63,8 +103,9 @@ public class JwtServiceImpl implements JwtService {
 
         // 2、清理该用户其他token，确保只有一个token有效
         try {
-            jedisClient.hdel(key, username);
             jedisClient.hset(key, username, token);
+            jedisClient.hset(uidKey, login.getId(), token);
+            revoke(login.getId());
 
             return token;
         } catch (Exception e) {
@@ -75,24 +116,87 @@ public class JwtServiceImpl implements JwtService {
 
     @Override
     public ResultVO checkToken(String token) {
-        try {
-            // 1、判断Token是否存在于Redis
-            List<String> tokens = jedisClient.hvals(key);
-            if(!tokens.contains(token)) {
+        // 1、校验签名和有效期，伪造或过期的Token无需访问Redis
+        Map map = JwtUtils.unSign(token);
+        if(map == null) {
+            return ResultVOUtils.error(ResultEnum.TOKEN_EXPIRE);
+        }
+        String uid = (String) map.get("uid");
+        if(StringUtils.isBlank(uid)) {
+            return ResultVOUtils.error(ResultEnum.TOKEN_NOT_ACCEPT);
+        }
+
+        // 2、命中本地缓存
+        CachedToken cached = tokenCache.get(uid);
+        if(cached != null && cached.expireTime > System.currentTimeMillis() && cached.token.equals(token)) {
+            return ResultVOUtils.success(map);
+        }
+        Long rejectedExpire = rejectedCache.get(token);
+        if(rejectedExpire != null) {
+            if(rejectedExpire > System.currentTimeMillis()) {
                 return ResultVOUtils.error(ResultEnum.TOKEN_NOT_ACCEPT);
             }
+            rejectedCache.remove(token);
+        }
 
-            // 2、判断Token是否过期
-            Map map = JwtUtils.unSign(token);
-            if(map == null) {
-                return ResultVOUtils.error(ResultEnum.TOKEN_EXPIRE);
+        // 3、判断Token是否为该用户当前有效的Token
+        try {
+            String current = jedisClient.hget(uidKey, uid);
+            if(current == null) {
+                current = loadLegacyToken(uid);
+            }
+            if(!token.equals(current)) {
+                tokenCache.remove(uid);
+                reject(token);
+                return ResultVOUtils.error(ResultEnum.TOKEN_NOT_ACCEPT);
             }
-
-            return ResultVOUtils.success(map);
         } catch (Exception e) {
             log.error("token缓存出现错误，错误位置：{}，错误栈：{}", "JwtServiceImpl.checkToken()", HttpClientUtils.getStackTraceAsString(e));
             return ResultVOUtils.error(ResultEnum.TOKEN_READ_ERROR);
         }
+
+        tokenCache.put(uid, new CachedToken(token, System.currentTimeMillis() + cacheTtl * 1000L));
+        return ResultVOUtils.success(map);
+    }
+
+    /**
+     * 缓存被拒绝的token
+     * @author jitwxs
+     * @since 2026/10/19 09:10
+     */
+    private void reject(String token) {
+        long now = System.currentTimeMillis();
+        if(rejectedCache.size() >= REJECTED_CLEAN_SIZE) {
+            rejectedCache.values().removeIf(expire -> expire <= now);
+        }
+        rejectedCache.put(token, now + cacheTtl * 1000L);
+    }
+
+    /**
+     * 兼容只存在于用户名索引中的Token，读取后回填用户ID索引
+     * @author jitwxs
+     * @since 2026/10/18 13:40
+     */
+    private String loadLegacyToken(String uid) {
+        SysLogin login = loginService.selectById(uid);
+        if(login == null) {
+            return null;
+        }
+        String token = jedisClient.hget(key, login.getUsername());
+        if(token != null) {
+            jedisClient.hset(uidKey, uid, token);
+        }
+        return token;
+    }
+
+    /**
+     * 失效所有节点中该用户的本地缓存
+     * @author jitwxs
+     * @since 2026/10/18 13:42
+     */
+    private void revoke(String uid) {
+        tokenCache.remove(uid);
+        broadcaster.publish(revokeChannel, uid);
     }
 
     @Override
@@ -150,10 +254,26 @@ public class JwtServiceImpl implements JwtService {
         try {
             jedisClient.hdel(key, username);
 
+            SysLogin login = loginService.getByUsername(username);
+            if(login != null) {
+                jedisClient.hdel(uidKey, login.getId());
+                revoke(login.getId());
+            }
+
             return ResultVOUtils.success();
         } catch (Exception e) {
             log.error("token缓存出现错误，错误位置：{}，错误栈：{}", "JwtServiceImpl.deleteToken()", HttpClientUtils.getStackTraceAsString(e));
             return ResultVOUtils.error(ResultEnum.TOKEN_READ_ERROR);
         }
     }
+
+    private static class CachedToken {
+        private final String token;
+        private final long expireTime;
+
+        private CachedToken(String token, long expireTime) {
+            this.token = token;
+            this.expireTime = expireTime;
+        }
+    }
 }
@@ -1,13 +1,15 @@
 package jit.edu.paas.service.impl;
 
 import com.baomidou.mybatisplus.mapper.EntityWrapper;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.messages.ContainerStats;
 import com.spotify.docker.client.messages.Info;
-import com.spotify.docker.client.messages.NetworkStats;
 import com.spotify.docker.client.messages.swarm.Node;
+import jit.edu.paas.commons.component.LastLoginBuffer;
+import jit.edu.paas.commons.convert.ContainerMonitorVOConvert;
+import jit.edu.paas.commons.docker.ContainerStatsStreamer;
+import jit.edu.paas.commons.docker.MonitorBlock;
+import jit.edu.paas.commons.docker.MonitorCodec;
 import jit.edu.paas.commons.util.*;
 import jit.edu.paas.commons.util.jedis.JedisClient;
 import jit.edu.paas.domain.entity.RepositoryImage;
@@ -58,6 +60,12 @@ public class MonitorServiceImpl implements MonitorService {
     private DockerClient dockerSwarmClient;
     @Autowired
     private JedisClient jedisClient;
+    @Autowired
+    private LastLoginBuffer lastLoginBuffer;
+    @Autowired
+    private ContainerStatsStreamer statsStreamer;
+    @Autowired
+    private ContainerMonitorVOConvert monitorVOConvert;
 
     @Value("${redis.monitor-actual.prefix}")
     private String ACTUAL_PREFIX;
@@ -65,14 +73,29 @@ public class MonitorServiceImpl implements MonitorService {
     private String DAY_PREFIX;
     @Value("${redis.monitor-week.prefix}")
     private String WEEK_PREFIX;
+    @Value("${redis.last-login.key}")
+    private String lastLoginKey;
 
     /**
      * 如果某个容器多次无法获取信息，就有可能状态发生改变，需要检测状态
      */
     private Map<String, Integer> map = new ConcurrentHashMap<>();
 
+    /**
+     * Redis key --> 当前正在写入的数据块
+     */
+    private final Map<String, MonitorBlock> openBlocks = new ConcurrentHashMap<>();
+
+    /**
+     * 优先读取数据流中的最新数据，没有时才向Docker单独请求
+     */
     @Override
     public ContainerMonitorVO getCurrentInfo(String containerId) {
+        ContainerMonitorVO latest = statsStreamer.getLatest(containerId);
+        if(latest != null) {
+            return latest;
+        }
+
         ContainerStats stats;
         try {
             stats = dockerClient.stats(containerId);
@@ -96,83 +119,7 @@ public class MonitorServiceImpl implements MonitorService {
             return null;
         }
 
-        ContainerMonitorVO monitorVo = new ContainerMonitorVO();
-
-        monitorVo.setTimestamp(stats.read().getTime());
-
-        // 1、设置网络相关
-        double rxBytes = 0, txBytes = 0;
-        int rxPackets = 0, txPackets = 0;
-        try {
-            ImmutableMap<String, NetworkStats> networks = stats.networks();
-            if(networks != null) {
-                for (Map.Entry<String, NetworkStats> entry : networks.entrySet()) {
-                    NetworkStats networkStats = entry.getValue();
-                    rxBytes += networkStats.rxBytes();
-                    txBytes += networkStats.txBytes();
-                    rxPackets += networkStats.rxPackets();
-                    txPackets += networkStats.txPackets();
-                }
-            }
-        } catch (Exception e) {}
-
-        // bps --> Mbps，保留三位小数
-        monitorVo.setRxBytes(NumberUtils.decimal3Bit(rxBytes / 1048576));
-        monitorVo.setTxBytes(NumberUtils.decimal3Bit(txBytes / 1048576));
-        monitorVo.setRxPackets(rxPackets);
-        monitorVo.setTxPackets(txPackets);
-
-        // 2、设置CPU利用率
-        double cpuUtilization = 0;
-        try {
-            double systemCpuUsage = stats.cpuStats().systemCpuUsage();
-            double totalUsage = stats.cpuStats().cpuUsage().totalUsage();
-            cpuUtilization = totalUsage / systemCpuUsage * 100;
-        } catch (Exception e) {}
-
-        // 保留三位小数
-        monitorVo.setCpuUtilization(NumberUtils.decimal3Bit(cpuUtilization));
-
-        // 3、设置内存相关
-        double memoryUsage = 0, memoryLimit = 0, memoryUtilization = 0;
-        try {
-            memoryUsage = stats.memoryStats().stats().activeAnon();
-            memoryLimit = stats.memoryStats().limit();
-            memoryUtilization = memoryUsage / memoryLimit * 100;
-        } catch (Exception e) {}
-        // bit --> Mb，保留三位小数
-        monitorVo.setMemoryUsage(NumberUtils.decimal3Bit(memoryUsage / 1048576));
-        monitorVo.setMemoryLimit(NumberUtils.decimal3Bit(memoryLimit / 1048576));
-        monitorVo.setMemoryUtilization(NumberUtils.decimal3Bit(memoryUtilization));
-
-        // 4、IO相关
-        double blockRead = 0, blockWrite = 0;
-        try {
-            ImmutableList<Object> recursive = stats.blockIoStats().ioServiceBytesRecursive();
-            if(recursive != null) {
-                for(Object obj : recursive) {
-                    Map<String, Object> map = (Map<String, Object>) obj;
-
-                    String op = (String) map.get("op");
-                    switch (op) {
-                        case "Read":
-                            blockRead += (int)map.get("value");
-                            break;
-                        case "Write":
-                            blockWrite += (int)map.get("value");
-                            break;
-                        default:
-                            break;
-                    }
-                }
-            }
-        } catch (Exception e) {}
-
-        // B -> MB，保留三位小数
-        monitorVo.setBlockRead(NumberUtils.decimal3Bit(blockRead / 1048576));
-        monitorVo.setBlockWrite(NumberUtils.decimal3Bit(blockWrite / 1048576));
-
-        return monitorVo;
+        return monitorVOConvert.convert(stats);
     }
 
     @Override
@@ -183,36 +130,11 @@ public class MonitorServiceImpl implements MonitorService {
                 return false;
             }
 
-            double nowScore = (double) (currentInfo.getTimestamp()), endScore;
-            String member = JsonUtils.objectToJson(currentInfo), key;
-            switch (type) {
-                case 1:
-                    // 清理过期数据
-                    key = ACTUAL_PREFIX + containerId;
-                    endScore = nowScore - 15 * 60 * 1000;
-                    jedisClient.zremrangeByScore(key,0,endScore);
-                    // 插入记录
-                    jedisClient.zadd(key, nowScore, member);
-                    break;
-                case 2:
-                    // 清理过期数据
-                    key = DAY_PREFIX + containerId;
-                    endScore = nowScore - 60 * 60 * 24 * 1000;
-                    jedisClient.zremrangeByScore(key,0,endScore);
-                    // 插入记录
-                    jedisClient.zadd(key, nowScore, member);
-                    break;
-                case 3:
-                    // 清理过期数据
-                    key = WEEK_PREFIX + containerId;
-                    endScore = nowScore - 60 * 60 * 24 * 7 * 1000;
-                    jedisClient.zremrangeByScore(key,0,endScore);
-                    // 插入记录
-                    jedisClient.zadd(key, nowScore, member);
-                    break;
-                default:
-                    throw new Exception("参数错误");
-            }
+            Map<String, ContainerMonitorVO> infoMap = new HashMap<>(2);
+            infoMap.put(containerId, currentInfo);
+            Map<Integer, Map<String, ContainerMonitorVO>> typeInfoMap = new HashMap<>(2);
+            typeInfoMap.put(type, infoMap);
+            batchSetMonitorInfo(typeInfoMap);
 
             return true;
         } catch (Exception e) {
@@ -220,6 +142,53 @@ public class MonitorServiceImpl implements MonitorService {
         }
     }
 
+    /**
+     * 每个容器每个类型当前时间桶内的记录先缓存在openBlocks中，每次写入时整体编码并覆盖Redis中该时间桶的成员
+     * 仅由监控采集线程调用
+     */
+    @Override
+    public void batchSetMonitorInfo(Map<Integer, Map<String, ContainerMonitorVO>> typeInfoMap) {
+        long now = System.currentTimeMillis();
+        Map<String, MonitorWrite> writes = new HashMap<>(16);
+        for(Map.Entry<Integer, Map<String, ContainerMonitorVO>> typeEntry : typeInfoMap.entrySet()) {
+            SeriesType seriesType = SeriesType.of(typeEntry.getKey());
+            if(seriesType == null) {
+                continue;
+            }
+            String prefix = getPrefix(seriesType);
+            for(Map.Entry<String, ContainerMonitorVO> entry : typeEntry.getValue().entrySet()) {
+                String key = prefix + entry.getKey();
+                ContainerMonitorVO info = entry.getValue();
+                long timestamp = info.getTimestamp();
+
+                MonitorBlock block = openBlocks.get(key);
+                if(block == null) {
+                    block = loadBlock(key, seriesType, timestamp);
+                } else if(timestamp >= block.getBucketEnd()) {
+                    block = new MonitorBlock(seriesType.blockPeriod, timestamp);
+                } else if(timestamp < block.getBucketStart()) {
+                    continue;
+                }
+                openBlocks.put(key, block);
+
+                block.add(timestamp, seriesType.rollup ? MonitorCodec.toRollupRow(info) : MonitorCodec.toRow(info));
+                writes.put(key, new MonitorWrite(block.getBucketStart(), timestamp - seriesType.retention, block.encode()));
+            }
+        }
+
+        // 清理超过一个时间桶未写入的数据块
+        openBlocks.values().removeIf(block -> block.getBucketEnd() + (block.getBucketEnd() - block.getBucketStart()) < now);
+
+        jedisClient.pipelined(writes.keySet(), (pipeline, key) -> {
+            MonitorWrite write = writes.get(key);
+            // 清理过期数据
+            pipeline.zremrangeByScore(key, 0, write.expireScore);
+            // 覆盖当前时间桶
+            pipeline.zremrangeByScore(key, write.score, write.score);
+            pipeline.zadd(key, write.score, write.member);
+        });
+    }
+
     /**
      * 显示最近15分钟的数据
      * 数据粒度：5s
@@ -229,15 +198,7 @@ public class MonitorServiceImpl implements MonitorService {
     @Override
     public ResultVO getActualMonitor(String containerId) {
         try {
-            String key = ACTUAL_PREFIX + containerId;
-            // 1、根据当前时间戳，获取最近15分钟的所有数据
-            // 获取当前到15分钟前的秒区间
-            double endSeconds = (double)(System.currentTimeMillis());
-            double startSeconds = endSeconds - 15 * 60 * 1000;
-            // 取出区间内的所有数据
-            Set<String> set = jedisClient.zrangeByScore(key, startSeconds, endSeconds);
-
-            return ResultVOUtils.success(set);
+            return ResultVOUtils.success(readSeries(containerId, SeriesType.ACTUAL));
         } catch (Exception e) {
             log.error("获取实时监控数据异常，错误位置：{}，错误栈：{}",
                     "MonitorServiceImpl.getActualMonitor", HttpClientUtils.getStackTraceAsString(e));
@@ -247,22 +208,14 @@ public class MonitorServiceImpl implements MonitorService {
 
     /**
      * 显示最近24小时的数据
-     * 数据粒度：5分钟
+     * 数据粒度：5分钟，包含平均值、最小值、最大值、最后值
      * @author jitwxs
      * @since 2018/7/8 20:34
      */
     @Override
     public ResultVO getTodayMonitor(String containerId) {
         try {
-            String key = DAY_PREFIX + containerId;
-            // 1、根据当前时间戳，获取最近24小时的所有数据
-            // 获取当前到24小时前的秒区间
-            double endSeconds = (double)(System.currentTimeMillis());
-            double startSeconds = endSeconds - 60 * 60 * 24 * 1000;
-            // 取出区间内的所有数据
-            Set<String> set = jedisClient.zrangeByScore(key, startSeconds, endSeconds);
-
-            return ResultVOUtils.success(set);
+            return ResultVOUtils.success(readSeries(containerId, SeriesType.DAY));
         } catch (Exception e) {
             log.error("获取24小时监控数据异常，错误位置：{}，错误栈：{}",
                     "MonitorServiceImpl.getTodayMonitor", HttpClientUtils.getStackTraceAsString(e));
@@ -272,22 +225,14 @@ public class MonitorServiceImpl implements MonitorService {
 
     /**
      * 显示最近7日的数据
-     * 数据粒度：1小时
+     * 数据粒度：1小时，包含平均值、最小值、最大值、最后值
      * @author jitwxs
      * @since 2018/7/8 20:36
      */
     @Override
     public ResultVO getWeekMonitor(String containerId) {
         try {
-            String key = WEEK_PREFIX + containerId;
-            // 1、根据当前时间戳，获取最近7日的所有数据
-            // 获取当前到7日前的秒区间
-            double endSeconds = (double)(System.currentTimeMillis());
-            double startSeconds = endSeconds - 60 * 60 * 24 * 7 * 1000;
-            // 取出区间内的所有数据
-            Set<String> set = jedisClient.zrangeByScore(key, startSeconds, endSeconds);
-
-            return ResultVOUtils.success(set);
+            return ResultVOUtils.success(readSeries(containerId, SeriesType.WEEK));
         } catch (Exception e) {
             log.error("获取7日监控数据异常，错误位置：{}，错误栈：{}",
                     "MonitorServiceImpl.getTodayMonitor", HttpClientUtils.getStackTraceAsString(e));
@@ -295,6 +240,94 @@ public class MonitorServiceImpl implements MonitorService {
         }
     }
 
+    /**
+     * 读取时间序列，兼容旧版JSON格式
+     * @author jitwxs
+     * @since 2026/10/18 16:40
+     */
+    private ContainerMonitorSeriesVO readSeries(String containerId, SeriesType seriesType) {
+        String key = getPrefix(seriesType) + containerId;
+        long end = System.currentTimeMillis();
+        long start = end - seriesType.retention;
+        // 时间桶以起始时间为分数，向前多取一个时间桶
+        Set<String> members = jedisClient.zrangeByScore(key, start - seriesType.blockPeriod, end);
+
+        String[] columns = seriesType.rollup ? MonitorCodec.ROLLUP_COLUMNS : MonitorCodec.METRICS;
+        TreeMap<Long, double[]> rowMap = new TreeMap<>();
+        for(String member : members) {
+            if(MonitorCodec.isLegacy(member)) {
+                ContainerMonitorRollupVO info = JsonUtils.jsonToObject(member, ContainerMonitorRollupVO.class);
+                if(info != null) {
+                    rowMap.put(info.getTimestamp(), seriesType.rollup ? MonitorCodec.toRollupRow(info) : MonitorCodec.toRow(info));
+                }
+                continue;
+            }
+            MonitorBlock block = MonitorCodec.decode(member, seriesType.blockPeriod);
+            for(int i = 0; i < block.size(); i++) {
+                if(block.getRow(i).length == columns.length) {
+                    rowMap.put(block.getTimestamp(i), block.getRow(i));
+                }
+            }
+        }
+
+        SortedMap<Long, double[]> range = rowMap.subMap(start, end + 1);
+        long[] timestamps = new long[range.size()];
+        double[][] values = new double[columns.length][range.size()];
+        int index = 0;
+        for(Map.Entry<Long, double[]> entry : range.entrySet()) {
+            timestamps[index] = entry.getKey();
+            for(int c = 0; c < columns.length; c++) {
+                values[c][index] = entry.getValue()[c];
+            }
+            index++;
+        }
+
+        Map<String, double[]> metrics = new LinkedHashMap<>(columns.length * 2);
+        for(int c = 0; c < columns.length; c++) {
+            metrics.put(columns[c], values[c]);
+        }
+
+        ContainerMonitorSeriesVO seriesVO = new ContainerMonitorSeriesVO();
+        seriesVO.setPeriod(seriesType.period);
+        seriesVO.setTimestamp(timestamps);
+        seriesVO.setMetrics(metrics);
+        return seriesVO;
+    }
+
+    /**
+     * 读取Redis中已有的时间桶，用于重启后继续追加
+     * @author jitwxs
+     * @since 2026/10/18 16:45
+     */
+    private MonitorBlock loadBlock(String key, SeriesType seriesType, long timestamp) {
+        MonitorBlock block = new MonitorBlock(seriesType.blockPeriod, timestamp);
+        try {
+            Set<String> members = jedisClient.zrangeByScore(key, block.getBucketStart(), block.getBucketStart());
+            for(String member : members) {
+                if(!MonitorCodec.isLegacy(member)) {
+                    MonitorBlock exist = MonitorCodec.decode(member, seriesType.blockPeriod);
+                    for(int i = 0; i < exist.size(); i++) {
+                        block.add(exist.getTimestamp(i), exist.getRow(i));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("读取监控数据异常，错误位置：{}，key：{}", "MonitorServiceImpl.loadBlock()", key);
+        }
+        return block;
+    }
+
+    private String getPrefix(SeriesType seriesType) {
+        switch (seriesType) {
+            case ACTUAL:
+                return ACTUAL_PREFIX;
+            case DAY:
+                return DAY_PREFIX;
+            default:
+                return WEEK_PREFIX;
+        }
+    }
+
     @Override
     public ResultVO getDockerInfo() {
         try {
@@ -329,7 +362,11 @@ public class MonitorServiceImpl implements MonitorService {
         infoVO.setServiceNum(userServiceMapper.selectCount(new EntityWrapper<UserService>().eq("user_id", uid)));
 
         try {
-            String hget = jedisClient.hget("last_login", uid);
+            // 优先读取尚未写入Redis的记录
+            String hget = lastLoginBuffer.getPending(uid);
+            if(hget == null) {
+                hget = jedisClient.hget(lastLoginKey, uid);
+            }
             if(StringUtils.isNotBlank(hget)) {
                 Map<String,String> map = JsonUtils.jsonToMap(hget);
                 Long timestamp = Long.parseLong(map.get("timestamp"));
@@ -394,4 +431,60 @@ public class MonitorServiceImpl implements MonitorService {
 
         return list;
     }
-}
\ No newline at end of file
+
+    /**
+     * 一条待写入的监控数据块
+     */
+    private static class MonitorWrite {
+        private final double score;
+        private final double expireScore;
+        private final String member;
+
+        private MonitorWrite(long bucketStart, long expireTime, String member) {
+            this.score = (double) bucketStart;
+            this.expireScore = (double) expireTime;
+            this.member = member;
+        }
+    }
+
+    /**
+     * 监控数据类型
+     */
+    private enum SeriesType {
+        /**
+         * 实时：原始采样，保留15分钟，每分钟一个数据块
+         */
+        ACTUAL(1, 0, 15 * 60 * 1000L, 60 * 1000L, false),
+        /**
+         * 24小时：5分钟聚合，保留24小时，每小时一个数据块
+         */
+        DAY(2, 5 * 60 * 1000L, 24 * 60 * 60 * 1000L, 60 * 60 * 1000L, true),
+        /**
+         * 7日：1小时聚合，保留7日，每日一个数据块
+         */
+        WEEK(3, 60 * 60 * 1000L, 7 * 24 * 60 * 60 * 1000L, 24 * 60 * 60 * 1000L, true);
+
+        private final int type;
+        private final long period;
+        private final long retention;
+        private final long blockPeriod;
+        private final boolean rollup;
+
+        SeriesType(int type, long period, long retention, long blockPeriod, boolean rollup) {
+            this.type = type;
+            this.period = period;
+            this.retention = retention;
+            this.blockPeriod = blockPeriod;
+            this.rollup = rollup;
+        }
+
+        private static SeriesType of(Integer type) {
+            for(SeriesType seriesType : values()) {
+                if(seriesType.type == type) {
+                    return seriesType;
+                }
+            }
+            return null;
+        }
+    }
+}
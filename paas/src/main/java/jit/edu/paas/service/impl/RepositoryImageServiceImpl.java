@@ -7,8 +7,9 @@ import com.spotify.docker.client.messages.Image;
 import com.spotify.docker.client.messages.ImageInfo;
 import jit.edu.paas.commons.activemq.MQProducer;
 import jit.edu.paas.commons.activemq.Task;
+import jit.edu.paas.commons.cache.TwoLevelCache;
+import jit.edu.paas.commons.cache.TwoLevelCacheManager;
 import jit.edu.paas.commons.util.*;
-import jit.edu.paas.commons.util.jedis.JedisClient;
 import jit.edu.paas.domain.entity.RepositoryImage;
 import jit.edu.paas.domain.entity.SysImage;
 import jit.edu.paas.domain.enums.ImageTypeEnum;
@@ -26,14 +27,19 @@ import jit.edu.paas.service.SysLogService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.activemq.command.ActiveMQQueue;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
 import javax.jms.Destination;
 import javax.servlet.http.HttpServletRequest;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * <p>
@@ -55,7 +61,7 @@ public class RepositoryImageServiceImpl extends ServiceImpl<RepositoryImageMappe
     @Autowired
 	private NoticeService noticeService;
     @Autowired
-    private JedisClient jedisClient;
+    private TwoLevelCacheManager cacheManager;
     @Autowired
     private DockerClient dockerClient;
     @Autowired
@@ -68,31 +74,28 @@ public class RepositoryImageServiceImpl extends ServiceImpl<RepositoryImageMappe
     private String key;
     private String ID_PREFIX = "ID:";
     private String NAME_PREFIX = "NAME:";
+    private TwoLevelCache cache;
 
-    @Override
-    public RepositoryImage getById(String id) {
-        String field = ID_PREFIX + id;
-        try {
-            String json = jedisClient.hget(key, field);
-            if(StringUtils.isNotBlank(json)) {
-                return JsonUtils.jsonToObject(json, RepositoryImage.class);
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，错误位置：RepositoryImageServiceImpl.getById()");
-        }
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
 
-        RepositoryImage repositoryImage = repositoryImageMapper.selectById(id);
-        if(repositoryImage == null) {
-            return null;
-        }
+    /**
+     * 同步时并行请求Hub的线程数
+     */
+    @Value("${docker.registry.sync-parallel}")
+    private Integer syncParallel;
 
-        try {
-            jedisClient.hset(key, field, JsonUtils.objectToJson(repositoryImage));
-        } catch (Exception e) {
-            log.error("缓存存储异常，错误位置：RepositoryImageServiceImpl.getById()");
-        }
+    private static final int BATCH_SIZE = 500;
 
-        return repositoryImage;
+    @PostConstruct
+    public void init() {
+        cache = cacheManager.getCache(key);
+    }
+
+    @Override
+    public RepositoryImage getById(String id) {
+        return cache.get(ID_PREFIX + id, RepositoryImage.class, () -> repositoryImageMapper.selectById(id));
     }
 
     @Override
@@ -102,29 +105,8 @@ public class RepositoryImageServiceImpl extends ServiceImpl<RepositoryImageMappe
 
     @Override
     public List<RepositoryImage> listByName(String name) {
-        String field = NAME_PREFIX + name;
-        try {
-            String json = jedisClient.hget(key, field);
-            if(StringUtils.isNotBlank(json)) {
-                return JsonUtils.jsonToList(json, RepositoryImage.class);
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，错误位置：RepositoryImageServiceImpl.listByName()");
-        }
-
-        List<RepositoryImage> list = repositoryImageMapper.selectList(
-                new EntityWrapper<RepositoryImage>().eq("name", name));
-        if(list == null) {
-            return null;
-        }
-
-        try {
-            jedisClient.hset(key, field, JsonUtils.objectToJson(list));
-        } catch (Exception e) {
-            log.error("缓存存储异常，错误位置：RepositoryImageServiceImpl.listByName()");
-        }
-
-        return list;
+        return cache.getList(NAME_PREFIX + name, RepositoryImage.class, () -> repositoryImageMapper.selectList(
+                new EntityWrapper<RepositoryImage>().eq("name", name)));
     }
 
 
@@ -141,61 +123,81 @@ public class RepositoryImageServiceImpl extends ServiceImpl<RepositoryImageMappe
     @Override
     @Transactional(rollbackFor = CustomException.class)
     public ResultVO sync() {
-        // 1、遍历数据库
-        List<RepositoryImage> dbImage = repositoryImageMapper.selectList(new EntityWrapper<>());
-        boolean[] dbFlag = new boolean[dbImage.size()];
-        Arrays.fill(dbFlag, false);
-        int addCount = 0, deleteCount = 0, errorCount = 0;
-
         try {
-            // 2、遍历Hub
+            // 1、获取数据库中所有记录，按完整名建立索引
+            List<RepositoryImage> dbImages = repositoryImageMapper.listIdAndFullName();
+            Map<String, RepositoryImage> dbMap = new HashMap<>(dbImages.size() * 4 / 3 + 1);
+            List<RepositoryImage> deleteList = new ArrayList<>();
+            for(RepositoryImage image : dbImages) {
+                // 完整名重复的记录只保留一条
+                if(dbMap.putIfAbsent(image.getFullName(), image) != null) {
+                    deleteList.add(image);
+                }
+            }
+
+            // 2、分页读取Hub中所有镜像库，并行读取各镜像库的Tag
             List<String> names = listRepositoryFromHub();
-            for(String name : names) {
-                List<String> tags = listTagsFromHub(name);
-                if(tags != null) {
-                    for(String tag : tags) {
-                        // 拼接FullName
-                        String fullName = registryUrl + "/" + name + ":" + tag;
-                        // 判断本地是否存在
-                        boolean flag = false;
-                        for(int i=0; i < dbFlag.length; i++) {
-                            // 跳过验证过的
-                            if(dbFlag[i]) {
-                                continue;
-                            }
-                            if(fullName.equals(dbImage.get(i).getFullName())) {
-                                dbFlag[i] = true;
-                                flag = true;
-                                break;
-                            }
-                        }
-
-                        // 如果不存在，表示数据库中没有该记录，新增记录
-                        if(!flag) {
-                            RepositoryImage image = imageName2RepositoryImage(fullName);
-                            if(image != null) {
-                                repositoryImageMapper.insert(image);
-                                addCount++;
-                            } else {
-                                errorCount++;
-                            }
-                        }
+            Map<String, List<String>> tagMap = new ConcurrentHashMap<>(names.size() * 4 / 3 + 1);
+            Set<String> failNames = ConcurrentHashMap.newKeySet();
+            CollectionUtils.parallelForEach(names, syncParallel, taskExecutor, name -> {
+                try {
+                    tagMap.put(name, listTagsFromHub(name));
+                } catch (Exception e) {
+                    failNames.add(name);
+                    log.error("读取镜像Tag失败，错误位置：{}，镜像库：{}，错误原因：{}",
+                            "RepositoryImageServiceImpl.sync()", name, e.getMessage());
+                }
+            });
+
+            // 3、找出数据库中不存在的Tag
+            int errorCount = failNames.size();
+            List<RepositoryImage> addList = new ArrayList<>();
+            for(Map.Entry<String, List<String>> entry : tagMap.entrySet()) {
+                for(String tag : entry.getValue()) {
+                    // 拼接FullName
+                    String fullName = registryUrl + "/" + entry.getKey() + ":" + tag;
+                    if(dbMap.remove(fullName) != null) {
+                        continue;
+                    }
+                    RepositoryImage image = imageName2RepositoryImage(fullName, false);
+                    if(image != null) {
+                        image.setId(RandomUtils.uuid());
+                        addList.add(image);
+                    } else {
+                        errorCount++;
                     }
                 }
             }
+            // 数据库中剩余的记录在Hub中已不存在；读取Tag失败的镜像库无法判断，保留原记录
+            for(RepositoryImage image : dbMap.values()) {
+                if(!failNames.contains(image.getName())) {
+                    deleteList.add(image);
+                }
+            }
 
-            // 3、清理失效的记录
-            for(int i=0; i<dbFlag.length ;i++) {
-                if(!dbFlag[i]) {
-                    deleteCount++;
-                    repositoryImageMapper.deleteById(dbImage.get(i));
+            // 4、并行读取新增镜像的Digest
+            CollectionUtils.parallelForEach(addList, syncParallel, taskExecutor, image -> {
+                try {
+                    image.setDigest(getDigest(image.getName(), image.getTag()));
+                } catch (Exception e) {
+                    image.setDigest(null);
                 }
+            });
+
+            // 5、批量写入，批量清理缓存
+            for(List<RepositoryImage> batch : CollectionUtils.partition(addList, BATCH_SIZE)) {
+                repositoryImageMapper.batchInsert(batch);
+                cleanCache(batch);
+            }
+            for(List<RepositoryImage> batch : CollectionUtils.partition(deleteList, BATCH_SIZE)) {
+                repositoryImageMapper.deleteBatchIds(batch.stream().map(RepositoryImage::getId).collect(Collectors.toList()));
+                cleanCache(batch);
             }
 
-            // 4、准备返回值
+            // 6、准备返回值
             Map<String, Integer> map = new HashMap<>(16);
-            map.put("delete", deleteCount);
-            map.put("add", addCount);
+            map.put("delete", deleteList.size());
+            map.put("add", addList.size());
             map.put("error", errorCount);
 
             return ResultVOUtils.success(map);
@@ -312,6 +314,7 @@ public class RepositoryImageServiceImpl extends ServiceImpl<RepositoryImageMappe
             // 2、插入数据
             SysImage sysImage = repositoryImage2SysImage(repositoryImage);
             sysImageService.insert(sysImage);
+            sysImageService.cleanCache(sysImage.getId(), sysImage.getFullName());
             // 写入日志
             sysLogService.saveLog(request, SysLogTypeEnum.PULL_IMAGE_FROM_HUB);
 
@@ -370,17 +373,26 @@ public class RepositoryImageServiceImpl extends ServiceImpl<RepositoryImageMappe
 
     @Override
     public void cleanCache(String id, String name) {
-        try {
-            if(StringUtils.isNotBlank(id)) {
-                jedisClient.hdel(key, ID_PREFIX + id);
+        cache.evict(StringUtils.isNotBlank(id) ? ID_PREFIX + id : null,
+                StringUtils.isNotBlank(name) ? NAME_PREFIX + name : null);
+    }
+
+    /**
+     * 批量清理缓存，一次请求删除所有字段
+     * @author jitwxs
+     * @since 2026/10/18 23:15
+     */
+    private void cleanCache(List<RepositoryImage> images) {
+        Set<String> fields = new HashSet<>(images.size() * 2);
+        for(RepositoryImage image : images) {
+            if(StringUtils.isNotBlank(image.getId())) {
+                fields.add(ID_PREFIX + image.getId());
             }
-            if(StringUtils.isNotBlank(name)) {
-                jedisClient.hdel(key, NAME_PREFIX + name);
+            if(StringUtils.isNotBlank(image.getName())) {
+                fields.add(NAME_PREFIX + image.getName());
             }
-        } catch (Exception e) {
-            log.error("清理缓存失败，错误位置：{}，目标id：{}，目标name：{}",
-                    "RepositoryImageServiceImpl.cleanCache()", id, name);
         }
+        cache.evict(fields);
     }
 
     @Override
@@ -399,6 +411,16 @@ public class RepositoryImageServiceImpl extends ServiceImpl<RepositoryImageMappe
      * @since 2018/7/5 23:04
      */
     private RepositoryImage imageName2RepositoryImage(String name) {
+        return imageName2RepositoryImage(name, true);
+    }
+
+    /**
+     * 镜像完整名 --> RepositoryImage
+     * @param fetchDigest 是否读取Digest，批量同步时由调用方并行读取
+     * @author jitwxs
+     * @since 2026/10/18 23:15
+     */
+    private RepositoryImage imageName2RepositoryImage(String name, boolean fetchDigest) {
         // 形如： 192.168.100.183:5000/hello-world-1313asfa:latest
         RepositoryImage image = new RepositoryImage();
 
@@ -425,10 +447,16 @@ public class RepositoryImageServiceImpl extends ServiceImpl<RepositoryImageMappe
         // 1313asfa/hello-world
         body = split[0];
         i = body.indexOf("/");
+        if(i < 0) {
+            return null;
+        }
         image.setName(body);
         image.setUserId(body.substring(0,i));
 
         // 4、设置Digest
+        if(!fetchDigest) {
+            return image;
+        }
         try {
             String digest = getDigest(body, image.getTag());
             image.setDigest(digest);
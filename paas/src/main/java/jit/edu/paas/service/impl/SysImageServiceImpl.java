@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.plugins.Page;
 import com.baomidou.mybatisplus.service.impl.ServiceImpl;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Striped;
 import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.exceptions.ConflictException;
 import com.spotify.docker.client.exceptions.DockerRequestException;
@@ -13,10 +14,13 @@ import com.spotify.docker.client.exceptions.ImagePushFailedException;
 import com.spotify.docker.client.messages.*;
 import jit.edu.paas.commons.activemq.MQProducer;
 import jit.edu.paas.commons.activemq.Task;
+import jit.edu.paas.commons.cache.TwoLevelCache;
+import jit.edu.paas.commons.cache.TwoLevelCacheManager;
+import jit.edu.paas.commons.docker.ImagePullManager;
 import jit.edu.paas.commons.util.*;
-import jit.edu.paas.commons.util.jedis.JedisClient;
 import jit.edu.paas.domain.dto.SysImageDTO;
 import jit.edu.paas.domain.entity.SysImage;
+import jit.edu.paas.domain.entity.SysLog;
 import jit.edu.paas.domain.entity.SysLogin;
 import jit.edu.paas.domain.enums.*;
 import jit.edu.paas.domain.vo.ResultVO;
@@ -30,16 +34,25 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.activemq.command.ActiveMQQueue;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
 import javax.jms.Destination;
 import javax.servlet.http.HttpServletRequest;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 /**
@@ -60,21 +73,66 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
     @Autowired
     private DockerClient dockerClient;
     @Autowired
-    private JedisClient jedisClient;
+    private TwoLevelCacheManager cacheManager;
     @Autowired
     private MQProducer mqProducer;
     @Autowired
     private SysLogService sysLogService;
     @Autowired
     private NoticeService noticeService;
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+    @Autowired
+    @Qualifier("importExecutor")
+    private Executor importExecutor;
+    @Autowired
+    private ImagePullManager imagePullManager;
 
     @Value("${docker.server.url}")
     private String serverUrl;
 
     @Value("${redis.local-image.key}")
     private String key;
+
+    /**
+     * 流式导入的管道大小（单位：字节）
+     */
+    @Value("${image.import.pipe-size}")
+    private Integer importPipeSize;
+
+    /**
+     * 流式导入的进度推送间隔（单位：ms）
+     */
+    @Value("${image.import.progress-interval}")
+    private Long importProgressInterval;
+
+    /**
+     * 同步镜像时并行查询镜像信息的线程数
+     */
+    @Value("${image.sync.inspect-parallel}")
+    private Integer inspectParallel;
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 按完整名加锁，避免事件同步与拉取、导入等任务重复插入同一镜像
+     */
+    private final Striped<Lock> nameLocks = Striped.lock(64);
+
+    /**
+     * 上次全量同步时本地镜像列表的校验和
+     */
+    private volatile String lastChecksum;
     private final String ID_PREFIX = "ID:";
     private final String FULL_NAME_PREFIX = "FULL_NAME:";
+    private TwoLevelCache cache;
+
+    @PostConstruct
+    public void init() {
+        // 导入、提交时会查询不存在的镜像名，短时缓存不存在的结果
+        cache = cacheManager.getCache(key, true);
+    }
 
     @Override
     public Page<SysImageDTO> listLocalPublicImage(String name, Page<SysImageDTO> page) {
@@ -123,59 +181,13 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
 
     @Override
     public SysImage getById(String id) {
-        String field = ID_PREFIX + id;
-
-        try {
-            String json = jedisClient.hget(key, field);
-            if(StringUtils.isNotBlank(json)) {
-                return JsonUtils.jsonToObject(json, SysImage.class);
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，异常位置：{}", "SysImageServiceImpl.getById()");
-        }
-
-        SysImage image = imageMapper.selectById(id);
-        if(image == null) {
-            return null;
-        }
-
-        try {
-            String json = JsonUtils.objectToJson(image);
-            jedisClient.hset(key, field, json);
-        } catch (Exception e) {
-            log.error("缓存存储异常，异常位置：{}", "SysImageServiceImpl.getById()");
-        }
-
-        return image;
+        return cache.get(ID_PREFIX + id, SysImage.class, () -> imageMapper.selectById(id));
     }
 
     @Override
     public SysImage getByFullName(String fullName) {
-        String field = FULL_NAME_PREFIX + fullName;
-
-        try {
-            String json = jedisClient.hget(key, field);
-            if(StringUtils.isNotBlank(json)) {
-                return JsonUtils.jsonToObject(json, SysImage.class);
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，异常位置：{}", "SysImageServiceImpl.getByFullName()");
-        }
-
-        List<SysImage> images = imageMapper.selectList(new EntityWrapper<SysImage>().eq("full_name", fullName));
-        SysImage image = CollectionUtils.getListFirst(images);
-        if(image == null) {
-            return null;
-        }
-
-        try {
-            String json = JsonUtils.objectToJson(image);
-            jedisClient.hset(key, field, json);
-        } catch (Exception e) {
-            log.error("缓存存储异常，异常位置：{}", "SysImageServiceImpl.getByFullName()");
-        }
-
-        return image;
+        return cache.get(FULL_NAME_PREFIX + fullName, SysImage.class, () -> CollectionUtils.getListFirst(
+                imageMapper.selectList(new EntityWrapper<SysImage>().eq("full_name", fullName))));
     }
 
     /**
@@ -224,69 +236,99 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
     @Transactional(rollbackFor = CustomException.class)
     @Override
     public ResultVO sync() {
+        return sync(false);
+    }
+
+    /**
+     * 对账本地镜像
+     * 镜像变化由Docker事件增量同步，本地镜像列表的校验和与上次同步一致时不再比对数据库
+     * @author jitwxs
+     * @since 2026/10/18 22:20
+     */
+    @Transactional(rollbackFor = CustomException.class)
+    @Override
+    public ResultVO reconcile() {
+        return sync(true);
+    }
+
+    /**
+     * 以完整名为键对本地Tag和数据库记录做差集，新增和删除分批写入，新增镜像的CMD按镜像ID去重后并行查询
+     * @param checksum 是否在本地镜像列表未变化时跳过
+     * @author jitwxs
+     * @since 2026/10/18 22:20
+     */
+    private ResultVO sync(boolean checksum) {
         try {
-            // 1、获取数据库中所有镜像
-            List<SysImage> dbImages = imageMapper.selectList(new EntityWrapper<>());
-            // 2、获取本地所有镜像
             List<Image> tmps = dockerClient.listImages(DockerClient.ListImagesParam.digests());
+            String imageChecksum = imageChecksum(tmps);
+            if(checksum && imageChecksum.equals(lastChecksum)) {
+                Map<String, Integer> map = new HashMap<>(16);
+                map.put("delete", 0);
+                map.put("add", 0);
+                map.put("error", 0);
+                map.put("skip", 1);
+                return ResultVOUtils.success(map);
+            }
 
-            int deleteCount = 0,addCount = 0,errorCount=0;
-            boolean[] dbFlag = new boolean[dbImages.size()];
-            Arrays.fill(dbFlag,false);
+            // 1、获取数据库中所有镜像，按完整名建立索引
+            List<SysImage> dbImages = imageMapper.listIdAndFullName();
+            Map<String, SysImage> dbMap = new HashMap<>(dbImages.size() * 4 / 3 + 1);
+            List<SysImage> deleteList = new ArrayList<>();
+            for(SysImage sysImage : dbImages) {
+                // 完整名重复的记录只保留一条
+                if(dbMap.putIfAbsent(sysImage.getFullName(), sysImage) != null) {
+                    deleteList.add(sysImage);
+                }
+            }
 
-            // 3、遍历本地镜像
-            for(int i=0; i<tmps.size(); i++) {
-                Image image = tmps.get(i);
-                // 读取所有Tag
+            // 2、找出数据库中不存在的本地Tag
+            int errorCount = 0;
+            List<SysImage> addList = new ArrayList<>();
+            // 镜像ID --> 该镜像新增的记录，同一镜像的多个Tag只查询一次
+            Map<String, List<SysImage>> inspectMap = new HashMap<>(16);
+            Set<String> localTags = new HashSet<>(dbMap.size() * 4 / 3 + 1);
+            for(Image image : tmps) {
                 ImmutableList<String> list = image.repoTags();
-                if(list != null) {
-                    for(String tag : list) {
-                        // 判断tag是否存在
-                        boolean flag = false;
-                        for(int j=0; j<dbImages.size(); j++) {
-                            // 跳过比较过的
-                            if(dbFlag[j]) {
-                                continue;
-                            }
-                            // 比较相等
-                            if(tag.equals(dbImages.get(j).getFullName())) {
-                                flag = true;
-                                dbFlag[j] = true;
-                                break;
-                            }
-                        }
-
-                        // 如果本地不存在，添加到本地
-                        if(!flag) {
-                            SysImage sysImage = imageToSysImage(image, tag);
-                            if(sysImage == null) {
-                                errorCount++;
-                            } else {
-                                addCount++;
-                                imageMapper.insert(sysImage);
-                            }
-                        }
+                if(list == null) {
+                    continue;
+                }
+                for(String tag : list) {
+                    if(!localTags.add(tag) || dbMap.remove(tag) != null) {
+                        continue;
+                    }
+                    SysImage sysImage = imageToSysImage(image, tag, false);
+                    if(sysImage == null) {
+                        errorCount++;
+                    } else {
+                        sysImage.setId(RandomUtils.uuid());
+                        addList.add(sysImage);
+                        inspectMap.computeIfAbsent(image.id(), k -> new ArrayList<>()).add(sysImage);
                     }
                 }
             }
+            // 数据库中剩余的记录在本地已不存在
+            deleteList.addAll(dbMap.values());
 
-            // 删除失效的数据
-            for(int i=0; i<dbFlag.length;i++) {
-                if(!dbFlag[i]) {
-                    deleteCount++;
-                    SysImage sysImage = dbImages.get(i);
-                    imageMapper.deleteById(sysImage);
-                    // 更新缓存
-                    cleanCache(sysImage.getId(), sysImage.getFullName());
-                }
+            // 3、并行查询新增镜像的CMD
+            fillCmd(inspectMap);
+
+            // 4、批量写入，删除的记录批量清理缓存
+            for(List<SysImage> batch : CollectionUtils.partition(addList, BATCH_SIZE)) {
+                imageMapper.batchInsert(batch);
+                cleanCache(batch);
+            }
+            for(List<SysImage> batch : CollectionUtils.partition(deleteList, BATCH_SIZE)) {
+                imageMapper.deleteBatchIds(batch.stream().map(SysImage::getId).collect(Collectors.toList()));
+                cleanCache(batch);
             }
 
             // 准备结果
             Map<String, Integer> map = new HashMap<>(16);
-            map.put("delete", deleteCount);
-            map.put("add", addCount);
+            map.put("delete", deleteList.size());
+            map.put("add", addList.size());
             map.put("error", errorCount);
 
+            lastChecksum = imageChecksum;
             return ResultVOUtils.success(map);
         } catch (DockerTimeoutException te) {
             log.error("同步镜像超时，错误位置：{}","SysImageServiceImpl.sync");
@@ -299,6 +341,160 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
         }
     }
 
+    /**
+     * 并行查询镜像CMD，并发数不超过inspectParallel
+     * @param inspectMap 镜像ID --> 需要设置CMD的记录
+     * @author jitwxs
+     * @since 2026/10/18 22:05
+     */
+    private void fillCmd(Map<String, List<SysImage>> inspectMap) throws InterruptedException {
+        if(inspectMap.isEmpty()) {
+            return;
+        }
+        CollectionUtils.parallelForEach(inspectMap.entrySet(), inspectParallel, taskExecutor, entry -> {
+            String cmd = getImageCmd(entry.getKey());
+            for(SysImage sysImage : entry.getValue()) {
+                sysImage.setCmd(cmd);
+            }
+        });
+    }
+
+    /**
+     * 本地镜像列表的校验和，由镜像ID和Tag计算，与顺序无关
+     * @author jitwxs
+     * @since 2026/10/18 22:22
+     */
+    private String imageChecksum(List<Image> images) throws NoSuchAlgorithmException {
+        List<String> lines = new ArrayList<>(images.size());
+        for(Image image : images) {
+            List<String> tags = image.repoTags() == null ? new ArrayList<>() : new ArrayList<>(image.repoTags());
+            Collections.sort(tags);
+            lines.add(image.id() + "=" + String.join(",", tags));
+        }
+        Collections.sort(lines);
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for(String line : lines) {
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return new BigInteger(1, digest.digest()).toString(16);
+    }
+
+    /**
+     * 根据Docker镜像事件增量同步
+     * 事件中带镜像名的，直接同步该Tag；untag、delete事件只有镜像ID，重新检查该镜像在数据库中的所有Tag
+     * @author jitwxs
+     * @since 2026/10/18 22:25
+     */
+    @Override
+    public void syncImageEvent(String action, String actorId, String name) {
+        try {
+            String fullName = toFullName(name);
+            if(fullName == null) {
+                fullName = toFullName(actorId);
+            }
+            if(fullName != null) {
+                syncTag(fullName);
+            }
+            if(StringUtils.isNotBlank(actorId) && ("untag".equals(action) || "delete".equals(action))) {
+                List<SysImage> images = imageMapper.selectList(new EntityWrapper<SysImage>()
+                        .eq("image_id", splitImageId(actorId)));
+                for(SysImage sysImage : images) {
+                    if(!sysImage.getFullName().equals(fullName)) {
+                        syncTag(sysImage.getFullName());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("镜像事件同步失败，错误位置：{}，事件：{}，镜像：{}，错误栈：{}",
+                    "SysImageServiceImpl.syncImageEvent()", action, actorId, HttpClientUtils.getStackTraceAsString(e));
+        }
+    }
+
+    /**
+     * 事件中的镜像引用 --> 完整名，镜像ID、digest引用和无名镜像返回null
+     */
+    private String toFullName(String reference) {
+        if(StringUtils.isBlank(reference) || reference.startsWith("sha256:") || reference.contains("@")
+                || reference.startsWith("<none>") || reference.matches("[0-9a-f]{12,64}")) {
+            return null;
+        }
+        // 不带Tag时为latest，注意仓库地址中可能包含端口
+        return reference.lastIndexOf(':') > reference.lastIndexOf('/') ? reference : reference + ":latest";
+    }
+
+    /**
+     * 按本地镜像同步一个Tag：Tag不存在则删除记录，指向的镜像变化则更新记录，数据库中没有则新增
+     * @author jitwxs
+     * @since 2026/10/18 22:27
+     */
+    private void syncTag(String fullName) throws Exception {
+        Image image = null;
+        for(Image item : dockerClient.listImages(DockerClient.ListImagesParam.byName(fullName))) {
+            if(item.repoTags() != null && item.repoTags().contains(fullName)) {
+                image = item;
+                break;
+            }
+        }
+
+        if(image == null) {
+            Lock lock = nameLocks.get(fullName);
+            lock.lock();
+            try {
+                List<SysImage> images = imageMapper.selectList(new EntityWrapper<SysImage>().eq("full_name", fullName));
+                if(!images.isEmpty()) {
+                    imageMapper.deleteBatchIds(images.stream().map(SysImage::getId).collect(Collectors.toList()));
+                    cleanCache(images);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        SysImage sysImage = imageToSysImage(image, fullName);
+        if(sysImage != null) {
+            saveOrUpdateByFullName(sysImage);
+        }
+    }
+
+    /**
+     * 按完整名保存镜像：已存在时更新镜像信息，保留ID、是否公开和创建时间；重复的记录只保留一条
+     * 同一完整名加锁，避免事件同步与拉取、导入等任务重复插入
+     * @author jitwxs
+     * @since 2026/10/18 22:28
+     */
+    private void saveOrUpdateByFullName(SysImage sysImage) {
+        Lock lock = nameLocks.get(sysImage.getFullName());
+        lock.lock();
+        try {
+            List<SysImage> images = imageMapper.selectList(new EntityWrapper<SysImage>().eq("full_name", sysImage.getFullName()));
+            if(images.isEmpty()) {
+                imageMapper.insert(sysImage);
+                cleanCache(sysImage.getId(), sysImage.getFullName());
+                return;
+            }
+
+            SysImage exist = images.get(0);
+            if(images.size() > 1) {
+                List<SysImage> duplicates = images.subList(1, images.size());
+                imageMapper.deleteBatchIds(duplicates.stream().map(SysImage::getId).collect(Collectors.toList()));
+                cleanCache(duplicates);
+            }
+            sysImage.setId(exist.getId());
+            if(!Objects.equals(exist.getImageId(), sysImage.getImageId())) {
+                // Tag指向了新的镜像，字段为null时不更新
+                sysImage.setHasOpen(null);
+                sysImage.setCreateDate(null);
+                imageMapper.updateById(sysImage);
+                cleanCache(exist.getId(), exist.getFullName());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * 删除镜像
      * （1）普通用户只能删除自己上传的镜像
@@ -382,29 +578,31 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
         return ResultVOUtils.success();
     }
 
-    @Async("taskExecutor")
-    @Transactional(rollbackFor = CustomException.class)
     @Override
     public void pullImageTask(String name, String userId, HttpServletRequest request) {
-        try {
-            if(!name.contains(":")) {
-                name = name + ":latest";
-            }
-            dockerClient.pull(name);
-            // 写入日志
-            sysLogService.saveLog(request, SysLogTypeEnum.PULL_IMAGE_FROM_DOCKER_HUB);
-        } catch (DockerTimeoutException timoutException){
+        String fullName = name.contains(":") ? name : name + ":latest";
+        imagePullManager.pull(fullName, progress -> sendPullProgressMQ(userId, progress))
+                .whenComplete((v, e) -> afterPull(fullName, userId, request, e));
+    }
+
+    /**
+     * 拉取结束后保存镜像并通知用户，在拉取线程中执行
+     * @param throwable 拉取失败的异常，成功时为null
+     * @author jitwxs
+     * @since 2026/10/18 22:50
+     */
+    private void afterPull(String name, String userId, HttpServletRequest request, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if(cause instanceof DockerTimeoutException) {
             sendMQ(userId, null, ResultVOUtils.error(ResultEnum.DOCKER_TIMEOUT));
             // 发送通知
             List<String> receiverList = new ArrayList<>();
             receiverList.add(userId);
             noticeService.sendUserTask("拉取Docker Hub镜像","拉取镜像【"+name+"】失败，连接超时", 4, false, receiverList, null);
             return;
-        }catch (Exception e) {
-            log.error("Pull Docker Hub镜像失败，错误位置：{}，镜像名：{}，错误栈：{}"
-                    , "SysImageServiceImpl.pullImageTask()", name, HttpClientUtils.getStackTraceAsString(e));
+        } else if(cause != null) {
             // 写入日志
-            sysLogService.saveLog(request, SysLogTypeEnum.PULL_IMAGE_FROM_DOCKER_HUB, e);
+            sysLogService.saveLog(request, SysLogTypeEnum.PULL_IMAGE_FROM_DOCKER_HUB, cause instanceof Exception ? (Exception) cause : new Exception(cause));
             // 发送通知
             List<String> receiverList = new ArrayList<>();
             receiverList.add(userId);
@@ -413,6 +611,8 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
             sendMQ(userId, null, ResultVOUtils.error(ResultEnum.PULL_ERROR));
             return;
         }
+        // 写入日志
+        sysLogService.saveLog(request, SysLogTypeEnum.PULL_IMAGE_FROM_DOCKER_HUB);
 
         // 保存信息
         try {
@@ -429,7 +629,7 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
             Image image = images.get(0);
 
             SysImage sysImage = imageToSysImage(image, image.repoTags().get(0));
-            imageMapper.insert(sysImage);
+            saveOrUpdateByFullName(sysImage);
             // 发送通知
             List<String> receiverList = new ArrayList<>();
             receiverList.add(userId);
@@ -540,7 +740,7 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
     @Async("taskExecutor")
     @Transactional(rollbackFor = CustomException.class)
     @Override
-    public void importImageTask(InputStream stream, String fullName, String uid, HttpServletRequest request) {
+    public void importImageTask(InputStream stream, String fullName, String uid, SysLog sysLog) {
         // 导入镜像
         try {
             dockerClient.create(fullName,stream);
@@ -550,9 +750,9 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
 
             SysImage sysImage = imageToSysImage(image, image.repoTags().get(0));
             // 插入数据
-            imageMapper.insert(sysImage);
+            saveOrUpdateByFullName(sysImage);
             // 写入日志
-            sysLogService.saveLog(request, SysLogTypeEnum.IMPORT_IMAGE);
+            sysLogService.saveLog(sysLog, null);
             // 发送通知
             List<String> receiverList = new ArrayList<>();
             receiverList.add(uid);
@@ -567,7 +767,7 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
             log.error("导入镜像失败，错误位置：{}，镜像名：{}，错误栈：{}",
                     "SysImageServiceImpl.importImageTask()", fullName, HttpClientUtils.getStackTraceAsString(e));
             // 写入日志
-            sysLogService.saveLog(request, SysLogTypeEnum.IMPORT_IMAGE, e);
+            sysLogService.saveLog(sysLog, e);
 
             // 发送通知
             List<String> receiverList = new ArrayList<>();
@@ -586,6 +786,51 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
         }
     }
 
+    @Override
+    public ResultVO importImageStream(InputStream stream, long length, String fullName, String uid, HttpServletRequest request) {
+        PipedInputStream pipeIn = new PipedInputStream(importPipeSize);
+        PipedOutputStream pipeOut;
+        try {
+            pipeOut = new PipedOutputStream(pipeIn);
+            // 请求结束后request不再可用，先读取日志字段
+            SysLog sysLog = sysLogService.buildLog(request, SysLogTypeEnum.IMPORT_IMAGE);
+            // 导入线程读取管道，管道写满时当前线程阻塞，内存占用不超过管道大小
+            // 导入线程必须立即开始读取，否则当前线程会一直阻塞，因此使用不排队的独立线程池
+            importExecutor.execute(() -> importImageTask(pipeIn, fullName, uid, sysLog));
+        } catch (RejectedExecutionException e) {
+            log.error("导入任务过多，拒绝导入，错误位置：{}，镜像名：{}", "SysImageServiceImpl.importImageStream()", fullName);
+            return ResultVOUtils.error(ResultEnum.IMPORT_ERROR.getCode(), "导入任务过多，请稍后重试");
+        } catch (IOException e) {
+            log.error("创建导入任务失败，错误位置：{}，错误栈：{}",
+                    "SysImageServiceImpl.importImageStream()", HttpClientUtils.getStackTraceAsString(e));
+            return ResultVOUtils.error(ResultEnum.IMPORT_ERROR);
+        }
+
+        long read = 0, lastReport = System.currentTimeMillis();
+        try (OutputStream out = pipeOut) {
+            byte[] buffer = new byte[64 * 1024];
+            int len;
+            while ((len = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+                read += len;
+
+                long now = System.currentTimeMillis();
+                if(now - lastReport >= importProgressInterval) {
+                    sendProgressMQ(uid, fullName, read, length);
+                    lastReport = now;
+                }
+            }
+        } catch (IOException e) {
+            // 客户端中断上传时管道被关闭，导入线程读到不完整的文件后失败；导入线程失败时管道写入失败
+            log.error("镜像上传中断，错误位置：{}，镜像名：{}，已上传：{}，错误原因：{}",
+                    "SysImageServiceImpl.importImageStream()", fullName, read, e.getMessage());
+            return ResultVOUtils.error(ResultEnum.IMPORT_ERROR);
+        }
+        sendProgressMQ(uid, fullName, read, length);
+
+        return ResultVOUtils.successWithMsg("镜像上传完成，开始导入");
+    }
+
     /**
      * 查看History
      * @author hf
@@ -619,17 +864,26 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
      */
     @Override
     public void cleanCache(String id, String fullName) {
-        try {
-            if (StringUtils.isNotBlank(id)) {
-                jedisClient.hdel(key, ID_PREFIX + id);
+        cache.evict(StringUtils.isNotBlank(id) ? ID_PREFIX + id : null,
+                StringUtils.isNotBlank(fullName) ? FULL_NAME_PREFIX + fullName : null);
+    }
+
+    /**
+     * 批量清理缓存，一次请求删除所有字段
+     * @author jitwxs
+     * @since 2026/10/18 22:06
+     */
+    private void cleanCache(List<SysImage> images) {
+        List<String> fields = new ArrayList<>(images.size() * 2);
+        for(SysImage sysImage : images) {
+            if (StringUtils.isNotBlank(sysImage.getId())) {
+                fields.add(ID_PREFIX + sysImage.getId());
             }
-            if (StringUtils.isNotBlank(fullName)) {
-                jedisClient.hdel(key, FULL_NAME_PREFIX + fullName);
+            if (StringUtils.isNotBlank(sysImage.getFullName())) {
+                fields.add(FULL_NAME_PREFIX + sysImage.getFullName());
             }
-        } catch (Exception e) {
-            log.error("清理本地镜像缓存失败，错误位置：{}，错误栈：{}",
-                    "SysImageServiceImpl.cleanCache()", HttpClientUtils.getStackTraceAsString(e));
         }
+        cache.evict(fields);
     }
 
     /**
@@ -765,7 +1019,7 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
 
             SysImage sysImage = imageToSysImage(image, image.repoTags().get(0));
             // 插入数据
-            imageMapper.insert(sysImage);
+            saveOrUpdateByFullName(sysImage);
             return true;
         } catch (Exception e) {
             log.error("保存镜像数据错误，错误位置：{}，错误栈：{}",
@@ -859,6 +1113,16 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
      * @since 2018/7/3 16:53
      */
     private SysImage imageToSysImage(Image image, String repoTag) {
+        return imageToSysImage(image, repoTag, true);
+    }
+
+    /**
+     * dockerClient.Image --> entity.SysImage
+     * @param inspect 是否查询CMD，为false时由调用方设置
+     * @author jitwxs
+     * @since 2026/10/18 22:04
+     */
+    private SysImage imageToSysImage(Image image, String repoTag, boolean inspect) {
         SysImage sysImage = new SysImage();
         // 设置ImageId
         sysImage.setImageId(splitImageId(image.id()));
@@ -892,12 +1156,8 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
         }
 
         // 设置CMD
-        try {
-            ImageInfo info = dockerClient.inspectImage(repoTag);
-            sysImage.setCmd(JsonUtils.objectToJson(info.containerConfig().cmd()));
-        } catch (Exception e) {
-            log.error("获取镜像信息错误，错误位置：{}，错误栈：{}",
-                    "SysImageServiceImpl.imageToSysImage()", HttpClientUtils.getStackTraceAsString(e));
+        if(inspect) {
+            sysImage.setCmd(getImageCmd(repoTag));
         }
 
         // 设置大小
@@ -913,6 +1173,68 @@ public class SysImageServiceImpl extends ServiceImpl<SysImageMapper, SysImage> i
         return sysImage;
     }
 
+    /**
+     * 查询镜像CMD
+     * @param image 镜像ID或repoTag
+     * @return 查询失败返回null
+     * @author jitwxs
+     * @since 2026/10/18 22:04
+     */
+    private String getImageCmd(String image) {
+        try {
+            ImageInfo info = dockerClient.inspectImage(image);
+            return JsonUtils.objectToJson(info.containerConfig().cmd());
+        } catch (Exception e) {
+            log.error("获取镜像信息错误，错误位置：{}，错误栈：{}",
+                    "SysImageServiceImpl.getImageCmd()", HttpClientUtils.getStackTraceAsString(e));
+            return null;
+        }
+    }
+
+    /**
+     * 发送镜像上传进度消息
+     * @param total 文件大小，未知时为-1
+     * @author jitwxs
+     * @since 2026/10/18 20:15
+     */
+    private void sendProgressMQ(String userId, String fullName, long uploaded, long total) {
+        Destination destination = new ActiveMQQueue("MQ_QUEUE_SYS_IMAGE");
+        Task task = new Task();
+
+        Map<String, Object> data = new HashMap<>(16);
+        data.put("type", WebSocketTypeEnum.SYS_IMAGE.getCode());
+        data.put("fullName", fullName);
+        data.put("uploaded", uploaded);
+        data.put("total", total);
+
+        Map<String,String> map = new HashMap<>(16);
+        map.put("uid",userId);
+        map.put("data", JsonUtils.objectToJson(ResultVOUtils.success("镜像上传中", data)));
+        task.setData(map);
+
+        mqProducer.send(destination, JsonUtils.objectToJson(task));
+    }
+
+    /**
+     * 发送镜像拉取进度消息
+     * @author jitwxs
+     * @since 2026/10/18 22:52
+     */
+    private void sendPullProgressMQ(String userId, Map<String, Object> progress) {
+        Destination destination = new ActiveMQQueue("MQ_QUEUE_SYS_IMAGE");
+        Task task = new Task();
+
+        Map<String, Object> data = new HashMap<>(progress);
+        data.put("type", WebSocketTypeEnum.SYS_IMAGE.getCode());
+
+        Map<String,String> map = new HashMap<>(16);
+        map.put("uid",userId);
+        map.put("data", JsonUtils.objectToJson(ResultVOUtils.success("镜像拉取中", data)));
+        task.setData(map);
+
+        mqProducer.send(destination, JsonUtils.objectToJson(task));
+    }
+
     /**
      * 发送系统镜像消息
      * @author jitwxs
@@ -35,6 +35,11 @@ public class SysLogServiceImpl extends ServiceImpl<SysLogMapper, SysLog> impleme
 
     @Override
     public void saveLog(HttpServletRequest request, SysLogTypeEnum enums, Exception ex) {
+        saveLog(buildLog(request, enums), ex);
+    }
+
+    @Override
+    public SysLog buildLog(HttpServletRequest request, SysLogTypeEnum enums) {
         SysLog log = new SysLog();
 
         log.setType(enums.getCode());
@@ -45,11 +50,16 @@ public class SysLogServiceImpl extends ServiceImpl<SysLogMapper, SysLog> impleme
         log.setIp(HttpClientUtils.getRemoteAddr(request));
         log.setUserAgent(request.getHeader("user-agent"));
         log.setParam(request.getParameterMap());
+        return log;
+    }
+
+    @Override
+    public void saveLog(SysLog sysLog, Exception ex) {
         if(ex != null) {
-            log.setException(ex.getMessage());
+            sysLog.setException(ex.getMessage());
         }
 
-        logMapper.insert(log);
+        logMapper.insert(sysLog);
     }
 
     @Override
@@ -4,6 +4,9 @@ import com.baomidou.mybatisplus.mapper.EntityWrapper;
 import com.baomidou.mybatisplus.service.impl.ServiceImpl;
 import jit.edu.paas.commons.activemq.MQProducer;
 import jit.edu.paas.commons.activemq.Task;
+import jit.edu.paas.commons.cache.TwoLevelCache;
+import jit.edu.paas.commons.cache.TwoLevelCacheManager;
+import jit.edu.paas.commons.component.RequestMemo;
 import jit.edu.paas.commons.util.*;
 import jit.edu.paas.commons.util.jedis.JedisClient;
 import jit.edu.paas.domain.entity.SysLogin;
@@ -27,10 +30,12 @@ import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import javax.annotation.PostConstruct;
 import javax.jms.Destination;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -66,6 +71,12 @@ public class SysLoginServiceImpl extends ServiceImpl<SysLoginMapper, SysLogin> i
     private final String ID_PREFIX = "ID:";
     private final String USERNAME_PREFIX = "NAME:";
     private final String EMAIL_PREFIX = "EMAIL:";
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+    private TwoLevelCache cache;
+    @Autowired
+    private RequestMemo requestMemo;
+    private static final String MEMO_ROLE = "roleName";
 
     @Value("${redis.register.email.key}")
     private String registerEmailKey;
@@ -78,31 +89,16 @@ public class SysLoginServiceImpl extends ServiceImpl<SysLoginMapper, SysLogin> i
     @Value("${server.addr}")
     private String serverIp;
 
+    @PostConstruct
+    public void init() {
+        // 注册、登录时会查询不存在的用户名和邮箱，短时缓存不存在的结果
+        cache = cacheManager.getCache(key, true);
+    }
+
     @Override
     public SysLogin getById(String id) {
-        String field = ID_PREFIX + id;
-        try {
-            String res = jedisClient.hget(key, field);
-            if (StringUtils.isNotBlank(res)) {
-                return JsonUtils.jsonToObject(res, SysLogin.class);
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，错误位置：SysLoginServiceImpl.getById()");
-        }
-
-        SysLogin login = loginMapper.selectById(id);
-        // 如果用户不存在，跳过缓存
-        if (login == null) {
-            return null;
-        }
-
-        try {
-            jedisClient.hset(key, field, JsonUtils.objectToJson(login));
-        } catch (Exception e) {
-            log.error("缓存存储异常，错误位置：SysLoginServiceImpl.getById()");
-        }
-
-        return login;
+        // 用户不存在时跳过缓存
+        return cache.get(ID_PREFIX + id, SysLogin.class, () -> loginMapper.selectById(id));
     }
 
     /**
@@ -117,31 +113,8 @@ public class SysLoginServiceImpl extends ServiceImpl<SysLoginMapper, SysLogin> i
             return null;
         }
 
-        String field = USERNAME_PREFIX + username;
-        try {
-            String res = jedisClient.hget(key, field);
-            if (StringUtils.isNotBlank(res)) {
-                return JsonUtils.jsonToObject(res, SysLogin.class);
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，错误位置：SysLoginServiceImpl.getByUsername()");
-        }
-
-        List<SysLogin> list = loginMapper.selectList(new EntityWrapper<SysLogin>().eq("username", username));
-        SysLogin first = CollectionUtils.getListFirst(list);
-
-        // 如果用户不存在，跳过缓存
-        if (first == null) {
-            return null;
-        }
-
-        try {
-            jedisClient.hset(key, field, JsonUtils.objectToJson(first));
-        } catch (Exception e) {
-            log.error("缓存存储异常，错误位置：SysLoginServiceImpl.getByUsername()");
-        }
-
-        return first;
+        return cache.get(USERNAME_PREFIX + username, SysLogin.class, () -> CollectionUtils.getListFirst(
+                loginMapper.selectList(new EntityWrapper<SysLogin>().eq("username", username))));
     }
 
     /**
@@ -156,31 +129,8 @@ public class SysLoginServiceImpl extends ServiceImpl<SysLoginMapper, SysLogin> i
             return null;
         }
 
-        String field = EMAIL_PREFIX + email;
-        try {
-            String res = jedisClient.hget(key, field);
-            if (StringUtils.isNotBlank(res)) {
-                return JsonUtils.jsonToObject(res, SysLogin.class);
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，错误位置：SysLoginServiceImpl.getByEmail()");
-        }
-
-        List<SysLogin> list = loginMapper.selectList(new EntityWrapper<SysLogin>().eq("email", email));
-        SysLogin first = CollectionUtils.getListFirst(list);
-
-        // 如果用户不存在，跳过缓存
-        if (first == null) {
-            return null;
-        }
-
-        try {
-            jedisClient.hset(key, field, JsonUtils.objectToJson(first));
-        } catch (Exception e) {
-            log.error("缓存存储异常，错误位置：SysLoginServiceImpl.getByEmail()");
-        }
-
-        return first;
+        return cache.get(EMAIL_PREFIX + email, SysLogin.class, () -> CollectionUtils.getListFirst(
+                loginMapper.selectList(new EntityWrapper<SysLogin>().eq("email", email))));
     }
 
     /**
@@ -207,6 +157,7 @@ public class SysLoginServiceImpl extends ServiceImpl<SysLoginMapper, SysLogin> i
         // 用户角色默认为User
         sysLogin.setRoleId(RoleEnum.ROLE_USER.getCode());
         Integer i = loginMapper.insert(sysLogin);
+        cleanLoginCache(sysLogin);
         return i == 1;
     }
 
@@ -345,19 +296,18 @@ public class SysLoginServiceImpl extends ServiceImpl<SysLoginMapper, SysLogin> i
 
     @Override
     public void cleanLoginCache(SysLogin login) {
-        try {
-            if (StringUtils.isNotBlank(login.getId())) {
-                jedisClient.hdel(key, ID_PREFIX + login.getId());
-            }
-            if (StringUtils.isNotBlank(login.getUsername())) {
-                jedisClient.hdel(key, USERNAME_PREFIX + login.getUsername());
-            }
-            if (StringUtils.isNotBlank(login.getEmail())) {
-                jedisClient.hdel(key, EMAIL_PREFIX + login.getEmail());
-            }
-        } catch (Exception e) {
-            log.error("缓存删除异常，错误位置：SysLoginServiceImpl.cleanLoginCache()");
+        List<String> fields = new ArrayList<>(3);
+        if (StringUtils.isNotBlank(login.getId())) {
+            fields.add(ID_PREFIX + login.getId());
+        }
+        if (StringUtils.isNotBlank(login.getUsername())) {
+            fields.add(USERNAME_PREFIX + login.getUsername());
+        }
+        if (StringUtils.isNotBlank(login.getEmail())) {
+            fields.add(EMAIL_PREFIX + login.getEmail());
         }
+        cache.evict(fields);
+        requestMemo.evict(MEMO_ROLE, login.getId());
     }
 
     @Override
@@ -430,7 +380,10 @@ public class SysLoginServiceImpl extends ServiceImpl<SysLoginMapper, SysLogin> i
 
     @Override
     public String getRoleName(String userId) {
-        SysLogin sysLogin = getById(userId);
-        return RoleEnum.getMessage(sysLogin.getRoleId());
+        // 鉴权在一次请求中会被多次调用，同一请求内只查询一次
+        return requestMemo.get(MEMO_ROLE, userId, () -> {
+            SysLogin sysLogin = getById(userId);
+            return RoleEnum.getMessage(sysLogin.getRoleId());
+        });
     }
 }
\ No newline at end of file
@@ -8,9 +8,10 @@ import com.spotify.docker.client.messages.Volume;
 import com.spotify.docker.client.messages.VolumeList;
 import jit.edu.paas.commons.activemq.MQProducer;
 import jit.edu.paas.commons.activemq.Task;
+import jit.edu.paas.commons.cache.TwoLevelCache;
+import jit.edu.paas.commons.cache.TwoLevelCacheManager;
 import jit.edu.paas.commons.socket.FileTransferClient;
 import jit.edu.paas.commons.util.*;
-import jit.edu.paas.commons.util.jedis.JedisClient;
 import jit.edu.paas.domain.entity.SysVolume;
 import jit.edu.paas.domain.entity.UserContainer;
 import jit.edu.paas.domain.entity.UserService;
@@ -34,6 +35,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
 import javax.jms.Destination;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
@@ -63,61 +65,27 @@ public class SysVolumeServiceImpl extends ServiceImpl<SysVolumesMapper,SysVolume
     private HttpServletRequest request;
 
     @Autowired
-    private JedisClient jedisClient;
+    private TwoLevelCacheManager cacheManager;
     @Value("${redis.volumes.key}")
     private String key;
     private final String ID_PREFIX = "ID:";
     private final String NAME_PREFIX = "NAME:";
+    private TwoLevelCache cache;
+
+    @PostConstruct
+    public void init() {
+        cache = cacheManager.getCache(key);
+    }
 
     @Override
     public SysVolume getById(String id) {
-        String field = ID_PREFIX + id;
-        try {
-            String res = jedisClient.hget(key, field);
-            if (StringUtils.isNotBlank(res)) {
-                return JsonUtils.jsonToObject(res, SysVolume.class);
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，错误位置：SysVolumeServiceImpl.getById()");
-        }
-
-        SysVolume volume = volumesMapper.selectById(id);
-        if(volume == null) {
-            return null;
-        }
-        try {
-            jedisClient.hset(key, field, JsonUtils.objectToJson(volume));
-        } catch (Exception e) {
-            log.error("缓存存储异常，错误位置：SysVolumeServiceImpl.getById()");
-        }
-        return volume;
+        return cache.get(ID_PREFIX + id, SysVolume.class, () -> volumesMapper.selectById(id));
     }
 
     @Override
     public SysVolume getByName(String name) {
-        String field = NAME_PREFIX + name;
-        try {
-            String res = jedisClient.hget(key, field);
-            if (StringUtils.isNotBlank(res)) {
-                return JsonUtils.jsonToObject(res, SysVolume.class);
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，错误位置：SysVolumeServiceImpl.getByName()");
-        }
-
-        List<SysVolume> list = volumesMapper.selectList(new EntityWrapper<SysVolume>().eq("name", name));
-        SysVolume volume = CollectionUtils.getListFirst(list);
-        if(volume == null) {
-            return null;
-        }
-
-        try {
-            jedisClient.hset(key, field, JsonUtils.objectToJson(volume));
-        } catch (Exception e) {
-            log.error("缓存存储异常，错误位置：SysVolumeServiceImpl.getByName()");
-        }
-
-        return volume;
+        return cache.get(NAME_PREFIX + name, SysVolume.class, () -> CollectionUtils.getListFirst(
+                volumesMapper.selectList(new EntityWrapper<SysVolume>().eq("name", name))));
     }
 
     @Override
@@ -251,6 +219,7 @@ public class SysVolumeServiceImpl extends ServiceImpl<SysVolumesMapper,SysVolume
             sysVolume.setType(enums.getCode());
 
             volumesMapper.updateById(sysVolume);
+            cleanCache(sysVolume);
 
             return true;
         } catch (Exception e) {
@@ -274,6 +243,7 @@ public class SysVolumeServiceImpl extends ServiceImpl<SysVolumesMapper,SysVolume
                 if(container == null) {
                     try {
                         volumesMapper.deleteById(volume.getId());
+                        cleanCache(volume);
                         dockerClient.removeVolume(volume.getName());
                         successCount++;
                     } catch (Exception e) {
@@ -288,6 +258,7 @@ public class SysVolumeServiceImpl extends ServiceImpl<SysVolumesMapper,SysVolume
                 if(userService == null) {
                     try {
                         volumesMapper.deleteById(volume.getId());
+                        cleanCache(volume);
                         dockerSwarmClient.removeVolume(volume.getName());
                         successCount++;
                     } catch (Exception e) {
@@ -394,4 +365,14 @@ public class SysVolumeServiceImpl extends ServiceImpl<SysVolumesMapper,SysVolume
         }
         return list;
     }
+
+    /**
+     * 清理数据卷缓存
+     * @author jitwxs
+     * @since 2026/10/18 23:40
+     */
+    private void cleanCache(SysVolume volume) {
+        cache.evict(ID_PREFIX + volume.getId(),
+                StringUtils.isNotBlank(volume.getName()) ? NAME_PREFIX + volume.getName() : null);
+    }
 }
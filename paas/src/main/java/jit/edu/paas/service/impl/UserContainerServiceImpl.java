@@ -5,13 +5,14 @@ import com.baomidou.mybatisplus.plugins.Page;
 import com.baomidou.mybatisplus.service.impl.ServiceImpl;
 import com.google.common.collect.ImmutableList;
 import com.spotify.docker.client.DockerClient;
-import com.spotify.docker.client.exceptions.ContainerNotFoundException;
 import com.spotify.docker.client.exceptions.DockerRequestException;
-import com.spotify.docker.client.exceptions.DockerTimeoutException;
 import com.spotify.docker.client.messages.*;
 import jit.edu.paas.commons.activemq.MQProducer;
 import jit.edu.paas.commons.activemq.Task;
+import jit.edu.paas.commons.component.RequestMemo;
 import jit.edu.paas.commons.convert.UserContainerDTOConvert;
+import jit.edu.paas.commons.docker.ContainerStateCache;
+import jit.edu.paas.commons.docker.ContainerStatusReconciler;
 import jit.edu.paas.commons.util.*;
 import jit.edu.paas.commons.util.jedis.JedisClient;
 import jit.edu.paas.domain.dto.UserContainerDTO;
@@ -80,10 +81,18 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
 
     @Autowired
     private UserContainerDTOConvert dtoConvert;
+    @Autowired
+    private ContainerStatusReconciler statusReconciler;
+    @Autowired
+    private RequestMemo requestMemo;
+    @Autowired
+    private ContainerStateCache stateCache;
 
     @Value("${redis.container-name.key}")
     private String key;
 
+    private static final String MEMO_CONTAINER = "container";
+
     /**
      * 启动状态允许的操作
      */
@@ -102,7 +111,8 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
 
     @Override
     public UserContainerDTO getById(String id) {
-        return dtoConvert.convert(userContainerMapper.selectById(id));
+        // 同一请求或任务内共用一个DTO
+        return requestMemo.get(MEMO_CONTAINER, id, () -> dtoConvert.convert(userContainerMapper.selectById(id)));
     }
 
     @Override
@@ -322,8 +332,10 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
     @Async("taskExecutor")
     @Transactional(rollbackFor = CustomException.class)
     @Override
+    @SuppressWarnings("try")
     public void startContainerTask(String userId, String containerId) {
-        try {
+        // 异步任务不经过RequestMemoFilter，自行打开记忆作用域，任务内多次读取容器信息只查询一次
+        try (RequestMemo.Scope scope = requestMemo.open()) {
             dockerClient.startContainer(containerId);
             changeStatus(containerId);
 
@@ -346,8 +358,10 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
     @Async("taskExecutor")
     @Transactional(rollbackFor = CustomException.class)
     @Override
+    @SuppressWarnings("try")
     public void stopContainerTask(String userId, String containerId) {
-        try {
+        // 异步任务不经过RequestMemoFilter，自行打开记忆作用域，任务内多次读取容器信息只查询一次
+        try (RequestMemo.Scope scope = requestMemo.open()) {
             dockerClient.stopContainer(containerId, 5);
             changeStatus(containerId);
             // 写入日志
@@ -367,8 +381,10 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
     @Async("taskExecutor")
     @Transactional(rollbackFor = CustomException.class)
     @Override
+    @SuppressWarnings("try")
     public void killContainerTask(String userId, String containerId) {
-        try {
+        // 异步任务不经过RequestMemoFilter，自行打开记忆作用域，任务内多次读取容器信息只查询一次
+        try (RequestMemo.Scope scope = requestMemo.open()) {
             dockerClient.killContainer(containerId);
             changeStatus(containerId);
             // 写入日志
@@ -388,10 +404,12 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
     @Transactional(rollbackFor = CustomException.class)
     @Override
     public void removeContainerTask(String userId, String containerId, HttpServletRequest request) {
+        // 容器删除后Docker事件会同步删除记录，需提前读取容器信息
+        String name = getName(containerId);
+        String projectId = getProjectId(containerId);
         try {
             dockerClient.removeContainer(containerId);
             // 删除数据
-            String name = getName(containerId);
             userContainerMapper.deleteById(containerId);
             // 删除数据卷
             sysVolumesMapper.deleteByObjId(containerId);
@@ -399,7 +417,7 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
             cleanCache(containerId);
             // 写入日志
             sysLogService.saveLog(request, SysLogTypeEnum.DELETE_CONTAINER);
-            projectLogService.saveSuccessLog(getProjectId(containerId), containerId, ProjectLogTypeEnum.DELETE_CONTAINER);
+            projectLogService.saveSuccessLog(projectId, containerId, ProjectLogTypeEnum.DELETE_CONTAINER);
             // 发送成功消息
             sendMQ(userId, containerId, ResultVOUtils.successWithMsg("容器" + name + "移除成功"));
         } catch (Exception e) {
@@ -407,7 +425,7 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
                     "UserContainerServiceImpl.removeContainerTask()", HttpClientUtils.getStackTraceAsString(e));
             // 写入日志
             sysLogService.saveLog(request, SysLogTypeEnum.DELETE_CONTAINER, e);
-            projectLogService.saveErrorLog(getProjectId(containerId), containerId, ProjectLogTypeEnum.DELETE_CONTAINER_ERROR,ResultEnum.DOCKER_EXCEPTION);
+            projectLogService.saveErrorLog(projectId, containerId, ProjectLogTypeEnum.DELETE_CONTAINER_ERROR,ResultEnum.DOCKER_EXCEPTION);
             // 发送异常消息
             sendMQ(userId, containerId, ResultVOUtils.error(ResultEnum.DOCKER_EXCEPTION));
         }
@@ -416,8 +434,10 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
     @Async("taskExecutor")
     @Transactional(rollbackFor = CustomException.class)
     @Override
+    @SuppressWarnings("try")
     public void pauseContainerTask(String userId, String containerId) {
-        try {
+        // 异步任务不经过RequestMemoFilter，自行打开记忆作用域，任务内多次读取容器信息只查询一次
+        try (RequestMemo.Scope scope = requestMemo.open()) {
             dockerClient.pauseContainer(containerId);
             changeStatus(containerId);
             // 写入日志
@@ -438,8 +458,10 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
     @Async("taskExecutor")
     @Transactional(rollbackFor = CustomException.class)
     @Override
+    @SuppressWarnings("try")
     public void restartContainerTask(String userId, String containerId) {
-        try {
+        // 异步任务不经过RequestMemoFilter，自行打开记忆作用域，任务内多次读取容器信息只查询一次
+        try (RequestMemo.Scope scope = requestMemo.open()) {
             dockerClient.restartContainer(containerId);
             changeStatus(containerId);
             // 写入日志
@@ -461,8 +483,10 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
     @Async("taskExecutor")
     @Transactional(rollbackFor = CustomException.class)
     @Override
+    @SuppressWarnings("try")
     public void continueContainerTask(String userId, String containerId) {
-        try {
+        // 异步任务不经过RequestMemoFilter，自行打开记忆作用域，任务内多次读取容器信息只查询一次
+        try (RequestMemo.Scope scope = requestMemo.open()) {
             dockerClient.unpauseContainer(containerId);
             changeStatus(containerId);
             // 写入日志
@@ -527,48 +551,14 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
     }
 
     /**
-     * API查询容器状态
+     * 查询容器状态
+     * 读取ContainerStateCache中的状态，不写数据库；状态变化由ContainerStateCache异步写回
      * @author jitwxs
      * @since 2018/7/12 14:19
      */
     @Override
     public ContainerStatusEnum getStatus(String containerId) {
-        try {
-            ContainerInfo info = dockerClient.inspectContainer(containerId);
-            ContainerState state = info.state();
-
-            ContainerStatusEnum statusEnum;
-            if(state.running()) {
-                if(state.paused()) {
-                    statusEnum = ContainerStatusEnum.PAUSE;
-                } else {
-                    statusEnum = ContainerStatusEnum.RUNNING;
-                }
-            } else {
-                statusEnum =  ContainerStatusEnum.STOP;
-            }
-
-            // 如果查询的状态和数据库不一致，更新数据库状态
-            UserContainerDTO containerDTO = getById(containerId);
-            if(containerDTO != null) {
-                if(statusEnum.getCode() != containerDTO.getStatus()) {
-                    containerDTO.setStatus(statusEnum.getCode());
-                    userContainerMapper.updateById(containerDTO);
-                }
-            }
-
-            return statusEnum;
-        } catch (ContainerNotFoundException e) {
-            return ContainerStatusEnum.REMOVE;
-        } catch (DockerTimeoutException te) {
-            log.error("获取容器状态超时，异常位置：{}，容器ID：{}",
-                    "UserContainerServiceImpl.getStatus()", containerId);
-        } catch (Exception e) {
-            e.printStackTrace();
-            log.error("获取容器状态出现异常，异常位置：{}，错误栈：{}",
-                    "UserContainerServiceImpl.getStatus()",HttpClientUtils.getStackTraceAsString(e));
-        }
-        return null;
+        return stateCache.getStatus(containerId);
     }
 
     @Override
@@ -592,26 +582,26 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
      */
     @Override
     public ResultVO changeStatus(String containerId) {
-        ContainerStatusEnum statusEnum = getStatus(containerId);
+        // 在容器操作之后调用，内存中的状态已过期，重新inspect
+        ContainerStatusEnum statusEnum = stateCache.refresh(containerId);
         if(statusEnum == null) {
             return ResultVOUtils.error(ResultEnum.DOCKER_EXCEPTION);
         }
         if(statusEnum == ContainerStatusEnum.REMOVE) {
             userContainerMapper.deleteById(containerId);
-            return ResultVOUtils.success();
+            requestMemo.evict(MEMO_CONTAINER, containerId);
         }
 
-        UserContainerDTO containerDTO = getById(containerId);
-        if(containerDTO == null) {
-            return ResultVOUtils.error(ResultEnum.PARAM_ERROR);
-        }
+        return ResultVOUtils.success();
+    }
 
-        if(containerDTO.getStatus() != statusEnum.getCode()) {
-            containerDTO.setStatus(statusEnum.getCode());
-            userContainerMapper.updateById(containerDTO);
+    @Override
+    public void updateStatus(String containerId, ContainerStatusEnum statusEnum) {
+        stateCache.update(containerId, statusEnum);
+        if(statusEnum == ContainerStatusEnum.REMOVE) {
+            userContainerMapper.deleteById(containerId);
+            cleanCache(containerId);
         }
-
-        return ResultVOUtils.success();
     }
 
     @Override
@@ -686,34 +676,16 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
         }
     }
 
+    /**
+     * 同步容器状态
+     * 容器状态由Docker事件增量更新，此处仅作兜底对账，由ContainerStatusReconciler批量比对和写入
+     * @author jitwxs
+     * @since 2018/7/9 11:13
+     */
     @Override
     @Transactional(rollbackFor = CustomException.class)
     public Map<String, Integer> syncStatus(String userId) {
-        // 读取数据库容器列表
-        List<UserContainer> containers;
-
-        //为空时同步所有
-        if(StringUtils.isBlank(userId)) {
-            containers = userContainerMapper.selectList(new EntityWrapper<>());
-        } else{
-            containers = userContainerMapper.selectList(new EntityWrapper<UserContainer>().eq("user_id",userId));
-        }
-
-        int successCount = 0, errorCount = 0;
-        for(UserContainer container : containers) {
-            ResultVO resultVO = changeStatus(container.getId());
-
-            if(ResultEnum.OK.getCode() == resultVO.getCode()) {
-                successCount++;
-            } else {
-                errorCount++;
-            }
-        }
-
-        Map<String, Integer> map =new HashMap<>(16);
-        map.put("success", successCount);
-        map.put("error", errorCount);
-        return map;
+        return statusReconciler.reconcile(userId);
     }
 
     /**
@@ -802,6 +774,7 @@ public class UserContainerServiceImpl extends ServiceImpl<UserContainerMapper, U
     }
 
     private void cleanCache(String id) {
+        requestMemo.evict(MEMO_CONTAINER, id);
         try {
             jedisClient.hdel(key, id);
         } catch (Exception e) {
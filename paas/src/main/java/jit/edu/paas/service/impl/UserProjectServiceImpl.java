@@ -3,11 +3,11 @@ package jit.edu.paas.service.impl;
 import com.baomidou.mybatisplus.mapper.EntityWrapper;
 import com.baomidou.mybatisplus.plugins.Page;
 import com.baomidou.mybatisplus.service.impl.ServiceImpl;
+import jit.edu.paas.commons.cache.TwoLevelCache;
+import jit.edu.paas.commons.cache.TwoLevelCacheManager;
 import jit.edu.paas.commons.util.HttpClientUtils;
-import jit.edu.paas.commons.util.JsonUtils;
 import jit.edu.paas.commons.util.ResultVOUtils;
 import jit.edu.paas.commons.util.StringUtils;
-import jit.edu.paas.commons.util.jedis.JedisClient;
 import jit.edu.paas.domain.dto.UserProjectDTO;
 import jit.edu.paas.domain.entity.ProjectLog;
 import jit.edu.paas.domain.entity.UserContainer;
@@ -32,8 +32,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -66,69 +69,47 @@ public class UserProjectServiceImpl extends ServiceImpl<UserProjectMapper, UserP
     private ProjectLogMapper projectLogMapper;
 
     @Autowired
-    private JedisClient jedisClient;
+    private TwoLevelCacheManager cacheManager;
     @Autowired
     private HttpServletRequest request;
 
     @Value("${redis.project.key}")
     private String key;
+    private TwoLevelCache cache;
 
-    @Override
-    public String getProjectName(String projectId) {
-        try {
-            String res = jedisClient.hget(key, projectId);
-            if(StringUtils.isNotBlank(res)) {
-                UserProjectDTO projectDTO = JsonUtils.jsonToObject(res, UserProjectDTO.class);
-                if(projectDTO != null) {
-                    return projectDTO.getName();
-                }
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，错误位置：UserProjectServiceImpl.getProjectName()");
-        }
+    @PostConstruct
+    public void init() {
+        cache = cacheManager.getCache(key);
+    }
 
-        UserProjectDTO projectDTO = projectMapper.getById(projectId);
+    /**
+     * 读取项目，经过二级缓存
+     * @author jitwxs
+     * @since 2026/10/18 23:40
+     */
+    private UserProjectDTO getDTO(String projectId) {
+        return cache.get(projectId, UserProjectDTO.class, () -> projectMapper.getById(projectId));
+    }
 
-        if(projectDTO == null) {
-            return null;
-        }
+    @Override
+    public String getProjectName(String projectId) {
+        UserProjectDTO projectDTO = getDTO(projectId);
+        return projectDTO == null ? null : projectDTO.getName();
+    }
 
-        try {
-            jedisClient.hset(key, projectId, JsonUtils.objectToJson(projectDTO));
-        } catch (Exception e) {
-            log.error("缓存存储异常，错误位置：UserProjectServiceImpl.getProjectById()");
-        }
-        return projectDTO.getName();
+    @Override
+    public Map<String, UserProjectDTO> getByIds(Collection<String> ids) {
+        return cache.getAll("", ids, UserProjectDTO.class, missing -> projectMapper.listByIds(missing).stream()
+                .collect(Collectors.toMap(UserProjectDTO::getId, project -> project)));
     }
 
     @Override
     public ResultVO getProjectById(String id, String userId) {
-        try {
-            String res = jedisClient.hget(key, id);
-            if(StringUtils.isNotBlank(res)) {
-                UserProjectDTO projectDTO = JsonUtils.jsonToObject(res, UserProjectDTO.class);
-                if(projectDTO != null) {
-                    return ResultVOUtils.success(projectDTO);
-                } else {
-                    cleanCache(id);
-                }
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，错误位置：UserProjectServiceImpl.getProjectById()");
-        }
-
-        UserProjectDTO projectDTO = projectMapper.getById(id);
-
+        UserProjectDTO projectDTO = getDTO(id);
         if(projectDTO == null) {
             return ResultVOUtils.error(ResultEnum.PARAM_ERROR);
         }
 
-        try {
-            jedisClient.hset(key, id, JsonUtils.objectToJson(projectDTO));
-        } catch (Exception e) {
-            log.error("缓存存储异常，错误位置：UserProjectServiceImpl.getProjectById()");
-        }
-
         // 鉴权（管理员查看所有，用户查看自己）
         String roleName = loginService.getRoleName(userId);
         if(RoleEnum.ROLE_USER.getMessage().equals(roleName)) {
@@ -151,7 +132,7 @@ public class UserProjectServiceImpl extends ServiceImpl<UserProjectMapper, UserP
     public void cleanCache(String id) {
         try {
             // 清理项目缓存
-            jedisClient.hdel(key, id);
+            cache.evict(id);
 
             // 更新所属容器
             List<UserContainer> containers = containerService.selectList(new EntityWrapper<UserContainer>().eq("project_id",id));
@@ -260,27 +241,8 @@ public class UserProjectServiceImpl extends ServiceImpl<UserProjectMapper, UserP
 
     @Override
     public String getUserId(String projectId) {
-        try {
-            String res = jedisClient.hget(key, projectId);
-            if(StringUtils.isNotBlank(res)) {
-                UserProjectDTO projectDTO = JsonUtils.jsonToObject(res, UserProjectDTO.class);
-                return projectDTO == null ? null : projectDTO.getUserId();
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，错误位置：UserProjectServiceImpl.getProjectById()");
-        }
-
-        UserProjectDTO projectDTO = projectMapper.getById(projectId);
-
-        if(projectDTO != null) {
-            try {
-                jedisClient.hset(key, projectId, JsonUtils.objectToJson(projectDTO));
-            } catch (Exception e) {
-                log.error("缓存存储异常，错误位置：UserProjectServiceImpl.getProjectById()");
-            }
-        }
-
-        return null;
+        UserProjectDTO projectDTO = getDTO(projectId);
+        return projectDTO == null ? null : projectDTO.getUserId();
     }
 
     @Override
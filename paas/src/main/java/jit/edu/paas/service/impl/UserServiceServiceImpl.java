@@ -12,9 +12,10 @@ import com.spotify.docker.client.messages.mount.VolumeOptions;
 import com.spotify.docker.client.messages.swarm.*;
 import jit.edu.paas.commons.activemq.MQProducer;
 import jit.edu.paas.commons.activemq.Task;
+import jit.edu.paas.commons.cache.TwoLevelCache;
+import jit.edu.paas.commons.cache.TwoLevelCacheManager;
 import jit.edu.paas.commons.convert.UserServiceDTOConvert;
 import jit.edu.paas.commons.util.*;
-import jit.edu.paas.commons.util.jedis.JedisClient;
 import jit.edu.paas.domain.dto.UserServiceDTO;
 import jit.edu.paas.domain.entity.SysImage;
 import jit.edu.paas.domain.entity.SysVolume;
@@ -34,6 +35,7 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
 import javax.jms.Destination;
 import javax.servlet.http.HttpServletRequest;
 import java.util.*;
@@ -75,10 +77,16 @@ public class UserServiceServiceImpl extends ServiceImpl<UserServiceMapper, UserS
     @Autowired
 	private NoticeService noticeService;
     @Autowired
-    private JedisClient jedisClient;
+    private TwoLevelCacheManager cacheManager;
 
     @Value("${redis.user-service.ley}")
     private String key;
+    private TwoLevelCache cache;
+
+    @PostConstruct
+    public void init() {
+        cache = cacheManager.getCache(key);
+    }
 
     @Override
     public ResultVO checkPermission(String userId, String serviceId) {
@@ -104,27 +112,7 @@ public class UserServiceServiceImpl extends ServiceImpl<UserServiceMapper, UserS
 
     @Override
     public UserServiceDTO getById(String id) {
-        try {
-            String json = jedisClient.hget(key, id);
-            if(StringUtils.isNotBlank(json)) {
-                return JsonUtils.jsonToObject(json, UserServiceDTO.class);
-            }
-        } catch (Exception e) {
-            log.error("缓存读取异常，异常位置：{}","UserServiceServiceImpl.getById()");
-        }
-
-        UserServiceDTO serviceDTO = dtoConvert.convert(userServiceMapper.selectById(id));
-        if(serviceDTO == null) {
-            return null;
-        }
-
-        try {
-            jedisClient.hset(key, id, JsonUtils.objectToJson(serviceDTO));
-        } catch (Exception e) {
-            log.error("缓存存储异常，异常位置：{}", "UserServiceServiceImpl.getById()");
-        }
-
-        return serviceDTO;
+        return cache.get(id, UserServiceDTO.class, () -> dtoConvert.convert(userServiceMapper.selectById(id)));
     }
 
     @Override
@@ -263,11 +251,7 @@ public class UserServiceServiceImpl extends ServiceImpl<UserServiceMapper, UserS
 
     @Override
     public void cleanCache(String id) {
-        try {
-            jedisClient.hdel(key, id);
-        } catch (Exception e) {
-            log.error("缓存清理异常，异常位置：{}", "UserServiceServiceImpl.cleanCache()");
-        }
+        cache.evict(id);
     }
 
     @Async("taskExecutor")
@@ -0,0 +1,52 @@
+package jit.edu.paas.commons.cache;
+
+import jit.edu.paas.commons.util.jedis.JedisClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * 二级缓存管理测试
+ * @author jitwxs
+ * @since 2026/10/19 16:50
+ */
+public class TwoLevelCacheManagerTest {
+    private TwoLevelCacheManager cacheManager;
+
+    @Before
+    public void setUp() {
+        cacheManager = new TwoLevelCacheManager();
+        ReflectionTestUtils.setField(cacheManager, "jedisClient", Mockito.mock(JedisClient.class));
+        ReflectionTestUtils.setField(cacheManager, "maxWeight", 1024L);
+        ReflectionTestUtils.setField(cacheManager, "ttl", 300L);
+        ReflectionTestUtils.setField(cacheManager, "absentTtl", 30L);
+    }
+
+    @Test
+    public void sameCache() {
+        TwoLevelCache cache = cacheManager.getCache("login", true);
+
+        assertTrue(cache.isCacheAbsent());
+        assertSame(cache, cacheManager.getCache("login", true));
+        assertFalse(cacheManager.getCache("project").isCacheAbsent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void conflictingCacheAbsent() {
+        cacheManager.getCache("login", true);
+        cacheManager.getCache("login");
+    }
+
+    @Test
+    public void absentDisabled() {
+        ReflectionTestUtils.setField(cacheManager, "absentTtl", 0L);
+
+        // absent-ttl为0时开启与不开启一致
+        TwoLevelCache cache = cacheManager.getCache("login", true);
+        assertFalse(cache.isCacheAbsent());
+        assertSame(cache, cacheManager.getCache("login", true));
+    }
+}
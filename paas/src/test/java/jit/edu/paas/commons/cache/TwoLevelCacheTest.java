@@ -0,0 +1,174 @@
+package jit.edu.paas.commons.cache;
+
+import jit.edu.paas.commons.util.jedis.JedisClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 二级缓存测试，Redis使用Mock且始终未命中
+ * @author jitwxs
+ * @since 2026/10/19 13:00
+ */
+public class TwoLevelCacheTest {
+    private static final int THREADS = 8;
+
+    private TwoLevelCache cache;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        cache = new TwoLevelCache(Mockito.mock(TwoLevelCacheManager.class), Mockito.mock(JedisClient.class),
+                "test", 1024 * 1024, 300, 30);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void singleFlight() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> cache.get("field", String.class, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "value";
+            })));
+        }
+        // 其余线程均在等待第一个线程的加载结果后再放行
+        waitCoalesced(THREADS - 1);
+        release.countDown();
+
+        for (Future<String> future : futures) {
+            assertEquals("value", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        // 之后命中本地缓存
+        assertEquals("value", cache.get("field", String.class, () -> "other"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void singleFlightException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> cache.get("field", String.class, () -> {
+                await(release);
+                throw new IllegalStateException("db down");
+            })));
+        }
+        waitCoalesced(THREADS - 1);
+        release.countDown();
+
+        for (Future<String> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        // 失败不缓存，下一次重新加载
+        assertEquals("value", cache.get("field", String.class, () -> "value"));
+    }
+
+    @Test
+    public void absent() {
+        AtomicInteger loads = new AtomicInteger();
+        assertNull(cache.get("field", String.class, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.get("field", String.class, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertEquals(1, loads.get());
+        assertEquals(Long.valueOf(1), cache.getMetrics().get("absentHit"));
+
+        // 新增记录后失效，立即可见
+        cache.evict("field");
+        assertEquals("value", cache.get("field", String.class, () -> "value"));
+    }
+
+    @Test
+    public void absentNotCachedWhenEvictedDuringLoad() {
+        assertNull(cache.get("field", String.class, () -> {
+            // 加载期间其他线程插入记录并失效
+            cache.evictLocal(Collections.singletonList("field"));
+            return null;
+        }));
+
+        assertEquals("value", cache.get("field", String.class, () -> "value"));
+    }
+
+    @Test
+    public void absentDisabled() {
+        TwoLevelCache plain = new TwoLevelCache(Mockito.mock(TwoLevelCacheManager.class), Mockito.mock(JedisClient.class),
+                "plain", 1024 * 1024, 300, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        plain.get("field", String.class, () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        plain.get("field", String.class, () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void evictAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        // 事务中插入记录后失效
+        cache.evict("field");
+        // 提交前其他线程读到旧数据，缓存了“不存在”
+        assertNull(cache.get("field", String.class, () -> null));
+        assertNull(cache.get("field", String.class, () -> "value"));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        assertEquals("value", cache.get("field", String.class, () -> "value"));
+    }
+
+    private void waitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getMetrics().get("coalesced") < expected) {
+            assertTrue("等待合并加载超时", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package jit.edu.paas.commons.docker;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.messages.ContainerInfo;
+import com.spotify.docker.client.messages.ContainerState;
+import jit.edu.paas.domain.entity.UserContainer;
+import jit.edu.paas.domain.enums.ContainerStatusEnum;
+import jit.edu.paas.mapper.UserContainerMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * 容器状态内存缓存测试，数据库和Docker使用Mock
+ * @author jitwxs
+ * @since 2026/10/19 16:40
+ */
+public class ContainerStateCacheTest {
+    private ContainerStateCache stateCache;
+    private DockerClient dockerClient;
+
+    @Before
+    public void setUp() {
+        dockerClient = Mockito.mock(DockerClient.class);
+        UserContainerMapper userContainerMapper = Mockito.mock(UserContainerMapper.class);
+        Mockito.when(userContainerMapper.listIdAndStatus(null)).thenReturn(Arrays.asList(
+                container("c1", ContainerStatusEnum.RUNNING),
+                container("c2", ContainerStatusEnum.STOP)));
+
+        stateCache = new ContainerStateCache();
+        ReflectionTestUtils.setField(stateCache, "dockerClient", dockerClient);
+        ReflectionTestUtils.setField(stateCache, "userContainerMapper", userContainerMapper);
+        ReflectionTestUtils.setField(stateCache, "ttl", 60000L);
+        stateCache.init();
+    }
+
+    @Test
+    public void unchangedAfterStartupNotQueued() throws Exception {
+        running("c1", true);
+
+        // 初始状态已过期，仍然inspect
+        assertEquals(ContainerStatusEnum.RUNNING, stateCache.getStatus("c1"));
+        Mockito.verify(dockerClient).inspectContainer("c1");
+        assertNull(stateCache.getPending("c1"));
+    }
+
+    @Test
+    public void changedAfterStartupQueued() throws Exception {
+        running("c2", true);
+
+        assertEquals(ContainerStatusEnum.RUNNING, stateCache.getStatus("c2"));
+        assertEquals(ContainerStatusEnum.RUNNING, stateCache.getPending("c2"));
+    }
+
+    @Test
+    public void retainAll() {
+        stateCache.update("c3", ContainerStatusEnum.RUNNING);
+        assertEquals(ContainerStatusEnum.RUNNING, stateCache.getPending("c3"));
+
+        assertEquals(2, stateCache.retainAll(Collections.singleton("c1")));
+        assertNull(stateCache.getPending("c3"));
+        assertEquals(Long.valueOf(1), stateCache.getMetrics().get("size"));
+    }
+
+    private void running(String containerId, boolean running) throws Exception {
+        ContainerState state = Mockito.mock(ContainerState.class);
+        Mockito.when(state.running()).thenReturn(running);
+        Mockito.when(state.paused()).thenReturn(false);
+        ContainerInfo info = Mockito.mock(ContainerInfo.class);
+        Mockito.when(info.state()).thenReturn(state);
+        Mockito.when(dockerClient.inspectContainer(ArgumentMatchers.eq(containerId))).thenReturn(info);
+    }
+
+    private static UserContainer container(String id, ContainerStatusEnum statusEnum) {
+        UserContainer container = new UserContainer();
+        container.setId(id);
+        container.setStatus(statusEnum.getCode());
+        return container;
+    }
+}
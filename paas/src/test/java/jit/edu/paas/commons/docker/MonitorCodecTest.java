@@ -0,0 +1,92 @@
+package jit.edu.paas.commons.docker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 监控数据编解码测试
+ * @author jitwxs
+ * @since 2026/10/19 12:00
+ */
+public class MonitorCodecTest {
+    private static final long PERIOD = 60 * 60 * 1000L;
+
+    @Test
+    public void roundTrip() {
+        long[] timestamps = {1539849600000L, 1539849605000L, 1539849610000L, 1539849615000L};
+        double[][] rows = {
+                {1.5, 2.25, 3, 4, 0.125},
+                {1.0, 2.5, 3, 5, 99.999},
+                {0.0, 0.001, 0, 4, 100.0},
+                {1024.75, 0.0, 7, 1, 0.0}
+        };
+
+        MonitorBlock block = MonitorCodec.decode(MonitorCodec.encode(timestamps, rows, rows.length), PERIOD);
+
+        assertEquals(rows.length, block.size());
+        assertEquals(timestamps[0] - timestamps[0] % PERIOD, block.getBucketStart());
+        for (int r = 0; r < rows.length; r++) {
+            assertEquals(timestamps[r], block.getTimestamp(r));
+            assertArrayEquals(rows[r], block.getRow(r), 0.0005);
+        }
+    }
+
+    @Test
+    public void negativeDelta() {
+        // 数值下降和负数，差值为负，zigzag编码后仍需正确还原
+        long[] timestamps = {1000, 2000, 3000};
+        double[][] rows = {{500.5, -1.0}, {-250.25, -3.5}, {0.0, 7.0}};
+
+        MonitorBlock block = MonitorCodec.decode(MonitorCodec.encode(timestamps, rows, rows.length), PERIOD);
+
+        for (int r = 0; r < rows.length; r++) {
+            assertArrayEquals(rows[r], block.getRow(r), 0.0005);
+        }
+    }
+
+    @Test
+    public void negativeTimestampDelta() {
+        long[] timestamps = {5000, 4000, Long.MAX_VALUE / 2};
+        double[][] rows = {{1}, {2}, {3}};
+
+        MonitorBlock block = MonitorCodec.decode(MonitorCodec.encode(timestamps, rows, rows.length), PERIOD);
+
+        // 时间戳倒退的行在解码追加时被忽略
+        assertEquals(2, block.size());
+        assertEquals(5000, block.getTimestamp(0));
+        assertEquals(Long.MAX_VALUE / 2, block.getTimestamp(1));
+    }
+
+    @Test
+    public void emptyBlock() {
+        String member = MonitorCodec.encode(new long[0], new double[0][], 0);
+
+        MonitorBlock block = MonitorCodec.decode(member, PERIOD);
+
+        assertEquals(0, block.size());
+        assertFalse(MonitorCodec.isLegacy(member));
+    }
+
+    @Test
+    public void sizeLessThanArray() {
+        // MonitorBlock的数组有预留空间，只编码前size行
+        long[] timestamps = {1000, 2000, 0, 0};
+        double[][] rows = {{1, 2}, {3, 4}, null, null};
+
+        MonitorBlock block = MonitorCodec.decode(MonitorCodec.encode(timestamps, rows, 2), PERIOD);
+
+        assertEquals(2, block.size());
+        assertArrayEquals(new double[]{3, 4}, block.getRow(1), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownVersion() {
+        MonitorCodec.decode("AgA=", PERIOD);
+    }
+
+    @Test
+    public void legacy() {
+        assertTrue(MonitorCodec.isLegacy("{\"timestamp\":1}"));
+    }
+}
@@ -0,0 +1,88 @@
+package jit.edu.paas.commons.docker;
+
+import jit.edu.paas.domain.vo.ContainerMonitorRollupVO;
+import jit.edu.paas.domain.vo.ContainerMonitorVO;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 监控数据聚合测试
+ * @author jitwxs
+ * @since 2026/10/19 12:10
+ */
+public class MonitorRollupTest {
+    private static final long PERIOD = 5 * 60 * 1000L;
+
+    @Test
+    public void bucketBoundary() {
+        long start = 1539849600000L;
+        MonitorRollup rollup = new MonitorRollup(PERIOD, start + PERIOD - 1);
+
+        assertEquals(start, rollup.getBucketStart());
+        assertEquals(start + PERIOD, rollup.getBucketEnd());
+        assertTrue(rollup.contains(start));
+        assertTrue(rollup.contains(start + PERIOD - 1));
+        assertFalse(rollup.contains(start - 1));
+        // 周期结束时间属于下一个周期
+        assertFalse(rollup.contains(start + PERIOD));
+        assertEquals(start + PERIOD, new MonitorRollup(PERIOD, start + PERIOD).getBucketStart());
+    }
+
+    @Test
+    public void aggregate() {
+        long start = 1539849600000L;
+        MonitorRollup rollup = new MonitorRollup(PERIOD, start);
+        rollup.add(sample(start + 2000, 30, 100));
+        rollup.add(sample(start, 10, 300));
+        rollup.add(sample(start + 1000, 20, 200));
+
+        ContainerMonitorRollupVO vo = rollup.toVO();
+
+        assertEquals(3, vo.getCount());
+        assertEquals(PERIOD, vo.getPeriod());
+        assertEquals(start, vo.getTimestamp());
+        assertEquals(20, vo.getCpuUtilization(), 0.0005);
+        assertEquals(200, vo.getMemoryUsage(), 0.0005);
+        assertEquals(10, vo.getMin().getCpuUtilization(), 0.0005);
+        assertEquals(100, vo.getMin().getMemoryUsage(), 0.0005);
+        assertEquals(30, vo.getMax().getCpuUtilization(), 0.0005);
+        assertEquals(300, vo.getMax().getMemoryUsage(), 0.0005);
+        // 最后值按时间戳而不是加入顺序
+        assertEquals(start + 2000, vo.getLast().getTimestamp());
+    }
+
+    @Test
+    public void empty() {
+        ContainerMonitorRollupVO vo = new MonitorRollup(PERIOD, 0).toVO();
+
+        assertEquals(0, vo.getCount());
+        assertEquals(0, vo.getCpuUtilization(), 0);
+        assertNull(vo.getLast());
+    }
+
+    @Test
+    public void rollupRowRoundTrip() {
+        MonitorRollup rollup = new MonitorRollup(PERIOD, 0);
+        rollup.add(sample(1000, 10, 100));
+        rollup.add(sample(2000, 30, 300));
+
+        double[] row = MonitorCodec.toRollupRow(rollup.toVO());
+
+        assertEquals(MonitorCodec.ROLLUP_COLUMNS.length, row.length);
+        assertEquals(2, row[0], 0);
+        int cpu = 4, n = MonitorCodec.METRICS.length;
+        assertEquals(20, row[1 + cpu], 0.0005);
+        assertEquals(10, row[1 + n + cpu], 0.0005);
+        assertEquals(30, row[1 + n * 2 + cpu], 0.0005);
+        assertEquals(30, row[1 + n * 3 + cpu], 0.0005);
+    }
+
+    private static ContainerMonitorVO sample(long timestamp, double cpu, double memory) {
+        ContainerMonitorVO vo = new ContainerMonitorVO();
+        vo.setTimestamp(timestamp);
+        vo.setCpuUtilization(cpu);
+        vo.setMemoryUsage(memory);
+        return vo;
+    }
+}
@@ -0,0 +1,182 @@
+package jit.edu.paas.commons.socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 分块上传断点记录测试
+ * @author jitwxs
+ * @since 2026/10/19 12:20
+ */
+public class ChunkManifestTest {
+    private static final int CHUNK_SIZE = 4;
+
+    private Path directory;
+    private Path target;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("chunk-manifest-");
+        target = directory.resolve("data.bin");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) stream::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void chunkCount() {
+        assertEquals(0, ChunkManifest.chunkCount(0, CHUNK_SIZE));
+        assertEquals(1, ChunkManifest.chunkCount(1, CHUNK_SIZE));
+        assertEquals(1, ChunkManifest.chunkCount(4, CHUNK_SIZE));
+        assertEquals(2, ChunkManifest.chunkCount(5, CHUNK_SIZE));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void chunkCountOverflow() {
+        ChunkManifest.chunkCount(Long.MAX_VALUE, 1);
+    }
+
+    @Test
+    public void acceptable() {
+        assertTrue(ChunkManifest.isAcceptable(0, ChunkManifest.MIN_CHUNK_SIZE));
+        assertTrue(ChunkManifest.isAcceptable(ChunkManifest.MAX_LENGTH, ChunkManifest.MAX_CHUNK_SIZE));
+
+        assertFalse(ChunkManifest.isAcceptable(-1, ChunkManifest.MIN_CHUNK_SIZE));
+        assertFalse(ChunkManifest.isAcceptable(ChunkManifest.MAX_LENGTH + 1, ChunkManifest.MAX_CHUNK_SIZE));
+        assertFalse(ChunkManifest.isAcceptable(10, ChunkManifest.MIN_CHUNK_SIZE - 1));
+        assertFalse(ChunkManifest.isAcceptable(10, ChunkManifest.MAX_CHUNK_SIZE + 1));
+        // 分块数超过上限
+        assertFalse(ChunkManifest.isAcceptable(ChunkManifest.MAX_LENGTH, ChunkManifest.MIN_CHUNK_SIZE));
+        assertFalse(ChunkManifest.isAcceptable(Long.MAX_VALUE, ChunkManifest.MIN_CHUNK_SIZE));
+    }
+
+    @Test(expected = IOException.class)
+    public void openRejectsTooManyChunks() throws IOException {
+        ChunkManifest.open(target, (long) ChunkManifest.MAX_CHUNK_COUNT * CHUNK_SIZE + 1, CHUNK_SIZE);
+    }
+
+    @Test
+    public void lastChunkLength() throws IOException {
+        ChunkManifest manifest = ChunkManifest.open(target, 10, CHUNK_SIZE);
+
+        assertEquals(3, manifest.getChunkCount());
+        assertEquals(4, manifest.chunkLength(0));
+        assertEquals(2, manifest.chunkLength(2));
+    }
+
+    @Test
+    public void missing() throws IOException {
+        byte[] data = "0123456789".getBytes();
+        byte[][] digests = digests(data);
+        ChunkManifest manifest = ChunkManifest.open(target, data.length, CHUNK_SIZE);
+        assertEquals(Arrays.asList(0, 1, 2), manifest.missing(digests));
+
+        write(manifest, data, digests, 1);
+
+        assertEquals(Arrays.asList(0, 2), manifest.missing(digests));
+        assertFalse(manifest.complete());
+    }
+
+    @Test
+    public void changedChunkIsMissing() throws IOException {
+        byte[] data = "0123456789".getBytes();
+        byte[][] digests = digests(data);
+        ChunkManifest manifest = ChunkManifest.open(target, data.length, CHUNK_SIZE);
+        for (int i = 0; i < digests.length; i++) {
+            write(manifest, data, digests, i);
+        }
+
+        // 客户端文件内容变化，摘要不一致的分块需要重新发送
+        byte[] changed = "0123x56789".getBytes();
+
+        assertEquals(Collections.singletonList(1), manifest.missing(digests(changed)));
+    }
+
+    @Test
+    public void resume() throws IOException {
+        byte[] data = "0123456789".getBytes();
+        byte[][] digests = digests(data);
+        ChunkManifest manifest = ChunkManifest.open(target, data.length, CHUNK_SIZE);
+        write(manifest, data, digests, 0);
+        write(manifest, data, digests, 2);
+
+        // 服务端重启后从.manifest恢复
+        ChunkManifest reopened = ChunkManifest.open(target, data.length, CHUNK_SIZE);
+        assertEquals(Collections.singletonList(1), reopened.missing(digests));
+
+        write(reopened, data, digests, 1);
+        assertTrue(reopened.complete());
+        assertArrayEquals(data, Files.readAllBytes(target));
+        assertFalse(Files.exists(directory.resolve("data.bin.manifest")));
+        assertFalse(Files.exists(directory.resolve("data.bin.part")));
+    }
+
+    @Test
+    public void restartWhenSizeChanged() throws IOException {
+        byte[] data = "0123456789".getBytes();
+        byte[][] digests = digests(data);
+        ChunkManifest manifest = ChunkManifest.open(target, data.length, CHUNK_SIZE);
+        write(manifest, data, digests, 0);
+
+        byte[] longer = "0123456789ab".getBytes();
+        ChunkManifest reopened = ChunkManifest.open(target, longer.length, CHUNK_SIZE);
+
+        assertFalse(manifest.matches(longer.length, CHUNK_SIZE));
+        assertEquals(Arrays.asList(0, 1, 2), reopened.missing(digests(longer)));
+    }
+
+    @Test
+    public void checksumMismatch() throws IOException {
+        byte[] data = "0123456789".getBytes();
+        byte[][] digests = digests(data);
+        ChunkManifest manifest = ChunkManifest.open(target, data.length, CHUNK_SIZE);
+        ByteArrayInputStream in = new ByteArrayInputStream("0x23".getBytes());
+
+        assertFalse(manifest.write(0, in, digests[0]));
+        // 不一致的分块也要读完
+        assertEquals(0, in.available());
+        assertEquals(Arrays.asList(0, 1, 2), manifest.missing(digests));
+    }
+
+    @Test
+    public void discard() throws IOException {
+        ChunkManifest manifest = ChunkManifest.open(target, 10, CHUNK_SIZE);
+        assertTrue(Files.exists(directory.resolve("data.bin.part")));
+
+        manifest.discard();
+
+        assertFalse(Files.exists(directory.resolve("data.bin.part")));
+        assertFalse(Files.exists(directory.resolve("data.bin.manifest")));
+    }
+
+    private static byte[][] digests(byte[] data) {
+        byte[][] digests = new byte[ChunkManifest.chunkCount(data.length, CHUNK_SIZE)][];
+        for (int i = 0; i < digests.length; i++) {
+            byte[] chunk = Arrays.copyOfRange(data, i * CHUNK_SIZE, Math.min(data.length, (i + 1) * CHUNK_SIZE));
+            digests[i] = ChunkUploadHandler.sha256(chunk, chunk.length);
+        }
+        return digests;
+    }
+
+    private static void write(ChunkManifest manifest, byte[] data, byte[][] digests, int index) throws IOException {
+        assertTrue(manifest.write(index, new ByteArrayInputStream(data, index * CHUNK_SIZE, manifest.chunkLength(index)), digests[index]));
+    }
+}
@@ -0,0 +1,104 @@
+package jit.edu.paas.commons.socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * 分块上传服务端处理测试
+ * @author jitwxs
+ * @since 2026/10/19 12:30
+ */
+public class ChunkUploadHandlerTest {
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("chunk-upload-");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("data.bin.part"));
+        Files.deleteIfExists(directory.resolve("data.bin.manifest"));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void expire() throws IOException {
+        ChunkUploadHandler handler = new ChunkUploadHandler();
+        DataInputStream reply = status(handler, "u1");
+        assertEquals(FileTransferServer.STATUS_OK, reply.readByte());
+        assertEquals(1, reply.readInt());
+        assertTrue(Files.exists(directory.resolve("data.bin.part")));
+
+        // 未过期时保留
+        assertEquals(0, handler.expire(60000));
+
+        assertEquals(1, handler.expire(-1000));
+        assertFalse(Files.exists(directory.resolve("data.bin.part")));
+        assertFalse(Files.exists(directory.resolve("data.bin.manifest")));
+
+        // 上传ID已失效，后续分块被拒绝
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(ChunkUploadHandler.CMD_CHUNK);
+        out.writeUTF("u1");
+        out.writeInt(0);
+        out.writeInt(4);
+        out.write(new byte[ChunkManifest.DIGEST_LENGTH + 4]);
+        try {
+            handler.handle(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                    new DataOutputStream(new ByteArrayOutputStream()));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("分块不存在"));
+        }
+    }
+
+    @Test
+    public void rejectOverflowChunkCount() throws IOException {
+        // 分块数强转int后为0，不能通过校验
+        long length = ((long) Integer.MAX_VALUE + 1) * ChunkManifest.MIN_CHUNK_SIZE;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(ChunkUploadHandler.CMD_STATUS);
+        out.writeUTF("u2");
+        out.writeUTF(directory.toString());
+        out.writeUTF("data.bin");
+        out.writeLong(length);
+        out.writeInt(ChunkManifest.MIN_CHUNK_SIZE);
+        out.writeInt(0);
+        try {
+            new ChunkUploadHandler().handle(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                    new DataOutputStream(new ByteArrayOutputStream()));
+            fail();
+        } catch (IOException e) {
+            assertEquals("分块参数错误", e.getMessage());
+        }
+        assertFalse(Files.exists(directory.resolve("data.bin.part")));
+    }
+
+    private DataInputStream status(ChunkUploadHandler handler, String uploadId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(ChunkUploadHandler.CMD_STATUS);
+        out.writeUTF(uploadId);
+        out.writeUTF(directory.toString());
+        out.writeUTF("data.bin");
+        out.writeLong(4);
+        out.writeInt(ChunkManifest.MIN_CHUNK_SIZE);
+        out.writeInt(1);
+        out.write(ChunkUploadHandler.sha256("0123".getBytes(), 4));
+
+        ByteArrayOutputStream reply = new ByteArrayOutputStream();
+        handler.handle(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), new DataOutputStream(reply));
+        return new DataInputStream(new ByteArrayInputStream(reply.toByteArray()));
+    }
+}
@@ -0,0 +1,94 @@
+package jit.edu.paas.commons.websocket;
+
+import org.junit.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 容器终端会话UTF-8分帧测试
+ * @author jitwxs
+ * @since 2026/10/19 12:40
+ */
+public class ExecSessionTest {
+    @Test
+    public void ascii() {
+        byte[] bytes = "ls -al\r\n".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(bytes.length, ExecSession.completeLength(bytes, bytes.length));
+        assertEquals(0, ExecSession.completeLength(bytes, 0));
+    }
+
+    @Test
+    public void completeMultiByte() {
+        // 2、3、4字节字符结尾
+        for (String text : new String[]{"aé", "a中", "a😀"}) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            assertEquals(text, bytes.length, ExecSession.completeLength(bytes, bytes.length));
+        }
+    }
+
+    @Test
+    public void truncatedMultiByte() {
+        for (String text : new String[]{"é", "中", "😀"}) {
+            byte[] bytes = ("ab" + text).getBytes(StandardCharsets.UTF_8);
+            // 截断在字符内部的每个位置，都只保留前面完整的部分
+            for (int length = 3; length < bytes.length; length++) {
+                assertEquals(text + "@" + length, 2, ExecSession.completeLength(bytes, length));
+            }
+        }
+    }
+
+    @Test
+    public void lengthLessThanArray() {
+        // 缓冲区中length之后的数据不参与计算
+        byte[] bytes = Arrays.copyOf("a中".getBytes(StandardCharsets.UTF_8), 16);
+
+        assertEquals(1, ExecSession.completeLength(bytes, 2));
+        assertEquals(4, ExecSession.completeLength(bytes, 4));
+    }
+
+    @Test
+    public void invalidBytes() {
+        // 只有后续字节，找不到首字节时原样发送
+        byte[] continuation = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80};
+        assertEquals(4, ExecSession.completeLength(continuation, 4));
+
+        // 单独的首字节视为不完整
+        byte[] lead = {'a', (byte) 0xE4};
+        assertEquals(1, ExecSession.completeLength(lead, 2));
+    }
+
+    @Test
+    public void upgradedAfterFullHeader() {
+        ExecSession session = session();
+
+        assertTrue(session.onRead(ascii("HTTP/1.1 101 UPGRADED\r\nContent-Type: application/vnd.docker.raw-stream\r\n"), 0));
+        assertFalse(session.upgraded.isDone());
+
+        assertTrue(session.onRead(ascii("\r\n"), 0));
+        assertTrue(session.upgraded.isDone());
+        assertFalse(session.upgraded.isCompletedExceptionally());
+    }
+
+    @Test
+    public void notUpgradedOnError() {
+        ExecSession session = session();
+
+        assertFalse(session.onRead(ascii("HTTP/1.1 404 Not Found\r\n\r\n"), 0));
+        assertFalse(session.upgraded.isDone());
+    }
+
+    private static ExecSession session() {
+        return new ExecSession(mock(WebSocketSession.class), "c1", null, 1024, 1024);
+    }
+
+    private static ByteBuffer ascii(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,98 @@
+package jit.edu.paas.commons.websocket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 容器终端录像清理测试
+ * @author jitwxs
+ * @since 2026/10/19 15:20
+ */
+public class TerminalRecorderTest {
+    private static final long NOW = System.currentTimeMillis();
+
+    private Path directory;
+    private TerminalRecorder recorder;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("terminal-record-");
+        recorder = new TerminalRecorder();
+        ReflectionTestUtils.setField(recorder, "path", directory.toString());
+        ReflectionTestUtils.setField(recorder, "retentionDays", 7);
+        ReflectionTestUtils.setField(recorder, "maxSize", Long.MAX_VALUE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> stream = Files.walk(directory)) {
+            stream.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void cleanExpired() throws IOException {
+        record("c1", "1-a", 10, 8);
+        record("c1", "2-b", 10, 1);
+
+        assertEquals(1, recorder.clean(NOW));
+        assertFalse(exists("c1", "1-a"));
+        assertTrue(exists("c1", "2-b"));
+    }
+
+    @Test
+    public void cleanOldestWhenOverSize() throws IOException {
+        record("c1", "1-a", 100, 3);
+        record("c2", "2-b", 100, 2);
+        record("c1", "3-c", 100, 1);
+        // 每个录像200字节，保留最新的两个
+        ReflectionTestUtils.setField(recorder, "maxSize", 400L);
+
+        assertEquals(1, recorder.clean(NOW));
+        assertFalse(exists("c1", "1-a"));
+        assertTrue(exists("c2", "2-b"));
+        assertTrue(exists("c1", "3-c"));
+    }
+
+    @Test
+    public void removeEmptyDirectory() throws IOException {
+        record("c1", "1-a", 10, 8);
+        record("c2", "2-b", 10, 1);
+
+        recorder.clean(NOW);
+
+        assertFalse(Files.exists(directory.resolve("c1")));
+        assertTrue(Files.exists(directory.resolve("c2")));
+    }
+
+    /**
+     * 生成录像文件和索引文件
+     * @param days 距今天数
+     */
+    private void record(String containerId, String recordId, int size, int days) throws IOException {
+        Path dir = Files.createDirectories(directory.resolve(containerId));
+        long modified = NOW - TimeUnit.DAYS.toMillis(days);
+        for (String suffix : new String[]{TerminalRecording.INDEX_SUFFIX, TerminalRecording.DATA_SUFFIX}) {
+            File file = Files.write(dir.resolve(recordId + suffix), new byte[size]).toFile();
+            assertTrue(file.setLastModified(modified));
+        }
+    }
+
+    private boolean exists(String containerId, String recordId) {
+        Path dir = directory.resolve(containerId);
+        return Files.exists(dir.resolve(recordId + TerminalRecording.INDEX_SUFFIX))
+                || Files.exists(dir.resolve(recordId + TerminalRecording.DATA_SUFFIX));
+    }
+}
@@ -0,0 +1,163 @@
+package jit.edu.paas.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.ObjectMapperProvider;
+import com.spotify.docker.client.messages.ContainerConfig;
+import com.spotify.docker.client.messages.Image;
+import com.spotify.docker.client.messages.ImageInfo;
+import jit.edu.paas.commons.cache.TwoLevelCache;
+import jit.edu.paas.commons.cache.TwoLevelCacheManager;
+import jit.edu.paas.domain.entity.SysImage;
+import jit.edu.paas.domain.entity.SysLog;
+import jit.edu.paas.domain.enums.ResultEnum;
+import jit.edu.paas.domain.vo.ResultVO;
+import jit.edu.paas.mapper.SysImageMapper;
+import jit.edu.paas.service.SysLogService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * 镜像同步差集测试，数据库和Docker使用Mock
+ * @author jitwxs
+ * @since 2026/10/19 12:50
+ */
+public class SysImageServiceImplTest {
+    private SysImageServiceImpl imageService;
+    private SysImageMapper imageMapper;
+    private DockerClient dockerClient;
+
+    @Before
+    public void setUp() throws Exception {
+        imageMapper = Mockito.mock(SysImageMapper.class);
+        dockerClient = Mockito.mock(DockerClient.class);
+        ContainerConfig config = Mockito.mock(ContainerConfig.class);
+        Mockito.when(config.cmd()).thenReturn(ImmutableList.of("nginx"));
+        ImageInfo info = Mockito.mock(ImageInfo.class);
+        Mockito.when(info.containerConfig()).thenReturn(config);
+        Mockito.when(dockerClient.inspectImage(ArgumentMatchers.anyString())).thenReturn(info);
+
+        TwoLevelCacheManager cacheManager = Mockito.mock(TwoLevelCacheManager.class);
+        Mockito.when(cacheManager.getCache(ArgumentMatchers.anyString(), ArgumentMatchers.anyBoolean()))
+                .thenReturn(Mockito.mock(TwoLevelCache.class));
+
+        imageService = new SysImageServiceImpl();
+        ReflectionTestUtils.setField(imageService, "imageMapper", imageMapper);
+        ReflectionTestUtils.setField(imageService, "dockerClient", dockerClient);
+        ReflectionTestUtils.setField(imageService, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(imageService, "key", "local_image");
+        ReflectionTestUtils.setField(imageService, "inspectParallel", 1);
+        ReflectionTestUtils.setField(imageService, "taskExecutor", (Executor) Runnable::run);
+        imageService.init();
+    }
+
+    @Test
+    public void importRejectedWhenBusy() {
+        SysLogService sysLogService = Mockito.mock(SysLogService.class);
+        ReflectionTestUtils.setField(imageService, "sysLogService", sysLogService);
+        ReflectionTestUtils.setField(imageService, "importPipeSize", 1024);
+        ReflectionTestUtils.setField(imageService, "importExecutor", (Executor) task -> {
+            throw new RejectedExecutionException();
+        });
+        ByteArrayInputStream stream = new ByteArrayInputStream(new byte[4096]);
+
+        ResultVO resultVO = imageService.importImageStream(stream, 4096, "repo/a:latest", "u1",
+                new MockHttpServletRequest());
+
+        assertEquals(ResultEnum.IMPORT_ERROR.getCode(), resultVO.getCode().intValue());
+        // 没有读取上传的文件，也没有保存日志
+        assertEquals(4096, stream.available());
+        Mockito.verify(sysLogService, Mockito.never()).saveLog(ArgumentMatchers.any(SysLog.class), ArgumentMatchers.any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void sync() throws Exception {
+        Mockito.when(imageMapper.listIdAndFullName()).thenReturn(Arrays.asList(
+                dbImage("1", "repo/a:latest"),
+                dbImage("2", "repo/b:latest"),
+                // 完整名重复
+                dbImage("3", "repo/a:latest"),
+                // 本地已不存在
+                dbImage("4", "repo/gone:latest")));
+        Mockito.when(dockerClient.listImages(ArgumentMatchers.<DockerClient.ListImagesParam>any())).thenReturn(Arrays.asList(
+                image(1, "repo/a:latest", "repo/c:latest"),
+                // 同一Tag出现两次只新增一次
+                image(2, "repo/b:latest", "repo/d:v1", "repo/d:v1"),
+                image(3),
+                // 无法解析的Tag
+                image(4, "a/b/c/d:latest")));
+
+        ResultVO resultVO = imageService.sync();
+
+        assertEquals(ResultEnum.OK.getCode(), resultVO.getCode().intValue());
+        Map<String, Integer> result = (Map<String, Integer>) resultVO.getData();
+        assertEquals(Integer.valueOf(2), result.get("add"));
+        assertEquals(Integer.valueOf(2), result.get("delete"));
+        assertEquals(Integer.valueOf(1), result.get("error"));
+
+        ArgumentCaptor<List<SysImage>> added = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(imageMapper).batchInsert(added.capture());
+        assertEquals(new HashSet<>(Arrays.asList("repo/c:latest", "repo/d:v1")),
+                added.getValue().stream().map(SysImage::getFullName).collect(Collectors.toSet()));
+        for (SysImage sysImage : added.getValue()) {
+            assertNotNull(sysImage.getId());
+            assertEquals("[\"nginx\"]", sysImage.getCmd());
+        }
+
+        ArgumentCaptor<List<String>> deleted = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(imageMapper).deleteBatchIds(deleted.capture());
+        assertEquals(new HashSet<>(Arrays.asList("3", "4")), new HashSet<>(deleted.getValue()));
+
+        // 每个新增镜像只查询一次CMD
+        Mockito.verify(dockerClient, Mockito.times(2)).inspectImage(ArgumentMatchers.anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void reconcileSkipsUnchanged() throws Exception {
+        Mockito.when(imageMapper.listIdAndFullName()).thenReturn(Collections.singletonList(dbImage("1", "repo/a:latest")));
+        Mockito.when(dockerClient.listImages(ArgumentMatchers.<DockerClient.ListImagesParam>any()))
+                .thenReturn(Collections.singletonList(image(1, "repo/a:latest")));
+
+        imageService.reconcile();
+        ResultVO resultVO = imageService.reconcile();
+
+        assertEquals(Integer.valueOf(1), ((Map<String, Integer>) resultVO.getData()).get("skip"));
+        Mockito.verify(imageMapper, Mockito.times(1)).listIdAndFullName();
+        Mockito.verify(imageMapper, Mockito.never()).batchInsert(ArgumentMatchers.any());
+    }
+
+    private static SysImage dbImage(String id, String fullName) {
+        SysImage sysImage = new SysImage();
+        sysImage.setId(id);
+        sysImage.setFullName(fullName);
+        return sysImage;
+    }
+
+    private static Image image(int id, String... tags) {
+        Map<String, Object> map = new HashMap<>(16);
+        map.put("Id", String.format("sha256:%064x", id));
+        map.put("ParentId", "");
+        map.put("Created", "1539856831");
+        map.put("RepoTags", tags.length == 0 ? null : Arrays.asList(tags));
+        map.put("Size", 1024L);
+        map.put("VirtualSize", 1024L);
+        ObjectMapper objectMapper = new ObjectMapperProvider().getContext(Image.class);
+        return objectMapper.convertValue(map, Image.class);
+    }
+}